@@ -1,10 +1,16 @@
 package com.eci.iagen.api_gateway.client;
 
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
 import com.eci.iagen.api_gateway.dto.EvaluationDTO;
 import com.eci.iagen.api_gateway.dto.SubmissionDTO;
-import lombok.RequiredArgsConstructor;
+import com.eci.iagen.api_gateway.dto.request.CodeAnalysisBatchRequest;
+import com.eci.iagen.api_gateway.dto.response.CodeAnalysisBatchResponse;
+import com.eci.iagen.api_gateway.resilience.DownstreamCallAbortedException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealthRegistry;
+import com.eci.iagen.api_gateway.resilience.MicroBatcher;
+import io.micrometer.core.instrument.MeterRegistry;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -12,41 +18,71 @@ import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class CodeAnalysisClient {
 
+    private static final String LLM_PATH = "/llm-analysis";
+    private static final String CHECKSTYLE_PATH = "/checkstyle-analysis";
+
     private final RestTemplate restTemplate;
+    private final WebClient downstreamWebClient;
+    private final DownstreamGuard downstreamGuard;
+    private final DownstreamHealthRegistry healthRegistry;
+    private final DownstreamProperties.Batch batch;
+    // Agrupan las llamadas individuales concurrentes cuando downstream.services.code-analysis.batch.enabled
+    private final MicroBatcher<SubmissionDTO, EvaluationDTO> llmBatcher;
+    private final MicroBatcher<SubmissionDTO, EvaluationDTO> checkstyleBatcher;
 
-    @Value("${code.analysis.service.url}")
-    private String codeAnalysisServiceUrl;
+    public CodeAnalysisClient(RestTemplate restTemplate, WebClient downstreamWebClient,
+            DownstreamGuard downstreamGuard, DownstreamHealthRegistry healthRegistry,
+            DownstreamProperties downstreamProperties, MeterRegistry meterRegistry) {
+        this.restTemplate = restTemplate;
+        this.downstreamWebClient = downstreamWebClient;
+        this.downstreamGuard = downstreamGuard;
+        this.healthRegistry = healthRegistry;
+        this.batch = downstreamProperties.service(Downstream.CODE_ANALYSIS).getBatch();
+        this.llmBatcher = new MicroBatcher<>("llm-analysis", batch.getMaxSize(), batch.getLinger(),
+                submissions -> batchOutcomes(LLM_PATH, "LLM", submissions), meterRegistry);
+        this.checkstyleBatcher = new MicroBatcher<>("checkstyle-analysis", batch.getMaxSize(), batch.getLinger(),
+                submissions -> batchOutcomes(CHECKSTYLE_PATH, "Checkstyle", submissions), meterRegistry);
+    }
 
     /**
      * Llama al endpoint de análisis LLM
      */
     public EvaluationDTO performLLMAnalysis(SubmissionDTO submissionDTO) {
-        String url = codeAnalysisServiceUrl + "/llm-analysis";
+        String path = LLM_PATH;
         
-        log.info("Calling LLM analysis service at: {}", url);
+        log.info("Calling LLM analysis service at: {}", path);
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         
-        HttpEntity<SubmissionDTO> request = new HttpEntity<>(submissionDTO, headers);
-        
         try {
-            ResponseEntity<EvaluationDTO> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                request,
-                EvaluationDTO.class
-            );
+            ResponseEntity<EvaluationDTO> response = downstreamGuard.callWithIdempotencyKey(Downstream.CODE_ANALYSIS,
+                headers,
+                baseUrl -> restTemplate.exchange(
+                    baseUrl + path,
+                    HttpMethod.POST,
+                    new HttpEntity<>(submissionDTO, headers),
+                    EvaluationDTO.class
+                ));
             
             log.info("LLM analysis completed successfully for submission {}", submissionDTO.getId());
             return response.getBody();
             
+        } catch (DownstreamCallAbortedException e) {
+            log.warn("LLM analysis rejected for submission {}: {}", submissionDTO.getId(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error calling LLM analysis service for submission {}: {}", 
                      submissionDTO.getId(), e.getMessage(), e);
@@ -58,26 +94,29 @@ public class CodeAnalysisClient {
      * Llama al endpoint de análisis Checkstyle
      */
     public EvaluationDTO performCheckstyleAnalysis(SubmissionDTO submissionDTO) {
-        String url = codeAnalysisServiceUrl + "/checkstyle-analysis";
+        String path = CHECKSTYLE_PATH;
         
-        log.info("Calling Checkstyle analysis service at: {}", url);
+        log.info("Calling Checkstyle analysis service at: {}", path);
         
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
         
-        HttpEntity<SubmissionDTO> request = new HttpEntity<>(submissionDTO, headers);
-        
         try {
-            ResponseEntity<EvaluationDTO> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                request,
-                EvaluationDTO.class
-            );
+            ResponseEntity<EvaluationDTO> response = downstreamGuard.callWithIdempotencyKey(Downstream.CODE_ANALYSIS,
+                headers,
+                baseUrl -> restTemplate.exchange(
+                    baseUrl + path,
+                    HttpMethod.POST,
+                    new HttpEntity<>(submissionDTO, headers),
+                    EvaluationDTO.class
+                ));
             
             log.info("Checkstyle analysis completed successfully for submission {}", submissionDTO.getId());
             return response.getBody();
             
+        } catch (DownstreamCallAbortedException e) {
+            log.warn("Checkstyle analysis rejected for submission {}: {}", submissionDTO.getId(), e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error calling Checkstyle analysis service for submission {}: {}", 
                      submissionDTO.getId(), e.getMessage(), e);
@@ -86,17 +125,161 @@ public class CodeAnalysisClient {
     }
 
     /**
-     * Verifica si el servicio de análisis de código está disponible
+     * Versión no bloqueante de performLLMAnalysis
      */
-    public boolean isServiceAvailable() {
-        String url = codeAnalysisServiceUrl + "/health";
+    public CompletableFuture<EvaluationDTO> performLLMAnalysisNonBlocking(SubmissionDTO submissionDTO) {
+        if (batch.isEnabled()) {
+            return llmBatcher.submit(submissionDTO);
+        }
+        return analyzeNonBlocking(LLM_PATH, "LLM", submissionDTO);
+    }
 
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            return response.getStatusCode().is2xxSuccessful();
-        } catch (Exception e) {
-            log.warn("Code analysis service is not available: {}", e.getMessage());
-            return false;
+    /**
+     * Versión no bloqueante de performCheckstyleAnalysis
+     */
+    public CompletableFuture<EvaluationDTO> performCheckstyleAnalysisNonBlocking(SubmissionDTO submissionDTO) {
+        if (batch.isEnabled()) {
+            return checkstyleBatcher.submit(submissionDTO);
+        }
+        return analyzeNonBlocking(CHECKSTYLE_PATH, "Checkstyle", submissionDTO);
+    }
+
+    /**
+     * Análisis LLM de varias entregas: envía peticiones de como mucho
+     * downstream.services.code-analysis.batch.max-size entregas a /llm-analysis/batch
+     * y devuelve un resultado por entrega, con la evaluación o el error
+     */
+    public CompletableFuture<List<CodeAnalysisBatchResponse.Item>> performLLMAnalysisBatch(
+            List<SubmissionDTO> submissions) {
+        return analyzeBatch(LLM_PATH, "LLM", submissions);
+    }
+
+    /**
+     * Análisis Checkstyle de varias entregas, como performLLMAnalysisBatch
+     */
+    public CompletableFuture<List<CodeAnalysisBatchResponse.Item>> performCheckstyleAnalysisBatch(
+            List<SubmissionDTO> submissions) {
+        return analyzeBatch(CHECKSTYLE_PATH, "Checkstyle", submissions);
+    }
+
+    private CompletableFuture<List<CodeAnalysisBatchResponse.Item>> analyzeBatch(String path, String analysis,
+            List<SubmissionDTO> submissions) {
+        int maxSize = Math.max(1, batch.getMaxSize());
+        List<CompletableFuture<List<CodeAnalysisBatchResponse.Item>>> requests = new ArrayList<>();
+        for (int from = 0; from < submissions.size(); from += maxSize) {
+            List<SubmissionDTO> chunk = submissions.subList(from, Math.min(from + maxSize, submissions.size()));
+            requests.add(batchOutcomes(path, analysis, chunk).thenApply(outcomes -> {
+                List<CodeAnalysisBatchResponse.Item> items = new ArrayList<>(chunk.size());
+                for (int i = 0; i < chunk.size(); i++) {
+                    MicroBatcher.Outcome<EvaluationDTO> outcome = outcomes.get(i);
+                    items.add(new CodeAnalysisBatchResponse.Item(chunk.get(i).getId(), outcome.value(),
+                            outcome.error() != null ? outcome.error().getMessage() : null));
+                }
+                return items;
+            }));
+        }
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> requests.stream().flatMap(request -> request.join().stream()).toList());
+    }
+
+    /**
+     * Una petición a {path}/batch; el resultado de cada entrega, en el orden de la lista
+     */
+    private CompletableFuture<List<MicroBatcher.Outcome<EvaluationDTO>>> batchOutcomes(String path, String analysis,
+            List<SubmissionDTO> submissions) {
+        log.info("Calling {} analysis service at: {}/batch ({} submissions)", analysis, path, submissions.size());
+
+        HttpHeaders headers = new HttpHeaders();
+        return downstreamGuard.callWithIdempotencyKeyAsync(Downstream.CODE_ANALYSIS, headers,
+                baseUrl -> downstreamWebClient.post()
+                        .uri(baseUrl + path + "/batch")
+                        .headers(requestHeaders -> requestHeaders.addAll(headers))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new CodeAnalysisBatchRequest(submissions))
+                        .retrieve()
+                        .bodyToMono(CodeAnalysisBatchResponse.class)
+                        .toFuture())
+                .handle((response, error) -> {
+                    if (error != null) {
+                        Throwable cause = DownstreamGuard.unwrap(error);
+                        if (cause instanceof DownstreamCallAbortedException aborted) {
+                            log.warn("{} batch analysis rejected: {}", analysis, cause.getMessage());
+                            throw aborted;
+                        }
+                        log.error("Error calling {} batch analysis service: {}", analysis, cause.getMessage(), cause);
+                        throw new RuntimeException("Error performing " + analysis + " analysis: "
+                                + cause.getMessage(), cause);
+                    }
+                    return matchResults(analysis, submissions, response);
+                });
+    }
+
+    // El servicio puede devolver los resultados en cualquier orden: se asocian por submissionId
+    private static List<MicroBatcher.Outcome<EvaluationDTO>> matchResults(String analysis,
+            List<SubmissionDTO> submissions, CodeAnalysisBatchResponse response) {
+        Map<Long, CodeAnalysisBatchResponse.Item> byId = new HashMap<>();
+        if (response != null && response.getResults() != null) {
+            for (CodeAnalysisBatchResponse.Item item : response.getResults()) {
+                byId.putIfAbsent(item.getSubmissionId(), item);
+            }
         }
+        List<MicroBatcher.Outcome<EvaluationDTO>> outcomes = new ArrayList<>(submissions.size());
+        int failed = 0;
+        for (SubmissionDTO submission : submissions) {
+            CodeAnalysisBatchResponse.Item item = byId.get(submission.getId());
+            String error = item == null ? "no result returned"
+                    : item.getError() != null ? item.getError()
+                    : item.getEvaluation() == null ? "empty result" : null;
+            if (error == null) {
+                outcomes.add(MicroBatcher.Outcome.success(item.getEvaluation()));
+            } else {
+                failed++;
+                outcomes.add(MicroBatcher.Outcome.failure(
+                        new RuntimeException("Error performing " + analysis + " analysis: " + error)));
+            }
+        }
+        log.info("{} batch analysis completed: {} succeeded, {} failed", analysis, submissions.size() - failed,
+                failed);
+        return outcomes;
+    }
+
+    private CompletableFuture<EvaluationDTO> analyzeNonBlocking(String path, String analysis,
+            SubmissionDTO submissionDTO) {
+        log.info("Calling {} analysis service (non-blocking) at: {}", analysis, path);
+
+        HttpHeaders headers = new HttpHeaders();
+        return downstreamGuard.callWithIdempotencyKeyAsync(Downstream.CODE_ANALYSIS, headers,
+                baseUrl -> downstreamWebClient.post()
+                        .uri(baseUrl + path)
+                        .headers(requestHeaders -> requestHeaders.addAll(headers))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(submissionDTO)
+                        .retrieve()
+                        .bodyToMono(EvaluationDTO.class)
+                        .toFuture())
+                .handle((evaluation, error) -> {
+                    if (error == null) {
+                        log.info("{} analysis completed successfully for submission {}", analysis,
+                                submissionDTO.getId());
+                        return evaluation;
+                    }
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (cause instanceof DownstreamCallAbortedException aborted) {
+                        log.warn("{} analysis rejected for submission {}: {}", analysis, submissionDTO.getId(),
+                                cause.getMessage());
+                        throw aborted;
+                    }
+                    log.error("Error calling {} analysis service for submission {}: {}", analysis,
+                            submissionDTO.getId(), cause.getMessage(), cause);
+                    throw new RuntimeException("Error performing " + analysis + " analysis: " + cause.getMessage(),
+                            cause);
+                });
+    }
+
+    /**
+     * Verifica si el servicio de análisis de código está disponible
+     */
+    public boolean isServiceAvailable() {
+        return healthRegistry.currentHealth(Downstream.CODE_ANALYSIS).isUp();
     }
 }
@@ -0,0 +1,23 @@
+package com.eci.iagen.api_gateway.client;
+
+/**
+ * Servicios externos a los que el gateway realiza llamadas HTTP.
+ * La clave coincide con la usada en las propiedades downstream.services.*
+ */
+public enum Downstream {
+    JPLAG("jplag"),
+    CODE_ANALYSIS("code-analysis"),
+    SCHEDULE_COMPLIANCE("schedule-compliance"),
+    TEAM_FEEDBACK("team-feedback"),
+    GITHUB("github");
+
+    private final String key;
+
+    Downstream(String key) {
+        this.key = key;
+    }
+
+    public String getKey() {
+        return key;
+    }
+}
@@ -0,0 +1,390 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.net.URI;
+import java.time.LocalDateTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.eci.iagen.api_gateway.config.GitHubProperties;
+import com.eci.iagen.api_gateway.dto.CommitDTO;
+import com.eci.iagen.api_gateway.resilience.Deadline;
+import com.eci.iagen.api_gateway.resilience.DownstreamCallAbortedException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Cliente de la API de GitHub. El historial de commits se pide paginado
+ * (github.commits.per-page) y acotado con since/until a la ventana de la tarea;
+ * cuando la cabecera Link indica cuántas páginas hay, las restantes se descargan
+ * en paralelo, y si no trae rel="last" se siguen los enlaces rel="next".
+ * Las respuestas se guardan en {@link GitHubResponseCache} y se repiten como
+ * peticiones condicionales; cada petición usa un token de {@link GitHubTokenPool}.
+ * Con github.mirror.enabled el historial se calcula desde {@link GitRepositoryMirror}.
+ */
+@Component
+@RequiredArgsConstructor
+@Slf4j
+public class GitHubClient {
+
+    private static final Pattern LINK = Pattern.compile("<([^>]+)>\\s*;\\s*rel=\"([a-z]+)\"");
+    private static final Pattern PAGE_PARAM = Pattern.compile("[?&]page=(\\d+)");
+
+    private final WebClient downstreamWebClient;
+    private final DownstreamGuard downstreamGuard;
+    private final GitHubProperties properties;
+    private final GitHubResponseCache responseCache;
+    private final GitHubTokenPool tokenPool;
+    private final GitRepositoryMirror repositoryMirror;
+    private final ObjectMapper objectMapper;
+    private final MeterRegistry meterRegistry;
+
+    /**
+     * Commits de la entrega entre el inicio de la tarea y la fecha límite (o la
+     * entrega, si es posterior), con los márgenes configurados. Incluye además el
+     * último commit posterior a la ventana, si existe, para no ocultar un retraso.
+     */
+    public List<CommitDTO> fetchSubmissionCommits(String repositoryUrl, LocalDateTime startDate,
+            LocalDateTime dueDate, LocalDateTime submittedAt) {
+        try {
+            return fetchSubmissionCommitsNonBlocking(repositoryUrl, startDate, dueDate, submittedAt).join();
+        } catch (CompletionException e) {
+            Throwable cause = DownstreamGuard.unwrap(e);
+            throw cause instanceof RuntimeException runtime ? runtime : new RuntimeException(cause);
+        }
+    }
+
+    /**
+     * Versión no bloqueante de fetchSubmissionCommits
+     */
+    public CompletableFuture<List<CommitDTO>> fetchSubmissionCommitsNonBlocking(String repositoryUrl,
+            LocalDateTime startDate, LocalDateTime dueDate, LocalDateTime submittedAt) {
+        CommitWindow window = submissionWindow(startDate, dueDate, submittedAt);
+        return fetchCommitsNonBlocking(repositoryUrl, window.since(), window.until());
+    }
+
+    /**
+     * Ventana del historial de una entrega: desde el inicio de la tarea hasta la
+     * fecha límite (o la entrega, si es posterior), con los márgenes configurados
+     */
+    public CommitWindow submissionWindow(LocalDateTime startDate, LocalDateTime dueDate, LocalDateTime submittedAt) {
+        GitHubProperties.Commits settings = properties.getCommits();
+        LocalDateTime since = startDate != null ? startDate.minus(settings.getHistoryGrace()) : null;
+        LocalDateTime end = dueDate;
+        if (end == null || (submittedAt != null && submittedAt.isAfter(end))) {
+            end = submittedAt;
+        }
+        LocalDateTime until = end != null ? end.plus(settings.getLateGrace()) : null;
+        return new CommitWindow(since, until);
+    }
+
+    /**
+     * Commits del repositorio entre since y until (ambos opcionales, en UTC). Si
+     * las réplicas locales están activas se calculan desde la réplica y la API
+     * queda como alternativa cuando no se puede clonar o actualizar.
+     */
+    public CompletableFuture<List<CommitDTO>> fetchCommitsNonBlocking(String repositoryUrl, LocalDateTime since,
+            LocalDateTime until) {
+        if (!repositoryMirror.isEnabled()) {
+            return fetchCommitsFromApi(repositoryUrl, since, until);
+        }
+        return repositoryMirror.commitsAsync(repositoryUrl, since, until)
+                .exceptionallyCompose(Deadline.propagate(error -> {
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (cause instanceof IllegalArgumentException) {
+                        return CompletableFuture.failedFuture(cause);
+                    }
+                    log.warn("Repository mirror failed for {}, using the GitHub API: {}", repositoryUrl,
+                            cause.getMessage());
+                    return fetchCommitsFromApi(repositoryUrl, since, until);
+                }));
+    }
+
+    private CompletableFuture<List<CommitDTO>> fetchCommitsFromApi(String repositoryUrl, LocalDateTime since,
+            LocalDateTime until) {
+        String commitsPath;
+        try {
+            commitsPath = repositoryPath(repositoryUrl) + "/commits";
+        } catch (IllegalArgumentException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+        StringBuilder query = new StringBuilder("?per_page=").append(properties.getCommits().getPerPage());
+        if (since != null) {
+            query.append("&since=").append(queryDate(since));
+        }
+        if (until != null) {
+            query.append("&until=").append(queryDate(until));
+        }
+        String pageQuery = commitsPath + query;
+
+        CompletableFuture<List<CommitDTO>> inWindow = fetchPage(pageQuery + "&page=1")
+                // Esta etapa corre en un hilo de Reactor Netty: se le pasa el deadline de la petición
+                .thenCompose(Deadline.propagate(first -> remainingPages(repositoryUrl, pageQuery, first)));
+        CompletableFuture<List<CommitDTO>> afterWindow = until != null
+                ? fetchPage(commitsPath + "?per_page=1&since=" + queryDate(until)).thenApply(Page::commits)
+                : CompletableFuture.completedFuture(List.of());
+
+        return inWindow.thenCombine(afterWindow, GitHubClient::merge)
+                .handle((commits, error) -> {
+                    if (error == null) {
+                        log.info("Fetched {} commits from GitHub for {}", commits.size(), repositoryUrl);
+                        return commits;
+                    }
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (cause instanceof DownstreamCallAbortedException aborted) {
+                        throw aborted;
+                    }
+                    log.error("Error fetching commits from GitHub for {}: {}", repositoryUrl, cause.getMessage());
+                    throw new RuntimeException("Error fetching commits from GitHub: " + cause.getMessage(), cause);
+                });
+    }
+
+    private CompletableFuture<List<CommitDTO>> remainingPages(String repositoryUrl, String pageQuery, Page first) {
+        int maxPages = Math.max(1, properties.getCommits().getMaxPages());
+        List<CommitDTO> commits = new ArrayList<>(first.commits());
+        if (first.lastPage() <= 1) {
+            return followNext(first, commits, 1, maxPages);
+        }
+
+        int lastPage = Math.min(first.lastPage(), maxPages);
+        if (first.lastPage() > maxPages) {
+            log.warn("Commit history of {} has {} pages, only the first {} are fetched", repositoryUrl,
+                    first.lastPage(), maxPages);
+        }
+        // Las páginas que se piden cuando termina otra se suscriben en hilos de Reactor Netty
+        Deadline deadline = Deadline.current();
+        return Flux.range(2, lastPage - 1)
+                .flatMapSequential(page -> Mono.fromFuture(() -> Deadline.callWith(deadline,
+                        () -> fetchPage(pageQuery + "&page=" + page))),
+                        Math.max(1, properties.getCommits().getPageConcurrency()))
+                .concatMapIterable(Page::commits)
+                .collectList()
+                .map(rest -> {
+                    commits.addAll(rest);
+                    return commits;
+                })
+                .toFuture();
+    }
+
+    private CompletableFuture<List<CommitDTO>> followNext(Page page, List<CommitDTO> commits, int fetched,
+            int maxPages) {
+        if (page.next() == null || fetched >= maxPages) {
+            return CompletableFuture.completedFuture(commits);
+        }
+        return fetchPage(page.next())
+                .thenCompose(Deadline.propagate(next -> {
+                    commits.addAll(next.commits());
+                    return followNext(next, commits, fetched + 1, maxPages);
+                }));
+    }
+
+    private CompletableFuture<Page> fetchPage(String pathAndQuery) {
+        return fetchPage(pathAndQuery, 1).thenApply(this::parsePage);
+    }
+
+    /**
+     * Pide una página con un token del pool; si GitHub la rechaza por límite de
+     * peticiones se repite con otro token (o tras el reinicio de la cuota)
+     */
+    private CompletableFuture<GitHubResponseCache.CachedResponse> fetchPage(String pathAndQuery, int attempt) {
+        return tokenPool.acquire()
+                .thenCompose(Deadline.propagate(token -> requestPage(pathAndQuery, token)))
+                .exceptionallyCompose(Deadline.propagate(error -> {
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (GitHubTokenPool.isRateLimited(cause) && attempt <= tokenPool.size()) {
+                        log.warn("GitHub rate limit hit for {}, retrying with another token", pathAndQuery);
+                        return fetchPage(pathAndQuery, attempt + 1);
+                    }
+                    return CompletableFuture.failedFuture(cause);
+                }));
+    }
+
+    /**
+     * Si hay una respuesta guardada se pide de forma condicional y un 304 (que
+     * GitHub no descuenta del límite) se sirve desde la caché
+     */
+    private CompletableFuture<GitHubResponseCache.CachedResponse> requestPage(String pathAndQuery,
+            GitHubTokenPool.Token token) {
+        boolean caching = properties.getCache().isEnabled();
+        return downstreamGuard.callIdempotentAsync(Downstream.GITHUB, baseUrl -> {
+            GitHubResponseCache.CachedResponse cached = caching ? responseCache.get(pathAndQuery) : null;
+            return downstreamWebClient.get()
+                    .uri(URI.create(baseUrl + pathAndQuery))
+                    .accept(MediaType.APPLICATION_JSON)
+                    .headers(headers -> {
+                        if (token.getValue() != null) {
+                            headers.setBearerAuth(token.getValue());
+                        }
+                        if (cached != null && cached.etag() != null) {
+                            headers.setIfNoneMatch(cached.etag());
+                        } else if (cached != null && cached.lastModified() != null) {
+                            headers.set(HttpHeaders.IF_MODIFIED_SINCE, cached.lastModified());
+                        }
+                    })
+                    .retrieve()
+                    .toEntity(String.class)
+                    .toFuture()
+                    .whenComplete((response, error) -> tokenPool.onResponse(token, response != null
+                            ? response.getHeaders()
+                            : error instanceof WebClientResponseException e ? e.getHeaders() : null))
+                    .thenApply(response -> resolve(pathAndQuery, cached, response, caching));
+        });
+    }
+
+    private GitHubResponseCache.CachedResponse resolve(String key, GitHubResponseCache.CachedResponse cached,
+            ResponseEntity<String> response, boolean caching) {
+        if (response.getStatusCode().value() == HttpStatus.NOT_MODIFIED.value() && cached != null) {
+            countCacheResult("not_modified");
+            return cached;
+        }
+        HttpHeaders headers = response.getHeaders();
+        GitHubResponseCache.CachedResponse fresh = new GitHubResponseCache.CachedResponse(key,
+                headers.getETag(), headers.getFirst(HttpHeaders.LAST_MODIFIED), headers.getFirst(HttpHeaders.LINK),
+                response.getBody());
+        if (caching) {
+            countCacheResult(cached == null ? "miss" : "modified");
+            responseCache.put(fresh);
+        }
+        return fresh;
+    }
+
+    private void countCacheResult(String result) {
+        meterRegistry.counter("gateway.github.cache.requests", "result", result).increment();
+    }
+
+    private Page parsePage(GitHubResponseCache.CachedResponse response) {
+        try {
+            GitHubCommit[] body = response.body() != null && !response.body().isBlank()
+                    ? objectMapper.readValue(response.body(), GitHubCommit[].class)
+                    : null;
+            return toPage(body, response.link());
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Unexpected GitHub commits response: " + e.getOriginalMessage(), e);
+        }
+    }
+
+    /**
+     * Ruta /repos/{owner}/{repo} de la API a partir de la URL del repositorio
+     */
+    static String repositoryPath(String repositoryUrl) {
+        String path = repositoryUrl == null ? "" : repositoryUrl.trim()
+                .replaceFirst("^(https?://)?(www\\.)?github\\.com/", "");
+        String[] segments = path.split("/");
+        if (segments.length < 2 || segments[0].isBlank() || segments[1].isBlank()) {
+            throw new IllegalArgumentException(
+                    "Invalid GitHub repository URL format. Expected: https://github.com/user/repo, got: " + repositoryUrl);
+        }
+        String repo = segments[1].endsWith(".git") ? segments[1].substring(0, segments[1].length() - 4) : segments[1];
+        return "/repos/" + segments[0] + "/" + repo;
+    }
+
+    static Page toPage(GitHubCommit[] body, String link) {
+        List<CommitDTO> commits = new ArrayList<>();
+        if (body != null) {
+            for (GitHubCommit item : body) {
+                if (item == null || item.commit() == null || item.commit().committer() == null
+                        || item.commit().committer().date() == null) {
+                    continue;
+                }
+                Signature author = item.commit().author();
+                commits.add(new CommitDTO(
+                        item.sha(),
+                        item.commit().message() != null ? item.commit().message() : "",
+                        item.commit().committer().date().withOffsetSameInstant(ZoneOffset.UTC).toLocalDateTime(),
+                        author != null ? author.name() : null,
+                        author != null ? author.email() : null));
+            }
+        }
+
+        int lastPage = 0;
+        String next = null;
+        if (link != null) {
+            Matcher matcher = LINK.matcher(link);
+            while (matcher.find()) {
+                if ("last".equals(matcher.group(2))) {
+                    Matcher page = PAGE_PARAM.matcher(matcher.group(1));
+                    lastPage = page.find() ? Integer.parseInt(page.group(1)) : 0;
+                } else if ("next".equals(matcher.group(2))) {
+                    next = relativeLink(matcher.group(1));
+                }
+            }
+        }
+        return new Page(commits, lastPage, next);
+    }
+
+    // Los enlaces de GitHub son absolutos; se conserva solo la parte de la API para usar la réplica elegida
+    private static String relativeLink(String link) {
+        URI uri = URI.create(link);
+        String path = uri.getRawPath();
+        int apiPath = path.indexOf("/repos");
+        String relative = apiPath >= 0 ? path.substring(apiPath) : path;
+        return uri.getRawQuery() != null ? relative + "?" + uri.getRawQuery() : relative;
+    }
+
+    private static String queryDate(LocalDateTime date) {
+        return date.truncatedTo(ChronoUnit.SECONDS).atOffset(ZoneOffset.UTC).format(DateTimeFormatter.ISO_INSTANT);
+    }
+
+    private static List<CommitDTO> merge(List<CommitDTO> inWindow, List<CommitDTO> afterWindow) {
+        Set<String> seen = new LinkedHashSet<>();
+        List<CommitDTO> merged = new ArrayList<>(inWindow.size() + afterWindow.size());
+        for (CommitDTO commit : inWindow) {
+            if (seen.add(commit.getSha())) {
+                merged.add(commit);
+            }
+        }
+        for (CommitDTO commit : afterWindow) {
+            if (seen.add(commit.getSha())) {
+                merged.add(commit);
+            }
+        }
+        return merged;
+    }
+
+    /**
+     * Intervalo [since, until] del historial (extremos opcionales, en UTC)
+     */
+    public record CommitWindow(LocalDateTime since, LocalDateTime until) {
+
+        public boolean contains(LocalDateTime date) {
+            return (since == null || !date.isBefore(since)) && (until == null || !date.isAfter(until));
+        }
+    }
+
+    record Page(List<CommitDTO> commits, int lastPage, String next) {
+    }
+
+    // Forma de la respuesta de GET /repos/{owner}/{repo}/commits (solo los campos usados)
+    record GitHubCommit(String sha, CommitDetail commit) {
+    }
+
+    record CommitDetail(String message, Signature author, Signature committer) {
+    }
+
+    record Signature(String name, String email, OffsetDateTime date) {
+    }
+}
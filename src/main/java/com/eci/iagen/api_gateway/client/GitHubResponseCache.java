@@ -0,0 +1,197 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executor;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.eci.iagen.api_gateway.config.GitHubProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Respuestas de la API de GitHub con su ETag / Last-Modified, para repetir las
+ * consultas como peticiones condicionales: GitHub responde 304 sin cuerpo y no
+ * las descuenta del límite de peticiones. En memoria es un LRU limitado por
+ * número de entradas y tamaño total; opcionalmente se guarda también en disco
+ * (github.cache.directory) para conservarlo entre reinicios.
+ */
+@Component
+@Slf4j
+public class GitHubResponseCache {
+
+    /**
+     * Respuesta guardada: validadores, cabecera Link y cuerpo JSON sin procesar
+     */
+    public record CachedResponse(String key, String etag, String lastModified, String link, String body) {
+
+        long weight() {
+            return body != null ? body.length() : 0;
+        }
+    }
+
+    private final GitHubProperties.Cache settings;
+    private final Executor diskWriter;
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final Path directory;
+    private final Object diskLock = new Object();
+    private final LinkedHashMap<String, CachedResponse> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private long memoryWeight;
+
+    public GitHubResponseCache(GitHubProperties properties, MeterRegistry meterRegistry,
+            @Qualifier("blockingTaskExecutor") Executor blockingTaskExecutor) {
+        this.settings = properties.getCache();
+        this.diskWriter = blockingTaskExecutor;
+        this.directory = settings.getDirectory() == null || settings.getDirectory().isBlank()
+                ? null
+                : Paths.get(settings.getDirectory());
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                log.info("GitHub response cache persisted in {}", directory.toAbsolutePath());
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create GitHub cache directory " + directory, e);
+            }
+        }
+        Gauge.builder("gateway.github.cache.entries", this, cache -> cache.size())
+                .description("Respuestas de GitHub guardadas en memoria")
+                .register(meterRegistry);
+        Gauge.builder("gateway.github.cache.size", this, cache -> cache.weight())
+                .description("Tamaño aproximado (caracteres) de las respuestas de GitHub en memoria")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Respuesta guardada para la ruta y consulta, o null si no hay
+     */
+    public CachedResponse get(String key) {
+        synchronized (this) {
+            CachedResponse cached = entries.get(key);
+            if (cached != null) {
+                return cached;
+            }
+        }
+        CachedResponse fromDisk = readFromDisk(key);
+        if (fromDisk != null) {
+            putInMemory(fromDisk);
+        }
+        return fromDisk;
+    }
+
+    /**
+     * Guarda la respuesta si trae algún validador (ETag o Last-Modified)
+     */
+    public void put(CachedResponse response) {
+        if (response.etag() == null && response.lastModified() == null) {
+            return;
+        }
+        putInMemory(response);
+        if (directory != null) {
+            diskWriter.execute(() -> writeToDisk(response));
+        }
+    }
+
+    synchronized int size() {
+        return entries.size();
+    }
+
+    synchronized long weight() {
+        return memoryWeight;
+    }
+
+    private synchronized void putInMemory(CachedResponse response) {
+        if (response.weight() > settings.getMaxMemory().toBytes()) {
+            return;
+        }
+        CachedResponse previous = entries.put(response.key(), response);
+        memoryWeight += response.weight() - (previous != null ? previous.weight() : 0);
+        Iterator<CachedResponse> eldest = entries.values().iterator();
+        while ((entries.size() > settings.getMaxEntries() || memoryWeight > settings.getMaxMemory().toBytes())
+                && eldest.hasNext()) {
+            memoryWeight -= eldest.next().weight();
+            eldest.remove();
+        }
+    }
+
+    private CachedResponse readFromDisk(String key) {
+        if (directory == null) {
+            return null;
+        }
+        Path file = fileFor(key);
+        if (!Files.exists(file)) {
+            return null;
+        }
+        try {
+            CachedResponse cached = objectMapper.readValue(file.toFile(), CachedResponse.class);
+            // Colisión de hash (improbable) o archivo de otra versión
+            return key.equals(cached.key()) ? cached : null;
+        } catch (IOException e) {
+            log.warn("Ignoring unreadable GitHub cache file {}: {}", file, e.getMessage());
+            return null;
+        }
+    }
+
+    private void writeToDisk(CachedResponse response) {
+        Path file = fileFor(response.key());
+        try {
+            Path temporary = Files.createTempFile(directory, "entry", ".tmp");
+            Files.writeString(temporary, objectMapper.writeValueAsString(response), StandardCharsets.UTF_8);
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            synchronized (diskLock) {
+                evictOldestFiles();
+            }
+        } catch (IOException e) {
+            log.warn("Could not persist GitHub cache entry {}: {}", response.key(), e.getMessage());
+        }
+    }
+
+    // Se eliminan los archivos modificados hace más tiempo cuando se supera el máximo
+    private void evictOldestFiles() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = listing.filter(path -> path.getFileName().toString().endsWith(".json")).toList();
+        }
+        int excess = files.size() - settings.getMaxDiskEntries();
+        if (excess <= 0) {
+            return;
+        }
+        Map<Path, Long> modified = new LinkedHashMap<>();
+        for (Path path : files) {
+            modified.put(path, path.toFile().lastModified());
+        }
+        List<Path> oldest = files.stream()
+                .sorted(Comparator.comparing(modified::get))
+                .limit(excess)
+                .toList();
+        for (Path path : oldest) {
+            Files.deleteIfExists(path);
+        }
+    }
+
+    private Path fileFor(String key) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(key.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(hash) + ".json");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,236 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.eci.iagen.api_gateway.config.GitHubProperties;
+import com.eci.iagen.api_gateway.resilience.Deadline;
+import com.eci.iagen.api_gateway.resilience.DownstreamUnavailableException;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Tokens de acceso a GitHub (github.tokens) con la cuota restante de cada uno,
+ * según las cabeceras X-RateLimit-* de las respuestas. Cada llamada usa el token
+ * con más cuota; si todos están agotados la llamada espera al reinicio de la
+ * cuota (como máximo github.rate-limit.max-wait y nunca más allá del deadline
+ * de la petición) en lugar de fallar. Sin tokens se usa un único acceso anónimo.
+ */
+@Component
+@Slf4j
+public class GitHubTokenPool {
+
+    static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    static final String RESET_HEADER = "X-RateLimit-Reset";
+    static final String LIMIT_HEADER = "X-RateLimit-Limit";
+
+    // Cuotas por hora documentadas por GitHub, hasta que llegue la primera respuesta
+    private static final int AUTHENTICATED_LIMIT = 5000;
+    private static final int ANONYMOUS_LIMIT = 60;
+
+    /**
+     * Un token (o el acceso anónimo) y su cuota conocida
+     */
+    public static final class Token {
+        private final String label;
+        private final String value;
+        private int limit;
+        private int remaining;
+        private long resetAtEpochSecond;
+
+        Token(String label, String value, int limit) {
+            this.label = label;
+            this.value = value;
+            this.limit = limit;
+            this.remaining = limit;
+        }
+
+        public String getLabel() {
+            return label;
+        }
+
+        /**
+         * Valor para la cabecera Authorization, o null para el acceso anónimo
+         */
+        public String getValue() {
+            return value;
+        }
+    }
+
+    private final List<Token> tokens;
+    private final Duration maxWait;
+    private final Supplier<Instant> clock;
+    private final Counter waits;
+
+    @Autowired
+    public GitHubTokenPool(GitHubProperties properties, MeterRegistry meterRegistry) {
+        this(properties, meterRegistry, Instant::now);
+    }
+
+    GitHubTokenPool(GitHubProperties properties, MeterRegistry meterRegistry, Supplier<Instant> clock) {
+        this.maxWait = properties.getRateLimit().getMaxWait();
+        this.clock = clock;
+        List<Token> configured = new ArrayList<>();
+        for (String value : properties.getTokens()) {
+            if (value != null && !value.isBlank()) {
+                configured.add(new Token("token-" + (configured.size() + 1), value.trim(), AUTHENTICATED_LIMIT));
+            }
+        }
+        if (configured.isEmpty()) {
+            log.warn("No GitHub tokens configured (GITHUB_TOKENS); using the anonymous rate limit");
+            configured.add(new Token("anonymous", null, ANONYMOUS_LIMIT));
+        }
+        this.tokens = Collections.unmodifiableList(configured);
+
+        this.waits = Counter.builder("gateway.github.rate.limit.waits")
+                .description("Llamadas a GitHub que esperaron al reinicio de la cuota")
+                .register(meterRegistry);
+        for (Token token : tokens) {
+            Gauge.builder("gateway.github.rate.limit.remaining", token, this::remaining)
+                    .description("Peticiones restantes de la cuota del token")
+                    .tag("token", token.label)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.github.rate.limit.reset", token, this::secondsUntilReset)
+                    .description("Segundos hasta que se reinicia la cuota del token")
+                    .tag("token", token.label)
+                    .baseUnit("seconds")
+                    .register(meterRegistry);
+        }
+    }
+
+    public int size() {
+        return tokens.size();
+    }
+
+    /**
+     * Token para clonar por HTTPS (git no consume la cuota de la API), o null si no hay
+     */
+    public String gitCredential() {
+        return tokens.get(0).value;
+    }
+
+    /**
+     * Reserva una petición de la cuota del token con más cuota restante; si todos
+     * están agotados, el future se completa cuando se reinicie alguno
+     */
+    public CompletableFuture<Token> acquire() {
+        Duration wait;
+        synchronized (this) {
+            long now = clock.get().getEpochSecond();
+            Token best = null;
+            long earliestReset = Long.MAX_VALUE;
+            for (Token token : tokens) {
+                if (token.remaining <= 0 && token.resetAtEpochSecond <= now) {
+                    // Empezó una nueva ventana: se asume la cuota completa hasta la siguiente respuesta
+                    token.remaining = token.limit;
+                }
+                if (token.remaining > 0) {
+                    if (best == null || token.remaining > best.remaining) {
+                        best = token;
+                    }
+                } else {
+                    earliestReset = Math.min(earliestReset, token.resetAtEpochSecond);
+                }
+            }
+            if (best != null) {
+                best.remaining--;
+                return CompletableFuture.completedFuture(best);
+            }
+            wait = Duration.ofSeconds(Math.max(1, earliestReset - now));
+        }
+
+        Deadline deadline = Deadline.current();
+        if (wait.compareTo(maxWait) > 0 || (deadline != null && wait.compareTo(deadline.remaining()) >= 0)) {
+            return CompletableFuture.failedFuture(new DownstreamUnavailableException(Downstream.GITHUB.getKey(),
+                    "GitHub rate limit exhausted for all " + tokens.size() + " tokens", wait));
+        }
+        log.info("GitHub rate limit exhausted for all tokens, waiting {} s for the reset", wait.toSeconds());
+        waits.increment();
+        return CompletableFuture.runAsync(() -> { }, CompletableFuture.delayedExecutor(wait.toMillis(),
+                TimeUnit.MILLISECONDS))
+                .thenCompose(Deadline.propagate(ignored -> acquire()));
+    }
+
+    /**
+     * Actualiza la cuota del token con las cabeceras X-RateLimit-* de la respuesta
+     */
+    public void onResponse(Token token, HttpHeaders headers) {
+        if (headers == null) {
+            return;
+        }
+        Integer remaining = intHeader(headers, REMAINING_HEADER);
+        Long reset = longHeader(headers, RESET_HEADER);
+        Integer limit = intHeader(headers, LIMIT_HEADER);
+        synchronized (this) {
+            if (limit != null && limit > 0) {
+                token.limit = limit;
+            }
+            if (remaining != null && reset != null) {
+                // Dentro de la misma ventana se conserva el menor valor: hay reservas aún en curso
+                token.remaining = reset > token.resetAtEpochSecond ? remaining : Math.min(token.remaining, remaining);
+                token.resetAtEpochSecond = reset;
+            }
+            String retryAfter = headers.getFirst(HttpHeaders.RETRY_AFTER);
+            if (retryAfter != null && retryAfter.trim().matches("\\d+")) {
+                // Límite secundario: el token se pausa el tiempo indicado
+                token.remaining = 0;
+                token.resetAtEpochSecond = Math.max(token.resetAtEpochSecond,
+                        clock.get().getEpochSecond() + Long.parseLong(retryAfter.trim()));
+            }
+        }
+    }
+
+    /**
+     * Indica si el error es un rechazo por límite de peticiones (403 o 429 con la cuota agotada)
+     */
+    public static boolean isRateLimited(Throwable error) {
+        if (!(error instanceof WebClientResponseException response)) {
+            return false;
+        }
+        int status = response.getStatusCode().value();
+        if (status != 403 && status != 429) {
+            return false;
+        }
+        HttpHeaders headers = response.getHeaders();
+        return "0".equals(headers.getFirst(REMAINING_HEADER)) || headers.getFirst(HttpHeaders.RETRY_AFTER) != null;
+    }
+
+    private synchronized double remaining(Token token) {
+        return token.remaining;
+    }
+
+    private synchronized double secondsUntilReset(Token token) {
+        return Math.max(0, token.resetAtEpochSecond - clock.get().getEpochSecond());
+    }
+
+    private static Integer intHeader(HttpHeaders headers, String name) {
+        Long value = longHeader(headers, name);
+        return value != null ? (int) Math.min(Integer.MAX_VALUE, value) : null;
+    }
+
+    private static Long longHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (value == null) {
+            return null;
+        }
+        try {
+            return Long.parseLong(value.trim());
+        } catch (NumberFormatException e) {
+            return null;
+        }
+    }
+}
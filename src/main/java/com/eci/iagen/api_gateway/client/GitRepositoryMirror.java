@@ -0,0 +1,345 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.api.errors.GitAPIException;
+import org.eclipse.jgit.lib.Constants;
+import org.eclipse.jgit.lib.ObjectId;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.eclipse.jgit.revwalk.RevCommit;
+import org.eclipse.jgit.revwalk.RevSort;
+import org.eclipse.jgit.revwalk.RevWalk;
+import org.eclipse.jgit.transport.CredentialsProvider;
+import org.eclipse.jgit.transport.RefSpec;
+import org.eclipse.jgit.transport.TagOpt;
+import org.eclipse.jgit.transport.UsernamePasswordCredentialsProvider;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Component;
+
+import com.eci.iagen.api_gateway.config.GitHubProperties;
+import com.eci.iagen.api_gateway.dto.CommitDTO;
+import com.eci.iagen.api_gateway.resilience.Deadline;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Réplicas locales (bare) de los repositorios de las entregas: la primera vez se
+ * clonan y después solo se hace fetch incremental, como mucho una vez cada
+ * github.mirror.fetch-interval. El historial se calcula recorriendo la réplica,
+ * sin consumir cuota de la API. El espacio total está limitado por
+ * github.mirror.max-disk-size; se eliminan primero las réplicas usadas hace más
+ * tiempo. Solo se clonan repositorios de GitHub.
+ */
+@Component
+@Slf4j
+public class GitRepositoryMirror {
+
+    private static final RefSpec BRANCHES = new RefSpec("+refs/heads/*:refs/heads/*");
+
+    private final GitHubProperties.Mirror settings;
+    private final GitHubTokenPool tokenPool;
+    private final MeterRegistry meterRegistry;
+    private final Executor executor;
+    private final Path directory;
+    private final Map<Path, ReentrantLock> locks = new ConcurrentHashMap<>();
+    private final Map<Path, Instant> lastFetched = new ConcurrentHashMap<>();
+    private final Map<Path, Long> diskSizes = new ConcurrentHashMap<>();
+
+    public GitRepositoryMirror(GitHubProperties properties, GitHubTokenPool tokenPool, MeterRegistry meterRegistry,
+            @Qualifier("gitMirrorTaskExecutor") Executor gitMirrorTaskExecutor) {
+        this.settings = properties.getMirror();
+        this.tokenPool = tokenPool;
+        this.meterRegistry = meterRegistry;
+        this.executor = gitMirrorTaskExecutor;
+        this.directory = settings.isEnabled() ? Paths.get(settings.getDirectory()) : null;
+        if (directory != null) {
+            try {
+                Files.createDirectories(directory);
+                try (Stream<Path> mirrors = Files.list(directory)) {
+                    mirrors.filter(Files::isDirectory).forEach(mirror -> diskSizes.put(mirror, sizeOf(mirror)));
+                }
+                log.info("Repository mirrors in {} ({} existing)", directory.toAbsolutePath(), diskSizes.size());
+            } catch (IOException e) {
+                throw new IllegalStateException("Cannot create repository mirror directory " + directory, e);
+            }
+        }
+        Gauge.builder("gateway.github.mirror.disk.size", diskSizes,
+                sizes -> sizes.values().stream().mapToLong(Long::longValue).sum())
+                .description("Espacio en disco de las réplicas locales de repositorios")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return directory != null;
+    }
+
+    /**
+     * Versión asíncrona de commits, en gitMirrorTaskExecutor (que propaga el
+     * deadline); con su cola llena falla con IllegalStateException
+     */
+    public CompletableFuture<List<CommitDTO>> commitsAsync(String repositoryUrl, LocalDateTime since,
+            LocalDateTime until) {
+        try {
+            return CompletableFuture.supplyAsync(() -> commits(repositoryUrl, since, until), executor);
+        } catch (RejectedExecutionException e) {
+            countSync("rejected");
+            return CompletableFuture.failedFuture(
+                    new IllegalStateException("Repository mirror queue is full for " + repositoryUrl, e));
+        }
+    }
+
+    /**
+     * Commits de la rama principal con fecha de commit entre since y until (ambos
+     * opcionales, en UTC), del más reciente al más antiguo, más el último commit
+     * posterior a until si existe; el mismo resultado que GitHubClient por la API
+     */
+    public List<CommitDTO> commits(String repositoryUrl, LocalDateTime since, LocalDateTime until) {
+        if (!isEnabled()) {
+            throw new IllegalStateException("Repository mirrors are disabled");
+        }
+        String cloneUrl = cloneUrl(repositoryUrl);
+        Path mirror = mirrorPath(cloneUrl);
+        ReentrantLock lock = locks.computeIfAbsent(mirror, path -> new ReentrantLock());
+        lock.lock();
+        try {
+            sync(cloneUrl, mirror);
+            return walk(mirror, since, until);
+        } catch (IOException | GitAPIException e) {
+            throw new IllegalStateException("Cannot mirror repository " + repositoryUrl + ": " + e.getMessage(), e);
+        } finally {
+            lock.unlock();
+            evictBeyondBudget(mirror);
+        }
+    }
+
+    private void sync(String cloneUrl, Path mirror) throws IOException, GitAPIException {
+        Instant now = Instant.now();
+        if (Files.isDirectory(mirror.resolve("objects"))) {
+            Instant fetched = lastFetched.get(mirror);
+            if (fetched != null && fetched.plus(settings.getFetchInterval()).isAfter(now)) {
+                countSync("fresh");
+                touch(mirror, now);
+                return;
+            }
+            try (Git git = Git.open(mirror.toFile())) {
+                git.fetch()
+                        .setRemote(Constants.DEFAULT_REMOTE_NAME)
+                        .setRefSpecs(BRANCHES)
+                        .setRemoveDeletedRefs(true)
+                        .setTagOpt(TagOpt.NO_TAGS)
+                        .setCredentialsProvider(credentials())
+                        .setTimeout(timeoutSeconds())
+                        .call();
+            }
+            countSync("fetch");
+        } else {
+            deleteRecursively(mirror);
+            try (Git git = Git.cloneRepository()
+                    .setURI(cloneUrl)
+                    .setDirectory(mirror.toFile())
+                    .setBare(true)
+                    .setNoTags()
+                    .setCredentialsProvider(credentials())
+                    .setTimeout(timeoutSeconds())
+                    .call()) {
+                log.info("Cloned {} into mirror {}", cloneUrl, mirror.getFileName());
+            } catch (GitAPIException | RuntimeException e) {
+                deleteRecursively(mirror);
+                throw e;
+            }
+            countSync("clone");
+        }
+        lastFetched.put(mirror, now);
+        touch(mirror, now);
+        diskSizes.put(mirror, sizeOf(mirror));
+    }
+
+    private static List<CommitDTO> walk(Path mirror, LocalDateTime since, LocalDateTime until) throws IOException {
+        Instant from = since != null ? since.toInstant(ZoneOffset.UTC) : null;
+        Instant to = until != null ? until.toInstant(ZoneOffset.UTC) : null;
+        List<CommitDTO> inWindow = new ArrayList<>();
+        CommitDTO latestAfterWindow = null;
+        try (Git git = Git.open(mirror.toFile()); RevWalk walk = new RevWalk(git.getRepository())) {
+            ObjectId head = git.getRepository().resolve(Constants.HEAD);
+            if (head == null) {
+                // Repositorio vacío
+                return inWindow;
+            }
+            walk.markStart(walk.parseCommit(head));
+            walk.sort(RevSort.COMMIT_TIME_DESC);
+            for (RevCommit commit : walk) {
+                Instant date = commit.getCommitterIdent().getWhenAsInstant();
+                if (to != null && date.isAfter(to)) {
+                    if (latestAfterWindow == null) {
+                        latestAfterWindow = toCommit(commit, date);
+                    }
+                } else if (from == null || !date.isBefore(from)) {
+                    inWindow.add(toCommit(commit, date));
+                }
+            }
+        }
+        if (latestAfterWindow != null) {
+            inWindow.add(latestAfterWindow);
+        }
+        return inWindow;
+    }
+
+    private static CommitDTO toCommit(RevCommit commit, Instant date) {
+        PersonIdent author = commit.getAuthorIdent();
+        return new CommitDTO(commit.name(), commit.getFullMessage(), LocalDateTime.ofInstant(date, ZoneOffset.UTC),
+                author.getName(), author.getEmailAddress());
+    }
+
+    /**
+     * URL de clonado: los repositorios de GitHub se normalizan a
+     * {clone-base-url}/{owner}/{repo}.git; los file:// solo se aceptan con
+     * github.mirror.allow-local-urls (pruebas)
+     */
+    String cloneUrl(String repositoryUrl) {
+        if (repositoryUrl != null && repositoryUrl.trim().startsWith("file:")) {
+            if (!settings.isAllowLocalUrls()) {
+                throw new IllegalArgumentException("Local repository URLs are not allowed: " + repositoryUrl);
+            }
+            return repositoryUrl.trim();
+        }
+        String path = GitHubClient.repositoryPath(repositoryUrl).substring("/repos".length());
+        return settings.getCloneBaseUrl().replaceAll("/+$", "") + path + ".git";
+    }
+
+    private Path mirrorPath(String cloneUrl) {
+        try {
+            byte[] hash = MessageDigest.getInstance("SHA-256").digest(cloneUrl.getBytes(StandardCharsets.UTF_8));
+            return directory.resolve(HexFormat.of().formatHex(hash, 0, 16) + ".git");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // Se eliminan las réplicas usadas hace más tiempo (menos la actual y las que están en uso)
+    private void evictBeyondBudget(Path current) {
+        long budget = settings.getMaxDiskSize().toBytes();
+        if (diskSizes.values().stream().mapToLong(Long::longValue).sum() <= budget) {
+            return;
+        }
+        List<Path> oldest = diskSizes.keySet().stream()
+                .filter(mirror -> !mirror.equals(current))
+                .sorted(Comparator.comparing(GitRepositoryMirror::lastUsed))
+                .toList();
+        for (Path mirror : oldest) {
+            if (diskSizes.values().stream().mapToLong(Long::longValue).sum() <= budget) {
+                return;
+            }
+            ReentrantLock lock = locks.computeIfAbsent(mirror, path -> new ReentrantLock());
+            if (!lock.tryLock()) {
+                continue;
+            }
+            try {
+                deleteRecursively(mirror);
+                diskSizes.remove(mirror);
+                lastFetched.remove(mirror);
+                countSync("evicted");
+                log.info("Evicted repository mirror {} to stay within {}", mirror.getFileName(),
+                        settings.getMaxDiskSize());
+            } catch (IOException e) {
+                log.warn("Could not evict repository mirror {}: {}", mirror, e.getMessage());
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private CredentialsProvider credentials() {
+        String token = tokenPool.gitCredential();
+        return token != null ? new UsernamePasswordCredentialsProvider("x-access-token", token) : null;
+    }
+
+    // Nunca más allá del deadline de la petición
+    private int timeoutSeconds() {
+        return (int) Math.max(1, Deadline.cap(settings.getTimeout()).toSeconds());
+    }
+
+    private void countSync(String result) {
+        meterRegistry.counter("gateway.github.mirror.syncs", "result", result).increment();
+    }
+
+    // La fecha de modificación del directorio marca el último uso, también entre reinicios
+    private static void touch(Path mirror, Instant now) {
+        try {
+            Files.setLastModifiedTime(mirror, FileTime.from(now));
+        } catch (IOException e) {
+            log.debug("Could not touch mirror {}: {}", mirror, e.getMessage());
+        }
+    }
+
+    private static Instant lastUsed(Path mirror) {
+        try {
+            return Files.getLastModifiedTime(mirror).toInstant();
+        } catch (IOException e) {
+            return Instant.EPOCH;
+        }
+    }
+
+    // JGit puede borrar archivos temporales (gc, locks) mientras se recorre: se ignoran
+    private static long sizeOf(Path mirror) {
+        AtomicLong size = new AtomicLong();
+        try {
+            Files.walkFileTree(mirror, new SimpleFileVisitor<>() {
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attributes) {
+                    if (attributes.isRegularFile()) {
+                        size.addAndGet(attributes.size());
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e) {
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        } catch (IOException e) {
+            log.debug("Could not measure mirror {}: {}", mirror, e.getMessage());
+        }
+        return size.get();
+    }
+
+    private static void deleteRecursively(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(path)) {
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        }
+    }
+}
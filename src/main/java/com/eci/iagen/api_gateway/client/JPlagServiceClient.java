@@ -2,50 +2,209 @@ package com.eci.iagen.api_gateway.client;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
 
+import com.eci.iagen.api_gateway.resilience.Deadline;
+import com.eci.iagen.api_gateway.resilience.DownstreamCallAbortedException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealth;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealthRegistry;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.BiConsumer;
+
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
 
 @Component
 @RequiredArgsConstructor
 @Slf4j
 public class JPlagServiceClient {
 
-    private final RestTemplate restTemplate;
+    // Campos de cada comparación de JPlag con las entregas del par
+    public static final String FIRST_SUBMISSION = "firstSubmissionId";
+    public static final String SECOND_SUBMISSION = "secondSubmissionId";
 
-    @Value("${jplag.service.url:http://localhost:8082}")
-    private String jplagServiceUrl;
+    private final RestTemplate restTemplate;
+    private final WebClient downstreamWebClient;
+    private final DownstreamGuard downstreamGuard;
+    private final DownstreamHealthRegistry healthRegistry;
 
     /**
      * Detecta plagio enviando datos al microservicio JPlag
      */
     public ResponseEntity<Object> detectPlagiarism(Map<String, Object> request) {
         try {
-            String url = jplagServiceUrl + "/api/plagiarism/analyze";
+            String path = "/api/plagiarism/analyze";
 
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
 
-            HttpEntity<Map<String, Object>> entity = new HttpEntity<>(request, headers);
-
-            log.info("Sending plagiarism detection request to JPlag service: {}", url);
-            ResponseEntity<Object> response = restTemplate.postForEntity(url, entity, Object.class);
+            log.info("Sending plagiarism detection request to JPlag service: {}", path);
+            ResponseEntity<Object> response = downstreamGuard.callWithIdempotencyKey(Downstream.JPLAG, headers,
+                    baseUrl -> restTemplate.postForEntity(baseUrl + path, new HttpEntity<>(request, headers),
+                            Object.class));
 
             log.info("Received response from JPlag service with status: {}", response.getStatusCode());
             return response;
 
+        } catch (DownstreamCallAbortedException e) {
+            log.warn("Plagiarism detection request rejected: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error communicating with JPlag service: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to communicate with JPlag service: " + e.getMessage());
         }
     }
 
+    /**
+     * Versión no bloqueante de detectPlagiarism: el análisis puede tardar minutos
+     * y no debe ocupar un hilo del servidor mientras tanto
+     */
+    public CompletableFuture<ResponseEntity<Object>> detectPlagiarismNonBlocking(Map<String, Object> request) {
+        String path = "/api/plagiarism/analyze";
+
+        log.info("Sending plagiarism detection request to JPlag service (non-blocking): {}", path);
+        HttpHeaders headers = new HttpHeaders();
+        return downstreamGuard.callWithIdempotencyKeyAsync(Downstream.JPLAG, headers,
+                baseUrl -> downstreamWebClient.post()
+                        .uri(baseUrl + path)
+                        .headers(requestHeaders -> requestHeaders.addAll(headers))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(request)
+                        .retrieve()
+                        .toEntity(Object.class)
+                        .toFuture())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        log.info("Received response from JPlag service with status: {}", response.getStatusCode());
+                        return response;
+                    }
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (cause instanceof DownstreamCallAbortedException aborted) {
+                        log.warn("Plagiarism detection request rejected: {}", cause.getMessage());
+                        throw aborted;
+                    }
+                    log.error("Error communicating with JPlag service: {}", cause.getMessage(), cause);
+                    throw new RuntimeException("Failed to communicate with JPlag service: " + cause.getMessage());
+                });
+    }
+
+    /**
+     * Detección repartida en bloques para conjuntos de entregas demasiado grandes
+     * para una llamada: las entregas se dividen en bloques de blockSize y cada par
+     * de bloques se analiza en su propia llamada (como mucho parallelism a la vez,
+     * repartidas entre las instancias de JPlag). Las comparaciones de todas las
+     * llamadas se combinan sin pares repetidos en una respuesta con la forma de la
+     * de detectPlagiarism (falla si alguna comparación no trae los ids de sus
+     * entregas); onProgress recibe (llamadas terminadas, total)
+     */
+    public CompletableFuture<ResponseEntity<Object>> detectPlagiarismShardedNonBlocking(Map<String, Object> request,
+            int blockSize, int parallelism, BiConsumer<Integer, Integer> onProgress) {
+        List<?> submissions = (List<?>) request.get("submissions");
+        List<List<?>> blocks = new ArrayList<>();
+        for (int from = 0; from < submissions.size(); from += blockSize) {
+            blocks.add(submissions.subList(from, Math.min(from + blockSize, submissions.size())));
+        }
+        // Cada par de bloques cubre también los pares dentro de cada bloque
+        List<Map<String, Object>> shards = new ArrayList<>();
+        for (int i = 0; i < blocks.size(); i++) {
+            for (int j = i + 1; j < blocks.size(); j++) {
+                List<Object> shardSubmissions = new ArrayList<>(blocks.get(i));
+                shardSubmissions.addAll(blocks.get(j));
+                Map<String, Object> shard = new HashMap<>(request);
+                shard.put("submissions", shardSubmissions);
+                shards.add(shard);
+            }
+        }
+        if (shards.isEmpty()) {
+            shards.add(request);
+        }
+
+        int total = shards.size();
+        log.info("Splitting plagiarism detection of {} submissions into {} blocks and {} JPlag calls",
+                submissions.size(), blocks.size(), total);
+        AtomicInteger completed = new AtomicInteger();
+        onProgress.accept(0, total);
+        Deadline deadline = Deadline.current();
+        return Flux.fromIterable(shards)
+                .flatMap(shard -> Mono.fromFuture(() -> Deadline.callWith(deadline,
+                        () -> detectPlagiarismNonBlocking(shard)))
+                        .map(response -> {
+                            if (!response.getStatusCode().is2xxSuccessful()
+                                    || !(response.getBody() instanceof Map<?, ?> body)) {
+                                throw new IllegalStateException(
+                                        "JPlag service returned " + response.getStatusCode() + " for a block pair");
+                            }
+                            onProgress.accept(completed.incrementAndGet(), total);
+                            return body.get("comparisons") instanceof List<?> comparisons ? comparisons : List.of();
+                        }), parallelism)
+                .collectList()
+                .<ResponseEntity<Object>>map(partials -> ResponseEntity.ok(mergeComparisons(request, partials)))
+                .toFuture();
+    }
+
+    private static Map<String, Object> mergeComparisons(Map<String, Object> request, List<List<?>> partials) {
+        Set<List<Long>> seen = new HashSet<>();
+        List<Map<?, ?>> comparisons = new ArrayList<>();
+        for (List<?> partial : partials) {
+            for (Object item : partial) {
+                if (!(item instanceof Map<?, ?> comparison)) {
+                    continue;
+                }
+                Long first = submissionId(comparison.get(FIRST_SUBMISSION));
+                Long second = submissionId(comparison.get(SECOND_SUBMISSION));
+                // Sin ids no se puede saber si el par está repetido en otra llamada
+                if (first == null || second == null) {
+                    throw new IllegalStateException(
+                            "JPlag comparison without submission ids cannot be merged across block pairs");
+                }
+                if (seen.add(List.of(Math.min(first, second), Math.max(first, second)))) {
+                    comparisons.add(comparison);
+                }
+            }
+        }
+        comparisons.sort(Comparator.comparingDouble((Map<?, ?> comparison) ->
+                comparison.get("similarity") instanceof Number number ? number.doubleValue() : 0.0).reversed());
+
+        Map<String, Object> merged = new HashMap<>();
+        merged.put("assignmentId", request.get("assignmentId"));
+        merged.put("assignmentTitle", request.get("assignmentTitle"));
+        merged.put("comparisons", comparisons);
+        return merged;
+    }
+
+    /**
+     * Id de entrega de un campo de comparación (número o texto), o null
+     */
+    public static Long submissionId(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text) {
+            try {
+                return Long.valueOf(text.trim());
+            } catch (NumberFormatException e) {
+                return null;
+            }
+        }
+        return null;
+    }
+
     /**
      * Obtiene comparaciones compactas del microservicio JPlag
      * Como el servicio JPlag no tiene endpoint separado, usa el mismo endpoint de
@@ -58,25 +217,18 @@ public class JPlagServiceClient {
 
     /**
      * Verifica el estado del microservicio JPlag
+     * Lee el último health check registrado, sin llamar al servicio
      */
     public ResponseEntity<String> checkHealth() {
-        try {
-            String url = jplagServiceUrl + "/api/plagiarism/health";
-            ResponseEntity<Map<String, Object>> response = restTemplate.exchange(
-                url, 
-                org.springframework.http.HttpMethod.GET, 
-                null, 
-                new org.springframework.core.ParameterizedTypeReference<Map<String, Object>>() {}
-            );
-            log.info("JPlag service health check: {}", response.getBody());
-            
-            // Convertir el Map a JSON String para mantener compatibilidad
-            Map<String, Object> body = response.getBody();
-            String jsonResponse = "{\"status\":\"" + body.get("status") + "\",\"service\":\"" + body.get("service") + "\"}";
-            return ResponseEntity.status(response.getStatusCode()).body(jsonResponse);
-        } catch (Exception e) {
-            log.error("JPlag service health check failed: {}", e.getMessage());
-            throw new RuntimeException("JPlag service is not available: " + e.getMessage());
+        DownstreamHealth health = healthRegistry.currentHealth(Downstream.JPLAG);
+        if (!health.isUp()) {
+            log.warn("JPlag service health check failed: {}", health.getError());
+            throw new RuntimeException("JPlag service is not available: " + health.getError());
         }
+
+        // Convertir el Map a JSON String para mantener compatibilidad
+        Map<String, Object> body = health.getDetails();
+        String jsonResponse = "{\"status\":\"" + body.get("status") + "\",\"service\":\"" + body.get("service") + "\"}";
+        return ResponseEntity.ok(jsonResponse);
     }
 }
@@ -1,24 +1,48 @@
 package com.eci.iagen.api_gateway.client;
 
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+import com.eci.iagen.api_gateway.dto.request.ScheduleComplianceBatchRequest;
 import com.eci.iagen.api_gateway.dto.request.ScheduleComplianceRequest;
+import com.eci.iagen.api_gateway.dto.response.ScheduleComplianceBatchResponse;
 import com.eci.iagen.api_gateway.dto.response.ScheduleComplianceResponse;
+import com.eci.iagen.api_gateway.resilience.DownstreamCallAbortedException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealthRegistry;
 
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
 @Component
-@RequiredArgsConstructor
 @Slf4j
 public class ScheduleComplianceClient {
 
+    private static final String EVALUATE_PATH = "/api/schedule-compliance/evaluate";
+
     private final RestTemplate restTemplate;
+    private final WebClient downstreamWebClient;
+    private final DownstreamGuard downstreamGuard;
+    private final DownstreamHealthRegistry healthRegistry;
+    private final DownstreamProperties.Batch batch;
 
-    @Value("${schedule.compliance.service.url:http://localhost:8081}")
-    private String scheduleComplianceServiceUrl;
+    public ScheduleComplianceClient(RestTemplate restTemplate, WebClient downstreamWebClient,
+            DownstreamGuard downstreamGuard, DownstreamHealthRegistry healthRegistry,
+            DownstreamProperties downstreamProperties) {
+        this.restTemplate = restTemplate;
+        this.downstreamWebClient = downstreamWebClient;
+        this.downstreamGuard = downstreamGuard;
+        this.healthRegistry = healthRegistry;
+        this.batch = downstreamProperties.service(Downstream.SCHEDULE_COMPLIANCE).getBatch();
+    }
 
     /**
      * Evalúa el cumplimiento de horarios usando el microservicio
@@ -27,47 +51,171 @@ public class ScheduleComplianceClient {
      * @return Respuesta con penalizaciones aplicadas
      */
     public ScheduleComplianceResponse evaluateCompliance(ScheduleComplianceRequest request) {
-        String url = scheduleComplianceServiceUrl + "/api/schedule-compliance/evaluate";
+        String path = EVALUATE_PATH;
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
 
-        log.info("Request URL: {}", url);
-        log.info("Request Headers: {}", headers);
-        log.info("Request Body: {}", request);
+        log.debug("Request Body: {}", request);
 
         HttpEntity<ScheduleComplianceRequest> entity = new HttpEntity<>(request, headers);
 
         try {
-            log.info("Calling schedule compliance service at: {}", url);
-            ResponseEntity<ScheduleComplianceResponse> response = restTemplate.exchange(
-                    url,
-                    HttpMethod.POST,
-                    entity,
-                    ScheduleComplianceResponse.class);
+            log.info("Calling schedule compliance service at: {}", path);
+            ResponseEntity<ScheduleComplianceResponse> response = downstreamGuard.callIdempotent(Downstream.SCHEDULE_COMPLIANCE,
+                    baseUrl -> restTemplate.exchange(
+                            baseUrl + path,
+                            HttpMethod.POST,
+                            entity,
+                            ScheduleComplianceResponse.class));
 
             log.info("Schedule compliance service responded successfully");
             return response.getBody();
+        } catch (DownstreamCallAbortedException e) {
+            log.warn("Schedule compliance request rejected: {}", e.getMessage());
+            throw e;
         } catch (Exception e) {
             log.error("Error calling schedule compliance service: {}", e.getMessage(), e);
             throw new RuntimeException("Failed to evaluate schedule compliance: " + e.getMessage(), e);
         }
     }
 
+    /**
+     * Versión no bloqueante de evaluateCompliance
+     */
+    public CompletableFuture<ScheduleComplianceResponse> evaluateComplianceNonBlocking(
+            ScheduleComplianceRequest request) {
+        String path = EVALUATE_PATH;
+
+        log.info("Calling schedule compliance service (non-blocking) at: {}", path);
+        return downstreamGuard.callIdempotentAsync(Downstream.SCHEDULE_COMPLIANCE,
+                baseUrl -> downstreamWebClient.post()
+                        .uri(baseUrl + path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(request)
+                        .retrieve()
+                        .bodyToMono(ScheduleComplianceResponse.class)
+                        .toFuture())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        log.info("Schedule compliance service responded successfully");
+                        return response;
+                    }
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (cause instanceof DownstreamCallAbortedException aborted) {
+                        log.warn("Schedule compliance request rejected: {}", cause.getMessage());
+                        throw aborted;
+                    }
+                    log.error("Error calling schedule compliance service: {}", cause.getMessage(), cause);
+                    throw new RuntimeException("Failed to evaluate schedule compliance: " + cause.getMessage(), cause);
+                });
+    }
+
+    /**
+     * Indica si el servicio acepta evaluaciones por lotes
+     * (downstream.services.schedule-compliance.batch.enabled)
+     */
+    public boolean isBatchEnabled() {
+        return batch.isEnabled();
+    }
+
+    /**
+     * Entregas máximas por petición de evaluateComplianceBatch
+     */
+    public int getBatchMaxSize() {
+        return Math.max(1, batch.getMaxSize());
+    }
+
+    /**
+     * Tiempo máximo que se espera a que se llene un lote antes de enviarlo
+     */
+    public Duration getBatchLinger() {
+        return batch.getLinger();
+    }
+
+    /**
+     * Evalúa varias entregas con peticiones de como mucho getBatchMaxSize()
+     * entregas a /evaluate/batch. Devuelve un resultado por entrega, en el orden
+     * de la lista, con la respuesta o el error de esa entrega.
+     */
+    public CompletableFuture<List<ScheduleComplianceBatchResponse.Item>> evaluateComplianceBatch(
+            List<ScheduleComplianceBatchRequest.Item> submissions) {
+        int maxSize = getBatchMaxSize();
+        List<CompletableFuture<List<ScheduleComplianceBatchResponse.Item>>> requests = new ArrayList<>();
+        for (int from = 0; from < submissions.size(); from += maxSize) {
+            requests.add(evaluateChunk(submissions.subList(from, Math.min(from + maxSize, submissions.size()))));
+        }
+        return CompletableFuture.allOf(requests.toArray(CompletableFuture[]::new))
+                .thenApply(ignored -> requests.stream().flatMap(request -> request.join().stream()).toList());
+    }
+
+    private CompletableFuture<List<ScheduleComplianceBatchResponse.Item>> evaluateChunk(
+            List<ScheduleComplianceBatchRequest.Item> submissions) {
+        String path = EVALUATE_PATH + "/batch";
+
+        log.info("Calling schedule compliance service at: {} ({} submissions)", path, submissions.size());
+        return downstreamGuard.callIdempotentAsync(Downstream.SCHEDULE_COMPLIANCE,
+                baseUrl -> downstreamWebClient.post()
+                        .uri(baseUrl + path)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(new ScheduleComplianceBatchRequest(submissions))
+                        .retrieve()
+                        .bodyToMono(ScheduleComplianceBatchResponse.class)
+                        .toFuture())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        return matchResults(submissions, response);
+                    }
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (cause instanceof DownstreamCallAbortedException aborted) {
+                        log.warn("Schedule compliance batch request rejected: {}", cause.getMessage());
+                        throw aborted;
+                    }
+                    log.error("Error calling schedule compliance batch service: {}", cause.getMessage(), cause);
+                    throw new RuntimeException("Failed to evaluate schedule compliance: " + cause.getMessage(), cause);
+                });
+    }
+
+    // El servicio puede devolver los resultados en cualquier orden: se asocian por submissionId
+    private static List<ScheduleComplianceBatchResponse.Item> matchResults(
+            List<ScheduleComplianceBatchRequest.Item> submissions, ScheduleComplianceBatchResponse response) {
+        Map<Long, ScheduleComplianceBatchResponse.Item> byId = new HashMap<>();
+        if (response != null && response.getResults() != null) {
+            for (ScheduleComplianceBatchResponse.Item item : response.getResults()) {
+                byId.putIfAbsent(item.getSubmissionId(), item);
+            }
+        }
+        List<ScheduleComplianceBatchResponse.Item> results = new ArrayList<>(submissions.size());
+        int failed = 0;
+        for (ScheduleComplianceBatchRequest.Item submission : submissions) {
+            ScheduleComplianceBatchResponse.Item item = byId.get(submission.getSubmissionId());
+            if (item == null || (item.getResult() == null && item.getError() == null)) {
+                item = new ScheduleComplianceBatchResponse.Item(submission.getSubmissionId(), null,
+                        "No result returned");
+            }
+            if (item.getError() != null) {
+                failed++;
+            }
+            results.add(item);
+        }
+        log.info("Schedule compliance batch completed: {} succeeded, {} failed", submissions.size() - failed,
+                failed);
+        return results;
+    }
+
+    /**
+     * Indica si el circuit breaker del servicio permite llamadas en este momento
+     */
+    public boolean isCallPermitted() {
+        return downstreamGuard.isCallPermitted(Downstream.SCHEDULE_COMPLIANCE);
+    }
+
     /**
      * Verifica si el servicio de cumplimiento está disponible
      * 
      * @return true si está disponible, false en caso contrario
      */
     public boolean isServiceAvailable() {
-        String url = scheduleComplianceServiceUrl + "/api/schedule-compliance/health";
-
-        try {
-            ResponseEntity<String> response = restTemplate.getForEntity(url, String.class);
-            return response.getStatusCode() == HttpStatus.OK;
-        } catch (Exception e) {
-            log.warn("Schedule compliance service is not available: {}", e.getMessage());
-            return false;
-        }
+        return healthRegistry.currentHealth(Downstream.SCHEDULE_COMPLIANCE).isUp();
     }
 }
@@ -1,6 +1,5 @@
 package com.eci.iagen.api_gateway.client;
 
-import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -9,12 +8,17 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.util.concurrent.CompletableFuture;
 
 import com.eci.iagen.api_gateway.dto.FeedbackDTO;
 import com.eci.iagen.api_gateway.dto.request.GeneralFeedbackRequest;
 import com.eci.iagen.api_gateway.dto.request.LLMChatRequest;
 import com.eci.iagen.api_gateway.dto.request.TeamFeedbackRequest;
 import com.eci.iagen.api_gateway.dto.response.GeneralFeedbackResponse;
+import com.eci.iagen.api_gateway.resilience.DownstreamCallAbortedException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -25,28 +29,27 @@ import lombok.extern.slf4j.Slf4j;
 public class TeamFeedbackClient {
     
     private final RestTemplate restTemplate;
-    
-    @Value("${team.feedback.service.url:http://localhost:8001}")
-    private String teamFeedbackServiceUrl;
+    private final WebClient downstreamWebClient;
+    private final DownstreamGuard downstreamGuard;
     
     public FeedbackDTO generateTeamFeedback(TeamFeedbackRequest request) {
         try {
-            String url = teamFeedbackServiceUrl + "/feedback/equipo";
+            String path = "/feedback/equipo";
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             
-            HttpEntity<TeamFeedbackRequest> entity = new HttpEntity<>(request, headers);
-            
-            log.info("Calling team feedback service at: {}", url);
+            log.info("Calling team feedback service at: {}", path);
             log.debug("Request payload: {}", request);
             
-            ResponseEntity<FeedbackDTO> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                entity,
-                FeedbackDTO.class
-            );
+            ResponseEntity<FeedbackDTO> response = downstreamGuard.callWithIdempotencyKey(Downstream.TEAM_FEEDBACK,
+                headers,
+                baseUrl -> restTemplate.exchange(
+                    baseUrl + path,
+                    HttpMethod.POST,
+                    new HttpEntity<>(request, headers),
+                    FeedbackDTO.class
+                ));
             
             log.info("Team feedback service response status: {}", response.getStatusCode());
             return response.getBody();
@@ -59,22 +62,22 @@ public class TeamFeedbackClient {
     
     public GeneralFeedbackResponse generateCoordinatorFeedback(GeneralFeedbackRequest request) {
         try {
-            String url = teamFeedbackServiceUrl + "/feedback/coordinador";
+            String path = "/feedback/coordinador";
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             
-            HttpEntity<GeneralFeedbackRequest> entity = new HttpEntity<>(request, headers);
-            
-            log.info("Calling coordinator feedback service at: {}", url);
+            log.info("Calling coordinator feedback service at: {}", path);
             log.debug("Request payload: {}", request);
             
-            ResponseEntity<GeneralFeedbackResponse> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                entity,
-                GeneralFeedbackResponse.class
-            );
+            ResponseEntity<GeneralFeedbackResponse> response = downstreamGuard.callWithIdempotencyKey(Downstream.TEAM_FEEDBACK,
+                headers,
+                baseUrl -> restTemplate.exchange(
+                    baseUrl + path,
+                    HttpMethod.POST,
+                    new HttpEntity<>(request, headers),
+                    GeneralFeedbackResponse.class
+                ));
             
             log.info("Coordinator feedback service response status: {}", response.getStatusCode());
             return response.getBody();
@@ -87,22 +90,22 @@ public class TeamFeedbackClient {
     
     public GeneralFeedbackResponse generateTeacherFeedback(GeneralFeedbackRequest request) {
         try {
-            String url = teamFeedbackServiceUrl + "/feedback/profesor";
+            String path = "/feedback/profesor";
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             
-            HttpEntity<GeneralFeedbackRequest> entity = new HttpEntity<>(request, headers);
-            
-            log.info("Calling teacher feedback service at: {}", url);
+            log.info("Calling teacher feedback service at: {}", path);
             log.debug("Request payload: {}", request);
             
-            ResponseEntity<GeneralFeedbackResponse> response = restTemplate.exchange(
-                url,
-                HttpMethod.POST,
-                entity,
-                GeneralFeedbackResponse.class
-            );
+            ResponseEntity<GeneralFeedbackResponse> response = downstreamGuard.callWithIdempotencyKey(Downstream.TEAM_FEEDBACK,
+                headers,
+                baseUrl -> restTemplate.exchange(
+                    baseUrl + path,
+                    HttpMethod.POST,
+                    new HttpEntity<>(request, headers),
+                    GeneralFeedbackResponse.class
+                ));
             
             log.info("Teacher feedback service response status: {}", response.getStatusCode());
             return response.getBody();
@@ -113,23 +116,67 @@ public class TeamFeedbackClient {
         }
     }
     
+    /**
+     * Versiones no bloqueantes: devuelven un future en lugar de esperar al LLM
+     */
+    public CompletableFuture<FeedbackDTO> generateTeamFeedbackNonBlocking(TeamFeedbackRequest request) {
+        return postNonBlocking("/feedback/equipo", "team", request, FeedbackDTO.class);
+    }
+    
+    public CompletableFuture<GeneralFeedbackResponse> generateCoordinatorFeedbackNonBlocking(GeneralFeedbackRequest request) {
+        return postNonBlocking("/feedback/coordinador", "coordinator", request, GeneralFeedbackResponse.class);
+    }
+    
+    public CompletableFuture<GeneralFeedbackResponse> generateTeacherFeedbackNonBlocking(GeneralFeedbackRequest request) {
+        return postNonBlocking("/feedback/profesor", "teacher", request, GeneralFeedbackResponse.class);
+    }
+    
+    private <T> CompletableFuture<T> postNonBlocking(String path, String feedbackType, Object request,
+            Class<T> responseType) {
+        log.info("Calling {} feedback service (non-blocking) at: {}", feedbackType, path);
+        log.debug("Request payload: {}", request);
+        
+        HttpHeaders headers = new HttpHeaders();
+        return downstreamGuard.callWithIdempotencyKeyAsync(Downstream.TEAM_FEEDBACK, headers,
+                baseUrl -> downstreamWebClient.post()
+                        .uri(baseUrl + path)
+                        .headers(requestHeaders -> requestHeaders.addAll(headers))
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .bodyValue(request)
+                        .retrieve()
+                        .bodyToMono(responseType)
+                        .toFuture())
+                .handle((response, error) -> {
+                    if (error == null) {
+                        log.info("{} feedback service responded successfully", feedbackType);
+                        return response;
+                    }
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (cause instanceof DownstreamCallAbortedException aborted) {
+                        throw aborted;
+                    }
+                    log.error("Error calling {} feedback service: {}", feedbackType, cause.getMessage(), cause);
+                    throw new RuntimeException("Failed to generate " + feedbackType + " feedback: " + cause.getMessage(), cause);
+                });
+    }
+    
     /**
      * Métodos para chat streaming - no esperan respuesta inmediata
      */
     public void generateCoordinatorFeedbackAsync(LLMChatRequest request) {
         try {
-            String url = teamFeedbackServiceUrl + "/feedback/coordinador/chat";
+            String path = "/feedback/coordinador/chat";
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             
             HttpEntity<LLMChatRequest> entity = new HttpEntity<>(request, headers);
             
-            log.info("Calling coordinator feedback chat service at: {}", url);
+            log.info("Calling coordinator feedback chat service at: {}", path);
             log.debug("Request payload: {}", request);
             
             // Llamada asíncrona - no esperamos respuesta
-            restTemplate.postForLocation(url, entity);
+            downstreamGuard.call(Downstream.TEAM_FEEDBACK, baseUrl -> restTemplate.postForLocation(baseUrl + path, entity));
             
             log.info("Coordinator feedback chat request sent successfully for session: {}", request.getSessionId());
             
@@ -141,18 +188,18 @@ public class TeamFeedbackClient {
     
     public void generateTeacherFeedbackAsync(LLMChatRequest request) {
         try {
-            String url = teamFeedbackServiceUrl + "/feedback/profesor/chat";
+            String path = "/feedback/profesor/chat";
             
             HttpHeaders headers = new HttpHeaders();
             headers.setContentType(MediaType.APPLICATION_JSON);
             
             HttpEntity<LLMChatRequest> entity = new HttpEntity<>(request, headers);
             
-            log.info("Calling teacher feedback chat service at: {}", url);
+            log.info("Calling teacher feedback chat service at: {}", path);
             log.debug("Request payload: {}", request);
             
             // Llamada asíncrona - no esperamos respuesta
-            restTemplate.postForLocation(url, entity);
+            downstreamGuard.call(Downstream.TEAM_FEEDBACK, baseUrl -> restTemplate.postForLocation(baseUrl + path, entity));
             
             log.info("Teacher feedback chat request sent successfully for session: {}", request.getSessionId());
             
@@ -0,0 +1,56 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnThreading;
+import org.springframework.boot.autoconfigure.thread.Threading;
+import org.springframework.boot.task.SimpleAsyncTaskExecutorBuilder;
+import org.springframework.boot.task.ThreadPoolTaskExecutorBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+/**
+ * Ejecutor para el trabajo bloqueante (consultas y escrituras JPA, llamadas con
+ * RestTemplate) de los endpoints asíncronos, para no ejecutarlo en los hilos de
+ * Reactor Netty ni en el ForkJoinPool común.
+ * Con spring.threads.virtual.enabled=true cada tarea usa un hilo virtual; si no,
+ * un pool de hilos de plataforma configurado con spring.task.execution.pool.*.
+ * Las tareas que pueden tardar minutos tienen pools propios y acotados en ambos
+ * modos, para no dejar sin hilos a las fases JPA: los clones y fetch de las
+ * réplicas de repositorios (github.mirror.*) y las llamadas del chat al LLM (chat.*).
+ */
+@Configuration
+public class AsyncConfig {
+
+    @Bean
+    @ConditionalOnThreading(Threading.PLATFORM)
+    public AsyncTaskExecutor blockingTaskExecutor(ThreadPoolTaskExecutorBuilder builder) {
+        return builder.threadNamePrefix("blocking-").build();
+    }
+
+    @Bean(name = "blockingTaskExecutor")
+    @ConditionalOnThreading(Threading.VIRTUAL)
+    public AsyncTaskExecutor virtualBlockingTaskExecutor(SimpleAsyncTaskExecutorBuilder builder) {
+        return builder.threadNamePrefix("blocking-vt-").build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor gitMirrorTaskExecutor(ThreadPoolTaskExecutorBuilder builder,
+            GitHubProperties properties) {
+        GitHubProperties.Mirror mirror = properties.getMirror();
+        return builder.corePoolSize(mirror.getMaxConcurrent())
+                .maxPoolSize(mirror.getMaxConcurrent())
+                .queueCapacity(mirror.getMaxQueued())
+                .threadNamePrefix("git-mirror-")
+                .build();
+    }
+
+    @Bean
+    public ThreadPoolTaskExecutor chatTaskExecutor(ThreadPoolTaskExecutorBuilder builder, ChatProperties properties) {
+        return builder.corePoolSize(properties.getMaxConcurrent())
+                .maxPoolSize(properties.getMaxConcurrent())
+                .queueCapacity(properties.getMaxQueued())
+                .threadNamePrefix("chat-")
+                .build();
+    }
+}
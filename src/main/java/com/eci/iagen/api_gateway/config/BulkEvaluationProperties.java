@@ -0,0 +1,22 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Evaluación de todas las entregas de una tarea (prefijo evaluation.bulk.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "evaluation.bulk")
+public class BulkEvaluationProperties {
+
+    // Evaluaciones de cumplimiento de horarios (GitHub + schedule compliance) a la vez
+    private int schedulerConcurrency = 4;
+
+    // Evaluaciones de buenas prácticas (checkstyle o LLM) a la vez
+    private int goodPracticesConcurrency = 4;
+
+    // Evaluaciones que se guardan en cada transacción
+    private int batchSize = 50;
+}
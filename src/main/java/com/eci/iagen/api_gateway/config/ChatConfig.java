@@ -0,0 +1,12 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Chat con el servicio de feedback (chat.*)
+ */
+@Configuration
+@EnableConfigurationProperties(ChatProperties.class)
+public class ChatConfig {
+}
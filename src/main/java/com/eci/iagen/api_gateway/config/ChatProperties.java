@@ -0,0 +1,19 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Envío de los mensajes del chat al servicio de feedback (prefijo chat.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "chat")
+public class ChatProperties {
+
+    // Mensajes enviados al LLM a la vez, en su propio pool para no ocupar blockingTaskExecutor
+    private int maxConcurrent = 8;
+
+    // Mensajes que pueden esperar; con la cola llena se responde con un mensaje de error
+    private int maxQueued = 100;
+}
@@ -0,0 +1,35 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.boot.web.servlet.FilterRegistrationBean;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.Ordered;
+import org.springframework.core.task.TaskDecorator;
+
+import com.eci.iagen.api_gateway.resilience.Deadline;
+import com.eci.iagen.api_gateway.resilience.DeadlineFilter;
+
+/**
+ * Deadline de las peticiones entrantes: el filtro lo fija para el hilo del
+ * request y el TaskDecorator (que Spring Boot aplica a los ejecutores, incluido
+ * blockingTaskExecutor) lo pasa a las tareas asíncronas
+ */
+@Configuration
+@EnableConfigurationProperties(DeadlineProperties.class)
+public class DeadlineConfig {
+
+    @Bean
+    public FilterRegistrationBean<DeadlineFilter> deadlineFilter(DeadlineProperties properties) {
+        FilterRegistrationBean<DeadlineFilter> registration =
+                new FilterRegistrationBean<>(new DeadlineFilter(properties));
+        registration.addUrlPatterns("/api/*");
+        registration.setOrder(Ordered.HIGHEST_PRECEDENCE + 10);
+        return registration;
+    }
+
+    @Bean
+    public TaskDecorator deadlineTaskDecorator() {
+        return Deadline::propagate;
+    }
+}
@@ -0,0 +1,30 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Deadline de las peticiones entrantes (prefijo deadline.*): el cliente puede
+ * enviarlo en una cabecera y cada ruta puede tener uno por defecto
+ */
+@Data
+@ConfigurationProperties(prefix = "deadline")
+public class DeadlineProperties {
+
+    // Cabecera con el tiempo máximo que el cliente espera la respuesta (p. ej. 30s o 1500 en ms)
+    private String header = "X-Request-Timeout";
+
+    // Deadline de las rutas sin uno propio; sin valor, esas peticiones no tienen deadline
+    private Duration defaultTimeout;
+
+    // Límite para el valor de la cabecera
+    private Duration maxTimeout = Duration.ofMinutes(6);
+
+    // Deadline por ruta (patrones Ant); gana el primer patrón que coincide
+    private Map<String, Duration> routes = new LinkedHashMap<>();
+}
@@ -0,0 +1,187 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+
+import lombok.Data;
+
+/**
+ * Configuración del cliente HTTP compartido y de cada servicio externo
+ * (prefijo downstream.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "downstream")
+public class DownstreamProperties {
+
+    private Pool pool = new Pool();
+
+    private Health health = new Health();
+
+    private Map<Downstream, Service> services = new EnumMap<>(Downstream.class);
+
+    /**
+     * Devuelve la configuración del servicio, o los valores por defecto si no está configurado
+     */
+    public Service service(Downstream downstream) {
+        return services.computeIfAbsent(downstream, key -> new Service());
+    }
+
+    @Data
+    public static class Pool {
+        // Conexiones máximas abiertas entre todos los servicios
+        private int maxTotal = 200;
+        // Conexiones máximas por ruta para hosts sin configuración propia
+        private int defaultMaxPerRoute = 20;
+        // Tiempo máximo esperando una conexión libre del pool
+        private Duration connectionRequestTimeout = Duration.ofSeconds(5);
+        // Las conexiones inactivas más tiempo que esto se cierran
+        private Duration idleEviction = Duration.ofSeconds(30);
+        // Vida máxima de una conexión antes de reciclarla
+        private Duration timeToLive = Duration.ofMinutes(5);
+    }
+
+    @Data
+    public static class Health {
+        // Intervalo entre health checks de cada servicio
+        private Duration interval = Duration.ofSeconds(15);
+        // Timeout de cada health check
+        private Duration timeout = Duration.ofSeconds(3);
+        // Rechaza de inmediato las llamadas a servicios cuyo último health check falló
+        private boolean skipCallsWhenDown = true;
+    }
+
+    @Data
+    public static class Service {
+        private String url;
+        // Réplicas del servicio (URLs base); si está vacío se usa solo url
+        private List<String> instances = new ArrayList<>();
+        // Ruta del health check; sin ella el servicio no se consulta periódicamente
+        private String healthPath;
+        // Conexiones máximas hacia cada réplica del servicio
+        private int maxConnections = 20;
+        private Duration connectTimeout = Duration.ofSeconds(2);
+        // Tiempo máximo de inactividad del socket de la conexión
+        private Duration readTimeout = Duration.ofSeconds(30);
+        // Tiempo máximo entre dos lecturas de la respuesta (sustituye a readTimeout
+        // durante la llamada); no limita la duración total: un cuerpo que llega poco
+        // a poco puede tardar mucho más
+        private Duration responseTimeout = Duration.ofSeconds(30);
+        private CircuitBreaker circuitBreaker = new CircuitBreaker();
+        private Bulkhead bulkhead = new Bulkhead();
+        private LoadBalancer loadBalancer = new LoadBalancer();
+        private Retry retry = new Retry();
+        private Batch batch = new Batch();
+
+        /**
+         * URLs base de todas las réplicas configuradas, sin "/" final
+         */
+        public List<String> instanceUrls() {
+            List<String> urls = new ArrayList<>();
+            for (String instance : instances) {
+                addBaseUrl(urls, instance);
+            }
+            if (urls.isEmpty()) {
+                addBaseUrl(urls, url);
+            }
+            return urls;
+        }
+
+        private static void addBaseUrl(List<String> urls, String baseUrl) {
+            if (baseUrl == null) {
+                return;
+            }
+            String trimmed = baseUrl.trim();
+            while (trimmed.endsWith("/")) {
+                trimmed = trimmed.substring(0, trimmed.length() - 1);
+            }
+            if (!trimmed.isEmpty() && !urls.contains(trimmed)) {
+                urls.add(trimmed);
+            }
+        }
+    }
+
+    @Data
+    public static class CircuitBreaker {
+        private boolean enabled = true;
+        // Número de llamadas recientes usadas para calcular la tasa de fallos
+        private int slidingWindowSize = 20;
+        // Llamadas mínimas en la ventana antes de poder abrir el circuito
+        private int minimumNumberOfCalls = 10;
+        // Porcentaje de fallos (0-100) a partir del cual se abre el circuito
+        private float failureRateThreshold = 50f;
+        // Tiempo en OPEN antes de dejar pasar llamadas de prueba
+        private Duration waitDurationInOpenState = Duration.ofSeconds(30);
+        // Llamadas de prueba en HALF_OPEN; si todas tienen éxito el circuito se cierra
+        private int permittedCallsInHalfOpenState = 3;
+    }
+
+    @Data
+    public static class Bulkhead {
+        private boolean enabled = true;
+        // Llamadas simultáneas permitidas hacia el servicio
+        private int maxConcurrentCalls = 20;
+        // Llamadas que pueden esperar cupo; el resto se rechaza de inmediato
+        private int maxQueueDepth = 20;
+        // Tiempo máximo esperando cupo antes de rechazar la llamada
+        private Duration maxWait = Duration.ofSeconds(2);
+    }
+
+    @Data
+    public static class Retry {
+        private boolean enabled = true;
+        // Intentos totales, incluido el primero
+        private int maxAttempts = 3;
+        // Espera máxima antes del primer reintento; se duplica en cada intento (con jitter completo)
+        private Duration initialBackoff = Duration.ofMillis(100);
+        private Duration maxBackoff = Duration.ofSeconds(2);
+        // Un Retry-After mayor que esto hace que no se reintente
+        private Duration maxRetryAfter = Duration.ofSeconds(5);
+        // Los reintentos no pueden superar este porcentaje (0-100) de las llamadas
+        private int budgetPercent = 20;
+        // Reintentos disponibles en ráfaga aunque haya poco tráfico
+        private int budgetMinRetries = 10;
+        // El servicio acepta la cabecera Idempotency-Key: sus POST también se pueden reintentar
+        private boolean idempotencyKeys = false;
+    }
+
+    @Data
+    public static class Batch {
+        // El servicio expone {ruta}/batch: las llamadas concurrentes se agrupan en una sola petición
+        private boolean enabled = false;
+        // Elementos máximos por petición
+        private int maxSize = 20;
+        // Tiempo máximo que la primera llamada espera a que se le unan otras
+        private Duration linger = Duration.ofMillis(20);
+    }
+
+    @Data
+    public static class LoadBalancer {
+        private Strategy strategy = Strategy.POWER_OF_TWO_CHOICES;
+        // Fallos consecutivos de una réplica que provocan su expulsión
+        private int consecutiveFailures = 5;
+        // Porcentaje de fallos (0-100) en la ventana que provoca la expulsión
+        private float failureRateThreshold = 50f;
+        private int slidingWindowSize = 20;
+        // Llamadas mínimas en la ventana antes de evaluar la tasa de fallos
+        private int minimumNumberOfCalls = 10;
+        // Tiempo base de expulsión; crece con cada expulsión consecutiva de la réplica
+        private Duration ejectionDuration = Duration.ofSeconds(30);
+        private Duration maxEjectionDuration = Duration.ofMinutes(5);
+        // Porcentaje máximo (0-100) de réplicas expulsadas a la vez
+        private int maxEjectionPercent = 50;
+    }
+
+    public enum Strategy {
+        // Elige entre dos réplicas al azar la que tiene menos llamadas en curso
+        POWER_OF_TWO_CHOICES,
+        // Elige la réplica con menos llamadas en curso
+        LEAST_OUTSTANDING
+    }
+}
@@ -0,0 +1,118 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.net.URI;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import org.apache.hc.core5.http.HttpHost;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Identifica a qué servicio externo va dirigida una petición según la URL base
+ * más larga que la contiene (cualquiera de las réplicas del servicio), de modo
+ * que varios servicios pueden compartir host y puerto con distinta ruta. Las
+ * conexiones son por host y puerto, así que los servicios que los comparten
+ * deben tener la misma configuración de conexión; si no, falla al arrancar.
+ */
+@Slf4j
+public class DownstreamRoutes {
+
+    private record Route(HttpHost host, String path, Downstream downstream) {
+
+        boolean matches(HttpHost target, String targetPath) {
+            return host.equals(target)
+                    && (path.isEmpty() || targetPath.equals(path) || targetPath.startsWith(path + "/"));
+        }
+    }
+
+    private final List<Route> routes = new ArrayList<>();
+    private final Map<String, Downstream> downstreamByAuthority = new HashMap<>();
+
+    public DownstreamRoutes(DownstreamProperties properties) {
+        for (Downstream downstream : Downstream.values()) {
+            for (String url : properties.service(downstream).instanceUrls()) {
+                HttpHost host = toHttpHost(url);
+                if (host == null) {
+                    continue;
+                }
+                routes.add(new Route(host, basePath(url), downstream));
+                Downstream sharing = downstreamByAuthority.putIfAbsent(host.toHostString(), downstream);
+                if (sharing != null && sharing != downstream
+                        && !sameConnectionSettings(properties.service(sharing), properties.service(downstream))) {
+                    throw new IllegalStateException("Downstream services " + sharing + " and " + downstream
+                            + " share " + host.toHostString()
+                            + " but have different max-connections, connect-timeout or read-timeout");
+                }
+            }
+        }
+        routes.sort(Comparator.comparingInt((Route route) -> route.path().length()).reversed());
+    }
+
+    /**
+     * Servicio al que va dirigida la URI, o null si no es ninguno de los configurados
+     */
+    public Downstream resolve(URI uri) {
+        HttpHost host = toHttpHost(uri.toString());
+        if (host == null) {
+            return null;
+        }
+        String path = uri.getRawPath() != null ? uri.getRawPath() : "";
+        for (Route route : routes) {
+            if (route.matches(host, path)) {
+                return route.downstream();
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Servicio cuya configuración de conexión se aplica al host (la misma para
+     * todos los servicios que lo comparten)
+     */
+    public Downstream resolve(HttpHost host) {
+        return downstreamByAuthority.get(host.toHostString());
+    }
+
+    static HttpHost toHttpHost(String url) {
+        if (url == null || url.isBlank()) {
+            return null;
+        }
+        try {
+            URI uri = URI.create(url.trim());
+            if (uri.getHost() == null) {
+                return null;
+            }
+            int port = uri.getPort() != -1 ? uri.getPort() : ("https".equalsIgnoreCase(uri.getScheme()) ? 443 : 80);
+            return new HttpHost(uri.getScheme(), uri.getHost(), port);
+        } catch (IllegalArgumentException e) {
+            log.warn("Ignoring invalid downstream URL {}: {}", url, e.getMessage());
+            return null;
+        }
+    }
+
+    // Ruta de la URL base sin "/" final ("" si no tiene)
+    private static String basePath(String url) {
+        String path = URI.create(url.trim()).getRawPath();
+        if (path == null) {
+            return "";
+        }
+        while (path.endsWith("/")) {
+            path = path.substring(0, path.length() - 1);
+        }
+        return path;
+    }
+
+    private static boolean sameConnectionSettings(DownstreamProperties.Service first,
+            DownstreamProperties.Service second) {
+        return first.getMaxConnections() == second.getMaxConnections()
+                && Objects.equals(first.getConnectTimeout(), second.getConnectTimeout())
+                && Objects.equals(first.getReadTimeout(), second.getReadTimeout());
+    }
+}
@@ -0,0 +1,13 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Trabajos de evaluación asíncronos (evaluation.jobs.*) y evaluación de
+ * tareas completas (evaluation.bulk.*)
+ */
+@Configuration
+@EnableConfigurationProperties({ EvaluationJobProperties.class, BulkEvaluationProperties.class })
+public class EvaluationConfig {
+}
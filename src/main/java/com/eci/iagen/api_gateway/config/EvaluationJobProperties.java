@@ -0,0 +1,33 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Trabajos de evaluación asíncronos (prefijo evaluation.jobs.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "evaluation.jobs")
+public class EvaluationJobProperties implements JobProperties {
+
+    // Trabajos que se ejecutan a la vez; el resto espera en cola
+    private int maxConcurrent = 8;
+
+    // Trabajos que pueden esperar en cola; con la cola llena se responde 503
+    private int maxQueued = 200;
+
+    // Tiempo máximo en cola antes de marcar el trabajo como fallido
+    private Duration maxQueueWait = Duration.ofMinutes(10);
+
+    // Deadline de cada trabajo desde que empieza a ejecutarse
+    private Duration timeout = Duration.ofMinutes(5);
+
+    // Tiempo que se conserva un trabajo terminado para consultarlo
+    private Duration retention = Duration.ofHours(1);
+
+    // Prefijo de los topics STOMP: {topic}/{jobId} y {topic}/submissions/{submissionId}
+    private String topic = "/topic/evaluation-jobs";
+}
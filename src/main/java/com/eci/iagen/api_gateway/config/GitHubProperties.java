@@ -0,0 +1,86 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.util.unit.DataSize;
+
+import lombok.Data;
+
+/**
+ * Configuración de las consultas a la API de GitHub (prefijo github.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "github")
+public class GitHubProperties {
+
+    // Tokens de acceso (GITHUB_TOKENS, separados por comas); sin tokens se usa el límite anónimo
+    private List<String> tokens = new ArrayList<>();
+
+    private RateLimit rateLimit = new RateLimit();
+
+    private Commits commits = new Commits();
+
+    private Cache cache = new Cache();
+
+    private Mirror mirror = new Mirror();
+
+    @Data
+    public static class RateLimit {
+        // Espera máxima al reinicio de la cuota cuando todos los tokens están agotados
+        private Duration maxWait = Duration.ofMinutes(10);
+    }
+
+    @Data
+    public static class Commits {
+        // Commits por página (GitHub admite hasta 100)
+        private int perPage = 100;
+        // Páginas máximas por repositorio; el resto del historial se descarta
+        private int maxPages = 30;
+        // Páginas que se descargan a la vez una vez se conoce el total
+        private int pageConcurrency = 4;
+        // Margen antes de la fecha de inicio de la tarea
+        private Duration historyGrace = Duration.ofDays(1);
+        // Margen después de la fecha límite (o de la entrega, si es posterior)
+        private Duration lateGrace = Duration.ofDays(10);
+    }
+
+    @Data
+    public static class Cache {
+        // Usa peticiones condicionales (If-None-Match / If-Modified-Since) con las respuestas guardadas
+        private boolean enabled = true;
+        // Respuestas máximas en memoria (LRU)
+        private int maxEntries = 2000;
+        // Tamaño máximo de las respuestas en memoria
+        private DataSize maxMemory = DataSize.ofMegabytes(64);
+        // Directorio para conservar las respuestas entre reinicios; vacío = solo memoria
+        private String directory;
+        // Archivos máximos en el directorio; se borran primero los más antiguos
+        private int maxDiskEntries = 20000;
+    }
+
+    @Data
+    public static class Mirror {
+        // Calcula el historial desde una réplica local (bare) del repositorio en vez de la API
+        private boolean enabled = true;
+        // Directorio de las réplicas
+        private String directory = Paths.get(System.getProperty("java.io.tmpdir"), "api-gateway-mirrors").toString();
+        // Base de las URL de clonado para los repositorios de GitHub
+        private String cloneBaseUrl = "https://github.com";
+        // Permite clonar repositorios file:// (solo pruebas: daría acceso a repositorios del servidor)
+        private boolean allowLocalUrls = false;
+        // Tiempo mínimo entre dos fetch del mismo repositorio
+        private Duration fetchInterval = Duration.ofMinutes(1);
+        // Tiempo máximo de la conexión de clone / fetch
+        private Duration timeout = Duration.ofMinutes(2);
+        // Espacio en disco de todas las réplicas; se eliminan primero las usadas hace más tiempo
+        private DataSize maxDiskSize = DataSize.ofGigabytes(2);
+        // Clones / fetch a la vez, en su propio pool para no ocupar blockingTaskExecutor
+        private int maxConcurrent = 4;
+        // Sincronizaciones en espera; con la cola llena se usa la API de GitHub
+        private int maxQueued = 100;
+    }
+}
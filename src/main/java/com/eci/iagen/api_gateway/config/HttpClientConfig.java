@@ -0,0 +1,222 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.hc.client5.http.HttpRoute;
+import org.apache.hc.client5.http.config.ConnectionConfig;
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.impl.classic.HttpClients;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManager;
+import org.apache.hc.client5.http.impl.io.PoolingHttpClientConnectionManagerBuilder;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.http.HttpHost;
+import org.apache.hc.core5.util.TimeValue;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.http.client.reactive.ReactorClientHttpConnector;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+import com.eci.iagen.api_gateway.monitoring.OutboundCallMetrics;
+import com.eci.iagen.api_gateway.resilience.Deadline;
+
+import io.netty.channel.ChannelOption;
+import lombok.extern.slf4j.Slf4j;
+import reactor.netty.http.client.HttpClient;
+import reactor.netty.http.client.HttpClientRequest;
+import reactor.netty.resources.ConnectionProvider;
+
+/**
+ * Cliente HTTP compartido por todos los clientes de servicios externos:
+ * pool de conexiones con keep-alive, límites por ruta, expulsión de conexiones
+ * inactivas y timeouts por servicio. Incluye un RestTemplate (bloqueante) y un
+ * WebClient sobre Reactor Netty (no bloqueante) con la misma configuración.
+ */
+@Configuration
+@EnableConfigurationProperties({ DownstreamProperties.class, GitHubProperties.class })
+@Slf4j
+public class HttpClientConfig {
+
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient downstreamHttpClient(DownstreamProperties properties) {
+        DownstreamProperties.Pool pool = properties.getPool();
+        DownstreamRoutes routes = new DownstreamRoutes(properties);
+
+        PoolingHttpClientConnectionManager connectionManager = PoolingHttpClientConnectionManagerBuilder.create()
+                .setMaxConnTotal(pool.getMaxTotal())
+                .setMaxConnPerRoute(pool.getDefaultMaxPerRoute())
+                .setConnectionConfigResolver(route -> connectionConfig(
+                        properties, routes.resolve(route.getTargetHost())))
+                .build();
+
+        // Límite de conexiones por ruta (por réplica) según el servicio configurado
+        for (Downstream downstream : Downstream.values()) {
+            DownstreamProperties.Service service = properties.service(downstream);
+            for (String url : service.instanceUrls()) {
+                HttpHost host = DownstreamRoutes.toHttpHost(url);
+                if (host != null) {
+                    boolean secure = "https".equalsIgnoreCase(host.getSchemeName());
+                    connectionManager.setMaxPerRoute(new HttpRoute(host, null, secure), service.getMaxConnections());
+                }
+            }
+        }
+
+        log.info("Downstream HTTP pool configured: maxTotal={}, idleEviction={}",
+                pool.getMaxTotal(), pool.getIdleEviction());
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(RequestConfig.custom()
+                        .setConnectionRequestTimeout(Timeout.of(pool.getConnectionRequestTimeout()))
+                        .build())
+                .evictExpiredConnections()
+                .evictIdleConnections(TimeValue.of(pool.getIdleEviction()))
+                .build();
+    }
+
+    @Bean
+    public RestTemplate restTemplate(CloseableHttpClient downstreamHttpClient, DownstreamProperties properties,
+            OutboundCallMetrics outboundCallMetrics) {
+        HttpComponentsClientHttpRequestFactory requestFactory =
+                new HttpComponentsClientHttpRequestFactory(downstreamHttpClient);
+        DownstreamRoutes routes = new DownstreamRoutes(properties);
+        Map<Downstream, RequestConfig> requestConfigs = new EnumMap<>(Downstream.class);
+        for (Downstream downstream : Downstream.values()) {
+            requestConfigs.put(downstream, requestConfig(properties, properties.service(downstream)));
+        }
+
+        // Cada petición usa el timeout de respuesta del servicio al que va dirigida,
+        // recortado al tiempo que le queda a la petición entrante
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            Downstream downstream = routes.resolve(uri);
+            RequestConfig requestConfig = downstream != null ? requestConfigs.get(downstream) : null;
+            Deadline deadline = Deadline.current();
+            if (deadline != null) {
+                Duration responseTimeout = downstream != null
+                        ? properties.service(downstream).getResponseTimeout()
+                        : deadline.remaining();
+                RequestConfig.Builder builder = requestConfig != null
+                        ? RequestConfig.copy(requestConfig)
+                        : RequestConfig.custom();
+                requestConfig = builder.setResponseTimeout(Timeout.of(atLeastOneMilli(Deadline.cap(responseTimeout))))
+                        .build();
+            }
+            if (requestConfig != null) {
+                context.setRequestConfig(requestConfig);
+            }
+            return context;
+        });
+        RestTemplate restTemplate = new RestTemplate(requestFactory);
+        restTemplate.getInterceptors().add(outboundCallMetrics.restTemplateInterceptor());
+        return restTemplate;
+    }
+
+    /**
+     * Pool de conexiones de Reactor Netty; en Netty el límite de conexiones es por host
+     */
+    @Bean(destroyMethod = "dispose")
+    public ConnectionProvider downstreamConnectionProvider(DownstreamProperties properties) {
+        DownstreamProperties.Pool pool = properties.getPool();
+        ConnectionProvider.Builder builder = poolSpec(ConnectionProvider.builder("downstream"), pool,
+                pool.getDefaultMaxPerRoute());
+
+        for (Downstream downstream : Downstream.values()) {
+            DownstreamProperties.Service service = properties.service(downstream);
+            for (String url : service.instanceUrls()) {
+                HttpHost host = DownstreamRoutes.toHttpHost(url);
+                if (host != null) {
+                    builder.forRemoteHost(InetSocketAddress.createUnresolved(host.getHostName(), host.getPort()),
+                            spec -> poolSpec(spec, pool, service.getMaxConnections()));
+                }
+            }
+        }
+        return builder.build();
+    }
+
+    // La configuración por host no hereda la del builder: hay que repetir timeouts y expulsión
+    private static <S extends ConnectionProvider.ConnectionPoolSpec<S>> S poolSpec(S spec,
+            DownstreamProperties.Pool pool, int maxConnections) {
+        return spec.maxConnections(maxConnections)
+                .pendingAcquireTimeout(pool.getConnectionRequestTimeout())
+                .maxIdleTime(pool.getIdleEviction())
+                .maxLifeTime(pool.getTimeToLive())
+                .evictInBackground(pool.getIdleEviction());
+    }
+
+    @Bean
+    public WebClient downstreamWebClient(WebClient.Builder webClientBuilder,
+            ConnectionProvider downstreamConnectionProvider, DownstreamProperties properties,
+            OutboundCallMetrics outboundCallMetrics) {
+        Duration connectTimeout = Duration.ZERO;
+        for (Downstream downstream : Downstream.values()) {
+            Duration serviceTimeout = properties.service(downstream).getConnectTimeout();
+            connectTimeout = serviceTimeout.compareTo(connectTimeout) > 0 ? serviceTimeout : connectTimeout;
+        }
+        HttpClient httpClient = HttpClient.create(downstreamConnectionProvider)
+                .option(ChannelOption.CONNECT_TIMEOUT_MILLIS, (int) connectTimeout.toMillis())
+                .keepAlive(true);
+
+        DownstreamRoutes routes = new DownstreamRoutes(properties);
+
+        // Cada petición usa el timeout de respuesta del servicio al que va dirigida,
+        // recortado al tiempo que le queda a la petición entrante
+        ExchangeFilterFunction responseTimeouts = (request, next) -> {
+            Downstream downstream = routes.resolve(request.url());
+            Deadline deadline = Deadline.current();
+            if (downstream == null && deadline == null) {
+                return next.exchange(request);
+            }
+            Duration responseTimeout = atLeastOneMilli(Deadline.cap(downstream != null
+                    ? properties.service(downstream).getResponseTimeout()
+                    : deadline.remaining()));
+            return next.exchange(ClientRequest.from(request)
+                    .httpRequest(httpRequest -> {
+                        HttpClientRequest nativeRequest = httpRequest.getNativeRequest();
+                        nativeRequest.responseTimeout(responseTimeout);
+                    })
+                    .build());
+        };
+
+        return webClientBuilder
+                .clientConnector(new ReactorClientHttpConnector(httpClient))
+                .filter(outboundCallMetrics.webClientFilter())
+                .filter(responseTimeouts)
+                .build();
+    }
+
+    // Timeout.of(0) y responseTimeout(0) significan "sin límite": el deadline agotado se recorta a 1 ms
+    private static Duration atLeastOneMilli(Duration timeout) {
+        return timeout.compareTo(Duration.ofMillis(1)) < 0 ? Duration.ofMillis(1) : timeout;
+    }
+
+    private static ConnectionConfig connectionConfig(DownstreamProperties properties, Downstream downstream) {
+        DownstreamProperties.Service service = downstream != null
+                ? properties.service(downstream)
+                : new DownstreamProperties.Service();
+        return ConnectionConfig.custom()
+                .setConnectTimeout(Timeout.of(service.getConnectTimeout()))
+                .setSocketTimeout(Timeout.of(service.getReadTimeout()))
+                .setTimeToLive(TimeValue.of(properties.getPool().getTimeToLive()))
+                .setValidateAfterInactivity(TimeValue.of(2, TimeUnit.SECONDS))
+                .build();
+    }
+
+    private static RequestConfig requestConfig(DownstreamProperties properties, DownstreamProperties.Service service) {
+        return RequestConfig.custom()
+                .setConnectionRequestTimeout(Timeout.of(properties.getPool().getConnectionRequestTimeout()))
+                .setResponseTimeout(Timeout.of(service.getResponseTimeout()))
+                .build();
+    }
+}
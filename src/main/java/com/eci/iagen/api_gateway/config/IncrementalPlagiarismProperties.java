@@ -0,0 +1,21 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Análisis de plagio incremental (prefijo plagiarism.incremental.*): solo se
+ * envían a JPlag las entregas nuevas o modificadas, comparadas contra las demás,
+ * y los pares resultantes se combinan con los del último informe
+ */
+@Data
+@ConfigurationProperties(prefix = "plagiarism.incremental")
+public class IncrementalPlagiarismProperties {
+
+    // Requiere un servicio JPlag que acepte previousSubmissions
+    private boolean enabled = false;
+
+    // Con más entregas cambiadas que esta fracción del total se repite el análisis completo
+    private double maxChangedRatio = 0.5;
+}
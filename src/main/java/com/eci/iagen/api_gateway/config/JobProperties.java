@@ -0,0 +1,27 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.time.Duration;
+
+/**
+ * Ajustes de una cola de trabajos en segundo plano (ver JobRunner)
+ */
+public interface JobProperties {
+
+    // Trabajos que se ejecutan a la vez; el resto espera en cola
+    int getMaxConcurrent();
+
+    // Trabajos que pueden esperar en cola; con la cola llena se rechazan
+    int getMaxQueued();
+
+    // Tiempo máximo en cola antes de marcar el trabajo como fallido
+    Duration getMaxQueueWait();
+
+    // Deadline de cada trabajo desde que empieza a ejecutarse
+    Duration getTimeout();
+
+    // Tiempo que se conserva un trabajo terminado para consultarlo
+    Duration getRetention();
+
+    // Prefijo de los topics STOMP en los que se publica cada cambio de estado
+    String getTopic();
+}
@@ -0,0 +1,15 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Detección de plagio: trabajos (plagiarism.jobs.*), modo incremental
+ * (plagiarism.incremental.*), reparto en bloques (plagiarism.sharding.*) e
+ * informes guardados (plagiarism.reports.*)
+ */
+@Configuration
+@EnableConfigurationProperties({ PlagiarismJobProperties.class, IncrementalPlagiarismProperties.class,
+        ShardedPlagiarismProperties.class, PlagiarismReportProperties.class })
+public class PlagiarismConfig {
+}
@@ -0,0 +1,33 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.time.Duration;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Trabajos de detección de plagio (prefijo plagiarism.jobs.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "plagiarism.jobs")
+public class PlagiarismJobProperties implements JobProperties {
+
+    // Detecciones que se ejecutan a la vez; el resto espera en cola
+    private int maxConcurrent = 2;
+
+    // Detecciones que pueden esperar en cola; con la cola llena se responde 503
+    private int maxQueued = 20;
+
+    // Tiempo máximo en cola antes de marcar el trabajo como fallido
+    private Duration maxQueueWait = Duration.ofMinutes(30);
+
+    // Deadline de cada detección desde que empieza a ejecutarse
+    private Duration timeout = Duration.ofMinutes(10);
+
+    // Tiempo que se conserva un trabajo terminado para consultarlo
+    private Duration retention = Duration.ofHours(1);
+
+    // Prefijo de los topics STOMP: {topic}/{jobId} y {topic}/assignments/{assignmentId}
+    private String topic = "/topic/plagiarism-jobs";
+}
@@ -0,0 +1,16 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Informes de plagio guardados (prefijo plagiarism.reports.*)
+ */
+@Data
+@ConfigurationProperties(prefix = "plagiarism.reports")
+public class PlagiarismReportProperties {
+
+    // Informes que se conservan por tarea, del más reciente al más antiguo (mínimo 1)
+    private int keepPerAssignment = 3;
+}
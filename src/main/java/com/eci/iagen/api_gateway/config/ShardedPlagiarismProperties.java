@@ -0,0 +1,24 @@
+package com.eci.iagen.api_gateway.config;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+import lombok.Data;
+
+/**
+ * Detección de plagio repartida en bloques (prefijo plagiarism.sharding.*): con
+ * más entregas de las que admite una llamada a JPlag, las entregas se dividen en
+ * bloques de la mitad de ese tamaño y cada par de bloques se analiza por separado
+ */
+@Data
+@ConfigurationProperties(prefix = "plagiarism.sharding")
+public class ShardedPlagiarismProperties {
+
+    // Requiere un servicio JPlag que devuelva los ids de las entregas de cada comparación
+    private boolean enabled = false;
+
+    // Entregas por llamada a JPlag; cada bloque tiene la mitad
+    private int maxSubmissionsPerCall = 100;
+
+    // Pares de bloques analizados a la vez (repartidos entre las instancias de JPlag)
+    private int parallelism = 4;
+}
@@ -1,7 +1,11 @@
 package com.eci.iagen.api_gateway.controller;
 
+import java.net.URI;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -16,6 +20,12 @@ import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import com.eci.iagen.api_gateway.dto.EvaluationDTO;
+import com.eci.iagen.api_gateway.dto.EvaluationJobDTO;
+import com.eci.iagen.api_gateway.dto.response.BulkEvaluationResponse;
+import com.eci.iagen.api_gateway.resilience.DeadlineExceededException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamUnavailableException;
+import com.eci.iagen.api_gateway.service.EvaluationJobService;
 import com.eci.iagen.api_gateway.service.EvaluationService;
 
 import lombok.RequiredArgsConstructor;
@@ -27,6 +37,7 @@ import lombok.RequiredArgsConstructor;
 public class EvaluationController {
 
     private final EvaluationService evaluationService;
+    private final EvaluationJobService evaluationJobService;
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(EvaluationController.class);
 
 
@@ -73,37 +84,77 @@ public class EvaluationController {
         return ResponseEntity.notFound().build();
     }
 
+    /**
+     * Los endpoints automáticos crean un trabajo y responden 202 sin esperar a los
+     * servicios externos; el resultado se consulta en /jobs/{id} o llega por STOMP
+     */
     @PostMapping("/auto/scheduler/{submissionId}/{evaluatorId}")
-    public ResponseEntity<EvaluationDTO> autoEvaluateGitHubCommits(
+    public ResponseEntity<EvaluationJobDTO> autoEvaluateGitHubCommits(
             @PathVariable Long submissionId,
             @PathVariable Long evaluatorId) {
-        try {
-            logger.info("Auto-evaluating GitHub commits for submission {} by evaluator {}", submissionId, evaluatorId);
-            EvaluationDTO evaluation = evaluationService.evaluateGitHubCommits(submissionId, evaluatorId);
-            return ResponseEntity.status(HttpStatus.CREATED).body(evaluation);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(null);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
-        }
+        logger.info("Auto-evaluating GitHub commits for submission {} by evaluator {}", submissionId, evaluatorId);
+        return submitJob("AUTOMATIC", submissionId, evaluatorId,
+                () -> evaluationService.evaluateGitHubCommitsAsync(submissionId, evaluatorId));
     }
 
     @PostMapping("/auto/good-practice/{submissionId}/{evaluatorId}")
-    public ResponseEntity<EvaluationDTO> autoEvaluateGoodPractices(
+    public ResponseEntity<EvaluationJobDTO> autoEvaluateGoodPractices(
             @PathVariable Long submissionId,
             @PathVariable Long evaluatorId,
             @RequestParam(name = "using-ia", defaultValue = "false") boolean usingIA) {
+        logger.info("Auto-evaluating good practices for submission {} by evaluator {} using {}",
+                   submissionId, evaluatorId, usingIA ? "LLM Analysis" : "Checkstyle Analysis");
+        return submitJob(usingIA ? "GOOD_PRACTICES_LLM" : "GOOD_PRACTICES_CHECKSTYLE", submissionId, evaluatorId,
+                () -> evaluationService.evaluateGoodPracticesAsync(submissionId, evaluatorId, usingIA));
+    }
+
+    /**
+     * Evalúa todas las entregas de la tarea y responde con un resumen: éxitos,
+     * fallos y latencia por entrega
+     */
+    @PostMapping("/auto/assignment/{assignmentId}")
+    public CompletableFuture<ResponseEntity<BulkEvaluationResponse>> autoEvaluateAssignment(
+            @PathVariable Long assignmentId,
+            @RequestParam Long evaluatorId,
+            @RequestParam(name = "scheduler", defaultValue = "true") boolean scheduler,
+            @RequestParam(name = "good-practice", defaultValue = "true") boolean goodPractices,
+            @RequestParam(name = "using-ia", defaultValue = "false") boolean usingIA) {
+        logger.info("Auto-evaluating assignment {} by evaluator {}", assignmentId, evaluatorId);
+        return evaluationService.evaluateAssignmentAsync(assignmentId, evaluatorId, scheduler, goodPractices, usingIA)
+                .thenApply(ResponseEntity::ok)
+                .exceptionally(error -> {
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (cause instanceof IllegalArgumentException) {
+                        return ResponseEntity.badRequest().build();
+                    }
+                    if (cause instanceof DeadlineExceededException) {
+                        logger.warn("Assignment {} evaluation timed out: {}", assignmentId, cause.getMessage());
+                        return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+                    }
+                    logger.error("Assignment {} evaluation failed: {}", assignmentId, cause.getMessage());
+                    return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+                });
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<EvaluationJobDTO> getEvaluationJob(@PathVariable String jobId) {
+        return evaluationJobService.getJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    private ResponseEntity<EvaluationJobDTO> submitJob(String evaluationType, Long submissionId, Long evaluatorId,
+            Supplier<CompletableFuture<EvaluationDTO>> evaluation) {
         try {
-            logger.info("Auto-evaluating good practices for submission {} by evaluator {} using {}",
-                       submissionId, evaluatorId, usingIA ? "LLM Analysis" : "Checkstyle Analysis");
-            EvaluationDTO evaluation = evaluationService.evaluateGoodPractices(submissionId, evaluatorId, usingIA);
-            return ResponseEntity.status(HttpStatus.CREATED).body(evaluation);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().body(null);
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                    .body(null);
+            EvaluationJobDTO job = evaluationJobService.submit(evaluationType, submissionId, evaluatorId, evaluation);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/evaluations/jobs/" + job.getId()))
+                    .body(job);
+        } catch (DownstreamUnavailableException e) {
+            logger.warn("Auto-evaluation rejected for submission {}: {}", submissionId, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
         }
     }
 }
@@ -1,7 +1,9 @@
 package com.eci.iagen.api_gateway.controller;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
@@ -17,6 +19,9 @@ import org.springframework.web.bind.annotation.RestController;
 import com.eci.iagen.api_gateway.dto.FeedbackDTO;
 import com.eci.iagen.api_gateway.dto.request.GeneralFeedbackRequest;
 import com.eci.iagen.api_gateway.dto.response.GeneralFeedbackResponse;
+import com.eci.iagen.api_gateway.resilience.DeadlineExceededException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamUnavailableException;
 import com.eci.iagen.api_gateway.service.FeedbackService;
 
 import lombok.RequiredArgsConstructor;
@@ -71,47 +76,52 @@ public class FeedbackController {
         return ResponseEntity.notFound().build();
     }
 
+    /**
+     * Los endpoints de generación con LLM son asíncronos: el hilo del servidor se
+     * libera mientras el servicio de feedback responde
+     */
     @PostMapping("/auto/equipo/{submissionId}")
-    public ResponseEntity<FeedbackDTO> generateTeamFeedback(@PathVariable Long submissionId) {
-        try {
-            FeedbackDTO feedback = feedbackService.generateTeamFeedback(submissionId);
-            return ResponseEntity.status(HttpStatus.CREATED).body(feedback);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
-        }
+    public CompletableFuture<ResponseEntity<FeedbackDTO>> generateTeamFeedback(@PathVariable Long submissionId) {
+        return feedbackService.generateTeamFeedbackAsync(submissionId)
+                .thenApply(feedback -> ResponseEntity.status(HttpStatus.CREATED).body(feedback))
+                .exceptionally(this::generationFailure);
     }
 
     @PostMapping("/auto/coordinador")
-    public ResponseEntity<GeneralFeedbackResponse> generateCoordinatorFeedback(@RequestBody GeneralFeedbackRequest request) {
-        try {
-            if (request.getMessage() == null || request.getMessage().trim().isEmpty()) {
-                return ResponseEntity.badRequest().build();
-            }
-            
-            GeneralFeedbackResponse response = feedbackService.generateCoordinatorFeedback(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
+    public CompletableFuture<ResponseEntity<GeneralFeedbackResponse>> generateCoordinatorFeedback(@RequestBody GeneralFeedbackRequest request) {
+        if (request.getMessage() == null || request.getMessage().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
         }
+        
+        return feedbackService.generateCoordinatorFeedbackAsync(request)
+                .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+                .exceptionally(this::generationFailure);
     }
 
     @PostMapping("/auto/profesor")
-    public ResponseEntity<GeneralFeedbackResponse> generateTeacherFeedback(@RequestBody GeneralFeedbackRequest request) {
-        try {
-            if (request.getMessage() == null || request.getMessage().trim().isEmpty()) {
-                return ResponseEntity.badRequest().build();
-            }
-            
-            GeneralFeedbackResponse response = feedbackService.generateTeacherFeedback(request);
-            return ResponseEntity.status(HttpStatus.CREATED).body(response);
-        } catch (IllegalArgumentException e) {
+    public CompletableFuture<ResponseEntity<GeneralFeedbackResponse>> generateTeacherFeedback(@RequestBody GeneralFeedbackRequest request) {
+        if (request.getMessage() == null || request.getMessage().trim().isEmpty()) {
+            return CompletableFuture.completedFuture(ResponseEntity.badRequest().build());
+        }
+        
+        return feedbackService.generateTeacherFeedbackAsync(request)
+                .thenApply(response -> ResponseEntity.status(HttpStatus.CREATED).body(response))
+                .exceptionally(this::generationFailure);
+    }
+
+    private <T> ResponseEntity<T> generationFailure(Throwable error) {
+        Throwable cause = DownstreamGuard.unwrap(error);
+        if (cause instanceof IllegalArgumentException) {
             return ResponseEntity.badRequest().build();
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
         }
+        if (cause instanceof DeadlineExceededException) {
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).build();
+        }
+        if (cause instanceof DownstreamUnavailableException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .build();
+        }
+        return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
     }
 }
@@ -1,9 +1,13 @@
 package com.eci.iagen.api_gateway.controller;
 
 import com.eci.iagen.api_gateway.client.JPlagServiceClient;
+import com.eci.iagen.api_gateway.resilience.DeadlineExceededException;
+import com.eci.iagen.api_gateway.resilience.DownstreamUnavailableException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -64,6 +68,18 @@ public class JPlagController {
             log.info("Plagiarism detection response: status={}, hasBody={}", 
                     response.getStatusCode(), response.hasBody());
             return response;
+        } catch (DeadlineExceededException e) {
+            log.warn("Plagiarism detection timed out: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "Plagiarism detection did not finish in time: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.GATEWAY_TIMEOUT).body(errorResponse);
+        } catch (DownstreamUnavailableException e) {
+            log.warn("Plagiarism detection rejected: {}", e.getMessage());
+            Map<String, String> errorResponse = new HashMap<>();
+            errorResponse.put("error", "JPlag service is temporarily unavailable: " + e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, String.valueOf(e.getRetryAfterSeconds()))
+                    .body(errorResponse);
         } catch (Exception e) {
             log.error("Error in JPlag plagiarism detection: {}", e.getMessage(), e);
             Map<String, String> errorResponse = new HashMap<>();
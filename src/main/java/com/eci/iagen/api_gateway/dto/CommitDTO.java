@@ -0,0 +1,21 @@
+package com.eci.iagen.api_gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Commit de un repositorio de GitHub; la fecha es la del committer en UTC
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CommitDTO {
+    private String sha;
+    private String message;
+    private LocalDateTime date;
+    private String authorName;
+    private String authorEmail;
+}
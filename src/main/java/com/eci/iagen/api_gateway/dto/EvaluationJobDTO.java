@@ -0,0 +1,28 @@
+package com.eci.iagen.api_gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de un trabajo de evaluación asíncrono; errorStatus es el código HTTP
+ * que habría devuelto la evaluación síncrona
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class EvaluationJobDTO {
+    private String id;
+    private String evaluationType;
+    private Long submissionId;
+    private Long evaluatorId;
+    private String status;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private EvaluationDTO evaluation;
+    private String error;
+    private Integer errorStatus;
+}
@@ -0,0 +1,32 @@
+package com.eci.iagen.api_gateway.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Estado de un trabajo de detección de plagio. stage indica la fase en curso;
+ * si la detección se reparte en bloques, completedShards de totalShards llamadas
+ * a JPlag han terminado. Al terminar, reportId es el id del informe guardado,
+ * que se consulta en /api/plagiarism/comparisons/{assignmentId}
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlagiarismJobDTO {
+    private String id;
+    private Long assignmentId;
+    private int submissionCount;
+    private String status;
+    private String stage;
+    private Integer completedShards;
+    private Integer totalShards;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private Long reportId;
+    private String error;
+    private Integer errorStatus;
+}
@@ -0,0 +1,16 @@
+package com.eci.iagen.api_gateway.dto.request;
+
+import com.eci.iagen.api_gateway.dto.SubmissionDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeAnalysisBatchRequest {
+    private List<SubmissionDTO> submissions;
+}
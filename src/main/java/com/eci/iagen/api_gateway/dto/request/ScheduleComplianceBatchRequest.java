@@ -0,0 +1,35 @@
+package com.eci.iagen.api_gateway.dto.request;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+/**
+ * Evaluación de cumplimiento de varias entregas en una sola petición. Los
+ * commits van sin mensaje (el cálculo solo usa sus fechas) y los campos nulos
+ * no se envían.
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ScheduleComplianceBatchRequest {
+    private List<Item> submissions;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    @JsonInclude(JsonInclude.Include.NON_NULL)
+    public static class Item {
+        private Long submissionId;
+        private String repositoryUrl;
+        private LocalDateTime dueDate;
+        private LocalDateTime submissionDate;
+        private List<ScheduleComplianceRequest.CommitInfo> commits;
+    }
+}
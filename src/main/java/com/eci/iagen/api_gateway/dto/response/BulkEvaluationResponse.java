@@ -0,0 +1,38 @@
+package com.eci.iagen.api_gateway.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Resumen de la evaluación de todas las entregas de una tarea
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class BulkEvaluationResponse {
+    private Long assignmentId;
+    private int submissions;
+    private int succeeded;
+    private int failed;
+    private long elapsedMillis;
+    private List<SubmissionResult> results;
+
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class SubmissionResult {
+        private Long submissionId;
+        private String teamName;
+        private String evaluationType;
+        private boolean success;
+        // Evaluación guardada (también la de error de buenas prácticas)
+        private Long evaluationId;
+        private BigDecimal score;
+        private String error;
+        private long latencyMillis;
+    }
+}
@@ -0,0 +1,28 @@
+package com.eci.iagen.api_gateway.dto.response;
+
+import com.eci.iagen.api_gateway.dto.EvaluationDTO;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CodeAnalysisBatchResponse {
+    private List<Item> results;
+
+    /**
+     * Resultado de una entrega del lote: la evaluación o el error del análisis
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long submissionId;
+        private EvaluationDTO evaluation;
+        private String error;
+    }
+}
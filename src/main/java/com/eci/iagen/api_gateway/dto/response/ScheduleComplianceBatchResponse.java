@@ -0,0 +1,26 @@
+package com.eci.iagen.api_gateway.dto.response;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ScheduleComplianceBatchResponse {
+    private List<Item> results;
+
+    /**
+     * Resultado de una entrega del lote: la respuesta de cumplimiento o el error
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Item {
+        private Long submissionId;
+        private ScheduleComplianceResponse result;
+        private String error;
+    }
+}
@@ -0,0 +1,53 @@
+package com.eci.iagen.api_gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Commit del repositorio de una entrega, guardado para no volver a pedir el
+ * historial completo en cada evaluación (fecha del committer en UTC)
+ */
+@Entity
+@Table(name = "commit",
+        uniqueConstraints = @UniqueConstraint(name = "uk_commit_submission_sha", columnNames = { "submission_id", "sha" }),
+        indexes = @Index(name = "idx_commit_submission_date", columnList = "submission_id, committed_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class Commit {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "submission_id", nullable = false)
+    private Submission submission;
+
+    @Column(nullable = false, length = 64)
+    private String sha;
+
+    @Column(columnDefinition = "text")
+    private String message;
+
+    @Column(name = "committed_at", nullable = false)
+    private LocalDateTime committedAt;
+
+    @Column(name = "author_name")
+    private String authorName;
+
+    @Column(name = "author_email")
+    private String authorEmail;
+
+    @Column(name = "fetched_at", nullable = false)
+    private LocalDateTime fetchedAt;
+
+    @PrePersist
+    protected void onCreate() {
+        fetchedAt = LocalDateTime.now();
+    }
+}
@@ -0,0 +1,60 @@
+package com.eci.iagen.api_gateway.entity;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Resultado de una detección de plagio de una tarea, ya transformado para el
+ * frontend. submissionsKey identifica el conjunto de entregas analizado: si las
+ * entregas cambian, el informe deja de estar vigente. submissionStatesJson
+ * guarda el estado de cada entrega (repositorio y último commit) para saber qué
+ * entregas cambiaron en un análisis incremental.
+ */
+@Entity
+@Table(name = "plagiarism_report",
+        indexes = @Index(name = "idx_plagiarism_report_assignment_date", columnList = "assignment_id, created_at"))
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class PlagiarismReport {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY)
+    @JoinColumn(name = "assignment_id", nullable = false)
+    private Assignment assignment;
+
+    @Column(name = "submissions_key", nullable = false, length = 64)
+    private String submissionsKey;
+
+    @Column(name = "submission_count", nullable = false)
+    private Integer submissionCount;
+
+    @Column(nullable = false)
+    private Boolean success;
+
+    private String message;
+
+    @Column(name = "similarities_json", columnDefinition = "text")
+    private String similaritiesJson;
+
+    @Column(name = "statistics_json", columnDefinition = "text")
+    private String statisticsJson;
+
+    @Column(name = "submission_states_json", columnDefinition = "text")
+    private String submissionStatesJson;
+
+    @Column(name = "created_at", nullable = false)
+    private LocalDateTime createdAt;
+
+    @PrePersist
+    protected void onCreate() {
+        createdAt = LocalDateTime.now();
+    }
+}
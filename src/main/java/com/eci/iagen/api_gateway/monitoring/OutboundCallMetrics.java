@@ -0,0 +1,256 @@
+package com.eci.iagen.api_gateway.monitoring;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongConsumer;
+import java.util.regex.Pattern;
+
+import org.reactivestreams.Publisher;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.reactive.ClientHttpRequestDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.web.reactive.function.client.ClientRequest;
+import org.springframework.web.reactive.function.client.ExchangeFilterFunction;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+import com.eci.iagen.api_gateway.config.DownstreamRoutes;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import io.micrometer.core.instrument.Timer;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+/**
+ * Métricas de cada llamada a un servicio externo, tanto por RestTemplate como
+ * por WebClient, etiquetadas por servicio, método y endpoint:
+ * gateway.downstream.requests (latencia con p50/p95/p99 e histograma, y conteo
+ * por código de estado), gateway.downstream.request.size y
+ * gateway.downstream.response.size (bytes) y gateway.downstream.in.flight.
+ */
+@Component
+public class OutboundCallMetrics {
+
+    private static final Pattern GITHUB_REPO = Pattern.compile("^/repos/[^/]+/[^/]+");
+    private static final Pattern NUMERIC_SEGMENT = Pattern.compile("/\\d+(?=/|$)");
+    private static final Pattern SHA_SEGMENT = Pattern.compile("/[0-9a-fA-F]{40}(?=/|$)");
+
+    private final MeterRegistry meterRegistry;
+    private final DownstreamRoutes routes;
+    private final Map<Tags, AtomicInteger> inFlight = new ConcurrentHashMap<>();
+
+    public OutboundCallMetrics(MeterRegistry meterRegistry, DownstreamProperties properties) {
+        this.meterRegistry = meterRegistry;
+        this.routes = new DownstreamRoutes(properties);
+    }
+
+    /**
+     * Interceptor para el RestTemplate compartido
+     */
+    public ClientHttpRequestInterceptor restTemplateInterceptor() {
+        return (request, body, execution) -> {
+            Tags tags = endpointTags(request.getMethod(), request.getURI());
+            AtomicInteger calls = inFlight(tags);
+            calls.incrementAndGet();
+            long start = System.nanoTime();
+            try {
+                ClientHttpResponse response = execution.execute(request, body);
+                recordCall(tags, response.getStatusCode(), start, body.length);
+                return new CountingClientHttpResponse(response, bytes -> recordResponseSize(tags, bytes));
+            } catch (IOException | RuntimeException e) {
+                recordCall(tags, null, start, body.length);
+                throw e;
+            } finally {
+                calls.decrementAndGet();
+            }
+        };
+    }
+
+    /**
+     * Filtro equivalente para el WebClient compartido
+     */
+    public ExchangeFilterFunction webClientFilter() {
+        return (request, next) -> Mono.defer(() -> {
+            Tags tags = endpointTags(request.method(), request.url());
+            AtomicInteger calls = inFlight(tags);
+            AtomicLong sentBytes = new AtomicLong();
+            calls.incrementAndGet();
+            long start = System.nanoTime();
+
+            ClientRequest countedRequest = ClientRequest.from(request)
+                    .body((outputMessage, context) -> request.body().insert(
+                            new ClientHttpRequestDecorator(outputMessage) {
+                                @Override
+                                public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                                    return super.writeWith(Flux.from(body)
+                                            .doOnNext(buffer -> sentBytes.addAndGet(buffer.readableByteCount())));
+                                }
+                            }, context))
+                    .build();
+
+            return next.exchange(countedRequest)
+                    .doOnNext(response -> recordCall(tags, response.statusCode(), start, sentBytes.get()))
+                    .doOnError(error -> recordCall(tags, null, start, sentBytes.get()))
+                    .doFinally(signal -> calls.decrementAndGet())
+                    .map(response -> {
+                        AtomicLong receivedBytes = new AtomicLong();
+                        Runnable recordSize = () -> recordResponseSize(tags, receivedBytes.get());
+                        // Se registra antes de propagar la señal final para que ya esté al leer el cuerpo
+                        return response.mutate()
+                                .body(body -> body
+                                        .doOnNext(buffer -> receivedBytes.addAndGet(buffer.readableByteCount()))
+                                        .doOnTerminate(recordSize)
+                                        .doOnCancel(recordSize))
+                                .build();
+                    });
+        });
+    }
+
+    private Tags endpointTags(HttpMethod method, URI uri) {
+        Downstream downstream = routes.resolve(uri);
+        return Tags.of(
+                "downstream", downstream != null ? downstream.getKey() : "other",
+                "method", method.name(),
+                "endpoint", downstream != null ? normalizePath(downstream, uri.getPath()) : "other");
+    }
+
+    /**
+     * Reemplaza los segmentos variables de la ruta para no crear una serie por cada URL
+     */
+    static String normalizePath(Downstream downstream, String path) {
+        if (path == null || path.isEmpty()) {
+            return "/";
+        }
+        String normalized = path;
+        if (downstream == Downstream.GITHUB) {
+            normalized = GITHUB_REPO.matcher(normalized).replaceFirst("/repos/{owner}/{repo}");
+        }
+        normalized = SHA_SEGMENT.matcher(normalized).replaceAll("/{sha}");
+        return NUMERIC_SEGMENT.matcher(normalized).replaceAll("/{id}");
+    }
+
+    private AtomicInteger inFlight(Tags tags) {
+        return inFlight.computeIfAbsent(tags,
+                key -> meterRegistry.gauge("gateway.downstream.in.flight", key, new AtomicInteger()));
+    }
+
+    private void recordCall(Tags tags, HttpStatusCode status, long startNanos, long requestBytes) {
+        Tags statusTags = tags.and(
+                "status", status != null ? String.valueOf(status.value()) : "IO_ERROR",
+                "outcome", outcome(status));
+        Timer.builder("gateway.downstream.requests")
+                .description("Latencia de las llamadas a servicios externos hasta recibir la respuesta")
+                .tags(statusTags)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startNanos, TimeUnit.NANOSECONDS);
+        DistributionSummary.builder("gateway.downstream.request.size")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(requestBytes);
+    }
+
+    private void recordResponseSize(Tags tags, long bytes) {
+        DistributionSummary.builder("gateway.downstream.response.size")
+                .baseUnit("bytes")
+                .tags(tags)
+                .register(meterRegistry)
+                .record(bytes);
+    }
+
+    private static String outcome(HttpStatusCode status) {
+        if (status == null) {
+            return "IO_ERROR";
+        }
+        if (status.is2xxSuccessful()) {
+            return "SUCCESS";
+        }
+        if (status.is4xxClientError()) {
+            return "CLIENT_ERROR";
+        }
+        return status.is5xxServerError() ? "SERVER_ERROR" : "OTHER";
+    }
+
+    /**
+     * Respuesta que cuenta los bytes leídos del cuerpo y los registra al cerrarse
+     */
+    private static class CountingClientHttpResponse implements ClientHttpResponse {
+
+        private final ClientHttpResponse delegate;
+        private final LongConsumer onClose;
+        private final AtomicLong bytesRead = new AtomicLong();
+        private final AtomicBoolean closed = new AtomicBoolean();
+        private InputStream body;
+
+        CountingClientHttpResponse(ClientHttpResponse delegate, LongConsumer onClose) {
+            this.delegate = delegate;
+            this.onClose = onClose;
+        }
+
+        @Override
+        public HttpStatusCode getStatusCode() throws IOException {
+            return delegate.getStatusCode();
+        }
+
+        @Override
+        public String getStatusText() throws IOException {
+            return delegate.getStatusText();
+        }
+
+        @Override
+        public HttpHeaders getHeaders() {
+            return delegate.getHeaders();
+        }
+
+        @Override
+        public InputStream getBody() throws IOException {
+            if (body == null) {
+                body = new FilterInputStream(delegate.getBody()) {
+                    @Override
+                    public int read() throws IOException {
+                        int value = super.read();
+                        if (value != -1) {
+                            bytesRead.incrementAndGet();
+                        }
+                        return value;
+                    }
+
+                    @Override
+                    public int read(byte[] buffer, int offset, int length) throws IOException {
+                        int count = super.read(buffer, offset, length);
+                        if (count > 0) {
+                            bytesRead.addAndGet(count);
+                        }
+                        return count;
+                    }
+                };
+            }
+            return body;
+        }
+
+        @Override
+        public void close() {
+            if (closed.compareAndSet(false, true)) {
+                onClose.accept(bytesRead.get());
+            }
+            delegate.close();
+        }
+    }
+}
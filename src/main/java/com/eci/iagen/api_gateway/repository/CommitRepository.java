@@ -0,0 +1,44 @@
+package com.eci.iagen.api_gateway.repository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eci.iagen.api_gateway.entity.Commit;
+
+@Repository
+public interface CommitRepository extends JpaRepository<Commit, Long> {
+
+    List<Commit> findBySubmissionIdOrderByCommittedAtDesc(Long submissionId);
+
+    @Query("SELECT MAX(c.committedAt) FROM Commit c WHERE c.submission.id = :submissionId")
+    Optional<LocalDateTime> findLastCommittedAt(@Param("submissionId") Long submissionId);
+
+    @Query("SELECT c.sha FROM Commit c WHERE c.submission.id = :submissionId")
+    Set<String> findShasBySubmissionId(@Param("submissionId") Long submissionId);
+
+    @Modifying
+    @Query("DELETE FROM Commit c WHERE c.submission.id = :submissionId")
+    int deleteBySubmissionId(@Param("submissionId") Long submissionId);
+
+    /**
+     * Último commit guardado de cada entrega de la tarea
+     */
+    @Query("SELECT c.submission.id AS submissionId, c.sha AS sha FROM Commit c "
+            + "WHERE c.submission.assignment.id = :assignmentId AND c.committedAt = "
+            + "(SELECT MAX(h.committedAt) FROM Commit h WHERE h.submission = c.submission)")
+    List<HeadCommit> findHeadCommitsByAssignmentId(@Param("assignmentId") Long assignmentId);
+
+    interface HeadCommit {
+        Long getSubmissionId();
+
+        String getSha();
+    }
+}
@@ -0,0 +1,35 @@
+package com.eci.iagen.api_gateway.repository;
+
+import java.util.List;
+import java.util.Optional;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import com.eci.iagen.api_gateway.entity.PlagiarismReport;
+
+@Repository
+public interface PlagiarismReportRepository extends JpaRepository<PlagiarismReport, Long> {
+
+    Optional<PlagiarismReport> findFirstByAssignmentIdOrderByCreatedAtDesc(Long assignmentId);
+
+    @Query("SELECT r.id FROM PlagiarismReport r WHERE r.assignment.id = :assignmentId "
+            + "ORDER BY r.createdAt DESC, r.id DESC")
+    List<Long> findIdsByAssignmentIdNewestFirst(@Param("assignmentId") Long assignmentId);
+
+    /**
+     * Borra los informes de la tarea con el mismo conjunto de entregas que keptId
+     */
+    @Modifying
+    @Query("DELETE FROM PlagiarismReport r WHERE r.assignment.id = :assignmentId "
+            + "AND r.submissionsKey = :submissionsKey AND r.id <> :keptId")
+    int deleteSuperseded(@Param("assignmentId") Long assignmentId, @Param("submissionsKey") String submissionsKey,
+            @Param("keptId") Long keptId);
+
+    @Modifying
+    @Query("DELETE FROM PlagiarismReport r WHERE r.assignment.id = :assignmentId")
+    int deleteByAssignmentId(@Param("assignmentId") Long assignmentId);
+}
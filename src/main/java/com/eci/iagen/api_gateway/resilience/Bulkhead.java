@@ -0,0 +1,122 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+/**
+ * Limita las llamadas concurrentes a un servicio externo. Si no hay cupo, la
+ * llamada espera en una cola acotada; si la cola está llena o la espera supera
+ * el máximo, se rechaza con BulkheadFullException.
+ */
+public class Bulkhead {
+
+    private final String name;
+    private final DownstreamProperties.Bulkhead settings;
+    private final Semaphore permits;
+    private final AtomicInteger queuedCalls = new AtomicInteger();
+    private final Queue<CompletableFuture<Void>> asyncWaiters = new ConcurrentLinkedQueue<>();
+
+    public Bulkhead(String name, DownstreamProperties.Bulkhead settings) {
+        this.name = name;
+        this.settings = settings;
+        this.permits = new Semaphore(settings.getMaxConcurrentCalls(), true);
+    }
+
+    public void acquirePermission() {
+        if (!settings.isEnabled() || permits.tryAcquire()) {
+            return;
+        }
+        if (queuedCalls.incrementAndGet() > settings.getMaxQueueDepth()) {
+            queuedCalls.decrementAndGet();
+            throw new BulkheadFullException(name, settings.getMaxWait());
+        }
+        try {
+            if (!permits.tryAcquire(settings.getMaxWait().toMillis(), TimeUnit.MILLISECONDS)) {
+                throw new BulkheadFullException(name, settings.getMaxWait());
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BulkheadFullException(name, settings.getMaxWait());
+        } finally {
+            queuedCalls.decrementAndGet();
+        }
+    }
+
+    /**
+     * Versión no bloqueante: si no hay cupo, devuelve un future que se completa
+     * cuando otra llamada libera el suyo, sin ocupar un hilo mientras espera
+     */
+    public CompletableFuture<Void> acquirePermissionAsync() {
+        if (!settings.isEnabled() || permits.tryAcquire()) {
+            return CompletableFuture.completedFuture(null);
+        }
+        if (queuedCalls.incrementAndGet() > settings.getMaxQueueDepth()) {
+            queuedCalls.decrementAndGet();
+            return CompletableFuture.failedFuture(new BulkheadFullException(name, settings.getMaxWait()));
+        }
+        CompletableFuture<Void> waiter = new CompletableFuture<>();
+        asyncWaiters.add(waiter);
+        // Un cupo pudo liberarse antes de entrar a la cola
+        if (permits.tryAcquire()) {
+            if (waiter.complete(null)) {
+                asyncWaiters.remove(waiter);
+            } else {
+                releasePermission();
+            }
+        }
+        waiter.orTimeout(settings.getMaxWait().toMillis(), TimeUnit.MILLISECONDS);
+        return waiter.handle((ignored, error) -> {
+            queuedCalls.decrementAndGet();
+            if (error != null) {
+                asyncWaiters.remove(waiter);
+                throw new BulkheadFullException(name, settings.getMaxWait());
+            }
+            return null;
+        });
+    }
+
+    public void releasePermission() {
+        if (!settings.isEnabled() || handOffToAsyncWaiter()) {
+            return;
+        }
+        permits.release();
+        // Una llamada pudo entrar a la cola mientras se liberaba el cupo
+        while (!asyncWaiters.isEmpty() && permits.tryAcquire()) {
+            if (!handOffToAsyncWaiter()) {
+                permits.release();
+                return;
+            }
+        }
+    }
+
+    public int getActiveCalls() {
+        return settings.isEnabled() ? settings.getMaxConcurrentCalls() - permits.availablePermits() : 0;
+    }
+
+    public int getQueuedCalls() {
+        return queuedCalls.get();
+    }
+
+    public int getMaxConcurrentCalls() {
+        return settings.getMaxConcurrentCalls();
+    }
+
+    /**
+     * Entrega el cupo directamente a la primera llamada no bloqueante en espera
+     */
+    private boolean handOffToAsyncWaiter() {
+        CompletableFuture<Void> waiter;
+        while ((waiter = asyncWaiters.poll()) != null) {
+            if (waiter.complete(null)) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
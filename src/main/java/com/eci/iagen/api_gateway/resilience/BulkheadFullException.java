@@ -0,0 +1,10 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+
+public class BulkheadFullException extends DownstreamUnavailableException {
+
+    public BulkheadFullException(String downstream, Duration retryAfter) {
+        super(downstream, "Too many concurrent calls to " + downstream + " service", retryAfter);
+    }
+}
@@ -0,0 +1,174 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.util.function.LongSupplier;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+/**
+ * Circuit breaker con estados CLOSED / OPEN / HALF_OPEN y ventana deslizante
+ * de las últimas N llamadas para calcular la tasa de fallos.
+ */
+public class CircuitBreaker {
+
+    public enum State {
+        CLOSED, OPEN, HALF_OPEN
+    }
+
+    private final String name;
+    private final DownstreamProperties.CircuitBreaker settings;
+    private final LongSupplier nanoClock;
+
+    // Ventana circular: true = la llamada falló
+    private final boolean[] window;
+    private int windowIndex;
+    private int windowCount;
+    private int windowFailures;
+
+    private State state = State.CLOSED;
+    private long openedAtNanos;
+    private int halfOpenPermits;
+    private int halfOpenSuccesses;
+
+    public CircuitBreaker(String name, DownstreamProperties.CircuitBreaker settings) {
+        this(name, settings, System::nanoTime);
+    }
+
+    CircuitBreaker(String name, DownstreamProperties.CircuitBreaker settings, LongSupplier nanoClock) {
+        this.name = name;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        this.window = new boolean[Math.max(1, settings.getSlidingWindowSize())];
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public synchronized State getState() {
+        return state;
+    }
+
+    /**
+     * Indica si una llamada sería aceptada ahora, sin consumir un permiso
+     */
+    public synchronized boolean isCallPermitted() {
+        if (!settings.isEnabled()) {
+            return true;
+        }
+        return switch (state) {
+            case CLOSED -> true;
+            case OPEN -> openWaitElapsed();
+            case HALF_OPEN -> halfOpenPermits < settings.getPermittedCallsInHalfOpenState();
+        };
+    }
+
+    /**
+     * Reserva un permiso para ejecutar una llamada, o lanza CircuitBreakerOpenException
+     */
+    public synchronized void acquirePermission() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (state == State.OPEN && openWaitElapsed()) {
+            transitionTo(State.HALF_OPEN);
+        }
+        if (state == State.OPEN
+                || (state == State.HALF_OPEN && halfOpenPermits >= settings.getPermittedCallsInHalfOpenState())) {
+            throw new CircuitBreakerOpenException(name, remainingOpenTime());
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenPermits++;
+        }
+    }
+
+    /**
+     * Devuelve un permiso reservado cuando la llamada finalmente no se ejecutó
+     */
+    public synchronized void releasePermission() {
+        if (state == State.HALF_OPEN && halfOpenPermits > 0) {
+            halfOpenPermits--;
+        }
+    }
+
+    public synchronized void onSuccess() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            halfOpenSuccesses++;
+            if (halfOpenSuccesses >= settings.getPermittedCallsInHalfOpenState()) {
+                transitionTo(State.CLOSED);
+            }
+            return;
+        }
+        record(false);
+    }
+
+    public synchronized void onFailure() {
+        if (!settings.isEnabled()) {
+            return;
+        }
+        if (state == State.HALF_OPEN) {
+            transitionTo(State.OPEN);
+            return;
+        }
+        record(true);
+        if (state == State.CLOSED && windowCount >= settings.getMinimumNumberOfCalls()
+                && failureRate() >= settings.getFailureRateThreshold()) {
+            transitionTo(State.OPEN);
+        }
+    }
+
+    /**
+     * Tasa de fallos (0-100) de las llamadas en la ventana actual
+     */
+    public synchronized float failureRate() {
+        return windowCount == 0 ? 0f : (windowFailures * 100f) / windowCount;
+    }
+
+    /**
+     * Tiempo restante hasta que se permitan llamadas de prueba
+     */
+    public synchronized Duration remainingOpenTime() {
+        if (state != State.OPEN) {
+            return Duration.ZERO;
+        }
+        long elapsed = nanoClock.getAsLong() - openedAtNanos;
+        long remaining = settings.getWaitDurationInOpenState().toNanos() - elapsed;
+        return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+    }
+
+    private boolean openWaitElapsed() {
+        return nanoClock.getAsLong() - openedAtNanos >= settings.getWaitDurationInOpenState().toNanos();
+    }
+
+    private void record(boolean failed) {
+        if (windowCount == window.length) {
+            if (window[windowIndex]) {
+                windowFailures--;
+            }
+        } else {
+            windowCount++;
+        }
+        window[windowIndex] = failed;
+        if (failed) {
+            windowFailures++;
+        }
+        windowIndex = (windowIndex + 1) % window.length;
+    }
+
+    private void transitionTo(State newState) {
+        state = newState;
+        halfOpenPermits = 0;
+        halfOpenSuccesses = 0;
+        if (newState == State.OPEN) {
+            openedAtNanos = nanoClock.getAsLong();
+        }
+        if (newState == State.CLOSED) {
+            windowIndex = 0;
+            windowCount = 0;
+            windowFailures = 0;
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+
+public class CircuitBreakerOpenException extends DownstreamUnavailableException {
+
+    public CircuitBreakerOpenException(String downstream, Duration retryAfter) {
+        super(downstream, "Circuit breaker is open for " + downstream + " service", retryAfter);
+    }
+}
@@ -0,0 +1,116 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.util.function.Function;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+/**
+ * Momento límite de la petición entrante. Se guarda por hilo: {@link DeadlineFilter}
+ * lo fija para el hilo del request, el TaskDecorator de los ejecutores lo pasa a
+ * las tareas y {@link #propagate} a las etapas de un CompletableFuture que corren
+ * en otros hilos. {@link DownstreamGuard} lo usa para recortar el timeout de cada
+ * llamada al tiempo restante y para no iniciar llamadas cuando ya se agotó.
+ */
+public final class Deadline {
+
+    private static final ThreadLocal<Deadline> CURRENT = new ThreadLocal<>();
+
+    private final Duration timeout;
+    private final long expiresAtNanos;
+    private final LongSupplier nanoClock;
+
+    private Deadline(Duration timeout, LongSupplier nanoClock) {
+        this.timeout = timeout;
+        this.nanoClock = nanoClock;
+        this.expiresAtNanos = nanoClock.getAsLong() + timeout.toNanos();
+    }
+
+    public static Deadline after(Duration timeout) {
+        return new Deadline(timeout, System::nanoTime);
+    }
+
+    static Deadline after(Duration timeout, LongSupplier nanoClock) {
+        return new Deadline(timeout, nanoClock);
+    }
+
+    /**
+     * Deadline del hilo actual, o null si la petición no tiene
+     */
+    public static Deadline current() {
+        return CURRENT.get();
+    }
+
+    public Duration getTimeout() {
+        return timeout;
+    }
+
+    /**
+     * Tiempo que queda (cero si ya pasó)
+     */
+    public Duration remaining() {
+        long remaining = expiresAtNanos - nanoClock.getAsLong();
+        return remaining > 0 ? Duration.ofNanos(remaining) : Duration.ZERO;
+    }
+
+    public boolean isExpired() {
+        return expiresAtNanos - nanoClock.getAsLong() <= 0;
+    }
+
+    /**
+     * El menor entre el timeout dado y el tiempo restante del deadline actual
+     */
+    public static Duration cap(Duration timeout) {
+        Deadline deadline = current();
+        if (deadline == null) {
+            return timeout;
+        }
+        Duration remaining = deadline.remaining();
+        return remaining.compareTo(timeout) < 0 ? remaining : timeout;
+    }
+
+    /**
+     * Ejecuta la tarea con el deadline dado (null para ninguno) y restaura el anterior
+     */
+    public static <T> T callWith(Deadline deadline, Supplier<T> task) {
+        Deadline previous = CURRENT.get();
+        set(deadline);
+        try {
+            return task.get();
+        } finally {
+            set(previous);
+        }
+    }
+
+    public static void runWith(Deadline deadline, Runnable task) {
+        callWith(deadline, () -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Envuelve la etapa de un CompletableFuture para que corra con el deadline
+     * actual, aunque se ejecute en otro hilo (p. ej. uno de Reactor Netty)
+     */
+    public static <T, R> Function<T, R> propagate(Function<T, R> stage) {
+        Deadline deadline = current();
+        return value -> callWith(deadline, () -> stage.apply(value));
+    }
+
+    /**
+     * Envuelve una tarea que se envía a un ejecutor para que corra con el deadline actual
+     */
+    public static Runnable propagate(Runnable task) {
+        Deadline deadline = current();
+        return () -> runWith(deadline, task);
+    }
+
+    static void set(Deadline deadline) {
+        if (deadline != null) {
+            CURRENT.set(deadline);
+        } else {
+            CURRENT.remove();
+        }
+    }
+}
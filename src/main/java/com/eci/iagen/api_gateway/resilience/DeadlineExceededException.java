@@ -0,0 +1,17 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+
+/**
+ * Se lanza cuando el deadline de la petición entrante se agotó antes de iniciar
+ * la llamada al servicio externo o mientras se esperaba su respuesta; se responde
+ * 504, no 503 como a DownstreamUnavailableException: el servicio no rechazó la
+ * llamada, se acabó el tiempo de la petición
+ */
+public class DeadlineExceededException extends DownstreamCallAbortedException {
+
+    public DeadlineExceededException(String downstream, Duration timeout, Throwable cause) {
+        super(downstream, "Request deadline of " + timeout.toMillis() + " ms exceeded while calling "
+                + downstream + " service", cause);
+    }
+}
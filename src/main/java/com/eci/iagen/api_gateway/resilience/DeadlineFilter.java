@@ -0,0 +1,84 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.temporal.ChronoUnit;
+import java.util.Map;
+
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.util.AntPathMatcher;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.eci.iagen.api_gateway.config.DeadlineProperties;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Fija el {@link Deadline} de la petición entrante: el menor entre el de la
+ * cabecera del cliente (limitado a deadline.max-timeout) y el de la ruta
+ */
+@Slf4j
+public class DeadlineFilter extends OncePerRequestFilter {
+
+    private final DeadlineProperties properties;
+    private final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+    public DeadlineFilter(DeadlineProperties properties) {
+        this.properties = properties;
+    }
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+            throws ServletException, IOException {
+        Duration timeout = timeoutFor(request);
+        if (timeout == null) {
+            chain.doFilter(request, response);
+            return;
+        }
+        Deadline.set(Deadline.after(timeout));
+        try {
+            chain.doFilter(request, response);
+        } finally {
+            Deadline.set(null);
+        }
+    }
+
+    Duration timeoutFor(HttpServletRequest request) {
+        Duration routeTimeout = routeTimeout(request.getRequestURI().substring(request.getContextPath().length()));
+        Duration requested = requestedTimeout(request.getHeader(properties.getHeader()));
+        if (requested == null) {
+            return routeTimeout;
+        }
+        return routeTimeout != null && routeTimeout.compareTo(requested) < 0 ? routeTimeout : requested;
+    }
+
+    private Duration routeTimeout(String path) {
+        for (Map.Entry<String, Duration> route : properties.getRoutes().entrySet()) {
+            if (pathMatcher.match(route.getKey(), path)) {
+                return route.getValue();
+            }
+        }
+        return properties.getDefaultTimeout();
+    }
+
+    private Duration requestedTimeout(String value) {
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            Duration requested = DurationStyle.detectAndParse(value.trim(), ChronoUnit.MILLIS);
+            if (requested.isNegative() || requested.isZero()) {
+                return null;
+            }
+            Duration max = properties.getMaxTimeout();
+            return max != null && requested.compareTo(max) > 0 ? max : requested;
+        } catch (IllegalArgumentException e) {
+            log.debug("Ignoring invalid {} header value '{}'", properties.getHeader(), value);
+            return null;
+        }
+    }
+}
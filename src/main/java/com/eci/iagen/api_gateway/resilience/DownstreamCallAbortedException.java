@@ -0,0 +1,20 @@
+package com.eci.iagen.api_gateway.resilience;
+
+/**
+ * La llamada al servicio externo no se hizo o se cortó por decisión del propio
+ * gateway (servicio no disponible o deadline agotado), no por un fallo del
+ * servicio: se propaga tal cual, sin reintentar ni envolver
+ */
+public abstract class DownstreamCallAbortedException extends RuntimeException {
+
+    private final String downstream;
+
+    protected DownstreamCallAbortedException(String downstream, String message, Throwable cause) {
+        super(message, cause);
+        this.downstream = downstream;
+    }
+
+    public String getDownstream() {
+        return downstream;
+    }
+}
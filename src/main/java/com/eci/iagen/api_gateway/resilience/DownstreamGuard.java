@@ -0,0 +1,423 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Punto único por el que pasan las llamadas a servicios externos.
+ * Descarta llamadas a servicios caídos según el último health check, aplica
+ * el circuit breaker y el bulkhead de cada servicio y elige la réplica que
+ * atiende la llamada. Las llamadas idempotentes se reintentan según la
+ * {@link RetryPolicy} del servicio; cada intento pasa otra vez por todo lo anterior.
+ * Si la petición entrante tiene {@link Deadline}, no se inician llamadas ni
+ * reintentos cuando ya no queda tiempo y los cortes por deadline no cuentan
+ * como fallos del servicio.
+ */
+@Component
+@Slf4j
+public class DownstreamGuard {
+
+    public static final String IDEMPOTENCY_KEY_HEADER = "Idempotency-Key";
+
+    private final DownstreamHealthRegistry healthRegistry;
+    private final LoadBalancerRegistry loadBalancers;
+    private final Duration healthCheckInterval;
+    private final Map<Downstream, CircuitBreaker> circuitBreakers = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, Bulkhead> bulkheads = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, Counter> bulkheadRejections = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, RetryPolicy> retryPolicies = new EnumMap<>(Downstream.class);
+    private final Map<Downstream, Counter> retries = new EnumMap<>(Downstream.class);
+    private final MeterRegistry meterRegistry;
+
+    public DownstreamGuard(DownstreamProperties properties, DownstreamHealthRegistry healthRegistry,
+            LoadBalancerRegistry loadBalancers, MeterRegistry meterRegistry) {
+        this.healthRegistry = healthRegistry;
+        this.loadBalancers = loadBalancers;
+        this.meterRegistry = meterRegistry;
+        this.healthCheckInterval = properties.getHealth().getInterval();
+        for (Downstream downstream : Downstream.values()) {
+            DownstreamProperties.Service service = properties.service(downstream);
+            circuitBreakers.put(downstream, new CircuitBreaker(downstream.getKey(), service.getCircuitBreaker()));
+
+            Bulkhead bulkhead = new Bulkhead(downstream.getKey(), service.getBulkhead());
+            bulkheads.put(downstream, bulkhead);
+            registerBulkheadMetrics(meterRegistry, downstream, bulkhead);
+
+            retryPolicies.put(downstream, new RetryPolicy(service.getRetry()));
+            retries.put(downstream, Counter.builder("gateway.downstream.retries")
+                    .description("Reintentos de llamadas idempotentes tras un error transitorio")
+                    .tag("downstream", downstream.getKey())
+                    .register(meterRegistry));
+        }
+    }
+
+    /**
+     * Ejecuta la llamada protegida por el circuit breaker y el bulkhead del servicio
+     */
+    public <T> T call(Downstream downstream, Supplier<T> call) {
+        return call(downstream, baseUrl -> call.get());
+    }
+
+    /**
+     * Igual que {@link #call(Downstream, Supplier)}, pero la llamada recibe la URL
+     * base de la réplica elegida por el balanceador del servicio
+     */
+    public <T> T call(Downstream downstream, Function<String, T> call) {
+        retryPolicies.get(downstream).onCall();
+        return attempt(downstream, call);
+    }
+
+    /**
+     * Igual que {@link #call(Downstream, Supplier)}, reintentando los errores transitorios
+     */
+    public <T> T callIdempotent(Downstream downstream, Supplier<T> call) {
+        return callIdempotent(downstream, baseUrl -> call.get());
+    }
+
+    /**
+     * Igual que {@link #call(Downstream, Function)}, reintentando los errores
+     * transitorios. Solo para llamadas que se pueden repetir sin efectos (GET, health checks).
+     */
+    public <T> T callIdempotent(Downstream downstream, Function<String, T> call) {
+        RetryPolicy retryPolicy = retryPolicies.get(downstream);
+        retryPolicy.onCall();
+        for (int attempt = 1; ; attempt++) {
+            try {
+                return attempt(downstream, call);
+            } catch (RuntimeException e) {
+                Duration delay = retryPolicy.nextDelay(attempt, e);
+                if (delay == null || !fitsDeadline(downstream, Deadline.current(), delay)) {
+                    throw e;
+                }
+                onRetry(downstream, attempt, delay, e);
+                try {
+                    Thread.sleep(delay);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    throw e;
+                }
+            }
+        }
+    }
+
+    /**
+     * Para llamadas no idempotentes (POST): si el servicio acepta Idempotency-Key,
+     * agrega a headers una clave que se repite en todos los intentos y reintenta
+     * como {@link #callIdempotent}; si no, hace un único intento.
+     */
+    public <T> T callWithIdempotencyKey(Downstream downstream, HttpHeaders headers, Function<String, T> call) {
+        if (!retryPolicies.get(downstream).acceptsIdempotencyKeys()) {
+            return call(downstream, call);
+        }
+        headers.set(IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString());
+        return callIdempotent(downstream, call);
+    }
+
+    private <T> T attempt(Downstream downstream, Function<String, T> call) {
+        Deadline deadline = Deadline.current();
+        rejectIfDeadlineExpired(downstream, deadline);
+        rejectIfKnownDown(downstream);
+        CircuitBreaker circuitBreaker = circuitBreakers.get(downstream);
+        Bulkhead bulkhead = bulkheads.get(downstream);
+        CircuitBreaker.State before = circuitBreaker.getState();
+        circuitBreaker.acquirePermission();
+        try {
+            bulkhead.acquirePermission();
+        } catch (BulkheadFullException e) {
+            bulkheadRejections.get(downstream).increment();
+            // La llamada no se hizo: no cuenta como éxito ni como fallo del servicio
+            circuitBreaker.releasePermission();
+            throw e;
+        }
+        LoadBalancer loadBalancer = loadBalancers.loadBalancer(downstream);
+        DownstreamInstance instance = startCall(loadBalancer);
+        try {
+            T result = call.apply(instance != null ? instance.getBaseUrl() : null);
+            recordOutcome(downstream, loadBalancer, instance, before, null);
+            return result;
+        } catch (RuntimeException e) {
+            RuntimeException failure = cutOffByDeadline(downstream, deadline, e);
+            recordOutcome(downstream, loadBalancer, instance, before, failure);
+            throw failure;
+        } finally {
+            bulkhead.releasePermission();
+        }
+    }
+
+    /**
+     * Versión no bloqueante de {@link #call}: la espera por cupo en el bulkhead y
+     * la llamada no ocupan el hilo. Los rechazos se devuelven como future fallido.
+     */
+    public <T> CompletableFuture<T> callAsync(Downstream downstream, Supplier<CompletableFuture<T>> call) {
+        return callAsync(downstream, baseUrl -> call.get());
+    }
+
+    /**
+     * Igual que {@link #callAsync(Downstream, Supplier)}, pero la llamada recibe la
+     * URL base de la réplica elegida por el balanceador del servicio
+     */
+    public <T> CompletableFuture<T> callAsync(Downstream downstream,
+            Function<String, CompletableFuture<T>> call) {
+        retryPolicies.get(downstream).onCall();
+        return attemptAsync(downstream, call, Deadline.current());
+    }
+
+    public <T> CompletableFuture<T> callIdempotentAsync(Downstream downstream,
+            Supplier<CompletableFuture<T>> call) {
+        return callIdempotentAsync(downstream, baseUrl -> call.get());
+    }
+
+    /**
+     * Versión no bloqueante de {@link #callIdempotent}: la espera entre intentos no ocupa un hilo
+     */
+    public <T> CompletableFuture<T> callIdempotentAsync(Downstream downstream,
+            Function<String, CompletableFuture<T>> call) {
+        RetryPolicy retryPolicy = retryPolicies.get(downstream);
+        retryPolicy.onCall();
+        CompletableFuture<T> result = new CompletableFuture<>();
+        retryAsync(downstream, call, retryPolicy, 1, Deadline.current(), result);
+        return result;
+    }
+
+    /**
+     * Versión no bloqueante de {@link #callWithIdempotencyKey}
+     */
+    public <T> CompletableFuture<T> callWithIdempotencyKeyAsync(Downstream downstream, HttpHeaders headers,
+            Function<String, CompletableFuture<T>> call) {
+        if (!retryPolicies.get(downstream).acceptsIdempotencyKeys()) {
+            return callAsync(downstream, call);
+        }
+        headers.set(IDEMPOTENCY_KEY_HEADER, UUID.randomUUID().toString());
+        return callIdempotentAsync(downstream, call);
+    }
+
+    private <T> void retryAsync(Downstream downstream, Function<String, CompletableFuture<T>> call,
+            RetryPolicy retryPolicy, int attempt, Deadline deadline, CompletableFuture<T> result) {
+        attemptAsync(downstream, call, deadline).whenComplete((value, error) -> {
+            if (error == null) {
+                result.complete(value);
+                return;
+            }
+            Throwable cause = unwrap(error);
+            Duration delay = retryPolicy.nextDelay(attempt, cause);
+            if (delay == null || !fitsDeadline(downstream, deadline, delay)) {
+                result.completeExceptionally(cause);
+                return;
+            }
+            onRetry(downstream, attempt, delay, cause);
+            CompletableFuture.delayedExecutor(delay.toMillis(), TimeUnit.MILLISECONDS)
+                    .execute(() -> retryAsync(downstream, call, retryPolicy, attempt + 1, deadline, result));
+        });
+    }
+
+    private <T> CompletableFuture<T> attemptAsync(Downstream downstream,
+            Function<String, CompletableFuture<T>> call, Deadline deadline) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(downstream);
+        Bulkhead bulkhead = bulkheads.get(downstream);
+        CircuitBreaker.State before = circuitBreaker.getState();
+        try {
+            rejectIfDeadlineExpired(downstream, deadline);
+            rejectIfKnownDown(downstream);
+            circuitBreaker.acquirePermission();
+        } catch (DownstreamCallAbortedException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+
+        CompletableFuture<T> result = new CompletableFuture<>();
+        bulkhead.acquirePermissionAsync().whenComplete((ignored, rejection) -> {
+            if (rejection != null) {
+                bulkheadRejections.get(downstream).increment();
+                circuitBreaker.releasePermission();
+                result.completeExceptionally(unwrap(rejection));
+                return;
+            }
+            LoadBalancer loadBalancer = loadBalancers.loadBalancer(downstream);
+            DownstreamInstance instance = startCall(loadBalancer);
+            CompletableFuture<T> future;
+            try {
+                // El bulkhead puede liberar el cupo en otro hilo: se restaura el deadline de quien llamó
+                future = Deadline.callWith(deadline,
+                        () -> call.apply(instance != null ? instance.getBaseUrl() : null));
+            } catch (RuntimeException e) {
+                future = CompletableFuture.failedFuture(e);
+            }
+            future.whenComplete((value, error) -> {
+                bulkhead.releasePermission();
+                Throwable cause = error != null ? cutOffByDeadline(downstream, deadline, unwrap(error)) : null;
+                recordOutcome(downstream, loadBalancer, instance, before, cause);
+                if (cause != null) {
+                    result.completeExceptionally(cause);
+                } else {
+                    result.complete(value);
+                }
+            });
+        });
+        return result;
+    }
+
+    /**
+     * Obtiene la excepción original de un future fallido
+     */
+    public static Throwable unwrap(Throwable error) {
+        Throwable current = error;
+        while ((current instanceof CompletionException || current instanceof ExecutionException)
+                && current.getCause() != null) {
+            current = current.getCause();
+        }
+        return current;
+    }
+
+    /**
+     * Indica si el circuit breaker del servicio aceptaría una llamada ahora
+     */
+    public boolean isCallPermitted(Downstream downstream) {
+        return circuitBreakers.get(downstream).isCallPermitted();
+    }
+
+    public CircuitBreaker circuitBreaker(Downstream downstream) {
+        return circuitBreakers.get(downstream);
+    }
+
+    public Bulkhead bulkhead(Downstream downstream) {
+        return bulkheads.get(downstream);
+    }
+
+    public RetryPolicy retryPolicy(Downstream downstream) {
+        return retryPolicies.get(downstream);
+    }
+
+    private void onRetry(Downstream downstream, int attempt, Duration delay, Throwable error) {
+        retries.get(downstream).increment();
+        log.warn("Attempt {} to {} failed ({}), retrying in {} ms", attempt, downstream.getKey(),
+                error.getMessage(), delay.toMillis());
+    }
+
+    private void rejectIfDeadlineExpired(Downstream downstream, Deadline deadline) {
+        if (deadline != null && deadline.isExpired()) {
+            countDeadlineExceeded(downstream, "before_call");
+            throw new DeadlineExceededException(downstream.getKey(), deadline.getTimeout(), null);
+        }
+    }
+
+    /**
+     * Si el deadline ya pasó, el error se debe al corte por deadline y no al servicio
+     */
+    private Throwable cutOffByDeadline(Downstream downstream, Deadline deadline, Throwable error) {
+        if (deadline == null || !deadline.isExpired() || error instanceof DownstreamCallAbortedException) {
+            return error;
+        }
+        countDeadlineExceeded(downstream, "during_call");
+        return new DeadlineExceededException(downstream.getKey(), deadline.getTimeout(), error);
+    }
+
+    private RuntimeException cutOffByDeadline(Downstream downstream, Deadline deadline, RuntimeException error) {
+        return (RuntimeException) cutOffByDeadline(downstream, deadline, (Throwable) error);
+    }
+
+    /**
+     * Indica si queda tiempo para esperar y reintentar antes del deadline
+     */
+    private boolean fitsDeadline(Downstream downstream, Deadline deadline, Duration delay) {
+        if (deadline == null || delay.compareTo(deadline.remaining()) < 0) {
+            return true;
+        }
+        countDeadlineExceeded(downstream, "retry_skipped");
+        return false;
+    }
+
+    private void countDeadlineExceeded(Downstream downstream, String stage) {
+        meterRegistry.counter("gateway.deadline.exceeded", "downstream", downstream.getKey(), "stage", stage)
+                .increment();
+    }
+
+    private void rejectIfKnownDown(Downstream downstream) {
+        if (healthRegistry.isKnownDown(downstream)) {
+            throw new DownstreamUnavailableException(downstream.getKey(),
+                    "Service " + downstream.getKey() + " is down according to its last health check",
+                    healthCheckInterval);
+        }
+    }
+
+    private static DownstreamInstance startCall(LoadBalancer loadBalancer) {
+        DownstreamInstance instance = loadBalancer.choose();
+        if (instance != null) {
+            loadBalancer.onCallStarted(instance);
+            log.debug("Routing {} call to {}", loadBalancer.getName(), instance.getBaseUrl());
+        }
+        return instance;
+    }
+
+    private void recordOutcome(Downstream downstream, LoadBalancer loadBalancer, DownstreamInstance instance,
+            CircuitBreaker.State before, Throwable error) {
+        CircuitBreaker circuitBreaker = circuitBreakers.get(downstream);
+        if (error instanceof DeadlineExceededException) {
+            // Lo cortó el deadline de la petición: no dice nada sobre la salud del servicio
+            circuitBreaker.releasePermission();
+            if (instance != null) {
+                loadBalancer.onCallCancelled(instance);
+            }
+            return;
+        }
+        boolean failed = error != null && !isClientError(error);
+        if (failed) {
+            circuitBreaker.onFailure();
+        } else {
+            circuitBreaker.onSuccess();
+        }
+        if (instance != null) {
+            loadBalancer.onCallFinished(instance, failed);
+        }
+        CircuitBreaker.State after = circuitBreaker.getState();
+        if (before != after) {
+            log.warn("Circuit breaker for {} changed from {} to {}", downstream.getKey(), before, after);
+        }
+    }
+
+    /**
+     * Los errores 4xx son del request, no indican que el servicio esté caído
+     */
+    private static boolean isClientError(Throwable error) {
+        return error instanceof HttpClientErrorException
+                || (error instanceof WebClientResponseException responseException
+                        && responseException.getStatusCode().is4xxClientError());
+    }
+
+    private void registerBulkheadMetrics(MeterRegistry meterRegistry, Downstream downstream, Bulkhead bulkhead) {
+        Gauge.builder("gateway.bulkhead.active.calls", bulkhead, Bulkhead::getActiveCalls)
+                .description("Llamadas en curso hacia el servicio")
+                .tag("downstream", downstream.getKey())
+                .register(meterRegistry);
+        Gauge.builder("gateway.bulkhead.queued.calls", bulkhead, Bulkhead::getQueuedCalls)
+                .description("Llamadas esperando cupo en el bulkhead")
+                .tag("downstream", downstream.getKey())
+                .register(meterRegistry);
+        Gauge.builder("gateway.bulkhead.max.concurrent.calls", bulkhead, Bulkhead::getMaxConcurrentCalls)
+                .tag("downstream", downstream.getKey())
+                .register(meterRegistry);
+        bulkheadRejections.put(downstream, Counter.builder("gateway.bulkhead.rejected.calls")
+                .description("Llamadas rechazadas por bulkhead lleno")
+                .tag("downstream", downstream.getKey())
+                .register(meterRegistry));
+    }
+}
@@ -0,0 +1,37 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Instant;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+
+/**
+ * Último resultado conocido del health check de un servicio externo
+ */
+@Data
+@AllArgsConstructor
+public class DownstreamHealth {
+
+    public enum Status {
+        UP, DOWN, UNKNOWN
+    }
+
+    private Status status;
+    private long latencyMs;
+    private Instant checkedAt;
+    private Map<String, Object> details;
+    private String error;
+
+    public static DownstreamHealth unknown() {
+        return new DownstreamHealth(Status.UNKNOWN, 0, null, Map.of(), null);
+    }
+
+    public boolean isUp() {
+        return status == Status.UP;
+    }
+
+    public boolean isDown() {
+        return status == Status.DOWN;
+    }
+}
@@ -0,0 +1,202 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.apache.hc.client5.http.config.RequestConfig;
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.client5.http.protocol.HttpClientContext;
+import org.apache.hc.core5.util.Timeout;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Consulta periódicamente el health check de cada servicio externo y guarda en
+ * memoria el último estado y la latencia. Los endpoints de health y los
+ * clientes leen de aquí en lugar de llamar al servicio en cada petición.
+ * Si el servicio tiene varias réplicas se consulta cada una: las caídas dejan
+ * de recibir tráfico y el servicio se considera arriba si alguna lo está.
+ * Un error transitorio (502, conexión reiniciada) se reintenta según la
+ * política de reintentos del servicio antes de marcar la réplica como caída.
+ */
+@Component
+@Slf4j
+public class DownstreamHealthRegistry {
+
+    private final DownstreamProperties properties;
+    private final LoadBalancerRegistry loadBalancers;
+    private final RestTemplate probeRestTemplate;
+    private final Map<Downstream, DownstreamHealth> snapshots = new ConcurrentHashMap<>();
+    private final Map<Downstream, RetryPolicy> retryPolicies = new EnumMap<>(Downstream.class);
+
+    public DownstreamHealthRegistry(DownstreamProperties properties, CloseableHttpClient downstreamHttpClient,
+            LoadBalancerRegistry loadBalancers, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.loadBalancers = loadBalancers;
+        this.probeRestTemplate = createProbeRestTemplate(downstreamHttpClient, properties.getHealth().getTimeout());
+        for (Downstream downstream : Downstream.values()) {
+            snapshots.put(downstream, DownstreamHealth.unknown());
+            retryPolicies.put(downstream, new RetryPolicy(properties.service(downstream).getRetry()));
+            Gauge.builder("gateway.downstream.health", this,
+                    registry -> registry.getHealth(downstream).isUp() ? 1 : 0)
+                    .description("1 si el último health check del servicio fue exitoso")
+                    .tag("downstream", downstream.getKey())
+                    .register(meterRegistry);
+            Gauge.builder("gateway.downstream.health.latency", this,
+                    registry -> registry.getHealth(downstream).getLatencyMs())
+                    .baseUnit("milliseconds")
+                    .tag("downstream", downstream.getKey())
+                    .register(meterRegistry);
+        }
+    }
+
+    /**
+     * Último estado conocido del servicio (lectura en memoria)
+     */
+    public DownstreamHealth getHealth(Downstream downstream) {
+        return snapshots.get(downstream);
+    }
+
+    /**
+     * Estado actual del servicio; si todavía no se ha consultado nunca, lo consulta una vez
+     */
+    public DownstreamHealth currentHealth(Downstream downstream) {
+        DownstreamHealth health = getHealth(downstream);
+        if (health.getStatus() == DownstreamHealth.Status.UNKNOWN && hasHealthCheck(downstream)) {
+            return probe(downstream);
+        }
+        return health;
+    }
+
+    /**
+     * Indica si el último health check reciente del servicio falló
+     */
+    public boolean isKnownDown(Downstream downstream) {
+        if (!properties.getHealth().isSkipCallsWhenDown()) {
+            return false;
+        }
+        DownstreamHealth health = getHealth(downstream);
+        if (!health.isDown() || health.getCheckedAt() == null) {
+            return false;
+        }
+        // Un resultado viejo no es confiable: se deja pasar la llamada
+        Duration age = Duration.between(health.getCheckedAt(), Instant.now());
+        return age.compareTo(properties.getHealth().getInterval().multipliedBy(3)) < 0;
+    }
+
+    public boolean hasHealthCheck(Downstream downstream) {
+        String healthPath = properties.service(downstream).getHealthPath();
+        return !properties.service(downstream).instanceUrls().isEmpty() && healthPath != null && !healthPath.isBlank();
+    }
+
+    @Scheduled(initialDelay = 0, fixedDelayString = "${downstream.health.interval:15s}")
+    public void probeAll() {
+        for (Downstream downstream : Downstream.values()) {
+            if (hasHealthCheck(downstream)) {
+                probe(downstream);
+            }
+        }
+    }
+
+    /**
+     * Ejecuta el health check de cada réplica del servicio y actualiza el estado guardado
+     */
+    public DownstreamHealth probe(Downstream downstream) {
+        String healthPath = properties.service(downstream).getHealthPath();
+        LoadBalancer loadBalancer = loadBalancers.loadBalancer(downstream);
+        RetryPolicy retryPolicy = retryPolicies.get(downstream);
+        DownstreamHealth health = null;
+        for (DownstreamInstance instance : loadBalancer.getInstances()) {
+            DownstreamHealth instanceHealth = probeUrl(instance.getBaseUrl() + healthPath, retryPolicy);
+            loadBalancer.onHealthCheck(instance, instanceHealth.isUp());
+            if (health == null || (instanceHealth.isUp() && !health.isUp())) {
+                health = instanceHealth;
+            }
+        }
+        if (health == null) {
+            return getHealth(downstream);
+        }
+
+        DownstreamHealth previous = snapshots.put(downstream, health);
+        if (previous.getStatus() != health.getStatus()) {
+            log.info("Downstream {} health changed from {} to {} ({} ms){}", downstream.getKey(),
+                    previous.getStatus(), health.getStatus(), health.getLatencyMs(),
+                    health.getError() != null ? ": " + health.getError() : "");
+        }
+        return health;
+    }
+
+    private DownstreamHealth probeUrl(String url, RetryPolicy retryPolicy) {
+        retryPolicy.onCall();
+        for (int attempt = 1; ; attempt++) {
+            long start = System.nanoTime();
+            try {
+                return probeOnce(url, start);
+            } catch (Exception e) {
+                Duration delay = retryPolicy.nextDelay(attempt, e);
+                if (delay != null) {
+                    log.debug("Health check of {} failed ({}), retrying in {} ms", url, e.getMessage(),
+                            delay.toMillis());
+                }
+                if (delay == null || !sleep(delay)) {
+                    long latencyMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                    return new DownstreamHealth(DownstreamHealth.Status.DOWN, latencyMs, Instant.now(),
+                            Collections.emptyMap(), e.getMessage());
+                }
+            }
+        }
+    }
+
+    private DownstreamHealth probeOnce(String url, long start) {
+        ResponseEntity<Map<String, Object>> response = probeRestTemplate.exchange(
+                url,
+                HttpMethod.GET,
+                null,
+                new ParameterizedTypeReference<Map<String, Object>>() {});
+        long latencyMs = Duration.ofNanos(System.nanoTime() - start).toMillis();
+        Map<String, Object> body = response.getBody() != null ? response.getBody() : Collections.emptyMap();
+        return new DownstreamHealth(
+                response.getStatusCode().is2xxSuccessful() ? DownstreamHealth.Status.UP : DownstreamHealth.Status.DOWN,
+                latencyMs, Instant.now(), body, null);
+    }
+
+    private static boolean sleep(Duration delay) {
+        try {
+            Thread.sleep(delay);
+            return true;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+
+    private static RestTemplate createProbeRestTemplate(CloseableHttpClient httpClient, Duration timeout) {
+        HttpComponentsClientHttpRequestFactory requestFactory = new HttpComponentsClientHttpRequestFactory(httpClient);
+        RequestConfig probeConfig = RequestConfig.custom()
+                .setResponseTimeout(Timeout.of(timeout))
+                .setConnectionRequestTimeout(Timeout.of(timeout))
+                .build();
+        requestFactory.setHttpContextFactory((method, uri) -> {
+            HttpClientContext context = HttpClientContext.create();
+            context.setRequestConfig(probeConfig);
+            return context;
+        });
+        return new RestTemplate(requestFactory);
+    }
+}
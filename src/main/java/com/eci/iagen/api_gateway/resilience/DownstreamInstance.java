@@ -0,0 +1,84 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Una réplica de un servicio externo: URL base, llamadas en curso y estado de
+ * salud y de expulsión. El estado mutable lo administra {@link LoadBalancer}.
+ */
+public class DownstreamInstance {
+
+    private final String baseUrl;
+    private final AtomicInteger outstandingCalls = new AtomicInteger();
+    private volatile boolean healthy = true;
+    private volatile boolean ejected;
+
+    // Ventana circular de resultados recientes: true = la llamada falló
+    final boolean[] window;
+    int windowIndex;
+    int windowCount;
+    int windowFailures;
+    int consecutiveFailures;
+    int successesSinceReadmission;
+    int ejections;
+    long ejectedUntilNanos;
+
+    DownstreamInstance(String baseUrl, int windowSize) {
+        this.baseUrl = baseUrl;
+        this.window = new boolean[Math.max(1, windowSize)];
+    }
+
+    public String getBaseUrl() {
+        return baseUrl;
+    }
+
+    public int getOutstandingCalls() {
+        return outstandingCalls.get();
+    }
+
+    /**
+     * Resultado del último health check de la réplica
+     */
+    public boolean isHealthy() {
+        return healthy;
+    }
+
+    public boolean isEjected() {
+        return ejected;
+    }
+
+    /**
+     * Indica si la réplica recibe tráfico: sana según su health check y no expulsada
+     */
+    public boolean isAvailable() {
+        return healthy && !ejected;
+    }
+
+    void setHealthy(boolean healthy) {
+        this.healthy = healthy;
+    }
+
+    void setEjected(boolean ejected) {
+        this.ejected = ejected;
+    }
+
+    void incrementOutstanding() {
+        outstandingCalls.incrementAndGet();
+    }
+
+    void decrementOutstanding() {
+        outstandingCalls.decrementAndGet();
+    }
+
+    void resetWindow() {
+        windowIndex = 0;
+        windowCount = 0;
+        windowFailures = 0;
+        consecutiveFailures = 0;
+    }
+
+    @Override
+    public String toString() {
+        return baseUrl;
+    }
+}
@@ -0,0 +1,28 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+
+/**
+ * Se lanza cuando una llamada a un servicio externo se rechaza sin intentarla
+ * (circuito abierto, servicio saturado, etc.); se responde 503 con Retry-After
+ */
+public class DownstreamUnavailableException extends DownstreamCallAbortedException {
+
+    private final Duration retryAfter;
+
+    public DownstreamUnavailableException(String downstream, String message, Duration retryAfter) {
+        super(downstream, message, null);
+        this.retryAfter = retryAfter;
+    }
+
+    public Duration getRetryAfter() {
+        return retryAfter;
+    }
+
+    /**
+     * Valor para la cabecera Retry-After, en segundos (mínimo 1)
+     */
+    public long getRetryAfterSeconds() {
+        return Math.max(1, (retryAfter.toMillis() + 999) / 1000);
+    }
+}
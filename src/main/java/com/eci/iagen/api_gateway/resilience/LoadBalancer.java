@@ -0,0 +1,191 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.LongSupplier;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Reparte las llamadas entre las réplicas de un servicio (power of two choices
+ * o least outstanding requests) y expulsa temporalmente las réplicas con
+ * demasiados fallos. Las réplicas que fallan su health check tampoco reciben
+ * tráfico; si ninguna está disponible se reparte entre todas.
+ */
+@Slf4j
+public class LoadBalancer {
+
+    private final String name;
+    private final DownstreamProperties.LoadBalancer settings;
+    private final List<DownstreamInstance> instances;
+    private final LongSupplier nanoClock;
+
+    public LoadBalancer(String name, List<String> baseUrls, DownstreamProperties.LoadBalancer settings) {
+        this(name, baseUrls, settings, System::nanoTime);
+    }
+
+    LoadBalancer(String name, List<String> baseUrls, DownstreamProperties.LoadBalancer settings,
+            LongSupplier nanoClock) {
+        this.name = name;
+        this.settings = settings;
+        this.nanoClock = nanoClock;
+        List<DownstreamInstance> created = new ArrayList<>();
+        for (String baseUrl : baseUrls) {
+            created.add(new DownstreamInstance(baseUrl, settings.getSlidingWindowSize()));
+        }
+        this.instances = Collections.unmodifiableList(created);
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<DownstreamInstance> getInstances() {
+        return instances;
+    }
+
+    /**
+     * Elige la réplica para la siguiente llamada, o null si el servicio no tiene réplicas configuradas
+     */
+    public DownstreamInstance choose() {
+        if (instances.isEmpty()) {
+            return null;
+        }
+        if (instances.size() == 1) {
+            return instances.get(0);
+        }
+        List<DownstreamInstance> candidates = availableInstances();
+        if (candidates.isEmpty()) {
+            candidates = instances;
+        }
+        if (candidates.size() == 1) {
+            return candidates.get(0);
+        }
+
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        if (settings.getStrategy() == DownstreamProperties.Strategy.LEAST_OUTSTANDING) {
+            // Se recorre desde una posición al azar para repartir los empates
+            int offset = random.nextInt(candidates.size());
+            DownstreamInstance best = null;
+            for (int i = 0; i < candidates.size(); i++) {
+                DownstreamInstance candidate = candidates.get((offset + i) % candidates.size());
+                if (best == null || candidate.getOutstandingCalls() < best.getOutstandingCalls()) {
+                    best = candidate;
+                }
+            }
+            return best;
+        }
+
+        int first = random.nextInt(candidates.size());
+        int second = random.nextInt(candidates.size() - 1);
+        if (second >= first) {
+            second++;
+        }
+        DownstreamInstance a = candidates.get(first);
+        DownstreamInstance b = candidates.get(second);
+        return b.getOutstandingCalls() < a.getOutstandingCalls() ? b : a;
+    }
+
+    public void onCallStarted(DownstreamInstance instance) {
+        instance.incrementOutstanding();
+    }
+
+    /**
+     * Registra el resultado de una llamada y expulsa la réplica si supera los umbrales de fallos
+     */
+    public synchronized void onCallFinished(DownstreamInstance instance, boolean failed) {
+        instance.decrementOutstanding();
+        if (instance.isEjected()) {
+            return;
+        }
+
+        if (instance.windowCount == instance.window.length) {
+            if (instance.window[instance.windowIndex]) {
+                instance.windowFailures--;
+            }
+        } else {
+            instance.windowCount++;
+        }
+        instance.window[instance.windowIndex] = failed;
+        instance.windowIndex = (instance.windowIndex + 1) % instance.window.length;
+
+        if (!failed) {
+            instance.consecutiveFailures = 0;
+            // Tras un periodo estable se olvidan las expulsiones anteriores
+            if (++instance.successesSinceReadmission >= settings.getMinimumNumberOfCalls()) {
+                instance.ejections = 0;
+            }
+            return;
+        }
+        instance.windowFailures++;
+        instance.consecutiveFailures++;
+        instance.successesSinceReadmission = 0;
+
+        boolean tooManyConsecutive = instance.consecutiveFailures >= settings.getConsecutiveFailures();
+        boolean failureRateExceeded = instance.windowCount >= settings.getMinimumNumberOfCalls()
+                && instance.windowFailures * 100f / instance.windowCount >= settings.getFailureRateThreshold();
+        if ((tooManyConsecutive || failureRateExceeded) && canEject()) {
+            eject(instance);
+        }
+    }
+
+    /**
+     * Termina una llamada sin registrar su resultado (p. ej. cortada por el deadline de la petición)
+     */
+    public void onCallCancelled(DownstreamInstance instance) {
+        instance.decrementOutstanding();
+    }
+
+    /**
+     * Actualiza el estado de la réplica según su health check
+     */
+    public void onHealthCheck(DownstreamInstance instance, boolean up) {
+        if (instance.isHealthy() != up) {
+            log.info("Instance {} of {} is now {}", instance.getBaseUrl(), name, up ? "healthy" : "unhealthy");
+        }
+        instance.setHealthy(up);
+    }
+
+    private synchronized List<DownstreamInstance> availableInstances() {
+        long now = nanoClock.getAsLong();
+        List<DownstreamInstance> available = new ArrayList<>(instances.size());
+        for (DownstreamInstance instance : instances) {
+            if (instance.isEjected() && now - instance.ejectedUntilNanos >= 0) {
+                readmit(instance);
+            }
+            if (instance.isAvailable()) {
+                available.add(instance);
+            }
+        }
+        return available;
+    }
+
+    private boolean canEject() {
+        long ejected = instances.stream().filter(DownstreamInstance::isEjected).count();
+        return ejected < instances.size() * settings.getMaxEjectionPercent() / 100;
+    }
+
+    private void eject(DownstreamInstance instance) {
+        instance.ejections++;
+        Duration duration = settings.getEjectionDuration().multipliedBy(instance.ejections);
+        if (duration.compareTo(settings.getMaxEjectionDuration()) > 0) {
+            duration = settings.getMaxEjectionDuration();
+        }
+        log.warn("Instance {} of {} ejected for {} s after {} failures in {} calls", instance.getBaseUrl(), name,
+                duration.toSeconds(), instance.windowFailures, instance.windowCount);
+        instance.ejectedUntilNanos = nanoClock.getAsLong() + duration.toNanos();
+        instance.setEjected(true);
+        instance.resetWindow();
+    }
+
+    private void readmit(DownstreamInstance instance) {
+        instance.setEjected(false);
+        instance.successesSinceReadmission = 0;
+        log.info("Instance {} of {} readmitted after ejection", instance.getBaseUrl(), name);
+    }
+}
@@ -0,0 +1,58 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.util.EnumMap;
+import java.util.Map;
+
+import org.springframework.stereotype.Component;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Balanceador de carga de cada servicio externo, construido a partir de
+ * downstream.services.*.instances (o de url si solo hay una réplica)
+ */
+@Component
+@Slf4j
+public class LoadBalancerRegistry {
+
+    private final Map<Downstream, LoadBalancer> loadBalancers = new EnumMap<>(Downstream.class);
+
+    public LoadBalancerRegistry(DownstreamProperties properties, MeterRegistry meterRegistry) {
+        for (Downstream downstream : Downstream.values()) {
+            DownstreamProperties.Service service = properties.service(downstream);
+            LoadBalancer loadBalancer = new LoadBalancer(downstream.getKey(), service.instanceUrls(),
+                    service.getLoadBalancer());
+            loadBalancers.put(downstream, loadBalancer);
+            registerMetrics(meterRegistry, downstream, loadBalancer);
+            if (loadBalancer.getInstances().size() > 1) {
+                log.info("Downstream {} balanced across {} instances ({})", downstream.getKey(),
+                        loadBalancer.getInstances().size(), service.getLoadBalancer().getStrategy());
+            }
+        }
+    }
+
+    public LoadBalancer loadBalancer(Downstream downstream) {
+        return loadBalancers.get(downstream);
+    }
+
+    private void registerMetrics(MeterRegistry meterRegistry, Downstream downstream, LoadBalancer loadBalancer) {
+        for (DownstreamInstance instance : loadBalancer.getInstances()) {
+            Gauge.builder("gateway.downstream.instance.outstanding", instance, DownstreamInstance::getOutstandingCalls)
+                    .description("Llamadas en curso hacia la réplica")
+                    .tag("downstream", downstream.getKey())
+                    .tag("instance", instance.getBaseUrl())
+                    .register(meterRegistry);
+            Gauge.builder("gateway.downstream.instance.available", instance,
+                    candidate -> candidate.isAvailable() ? 1 : 0)
+                    .description("1 si la réplica está sana y no expulsada")
+                    .tag("downstream", downstream.getKey())
+                    .tag("instance", instance.getBaseUrl())
+                    .register(meterRegistry);
+        }
+    }
+}
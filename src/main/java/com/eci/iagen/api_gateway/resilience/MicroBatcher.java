@@ -0,0 +1,146 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Agrupa llamadas individuales concurrentes en lotes: la primera llamada abre un
+ * lote que se envía cuando se llena (maxSize) o cuando pasa linger, lo que
+ * ocurra antes. El envío devuelve un resultado por elemento, en el mismo orden,
+ * y cada llamada recibe el suyo. El lote se envía con el deadline más lejano de
+ * sus llamadas (ninguno si alguna no tiene).
+ */
+@Slf4j
+public class MicroBatcher<T, R> {
+
+    private final String name;
+    private final int maxSize;
+    private final Duration linger;
+    private final Function<List<T>, CompletableFuture<List<Outcome<R>>>> sender;
+    private final DistributionSummary batchSizes;
+
+    private final Object lock = new Object();
+    private List<Pending<T, R>> pending = new ArrayList<>();
+    // Cambia con cada lote enviado: el envío diferido de un lote ya enviado no hace nada
+    private long generation;
+
+    public MicroBatcher(String name, int maxSize, Duration linger,
+            Function<List<T>, CompletableFuture<List<Outcome<R>>>> sender, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.maxSize = Math.max(1, maxSize);
+        this.linger = linger;
+        this.sender = sender;
+        this.batchSizes = DistributionSummary.builder("gateway.requests.batch.size")
+                .description("Llamadas agrupadas en cada lote enviado")
+                .tag("operation", name)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Añade la llamada al lote abierto y devuelve su resultado
+     */
+    public CompletableFuture<R> submit(T item) {
+        Pending<T, R> call = new Pending<>(item, Deadline.current(), new CompletableFuture<>());
+        List<Pending<T, R>> full = null;
+        long scheduled = -1;
+        synchronized (lock) {
+            pending.add(call);
+            if (pending.size() >= maxSize || linger.isZero() || linger.isNegative()) {
+                full = takePending();
+            } else if (pending.size() == 1) {
+                scheduled = generation;
+            }
+        }
+        if (full != null) {
+            send(full);
+        } else if (scheduled >= 0) {
+            long batch = scheduled;
+            CompletableFuture.delayedExecutor(linger.toNanos(), TimeUnit.NANOSECONDS).execute(() -> flush(batch));
+        }
+        return call.result();
+    }
+
+    private void flush(long batch) {
+        List<Pending<T, R>> ready = null;
+        synchronized (lock) {
+            if (generation == batch && !pending.isEmpty()) {
+                ready = takePending();
+            }
+        }
+        if (ready != null) {
+            send(ready);
+        }
+    }
+
+    private List<Pending<T, R>> takePending() {
+        List<Pending<T, R>> taken = pending;
+        pending = new ArrayList<>();
+        generation++;
+        return taken;
+    }
+
+    private void send(List<Pending<T, R>> batch) {
+        batchSizes.record(batch.size());
+        log.debug("Sending {} batch of {} calls", name, batch.size());
+        CompletableFuture<List<Outcome<R>>> sent;
+        try {
+            sent = Deadline.callWith(latestDeadline(batch),
+                    () -> sender.apply(batch.stream().map(Pending::item).toList()));
+        } catch (RuntimeException e) {
+            sent = CompletableFuture.failedFuture(e);
+        }
+        sent.whenComplete((outcomes, error) -> {
+            for (int i = 0; i < batch.size(); i++) {
+                CompletableFuture<R> result = batch.get(i).result();
+                if (error != null) {
+                    result.completeExceptionally(DownstreamGuard.unwrap(error));
+                } else if (outcomes == null || i >= outcomes.size()) {
+                    result.completeExceptionally(
+                            new IllegalStateException("The " + name + " batch response has no result for item " + i));
+                } else if (outcomes.get(i).error() != null) {
+                    result.completeExceptionally(outcomes.get(i).error());
+                } else {
+                    result.complete(outcomes.get(i).value());
+                }
+            }
+        });
+    }
+
+    private static Deadline latestDeadline(List<? extends Pending<?, ?>> batch) {
+        Deadline latest = null;
+        for (Pending<?, ?> call : batch) {
+            if (call.deadline() == null) {
+                return null;
+            }
+            if (latest == null || call.deadline().remaining().compareTo(latest.remaining()) > 0) {
+                latest = call.deadline();
+            }
+        }
+        return latest;
+    }
+
+    /**
+     * Resultado de un elemento del lote: el valor o el error
+     */
+    public record Outcome<R>(R value, Throwable error) {
+
+        public static <R> Outcome<R> success(R value) {
+            return new Outcome<>(value, null);
+        }
+
+        public static <R> Outcome<R> failure(Throwable error) {
+            return new Outcome<>(null, error);
+        }
+    }
+
+    private record Pending<T, R>(T item, Deadline deadline, CompletableFuture<R> result) {
+    }
+}
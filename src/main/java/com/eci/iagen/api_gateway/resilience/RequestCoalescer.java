@@ -0,0 +1,69 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+
+import org.springframework.stereotype.Component;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Tags;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Agrupa las operaciones costosas idénticas que están en curso (singleflight):
+ * si llega una petición con la misma operación y la misma clave mientras la
+ * primera no ha terminado, espera el resultado de esa en lugar de repetir el
+ * trabajo. La clave debe incluir todas las entradas que cambian el resultado.
+ * Las peticiones agrupadas comparten también el deadline de la primera.
+ */
+@Component
+@Slf4j
+public class RequestCoalescer {
+
+    private final Map<List<Object>, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+    private final MeterRegistry meterRegistry;
+
+    public RequestCoalescer(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+        meterRegistry.gaugeMapSize("gateway.requests.coalescing.in.flight", Tags.empty(), inFlight);
+    }
+
+    /**
+     * Ejecuta la operación, o se une a la idéntica que ya está en curso
+     *
+     * @param operation nombre de la operación (etiqueta de las métricas)
+     * @param key entradas normalizadas de la operación
+     */
+    @SuppressWarnings("unchecked")
+    public <T> CompletableFuture<T> coalesce(String operation, Object key, Supplier<CompletableFuture<T>> call) {
+        List<Object> inFlightKey = List.of(operation, key);
+        CompletableFuture<T> started = new CompletableFuture<>();
+        CompletableFuture<T> existing = (CompletableFuture<T>) inFlight.putIfAbsent(inFlightKey, started);
+        if (existing != null) {
+            log.debug("Coalesced {} request for {} with the one in flight", operation, key);
+            meterRegistry.counter("gateway.requests.coalesced", "operation", operation).increment();
+            // Copia: quien espera no puede completar ni cancelar la operación compartida
+            return existing.copy();
+        }
+
+        meterRegistry.counter("gateway.requests.executed", "operation", operation).increment();
+        CompletableFuture<T> result;
+        try {
+            result = call.get();
+        } catch (RuntimeException e) {
+            result = CompletableFuture.failedFuture(e);
+        }
+        result.whenComplete((value, error) -> {
+            inFlight.remove(inFlightKey, started);
+            if (error != null) {
+                started.completeExceptionally(DownstreamGuard.unwrap(error));
+            } else {
+                started.complete(value);
+            }
+        });
+        return started.copy();
+    }
+}
@@ -0,0 +1,152 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.io.IOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatusCode;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+import org.springframework.web.reactive.function.client.WebClientResponseException;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+/**
+ * Política de reintentos de un servicio externo: backoff exponencial con tope y
+ * jitter completo, respeta Retry-After y limita los reintentos con un
+ * presupuesto proporcional al tráfico para no multiplicar la carga de un
+ * servicio que ya está fallando.
+ * Solo se reintentan errores transitorios: conexión fallida o reiniciada,
+ * timeouts y respuestas 429, 502, 503 y 504.
+ */
+public class RetryPolicy {
+
+    // El presupuesto se guarda en milésimas de reintento
+    private static final long TOKEN = 1000;
+
+    private final DownstreamProperties.Retry settings;
+    private final Supplier<Instant> clock;
+    private final AtomicLong budget;
+    private final long budgetCapacity;
+
+    public RetryPolicy(DownstreamProperties.Retry settings) {
+        this(settings, Instant::now);
+    }
+
+    RetryPolicy(DownstreamProperties.Retry settings, Supplier<Instant> clock) {
+        this.settings = settings;
+        this.clock = clock;
+        this.budgetCapacity = Math.max(1, settings.getBudgetMinRetries()) * TOKEN;
+        this.budget = new AtomicLong(budgetCapacity);
+    }
+
+    public boolean isEnabled() {
+        return settings.isEnabled() && settings.getMaxAttempts() > 1;
+    }
+
+    public boolean acceptsIdempotencyKeys() {
+        return settings.isIdempotencyKeys();
+    }
+
+    /**
+     * Registra una llamada nueva (no un reintento), que suma al presupuesto de reintentos
+     */
+    public void onCall() {
+        long deposit = settings.getBudgetPercent() * TOKEN / 100;
+        budget.getAndUpdate(current -> Math.min(budgetCapacity, current + deposit));
+    }
+
+    /**
+     * Espera antes del siguiente intento, o null si no se debe reintentar
+     *
+     * @param attempt intentos ya realizados (1 tras el primer fallo)
+     */
+    public Duration nextDelay(int attempt, Throwable error) {
+        if (!isEnabled() || attempt >= settings.getMaxAttempts() || !isRetryable(error)) {
+            return null;
+        }
+        Duration retryAfter = retryAfter(error);
+        if (retryAfter != null && retryAfter.compareTo(settings.getMaxRetryAfter()) > 0) {
+            return null;
+        }
+        if (!tryConsumeBudget()) {
+            return null;
+        }
+
+        long capMillis = settings.getInitialBackoff().toMillis() << Math.min(attempt - 1, 20);
+        capMillis = Math.min(capMillis, settings.getMaxBackoff().toMillis());
+        Duration backoff = Duration.ofMillis(ThreadLocalRandom.current().nextLong(capMillis + 1));
+        return retryAfter != null && retryAfter.compareTo(backoff) > 0 ? retryAfter : backoff;
+    }
+
+    private boolean tryConsumeBudget() {
+        long current;
+        do {
+            current = budget.get();
+            if (current < TOKEN) {
+                return false;
+            }
+        } while (!budget.compareAndSet(current, current - TOKEN));
+        return true;
+    }
+
+    /**
+     * Indica si el error es transitorio y la llamada se puede repetir
+     */
+    public static boolean isRetryable(Throwable error) {
+        if (error instanceof DownstreamCallAbortedException) {
+            // Rechazo local (circuito abierto, bulkhead lleno): reintentar solo suma carga
+            return false;
+        }
+        if (error instanceof ResourceAccessException || error instanceof WebClientRequestException
+                || error instanceof IOException) {
+            return true;
+        }
+        HttpStatusCode status = null;
+        if (error instanceof RestClientResponseException responseException) {
+            status = responseException.getStatusCode();
+        } else if (error instanceof WebClientResponseException responseException) {
+            status = responseException.getStatusCode();
+        }
+        if (status == null) {
+            return error.getCause() != null && error.getCause() != error && isRetryable(error.getCause());
+        }
+        int code = status.value();
+        return code == 429 || code == 502 || code == 503 || code == 504;
+    }
+
+    /**
+     * Valor de la cabecera Retry-After de la respuesta de error (segundos o fecha HTTP), si la tiene
+     */
+    Duration retryAfter(Throwable error) {
+        HttpHeaders headers = null;
+        if (error instanceof RestClientResponseException responseException) {
+            headers = responseException.getResponseHeaders();
+        } else if (error instanceof WebClientResponseException responseException) {
+            headers = responseException.getHeaders();
+        }
+        String value = headers != null ? headers.getFirst(HttpHeaders.RETRY_AFTER) : null;
+        if (value == null || value.isBlank()) {
+            return null;
+        }
+        try {
+            return Duration.ofSeconds(Math.max(0, Long.parseLong(value.trim())));
+        } catch (NumberFormatException e) {
+            try {
+                Instant retryAt = ZonedDateTime.parse(value.trim(), DateTimeFormatter.RFC_1123_DATE_TIME).toInstant();
+                Duration wait = Duration.between(clock.get(), retryAt);
+                return wait.isNegative() ? Duration.ZERO : wait;
+            } catch (DateTimeParseException ignored) {
+                return null;
+            }
+        }
+    }
+}
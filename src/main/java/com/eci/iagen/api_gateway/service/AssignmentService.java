@@ -14,6 +14,7 @@ import com.eci.iagen.api_gateway.entity.Assignment;
 import com.eci.iagen.api_gateway.entity.Class;
 import com.eci.iagen.api_gateway.repository.AssignmentRepository;
 import com.eci.iagen.api_gateway.repository.ClassRepository;
+import com.eci.iagen.api_gateway.repository.PlagiarismReportRepository;
 
 import lombok.RequiredArgsConstructor;
 
@@ -23,6 +24,7 @@ public class AssignmentService {
 
     private final AssignmentRepository assignmentRepository;
     private final ClassRepository classRepository;
+    private final PlagiarismReportRepository plagiarismReportRepository;
 
     // ================== CRUD BÁSICO ==================
     
@@ -109,6 +111,8 @@ public class AssignmentService {
         }
         
         if (assignmentRepository.existsById(id)) {
+            // Los informes de plagio referencian la tarea
+            plagiarismReportRepository.deleteByAssignmentId(id);
             assignmentRepository.deleteById(id);
             return true;
         }
@@ -1,7 +1,9 @@
 package com.eci.iagen.api_gateway.service;
 
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.messaging.simp.SimpMessagingTemplate;
 import org.springframework.stereotype.Service;
 
@@ -9,6 +11,7 @@ import com.eci.iagen.api_gateway.client.TeamFeedbackClient;
 import com.eci.iagen.api_gateway.dto.request.ChatMessageRequest;
 import com.eci.iagen.api_gateway.dto.request.LLMChatRequest;
 import com.eci.iagen.api_gateway.dto.response.ChatMessageResponse;
+import com.eci.iagen.api_gateway.resilience.Deadline;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -20,6 +23,8 @@ public class ChatService {
 
     private final SimpMessagingTemplate messagingTemplate;
     private final TeamFeedbackClient teamFeedbackClient;
+    // La llamada al LLM es bloqueante y puede tardar minutos: usa su propio pool acotado
+    private final AsyncTaskExecutor chatTaskExecutor;
     
     // URL base de este servicio para los callbacks
     private static final String CALLBACK_BASE_URL = "http://localhost:8080/api/chat/llm-update";
@@ -41,35 +46,45 @@ public class ChatService {
         );
         sendMessageToSession(request.getSessionId(), statusMessage);
         
-        // Procesar de forma asíncrona
-        CompletableFuture.runAsync(() -> {
-            try {
-                // Crear request para el LLM backend con callback URL
-                LLMChatRequest llmRequest = new LLMChatRequest(
-                    request.getSessionId(),
-                    request.getMessage(),
-                    request.getUserRole(),
-                    request.getPreviousMessages(),
-                    CALLBACK_BASE_URL
-                );
-                
-                // Determinar el endpoint según el rol
-                if ("coordinador".equalsIgnoreCase(request.getUserRole())) {
-                    teamFeedbackClient.generateCoordinatorFeedbackAsync(llmRequest);
-                } else {
-                    // Por defecto usar profesor
-                    teamFeedbackClient.generateTeacherFeedbackAsync(llmRequest);
-                }
-                
-            } catch (Exception e) {
-                log.error("Error processing message for session {}: {}", request.getSessionId(), e.getMessage(), e);
-                ChatMessageResponse errorMessage = ChatMessageResponse.errorMessage(
-                    request.getSessionId(), 
-                    "Error procesando tu consulta: " + e.getMessage()
-                );
-                sendMessageToSession(request.getSessionId(), errorMessage);
+        // Procesar de forma asíncrona; la respuesta llega por callback, así que no hereda el deadline del request
+        try {
+            CompletableFuture.runAsync(() -> Deadline.runWith(null, () -> sendToLLM(request)), chatTaskExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("Chat queue is full, rejecting message for session {}", request.getSessionId());
+            sendMessageToSession(request.getSessionId(), ChatMessageResponse.errorMessage(
+                request.getSessionId(),
+                "Hay demasiadas consultas en curso, inténtalo de nuevo en unos minutos"
+            ));
+        }
+    }
+
+    private void sendToLLM(ChatMessageRequest request) {
+        try {
+            // Crear request para el LLM backend con callback URL
+            LLMChatRequest llmRequest = new LLMChatRequest(
+                request.getSessionId(),
+                request.getMessage(),
+                request.getUserRole(),
+                request.getPreviousMessages(),
+                CALLBACK_BASE_URL
+            );
+            
+            // Determinar el endpoint según el rol
+            if ("coordinador".equalsIgnoreCase(request.getUserRole())) {
+                teamFeedbackClient.generateCoordinatorFeedbackAsync(llmRequest);
+            } else {
+                // Por defecto usar profesor
+                teamFeedbackClient.generateTeacherFeedbackAsync(llmRequest);
             }
-        });
+            
+        } catch (Exception e) {
+            log.error("Error processing message for session {}: {}", request.getSessionId(), e.getMessage(), e);
+            ChatMessageResponse errorMessage = ChatMessageResponse.errorMessage(
+                request.getSessionId(), 
+                "Error procesando tu consulta: " + e.getMessage()
+            );
+            sendMessageToSession(request.getSessionId(), errorMessage);
+        }
     }
     
     public void handleLLMStreamingUpdate(String sessionId, String partialMessage, String status, boolean isComplete) {
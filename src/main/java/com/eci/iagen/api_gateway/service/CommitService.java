@@ -0,0 +1,141 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import com.eci.iagen.api_gateway.client.GitHubClient;
+import com.eci.iagen.api_gateway.dto.CommitDTO;
+import com.eci.iagen.api_gateway.entity.Commit;
+import com.eci.iagen.api_gateway.entity.Submission;
+import com.eci.iagen.api_gateway.repository.CommitRepository;
+import com.eci.iagen.api_gateway.repository.SubmissionRepository;
+import com.eci.iagen.api_gateway.resilience.RequestCoalescer;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Historial de commits de las entregas guardado en base de datos. Cada
+ * sincronización pide solo los commits posteriores al último guardado (el
+ * historial ya visto no se vuelve a descargar) y la evaluación se calcula con
+ * los commits guardados. Los commits reescritos con una fecha anterior al último
+ * guardado no se detectan.
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class CommitService {
+
+    private final CommitRepository commitRepository;
+    private final SubmissionRepository submissionRepository;
+    private final GitHubClient gitHubClient;
+    private final RequestCoalescer requestCoalescer;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor blockingTaskExecutor;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Guarda los commits nuevos de la entrega y devuelve los de su ventana (más el
+     * último posterior a la ventana, si existe), del más reciente al más antiguo,
+     * con la misma forma que GitHubClient.fetchSubmissionCommits. La lista es
+     * propia de cada llamada y se puede modificar
+     */
+    public CompletableFuture<List<CommitDTO>> syncSubmissionCommits(Long submissionId, String repositoryUrl,
+            LocalDateTime startDate, LocalDateTime dueDate, LocalDateTime submittedAt) {
+        GitHubClient.CommitWindow window = gitHubClient.submissionWindow(startDate, dueDate, submittedAt);
+        // La lista devuelta depende del repositorio y de la ventana, no solo de la entrega
+        return requestCoalescer.coalesce("commit-sync", Arrays.asList(submissionId, repositoryUrl, window),
+                () -> CompletableFuture
+                        .supplyAsync(() -> commitRepository.findLastCommittedAt(submissionId).orElse(null),
+                                blockingTaskExecutor)
+                        .thenCompose(lastSeen -> gitHubClient.fetchCommitsNonBlocking(repositoryUrl,
+                                fetchSince(lastSeen, window), window.until()))
+                        .thenApplyAsync(fetched -> transactionTemplate.execute(status -> {
+                            if (!store(submissionId, repositoryUrl, fetched)) {
+                                return fetched.stream().filter(commit -> window.contains(commit.getDate()))
+                                        .toList();
+                            }
+                            return storedCommits(submissionId, window);
+                        }), blockingTaskExecutor))
+                // Las llamadas agrupadas comparten el resultado: cada una recibe su propia copia modificable
+                .thenApply(ArrayList::new);
+    }
+
+    // Desde el último commit guardado (incluido: los repetidos se descartan por sha), sin salir de la ventana
+    private static LocalDateTime fetchSince(LocalDateTime lastSeen, GitHubClient.CommitWindow window) {
+        if (lastSeen == null || (window.since() != null && lastSeen.isBefore(window.since()))) {
+            return window.since();
+        }
+        if (window.until() != null && lastSeen.isAfter(window.until())) {
+            return window.until();
+        }
+        return lastSeen;
+    }
+
+    // false si el repositorio de la entrega cambió mientras se descargaban sus commits: no se guardan
+    private boolean store(Long submissionId, String repositoryUrl, List<CommitDTO> fetched) {
+        Submission submission = submissionRepository.getReferenceById(submissionId);
+        if (!Objects.equals(trim(submission.getFileUrl()), trim(repositoryUrl))) {
+            log.info("Repository of submission {} changed during commit sync, discarding {} fetched commits",
+                    submissionId, fetched.size());
+            return false;
+        }
+        Set<String> known = commitRepository.findShasBySubmissionId(submissionId);
+        List<Commit> added = new ArrayList<>();
+        for (CommitDTO commit : fetched) {
+            if (known.add(commit.getSha())) {
+                Commit entity = new Commit();
+                entity.setSubmission(submission);
+                entity.setSha(commit.getSha());
+                entity.setMessage(commit.getMessage());
+                entity.setCommittedAt(commit.getDate());
+                entity.setAuthorName(commit.getAuthorName());
+                entity.setAuthorEmail(commit.getAuthorEmail());
+                added.add(entity);
+            }
+        }
+        commitRepository.saveAll(added);
+        if (!added.isEmpty()) {
+            // El último commit cambió: los informes de plagio de la tarea dejan de estar vigentes
+            eventPublisher.publishEvent(new SubmissionsChangedEvent(submission.getAssignment().getId()));
+        }
+        log.debug("Stored {} new commits for submission {} ({} known)", added.size(), submissionId, known.size());
+        return true;
+    }
+
+    private static String trim(String value) {
+        return value != null ? value.trim() : null;
+    }
+
+    private List<CommitDTO> storedCommits(Long submissionId, GitHubClient.CommitWindow window) {
+        List<CommitDTO> commits = new ArrayList<>();
+        CommitDTO latestAfterWindow = null;
+        for (Commit commit : commitRepository.findBySubmissionIdOrderByCommittedAtDesc(submissionId)) {
+            if (window.contains(commit.getCommittedAt())) {
+                commits.add(toDTO(commit));
+            } else if (latestAfterWindow == null && window.until() != null
+                    && commit.getCommittedAt().isAfter(window.until())) {
+                latestAfterWindow = toDTO(commit);
+            }
+        }
+        if (latestAfterWindow != null) {
+            commits.add(latestAfterWindow);
+        }
+        return commits;
+    }
+
+    private static CommitDTO toDTO(Commit commit) {
+        return new CommitDTO(commit.getSha(), commit.getMessage(), commit.getCommittedAt(), commit.getAuthorName(),
+                commit.getAuthorEmail());
+    }
+}
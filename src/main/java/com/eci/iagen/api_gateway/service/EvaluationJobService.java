@@ -0,0 +1,88 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eci.iagen.api_gateway.config.EvaluationJobProperties;
+import com.eci.iagen.api_gateway.dto.EvaluationDTO;
+import com.eci.iagen.api_gateway.dto.EvaluationJobDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Trabajos de evaluación asíncronos: el endpoint responde 202 con el id del
+ * trabajo y la evaluación se ejecuta después, con como mucho
+ * evaluation.jobs.max-concurrent a la vez (el resto espera en una cola acotada).
+ * Cada cambio de estado se publica por STOMP en {topic}/{jobId} y en
+ * {topic}/submissions/{submissionId}. Los trabajos viven en memoria y se
+ * descartan evaluation.jobs.retention después de terminar.
+ */
+@Service
+public class EvaluationJobService {
+
+    private final JobRunner<Job, EvaluationDTO> runner;
+
+    public EvaluationJobService(EvaluationJobProperties properties, SimpMessagingTemplate messagingTemplate,
+            MeterRegistry meterRegistry) {
+        this.runner = new JobRunner<>("evaluation", "Trabajos de evaluación por estado", properties,
+                messagingTemplate, meterRegistry);
+    }
+
+    /**
+     * Encola la evaluación y devuelve el trabajo en estado QUEUED (o RUNNING si
+     * había cupo); con la cola llena lanza BulkheadFullException
+     */
+    public EvaluationJobDTO submit(String evaluationType, Long submissionId, Long evaluatorId,
+            Supplier<CompletableFuture<EvaluationDTO>> evaluation) {
+        return runner.submit(() -> new Job(evaluationType, submissionId, evaluatorId), job -> evaluation.get())
+                .toDTO();
+    }
+
+    public Optional<EvaluationJobDTO> getJob(String id) {
+        return runner.getJob(id).map(Job::toDTO);
+    }
+
+    @Scheduled(fixedDelayString = "${evaluation.jobs.cleanup-interval:1m}")
+    public void removeExpiredJobs() {
+        runner.removeExpiredJobs();
+    }
+
+    private static final class Job extends JobRunner.Job<EvaluationDTO> {
+        private final String evaluationType;
+        private final Long submissionId;
+        private final Long evaluatorId;
+        private EvaluationDTO evaluation;
+
+        Job(String evaluationType, Long submissionId, Long evaluatorId) {
+            this.evaluationType = evaluationType;
+            this.submissionId = submissionId;
+            this.evaluatorId = evaluatorId;
+        }
+
+        @Override
+        protected String resourcePath() {
+            return "submissions/" + submissionId;
+        }
+
+        @Override
+        protected String describe() {
+            return "Evaluation job " + getId() + " (" + evaluationType + ") for submission " + submissionId;
+        }
+
+        @Override
+        protected synchronized void complete(EvaluationDTO evaluation) {
+            this.evaluation = evaluation;
+        }
+
+        @Override
+        protected synchronized EvaluationJobDTO toDTO() {
+            return new EvaluationJobDTO(getId(), evaluationType, submissionId, evaluatorId, getStatus().name(),
+                    getCreatedAt(), getStartedAt(), getFinishedAt(), evaluation, getError(), getErrorStatus());
+        }
+    }
+}
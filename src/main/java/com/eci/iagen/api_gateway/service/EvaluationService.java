@@ -1,34 +1,33 @@
 package com.eci.iagen.api_gateway.service;
 
 import java.math.BigDecimal;
+import java.time.Duration;
 import java.time.LocalDateTime;
-import java.time.ZoneId;
-import java.time.ZonedDateTime;
-import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.Comparator;
+import java.util.Iterator;
 import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
-import org.springframework.http.HttpEntity;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpMethod;
-import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
-import org.springframework.web.client.RestClientException;
-import org.springframework.web.client.RestTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.eci.iagen.api_gateway.client.CodeAnalysisClient;
 import com.eci.iagen.api_gateway.client.ScheduleComplianceClient;
+import com.eci.iagen.api_gateway.config.BulkEvaluationProperties;
 import com.eci.iagen.api_gateway.controller.EvaluationController;
+import com.eci.iagen.api_gateway.dto.CommitDTO;
 import com.eci.iagen.api_gateway.dto.EvaluationDTO;
 import com.eci.iagen.api_gateway.dto.SubmissionDTO;
+import com.eci.iagen.api_gateway.dto.request.ScheduleComplianceBatchRequest;
 import com.eci.iagen.api_gateway.dto.request.ScheduleComplianceRequest;
+import com.eci.iagen.api_gateway.dto.response.BulkEvaluationResponse;
 import com.eci.iagen.api_gateway.dto.response.ScheduleComplianceResponse;
 import com.eci.iagen.api_gateway.entity.Evaluation;
 import com.eci.iagen.api_gateway.entity.Submission;
@@ -36,11 +35,18 @@ import com.eci.iagen.api_gateway.entity.User;
 import com.eci.iagen.api_gateway.repository.EvaluationRepository;
 import com.eci.iagen.api_gateway.repository.SubmissionRepository;
 import com.eci.iagen.api_gateway.repository.UserRepository;
+import com.eci.iagen.api_gateway.resilience.Deadline;
+import com.eci.iagen.api_gateway.resilience.DownstreamCallAbortedException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.RequestCoalescer;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
 
 @Service
 @RequiredArgsConstructor
@@ -50,15 +56,15 @@ public class EvaluationService {
     private final EvaluationRepository evaluationRepository;
     private final SubmissionRepository submissionRepository;
     private final UserRepository userRepository;
-    private final RestTemplate restTemplate;
+    private final CommitService commitService;
     private final ScheduleComplianceClient scheduleComplianceClient;
     private final CodeAnalysisClient codeAnalysisClient;
+    private final RequestCoalescer requestCoalescer;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor blockingTaskExecutor;
+    private final BulkEvaluationProperties bulkEvaluationProperties;
     private static final org.slf4j.Logger logger = org.slf4j.LoggerFactory.getLogger(EvaluationController.class);
 
-
-    private static final DateTimeFormatter GITHUB_DATE_FORMATTER = DateTimeFormatter
-            .ofPattern("yyyy-MM-dd'T'HH:mm:ss'Z'").withZone(ZoneId.of("UTC"));
-
     @Transactional(readOnly = true)
     public List<EvaluationDTO> getAllEvaluations() {
         return evaluationRepository.findAll().stream()
@@ -133,330 +139,404 @@ public class EvaluationService {
         return false;
     }
 
-    @Transactional
-    public EvaluationDTO evaluateGitHubCommits(Long submissionId, Long evaluatorId) {
-        logger.info("Evaluating GitHub commits for submission {} by evaluator {}", submissionId, evaluatorId);
-
-        Submission submission = submissionRepository.findById(submissionId)
-                .orElseThrow(() -> new IllegalArgumentException("Submission not found with id: " + submissionId));
+    /**
+     * Evalúa el cumplimiento de horarios con los commits de la entrega. La lectura
+     * y la escritura en base de datos se hacen en transacciones cortas en
+     * blockingTaskExecutor; las llamadas a GitHub y a schedule compliance no ocupan
+     * un hilo mientras esperan.
+     */
+    public CompletableFuture<EvaluationDTO> evaluateGitHubCommitsAsync(Long submissionId, Long evaluatorId) {
+        logger.info("Evaluating GitHub commits (async) for submission {} by evaluator {}", submissionId, evaluatorId);
+
+        return CompletableFuture
+                .supplyAsync(() -> transactionTemplate.execute(status -> readSubmissionDates(submissionId,
+                        evaluatorId)), blockingTaskExecutor)
+                .thenCompose(dates -> scheduleComplianceEvaluation(submissionId, dates))
+                .thenApplyAsync(complianceResponse -> transactionTemplate.execute(status -> saveEvaluation(
+                        findSubmission(submissionId), findEvaluator(evaluatorId), "AUTOMATIC",
+                        complianceResponse.getPenalizedScore(), complianceResponse.getEvaluationCriteria())),
+                        blockingTaskExecutor);
+    }
 
-        User evaluator = userRepository.findById(evaluatorId)
-                .orElseThrow(() -> new IllegalArgumentException("Evaluator not found with id: " + evaluatorId));
+    private CompletableFuture<ScheduleComplianceResponse> scheduleComplianceEvaluation(Long submissionId,
+            SubmissionDates dates) {
+        return commitService.syncSubmissionCommits(submissionId, dates.repositoryUrl(), dates.startDate(),
+                        dates.dueDate(), dates.submittedAt())
+                // Esta etapa corre en otro hilo (Reactor Netty o el pool): se le pasa el deadline de la petición
+                .thenCompose(Deadline.propagate(commits -> evaluateWithScheduleComplianceServiceAsync(commits, dates)));
+    }
 
-        // Obtener commits de GitHub
-        List<CommitInfo> commits = fetchGitHubCommits(submission.getFileUrl());
+    /**
+     * Evalúa las buenas prácticas de la entrega: la transacción solo cubre la
+     * lectura inicial y la escritura final, no la llamada al servicio de análisis.
+     * Una petición idéntica que llega mientras la primera está en curso (p. ej. un
+     * doble clic) recibe la misma evaluación en lugar de lanzar otro análisis.
+     */
+    public CompletableFuture<EvaluationDTO> evaluateGoodPracticesAsync(Long submissionId, Long evaluatorId,
+            boolean usingIA) {
+        String evaluationType = usingIA ? "GOOD_PRACTICES_LLM" : "GOOD_PRACTICES_CHECKSTYLE";
+        return requestCoalescer.coalesce("good-practices-evaluation",
+                List.of(submissionId, evaluationType, evaluatorId),
+                () -> runGoodPracticesEvaluation(submissionId, evaluatorId, usingIA));
+    }
 
-        // Debug: Log de información de commits y fechas
-        log.info("=== DEBUG EVALUATION ===");
-        log.info("Submission ID: {}", submissionId);
-        log.info("Due Date: {}", submission.getAssignment().getDueDate());
-        log.info("Submission Date: {}", submission.getSubmittedAt());
-        log.info("Total commits found: {}", commits.size());
+    private CompletableFuture<EvaluationDTO> runGoodPracticesEvaluation(Long submissionId, Long evaluatorId,
+            boolean usingIA) {
+        logger.info("Evaluating good practices (async) for submission {} by evaluator {} using {}",
+                   submissionId, evaluatorId, usingIA ? "LLM Analysis" : "Checkstyle Analysis");
 
-        if (!commits.isEmpty()) {
-            // Ordenar commits por fecha para encontrar el último
-            commits.sort(Comparator.comparing(CommitInfo::getDate).reversed());
-            CommitInfo lastCommit = commits.get(0);
-            log.info("Last commit date: {}", lastCommit.getDate());
-            log.info("Last commit message: {}", lastCommit.getMessage());
-
-            // Calcular días tardíos manualmente para verificar
-            LocalDateTime dueDate = submission.getAssignment().getDueDate();
-            LocalDateTime lastCommitDate = lastCommit.getDate();
+        return CompletableFuture
+                .supplyAsync(() -> transactionTemplate.execute(status -> {
+                    findEvaluator(evaluatorId);
+                    return SubmissionService.convertToDTO(findSubmission(submissionId));
+                }), blockingTaskExecutor)
+                .thenCompose(submissionDTO -> codeAnalysis(submissionDTO, usingIA)
+                        .handleAsync((externalEvaluation, error) -> {
+                            Throwable cause = error != null ? DownstreamGuard.unwrap(error) : null;
+                            if (cause instanceof DownstreamCallAbortedException aborted) {
+                                // El servicio no está disponible o el plazo ha vencido: no se guarda una evaluación de error
+                                throw aborted;
+                            }
+                            return transactionTemplate.execute(status -> {
+                                Submission submission = findSubmission(submissionId);
+                                User evaluator = findEvaluator(evaluatorId);
+                                if (cause != null) {
+                                    log.error("Error calling external code analysis service for submission {}: {}",
+                                            submissionId, cause.getMessage());
+                                    return saveGoodPracticesError(submission, evaluator, usingIA, cause.getMessage());
+                                }
+                                return saveEvaluation(submission, evaluator,
+                                        usingIA ? "GOOD_PRACTICES_LLM" : "GOOD_PRACTICES_CHECKSTYLE",
+                                        externalEvaluation.getScore(), externalEvaluation.getCriteriaJson());
+                            });
+                        }, blockingTaskExecutor));
+    }
 
-            if (lastCommitDate.isAfter(dueDate)) {
-                long daysBetween = java.time.temporal.ChronoUnit.DAYS.between(
-                        dueDate.toLocalDate(),
-                        lastCommitDate.toLocalDate());
-                log.info("Manual calculation - Days late: {}", daysBetween);
-                log.info("Expected score: {}", 5.0 - (daysBetween * 0.5));
-            } else {
-                log.info("Submission is ON TIME");
-            }
-        }
+    /**
+     * Evalúa todas las entregas de una tarea. Las entregas se cargan con una sola
+     * consulta; las evaluaciones de cumplimiento de horarios y de buenas prácticas
+     * corren en paralelo, cada tipo con su límite de concurrencia
+     * (evaluation.bulk.*), y se guardan en lotes de evaluation.bulk.batch-size
+     * evaluaciones por transacción a medida que terminan.
+     */
+    public CompletableFuture<BulkEvaluationResponse> evaluateAssignmentAsync(Long assignmentId, Long evaluatorId,
+            boolean scheduler, boolean goodPractices, boolean usingIA) {
+        logger.info("Evaluating assignment {} by evaluator {} (scheduler: {}, good practices: {})",
+                assignmentId, evaluatorId, scheduler, goodPractices);
+        long start = System.nanoTime();
+        Deadline deadline = Deadline.current();
+
+        return CompletableFuture
+                .supplyAsync(() -> transactionTemplate.execute(status -> {
+                    findEvaluator(evaluatorId);
+                    return submissionRepository.findByAssignmentId(assignmentId).stream()
+                            .map(submission -> new BulkTarget(submission.getId(), submission.getTeam().getName(),
+                                    new SubmissionDates(submission.getFileUrl(),
+                                            submission.getAssignment().getStartDate(),
+                                            submission.getAssignment().getDueDate(), submission.getSubmittedAt()),
+                                    SubmissionService.convertToDTO(submission)))
+                            .toList();
+                }), blockingTaskExecutor)
+                .thenCompose(targets -> {
+                    // Las evaluaciones que empiezan cuando termina otra se lanzan en hilos de Reactor Netty
+                    Flux<BulkOutcome> schedulerRuns = !scheduler ? Flux.empty()
+                            : scheduleComplianceClient.isBatchEnabled() ? batchedScheduleCompliance(targets, deadline)
+                            : Flux.fromIterable(targets)
+                                    .flatMap(target -> Mono.fromFuture(() -> Deadline.callWith(deadline,
+                                            () -> timedScheduleCompliance(target))),
+                                            Math.max(1, bulkEvaluationProperties.getSchedulerConcurrency()));
+                    Flux<BulkOutcome> goodPracticeRuns = !goodPractices ? Flux.empty() : Flux.fromIterable(targets)
+                            .flatMap(target -> Mono.fromFuture(() -> Deadline.callWith(deadline,
+                                    () -> timedGoodPractices(target, usingIA))),
+                                    Math.max(1, bulkEvaluationProperties.getGoodPracticesConcurrency()));
+
+                    return Flux.merge(schedulerRuns, goodPracticeRuns)
+                            .buffer(Math.max(1, bulkEvaluationProperties.getBatchSize()))
+                            .concatMap(batch -> Mono.fromCallable(() -> transactionTemplate.execute(
+                                    status -> saveBatch(batch, evaluatorId)))
+                                    .subscribeOn(Schedulers.fromExecutor(blockingTaskExecutor)))
+                            .concatMapIterable(results -> results)
+                            .collectList()
+                            .map(results -> {
+                                int succeeded = (int) results.stream()
+                                        .filter(BulkEvaluationResponse.SubmissionResult::isSuccess).count();
+                                long elapsed = Duration.ofNanos(System.nanoTime() - start).toMillis();
+                                logger.info("Assignment {} evaluated: {} succeeded, {} failed in {} ms",
+                                        assignmentId, succeeded, results.size() - succeeded, elapsed);
+                                return new BulkEvaluationResponse(assignmentId, targets.size(), succeeded,
+                                        results.size() - succeeded, elapsed, results);
+                            })
+                            .toFuture();
+                });
+    }
 
-        // Calcular puntuación usando el microservicio de schedule compliance
-        ScheduleComplianceResponse complianceResponse = evaluateWithScheduleComplianceService(
-                commits,
-                submission.getAssignment().getDueDate(),
-                submission.getSubmittedAt(),
-                submission.getFileUrl() // Asumiendo que fileUrl contiene la URL del repositorio
-        );
-
-        // Debug: Log de respuesta del microservicio
-        log.info("Schedule Compliance Response:");
-        log.info("  - Penalized Score: {}", complianceResponse.getPenalizedScore());
-        log.info("  - Late Days: {}", complianceResponse.getLateDays());
-        log.info("  - Penalty Applied: {}", complianceResponse.getPenaltyApplied());
-        log.info("  - Is Late: {}", complianceResponse.isLate());
-        log.info("========================");
-
-        // Crear y guardar la evaluación
-        Evaluation evaluation = new Evaluation();
-        evaluation.setSubmission(submission);
-        evaluation.setEvaluator(evaluator);
-        evaluation.setEvaluationType("AUTOMATIC");
-        evaluation.setScore(complianceResponse.getPenalizedScore());
-        evaluation.setCriteriaJson(complianceResponse.getEvaluationCriteria());
-        evaluation.setCreatedAt(LocalDateTime.now());
+    private CompletableFuture<BulkOutcome> timedScheduleCompliance(BulkTarget target) {
+        long start = System.nanoTime();
+        return scheduleComplianceEvaluation(target.submissionId(), target.dates())
+                .handle((response, error) -> complianceOutcome(target, response, error, start));
+    }
 
-        Evaluation savedEvaluation = evaluationRepository.save(evaluation);
-        return convertToDTO(savedEvaluation);
+    /**
+     * Cumplimiento de horarios por lotes: los commits de cada entrega se
+     * sincronizan en paralelo y las entregas listas se evalúan en una sola
+     * petición por lote al servicio
+     */
+    private Flux<BulkOutcome> batchedScheduleCompliance(List<BulkTarget> targets, Deadline deadline) {
+        int concurrency = Math.max(1, bulkEvaluationProperties.getSchedulerConcurrency());
+        return Flux.fromIterable(targets)
+                .flatMap(target -> {
+                    long start = System.nanoTime();
+                    return Mono.fromFuture(() -> Deadline.callWith(deadline, () -> commitService
+                                    .syncSubmissionCommits(target.submissionId(), target.dates().repositoryUrl(),
+                                            target.dates().startDate(), target.dates().dueDate(),
+                                            target.dates().submittedAt())
+                                    .handle((commits, error) -> new BulkCommits(target, commits, error, start))));
+                }, concurrency)
+                .bufferTimeout(scheduleComplianceClient.getBatchMaxSize(), scheduleComplianceClient.getBatchLinger())
+                .flatMap(batch -> Mono.fromFuture(() -> Deadline.callWith(deadline,
+                        () -> scheduleComplianceBatch(batch))), concurrency)
+                .concatMapIterable(outcomes -> outcomes);
     }
 
-    @Transactional
-    public EvaluationDTO evaluateGoodPractices(Long submissionId, Long evaluatorId, boolean usingIA) {
-        logger.info("Evaluating good practices for submission {} by evaluator {} using {}",
-                   submissionId, evaluatorId, usingIA ? "LLM Analysis" : "Checkstyle Analysis");
+    // Igual que la evaluación individual: si el servicio falla se usa el cálculo legacy
+    private CompletableFuture<List<BulkOutcome>> scheduleComplianceBatch(List<BulkCommits> batch) {
+        List<BulkCommits> synced = batch.stream().filter(commits -> commits.error() == null).toList();
+        CompletableFuture<List<ScheduleComplianceResponse>> responses;
+        if (synced.isEmpty()) {
+            responses = CompletableFuture.completedFuture(List.of());
+        } else if (!scheduleComplianceClient.isCallPermitted()) {
+            log.warn("Schedule compliance circuit breaker is open, using legacy evaluation for {} submissions",
+                    synced.size());
+            responses = CompletableFuture.completedFuture(synced.stream()
+                    .map(commits -> legacyComplianceResponse(commits.commits(), commits.target().dates().dueDate()))
+                    .toList());
+        } else {
+            List<ScheduleComplianceBatchRequest.Item> items = synced.stream()
+                    .map(commits -> new ScheduleComplianceBatchRequest.Item(commits.target().submissionId(),
+                            commits.target().dates().repositoryUrl(), commits.target().dates().dueDate(),
+                            commits.target().dates().submittedAt(), commits.commits().stream()
+                                    .map(commit -> new ScheduleComplianceRequest.CommitInfo(commit.getSha(), null,
+                                            commit.getDate()))
+                                    .toList()))
+                    .toList();
+            responses = scheduleComplianceClient.evaluateComplianceBatch(items)
+                    .handle((results, error) -> {
+                        List<ScheduleComplianceResponse> batchResponses = new ArrayList<>(synced.size());
+                        for (int i = 0; i < synced.size(); i++) {
+                            BulkCommits commits = synced.get(i);
+                            String failure = error != null ? DownstreamGuard.unwrap(error).getMessage()
+                                    : results.get(i).getError();
+                            if (failure == null) {
+                                batchResponses.add(results.get(i).getResult());
+                            } else {
+                                log.warn("Schedule compliance failed for submission {}, using legacy method: {}",
+                                        commits.target().submissionId(), failure);
+                                batchResponses.add(legacyComplianceResponse(commits.commits(),
+                                        commits.target().dates().dueDate()));
+                            }
+                        }
+                        return batchResponses;
+                    });
+        }
 
-        Submission submission = submissionRepository.findById(submissionId)
-                .orElseThrow(() -> new IllegalArgumentException("Submission not found with id: " + submissionId));
+        return responses.thenApply(batchResponses -> {
+            List<BulkOutcome> outcomes = new ArrayList<>(batch.size());
+            Iterator<ScheduleComplianceResponse> response = batchResponses.iterator();
+            for (BulkCommits commits : batch) {
+                outcomes.add(commits.error() != null
+                        ? complianceOutcome(commits.target(), null, commits.error(), commits.startNanos())
+                        : complianceOutcome(commits.target(), response.next(), null, commits.startNanos()));
+            }
+            return outcomes;
+        });
+    }
 
-        User evaluator = userRepository.findById(evaluatorId)
-                .orElseThrow(() -> new IllegalArgumentException("Evaluator not found with id: " + evaluatorId));
+    private static BulkOutcome complianceOutcome(BulkTarget target, ScheduleComplianceResponse response,
+            Throwable error, long startNanos) {
+        long latency = System.nanoTime() - startNanos;
+        return error == null
+                ? new BulkOutcome(target, "AUTOMATIC", response.getPenalizedScore(),
+                        response.getEvaluationCriteria(), null, true, latency)
+                : new BulkOutcome(target, "AUTOMATIC", null, null, DownstreamGuard.unwrap(error).getMessage(),
+                        false, latency);
+    }
 
-        try {
-            // Convertir la submission a DTO para enviar al servicio externo
-            SubmissionDTO submissionDTO = SubmissionService.convertToDTO(submission);
-
-            // Llamar al servicio apropiado según el parámetro usingIA
-            EvaluationDTO externalEvaluation;
-            if (usingIA) {
-                log.info("Calling LLM analysis service for submission {}", submissionId);
-                externalEvaluation = codeAnalysisClient.performLLMAnalysis(submissionDTO);
-            } else {
-                log.info("Calling Checkstyle analysis service for submission {}", submissionId);
-                externalEvaluation = codeAnalysisClient.performCheckstyleAnalysis(submissionDTO);
-            }
-            
-            // Crear y guardar la evaluación basada en la respuesta del servicio externo
-            Evaluation evaluation = new Evaluation();
-            evaluation.setSubmission(submission);
-            evaluation.setEvaluator(evaluator);
-            evaluation.setEvaluationType(usingIA ? "GOOD_PRACTICES_LLM" : "GOOD_PRACTICES_CHECKSTYLE");
-            evaluation.setScore(externalEvaluation.getScore());
-            evaluation.setCriteriaJson(externalEvaluation.getCriteriaJson());
-            evaluation.setCreatedAt(LocalDateTime.now());
-
-            Evaluation savedEvaluation = evaluationRepository.save(evaluation);
-            return convertToDTO(savedEvaluation);
-            
-        } catch (Exception e) {
-            log.error("Error calling external code analysis service for submission {}: {}", 
-                     submissionId, e.getMessage(), e);
-            
-            // Fallback: crear una evaluación de error
-            Evaluation evaluation = new Evaluation();
-            evaluation.setSubmission(submission);
-            evaluation.setEvaluator(evaluator);
-            evaluation.setEvaluationType(usingIA ? "GOOD_PRACTICES_LLM_ERROR" : "GOOD_PRACTICES_CHECKSTYLE_ERROR");
-            evaluation.setScore(BigDecimal.valueOf(0.0));
-            
-            // Criteria JSON con información del error
-            Map<String, Object> criteria = new LinkedHashMap<>();
-            criteria.put("evaluationMethod", usingIA ? "LLM Analysis (Failed)" : "Checkstyle Analysis (Failed)");
-            criteria.put("status", "ERROR");
-            criteria.put("error", e.getMessage());
-            criteria.put("evaluationDate", LocalDateTime.now().toString());
-            
-            try {
-                String criteriaJson = new ObjectMapper().writeValueAsString(criteria);
-                evaluation.setCriteriaJson(criteriaJson);
-            } catch (JsonProcessingException jsonE) {
-                evaluation.setCriteriaJson("{\"error\":\"Could not generate criteria JSON\"}");
-            }
-            
-            evaluation.setCreatedAt(LocalDateTime.now());
+    // Igual que la evaluación individual: los errores del análisis (salvo servicio no disponible) se guardan
+    private CompletableFuture<BulkOutcome> timedGoodPractices(BulkTarget target, boolean usingIA) {
+        long start = System.nanoTime();
+        String evaluationType = usingIA ? "GOOD_PRACTICES_LLM" : "GOOD_PRACTICES_CHECKSTYLE";
+        return codeAnalysis(target.submission(), usingIA)
+                .handle((evaluation, error) -> {
+                    long latency = System.nanoTime() - start;
+                    if (error == null) {
+                        return new BulkOutcome(target, evaluationType, evaluation.getScore(),
+                                evaluation.getCriteriaJson(), null, true, latency);
+                    }
+                    Throwable cause = DownstreamGuard.unwrap(error);
+                    if (cause instanceof DownstreamCallAbortedException) {
+                        return new BulkOutcome(target, evaluationType, null, null, cause.getMessage(), false,
+                                latency);
+                    }
+                    return new BulkOutcome(target, evaluationType + "_ERROR", BigDecimal.valueOf(0.0),
+                            goodPracticesErrorCriteria(usingIA, cause.getMessage()), cause.getMessage(), false,
+                            latency);
+                });
+    }
 
-            Evaluation savedEvaluation = evaluationRepository.save(evaluation);
-            return convertToDTO(savedEvaluation);
+    private List<BulkEvaluationResponse.SubmissionResult> saveBatch(List<BulkOutcome> batch, Long evaluatorId) {
+        User evaluator = userRepository.getReferenceById(evaluatorId);
+        List<Evaluation> evaluations = new ArrayList<>();
+        for (BulkOutcome outcome : batch) {
+            if (outcome.criteriaJson() != null) {
+                Evaluation evaluation = new Evaluation();
+                evaluation.setSubmission(submissionRepository.getReferenceById(outcome.target().submissionId()));
+                evaluation.setEvaluator(evaluator);
+                evaluation.setEvaluationType(outcome.evaluationType());
+                evaluation.setScore(outcome.score());
+                evaluation.setCriteriaJson(outcome.criteriaJson());
+                evaluation.setCreatedAt(LocalDateTime.now());
+                evaluations.add(evaluation);
+            }
         }
+        Iterator<Evaluation> saved = evaluationRepository.saveAll(evaluations).iterator();
+
+        List<BulkEvaluationResponse.SubmissionResult> results = new ArrayList<>(batch.size());
+        for (BulkOutcome outcome : batch) {
+            Long evaluationId = outcome.criteriaJson() != null ? saved.next().getId() : null;
+            results.add(new BulkEvaluationResponse.SubmissionResult(outcome.target().submissionId(),
+                    outcome.target().teamName(), outcome.evaluationType(), outcome.success(), evaluationId,
+                    outcome.score(), outcome.error(), Duration.ofNanos(outcome.latencyNanos()).toMillis()));
+        }
+        return results;
     }
 
-    private List<CommitInfo> fetchGitHubCommits(String repoUrl) {
-        log.info("=== FETCHING GITHUB COMMITS ===");
-        log.info("Original repo URL: {}", repoUrl);
-
-        String apiUrl = convertToGitHubApiUrl(repoUrl);
-        log.info("Converted API URL: {}", apiUrl);
+    private CompletableFuture<EvaluationDTO> codeAnalysis(SubmissionDTO submissionDTO, boolean usingIA) {
+        return usingIA
+                ? codeAnalysisClient.performLLMAnalysisNonBlocking(submissionDTO)
+                : codeAnalysisClient.performCheckstyleAnalysisNonBlocking(submissionDTO);
+    }
 
-        HttpHeaders headers = new HttpHeaders();
-        headers.setAccept(List.of(MediaType.APPLICATION_JSON));
-        headers.setContentType(MediaType.APPLICATION_JSON);
+    private EvaluationDTO saveGoodPracticesError(Submission submission, User evaluator, boolean usingIA,
+            String errorMessage) {
+        return saveEvaluation(submission, evaluator,
+                usingIA ? "GOOD_PRACTICES_LLM_ERROR" : "GOOD_PRACTICES_CHECKSTYLE_ERROR",
+                BigDecimal.valueOf(0.0), goodPracticesErrorCriteria(usingIA, errorMessage));
+    }
 
-        HttpEntity<String> entity = new HttpEntity<>(headers);
+    private static String goodPracticesErrorCriteria(boolean usingIA, String errorMessage) {
+        // Criteria JSON con información del error
+        Map<String, Object> criteria = new LinkedHashMap<>();
+        criteria.put("evaluationMethod", usingIA ? "LLM Analysis (Failed)" : "Checkstyle Analysis (Failed)");
+        criteria.put("status", "ERROR");
+        criteria.put("error", errorMessage);
+        criteria.put("evaluationDate", LocalDateTime.now().toString());
 
+        String criteriaJson;
         try {
-            ResponseEntity<Object[]> response = restTemplate.exchange(
-                    apiUrl,
-                    HttpMethod.GET,
-                    entity,
-                    Object[].class);
-
-            return processGitHubResponse(response.getBody());
-        } catch (RestClientException e) {
-            log.error("Error fetching commits from GitHub URL: {}", apiUrl, e);
-            throw new RuntimeException("Error fetching commits from GitHub: " + e.getMessage(), e);
+            criteriaJson = new ObjectMapper().writeValueAsString(criteria);
+        } catch (JsonProcessingException jsonE) {
+            criteriaJson = "{\"error\":\"Could not generate criteria JSON\"}";
         }
+        return criteriaJson;
     }
 
-    private String convertToGitHubApiUrl(String repoUrl) {
-        log.info("Converting repo URL: {}", repoUrl);
-
-        String apiBase = "https://api.github.com/repos/";
-        String repoPath = repoUrl.replace("https://github.com/", "").replace(".git", "");
-
-        log.info("Extracted repo path: '{}'", repoPath);
+    private EvaluationDTO saveEvaluation(Submission submission, User evaluator, String evaluationType,
+            BigDecimal score, String criteriaJson) {
+        Evaluation evaluation = new Evaluation();
+        evaluation.setSubmission(submission);
+        evaluation.setEvaluator(evaluator);
+        evaluation.setEvaluationType(evaluationType);
+        evaluation.setScore(score);
+        evaluation.setCriteriaJson(criteriaJson);
+        evaluation.setCreatedAt(LocalDateTime.now());
 
-        // Validar que la URL tiene el formato correcto usuario/repositorio
-        if (!repoPath.contains("/") || repoPath.split("/").length < 2) {
-            log.error("Invalid GitHub repository URL format. Expected: https://github.com/user/repo, got: {}", repoUrl);
-            throw new RuntimeException(
-                    "Invalid GitHub repository URL format. Expected: https://github.com/user/repo, got: " + repoUrl);
-        }
+        Evaluation savedEvaluation = evaluationRepository.save(evaluation);
+        return convertToDTO(savedEvaluation);
+    }
 
-        String finalUrl = apiBase + repoPath + "/commits";
-        log.info("Final GitHub API URL: {}", finalUrl);
+    private SubmissionDates readSubmissionDates(Long submissionId, Long evaluatorId) {
+        Submission submission = findSubmission(submissionId);
+        findEvaluator(evaluatorId);
+        return new SubmissionDates(submission.getFileUrl(), submission.getAssignment().getStartDate(),
+                submission.getAssignment().getDueDate(), submission.getSubmittedAt());
+    }
 
-        return finalUrl;
+    private Submission findSubmission(Long submissionId) {
+        return submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new IllegalArgumentException("Submission not found with id: " + submissionId));
     }
 
-    private List<CommitInfo> processGitHubResponse(Object[] commitsData) {
-        List<CommitInfo> commits = new ArrayList<>();
+    private User findEvaluator(Long evaluatorId) {
+        return userRepository.findById(evaluatorId)
+                .orElseThrow(() -> new IllegalArgumentException("Evaluator not found with id: " + evaluatorId));
+    }
 
-        if (commitsData == null) {
-            return commits;
+    /**
+     * Evalúa el cumplimiento de horarios con el microservicio de schedule
+     * compliance; si falla o su circuito está abierto, usa el cálculo legacy
+     */
+    private CompletableFuture<ScheduleComplianceResponse> evaluateWithScheduleComplianceServiceAsync(
+            List<CommitDTO> commits, SubmissionDates dates) {
+        if (!scheduleComplianceClient.isCallPermitted()) {
+            log.warn("Schedule compliance circuit breaker is open, using legacy evaluation for {}",
+                    dates.repositoryUrl());
+            return CompletableFuture.completedFuture(legacyComplianceResponse(commits, dates.dueDate()));
         }
 
-        for (Object commitObj : commitsData) {
-            try {
-                // Verificación de tipo segura
-                if (!(commitObj instanceof Map)) {
-                    continue; // O lanzar excepción si es crítico
-                }
-
-                @SuppressWarnings("unchecked")
-                Map<String, Object> commitMap = (Map<String, Object>) commitObj;
-
-                // Verificar y obtener el commit interno
-                Object commitInner = commitMap.get("commit");
-                if (!(commitInner instanceof Map)) {
-                    continue;
-                }
-
-                @SuppressWarnings("unchecked")
-                Map<String, Object> commit = (Map<String, Object>) commitInner;
-
-                // Verificar y obtener el committer
-                Object committer = commit.get("committer");
-                if (!(committer instanceof Map)) {
-                    continue;
-                }
-
-                @SuppressWarnings("unchecked")
-                Map<String, String> committerMap = (Map<String, String>) committer;
-
-                // Extraer datos con verificaciones
-                String sha = commitMap.containsKey("sha") ? commitMap.get("sha").toString() : "";
-                String message = commit.containsKey("message") ? commit.get("message").toString() : "";
-                String dateStr = committerMap.getOrDefault("date", "");
-
-                if (!dateStr.isEmpty()) {
-                    ZonedDateTime commitDate = ZonedDateTime.parse(dateStr, GITHUB_DATE_FORMATTER);
-                    commits.add(new CommitInfo(sha, message, commitDate.toLocalDateTime()));
-                }
-            } catch (Exception e) {
-                // Loggear el error y continuar con los siguientes commits
-                System.err.println("Error procesando commit: " + e.getMessage());
-            }
-        }
+        ScheduleComplianceRequest request = new ScheduleComplianceRequest(
+                dates.repositoryUrl(),
+                dates.dueDate(),
+                dates.submittedAt(),
+                toComplianceCommits(commits));
+
+        return scheduleComplianceClient.evaluateComplianceNonBlocking(request)
+                .exceptionally(error -> {
+                    log.error("Error calling schedule compliance service, falling back to legacy method",
+                            DownstreamGuard.unwrap(error));
+                    return legacyComplianceResponse(commits, dates.dueDate());
+                });
+    }
 
-        return commits;
+    private List<ScheduleComplianceRequest.CommitInfo> toComplianceCommits(List<CommitDTO> commits) {
+        return commits.stream()
+                .map(commit -> new ScheduleComplianceRequest.CommitInfo(
+                        commit.getSha(),
+                        commit.getMessage(),
+                        commit.getDate()))
+                .collect(Collectors.toList());
     }
 
     /**
-     * Evalúa el cumplimiento de horarios usando el microservicio de schedule
-     * compliance
+     * Fallback: calcula la respuesta de cumplimiento con la lógica legacy local
      */
-    private ScheduleComplianceResponse evaluateWithScheduleComplianceService(
-            List<CommitInfo> commits,
-            LocalDateTime dueDate,
-            LocalDateTime submissionDate,
-            String repositoryUrl) {
+    private ScheduleComplianceResponse legacyComplianceResponse(List<CommitDTO> commits, LocalDateTime dueDate) {
+        // Fallback a la lógica antigua en caso de error
+        EvaluationResult legacyResult = calculateScoreBasedOnCommits(commits, dueDate);
 
+        // Convertir resultado legacy a formato nuevo con valores correctos
+        // Extraer información del JSON de criterios para obtener los valores reales
+        Map<String, Object> criteriaMap = new LinkedHashMap<>();
         try {
-            // Debug: Log de datos que se envían al microservicio
-            log.info("=== SCHEDULE COMPLIANCE REQUEST ===");
-            log.info("Repository URL: {}", repositoryUrl);
-            log.info("Due Date: {}", dueDate);
-            log.info("Submission Date: {}", submissionDate);
-            log.info("Number of commits: {}", commits.size());
-
-            // Convertir commits internos a DTOs para el microservicio
-            List<ScheduleComplianceRequest.CommitInfo> commitDTOs = commits.stream()
-                    .map(commit -> new ScheduleComplianceRequest.CommitInfo(
-                            commit.getSha(),
-                            commit.getMessage(),
-                            commit.getDate()))
-                    .collect(Collectors.toList());
-
-            // Debug: Log del último commit que se envía
-            if (!commitDTOs.isEmpty()) {
-                // Ordenar para mostrar el último
-                List<ScheduleComplianceRequest.CommitInfo> sortedCommits = commitDTOs.stream()
-                        .sorted(Comparator.comparing(ScheduleComplianceRequest.CommitInfo::getDate).reversed())
-                        .collect(Collectors.toList());
-
-                ScheduleComplianceRequest.CommitInfo lastCommit = sortedCommits.get(0);
-                log.info("Last commit being sent: {} - {}", lastCommit.getDate(), lastCommit.getMessage());
-            }
-
-            // Crear request para el microservicio
-            ScheduleComplianceRequest request = new ScheduleComplianceRequest(
-                    repositoryUrl,
-                    dueDate,
-                    submissionDate,
-                    commitDTOs);
-
-            // Llamar al microservicio
-            ScheduleComplianceResponse response = scheduleComplianceClient.evaluateCompliance(request);
-
-            log.info("Schedule compliance evaluation completed. Late days: {}, Penalty: {}",
-                    response.getLateDays(), response.getPenaltyApplied());
-
-            return response;
-
-        } catch (Exception e) {
-            log.error("Error calling schedule compliance service, falling back to legacy method", e);
-
-            // Fallback a la lógica antigua en caso de error
-            EvaluationResult legacyResult = calculateScoreBasedOnCommits(commits, dueDate);
-
-            // Convertir resultado legacy a formato nuevo con valores correctos
-            // Extraer información del JSON de criterios para obtener los valores reales
-            Map<String, Object> criteriaMap = new LinkedHashMap<>();
-            try {
-                @SuppressWarnings("unchecked")
-                Map<String, Object> parsedMap = new ObjectMapper().readValue(legacyResult.getCriteriaJson(), Map.class);
-                criteriaMap = parsedMap;
-            } catch (JsonProcessingException jsonE) {
-                log.warn("Could not parse legacy criteria JSON", jsonE);
-            }
-
-            int lateDays = (Integer) criteriaMap.getOrDefault("lateDays", 0);
-            double totalPenalty = (Double) criteriaMap.getOrDefault("totalPenalty", 0.0);
-            boolean isLate = (Boolean) criteriaMap.getOrDefault("isLate", false);
-
-            return new ScheduleComplianceResponse(
-                    legacyResult.getScore(),
-                    BigDecimal.valueOf(5.0),
-                    lateDays,
-                    BigDecimal.valueOf(totalPenalty),
-                    isLate,
-                    legacyResult.getCriteriaJson(),
-                    LocalDateTime.now(),
-                    new ArrayList<>());
+            @SuppressWarnings("unchecked")
+            Map<String, Object> parsedMap = new ObjectMapper().readValue(legacyResult.getCriteriaJson(), Map.class);
+            criteriaMap = parsedMap;
+        } catch (JsonProcessingException jsonE) {
+            log.warn("Could not parse legacy criteria JSON", jsonE);
         }
+
+        int lateDays = (Integer) criteriaMap.getOrDefault("lateDays", 0);
+        double totalPenalty = (Double) criteriaMap.getOrDefault("totalPenalty", 0.0);
+        boolean isLate = (Boolean) criteriaMap.getOrDefault("isLate", false);
+
+        return new ScheduleComplianceResponse(
+                legacyResult.getScore(),
+                BigDecimal.valueOf(5.0),
+                lateDays,
+                BigDecimal.valueOf(totalPenalty),
+                isLate,
+                legacyResult.getCriteriaJson(),
+                LocalDateTime.now(),
+                new ArrayList<>());
     }
 
     /**
@@ -464,17 +544,18 @@ public class EvaluationService {
      * Ahora usa la misma lógica que Schedule Compliance: penalización por días
      * tardíos
      */
-    private EvaluationResult calculateScoreBasedOnCommits(List<CommitInfo> commits, LocalDateTime dueDate) {
+    private EvaluationResult calculateScoreBasedOnCommits(List<CommitDTO> fetchedCommits, LocalDateTime dueDate) {
         double initialScore = 5.0;
         int lateDays = 0;
         List<Map<String, Object>> commitDetails = new ArrayList<>();
 
-        // Ordenar commits por fecha (más reciente primero)
-        commits.sort(Comparator.comparing(CommitInfo::getDate).reversed());
+        // Ordenar commits por fecha (más reciente primero) sin modificar la lista recibida
+        List<CommitDTO> commits = new ArrayList<>(fetchedCommits);
+        commits.sort(Comparator.comparing(CommitDTO::getDate).reversed());
 
         // Calcular días tardíos si hay commits
         if (!commits.isEmpty()) {
-            CommitInfo lastCommit = commits.get(0);
+            CommitDTO lastCommit = commits.get(0);
             LocalDateTime lastCommitDate = lastCommit.getDate();
 
             // Calcular días tardíos usando la misma lógica que Schedule Compliance
@@ -502,7 +583,7 @@ public class EvaluationService {
         log.info("Legacy method - Penalty: {}, Final score: {}", penalty, finalScore);
 
         // Generar detalles de commits para el JSON
-        for (CommitInfo commit : commits) {
+        for (CommitDTO commit : commits) {
             boolean isOnTime = !commit.getDate().isAfter(dueDate);
 
             Map<String, Object> detail = new LinkedHashMap<>();
@@ -540,28 +621,22 @@ public class EvaluationService {
     }
 
     // Clases auxiliares internas
-    private static class CommitInfo {
-        private final String sha;
-        private final String message;
-        private final LocalDateTime date;
-
-        public CommitInfo(String sha, String message, LocalDateTime date) {
-            this.sha = sha;
-            this.message = message;
-            this.date = date;
-        }
+    // Datos de la entrega que se necesitan fuera de la transacción
+    private record SubmissionDates(String repositoryUrl, LocalDateTime startDate, LocalDateTime dueDate,
+            LocalDateTime submittedAt) {
+    }
 
-        public String getSha() {
-            return sha;
-        }
+    // Entrega de una evaluación masiva, leída en la transacción inicial
+    private record BulkTarget(Long submissionId, String teamName, SubmissionDates dates, SubmissionDTO submission) {
+    }
 
-        public String getMessage() {
-            return message;
-        }
+    // Commits sincronizados de una entrega (o el error de la sincronización), listos para el lote
+    private record BulkCommits(BulkTarget target, List<CommitDTO> commits, Throwable error, long startNanos) {
+    }
 
-        public LocalDateTime getDate() {
-            return date;
-        }
+    // Resultado de una evaluación masiva pendiente de guardar (sin criteriaJson no se guarda)
+    private record BulkOutcome(BulkTarget target, String evaluationType, BigDecimal score, String criteriaJson,
+            String error, boolean success, long latencyNanos) {
     }
 
     private static class EvaluationResult {
@@ -3,10 +3,13 @@ package com.eci.iagen.api_gateway.service;
 import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Collectors;
 
+import org.springframework.core.task.AsyncTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.eci.iagen.api_gateway.client.TeamFeedbackClient;
 import com.eci.iagen.api_gateway.dto.EvaluationDTO;
@@ -21,6 +24,8 @@ import com.eci.iagen.api_gateway.entity.Submission;
 import com.eci.iagen.api_gateway.repository.EvaluationRepository;
 import com.eci.iagen.api_gateway.repository.FeedbackRepository;
 import com.eci.iagen.api_gateway.repository.SubmissionRepository;
+import com.eci.iagen.api_gateway.resilience.DownstreamCallAbortedException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -34,6 +39,8 @@ public class FeedbackService {
     private final SubmissionRepository submissionRepository;
     private final EvaluationRepository evaluationRepository;
     private final TeamFeedbackClient teamFeedbackClient;
+    private final TransactionTemplate transactionTemplate;
+    private final AsyncTaskExecutor blockingTaskExecutor;
 
     @Transactional(readOnly = true)
     public List<FeedbackDTO> getAllFeedbacks() {
@@ -104,48 +111,52 @@ public class FeedbackService {
         return false;
     }
 
-    @Transactional
-    public FeedbackDTO generateTeamFeedback(Long submissionId) {
-        log.info("Generating team feedback for submission {}", submissionId);
-        
+    /**
+     * Genera el feedback del equipo: la transacción solo cubre la
+     * lectura inicial y la escritura final, no la espera al servicio LLM
+     */
+    public CompletableFuture<FeedbackDTO> generateTeamFeedbackAsync(Long submissionId) {
+        log.info("Generating team feedback (async) for submission {}", submissionId);
+
+        return CompletableFuture
+                .supplyAsync(() -> transactionTemplate.execute(status -> readTeamFeedbackRequest(submissionId)),
+                        blockingTaskExecutor)
+                .thenCompose(teamFeedbackClient::generateTeamFeedbackNonBlocking)
+                .thenApplyAsync(externalFeedback -> transactionTemplate.execute(
+                        status -> saveTeamFeedback(submissionId, externalFeedback)), blockingTaskExecutor);
+    }
+
+    private TeamFeedbackRequest readTeamFeedbackRequest(Long submissionId) {
         // Obtener la submission
         Submission submission = submissionRepository.findById(submissionId)
                 .orElseThrow(() -> new IllegalArgumentException("Submission not found with id: " + submissionId));
-        
+
         // Obtener todas las evaluaciones para esta submission
         List<Evaluation> evaluations = evaluationRepository.findBySubmissionId(submissionId);
-        
         if (evaluations.isEmpty()) {
             throw new IllegalArgumentException("No evaluations found for submission " + submissionId);
         }
-        
-        // Construir el request para el microservicio
-        TeamFeedbackRequest request = buildTeamFeedbackRequest(submission, evaluations);
-        
-        try {
-            // Llamar al microservicio
-            FeedbackDTO externalFeedback = teamFeedbackClient.generateTeamFeedback(request);
-            
-            // Crear y guardar el feedback en nuestra base de datos
-            Feedback feedback = new Feedback();
-            feedback.setSubmission(submission);
-            feedback.setFeedbackType("TEAM_FEEDBACK");
-            feedback.setContent(externalFeedback.getContent());
-            feedback.setFeedbackDate(LocalDateTime.now());
-            
-            // Mapear campos legacy si vienen en la respuesta
-            feedback.setStrengths(externalFeedback.getStrengths());
-            feedback.setImprovements(externalFeedback.getImprovements());
-            
-            Feedback savedFeedback = feedbackRepository.save(feedback);
-            
-            log.info("Team feedback generated successfully for submission {}", submissionId);
-            return convertToDTO(savedFeedback);
-            
-        } catch (Exception e) {
-            log.error("Error generating team feedback for submission {}: {}", submissionId, e.getMessage(), e);
-            throw new RuntimeException("Failed to generate team feedback: " + e.getMessage(), e);
-        }
+        return buildTeamFeedbackRequest(submission, evaluations);
+    }
+
+    private FeedbackDTO saveTeamFeedback(Long submissionId, FeedbackDTO externalFeedback) {
+        Submission submission = submissionRepository.findById(submissionId)
+                .orElseThrow(() -> new IllegalArgumentException("Submission not found with id: " + submissionId));
+
+        Feedback feedback = new Feedback();
+        feedback.setSubmission(submission);
+        feedback.setFeedbackType("TEAM_FEEDBACK");
+        feedback.setContent(externalFeedback.getContent());
+        feedback.setFeedbackDate(LocalDateTime.now());
+
+        // Mapear campos legacy si vienen en la respuesta
+        feedback.setStrengths(externalFeedback.getStrengths());
+        feedback.setImprovements(externalFeedback.getImprovements());
+
+        Feedback savedFeedback = feedbackRepository.save(feedback);
+
+        log.info("Team feedback generated successfully for submission {}", submissionId);
+        return convertToDTO(savedFeedback);
     }
     
     private TeamFeedbackRequest buildTeamFeedbackRequest(Submission submission, List<Evaluation> evaluations) {
@@ -179,35 +190,24 @@ public class FeedbackService {
         return dto;
     }
     
-    public GeneralFeedbackResponse generateCoordinatorFeedback(GeneralFeedbackRequest request) {
-        log.info("Generating coordinator feedback for message: {}", request.getMessage());
-        
-        try {
-            // Llamar al microservicio
-            GeneralFeedbackResponse response = teamFeedbackClient.generateCoordinatorFeedback(request);
-            
-            log.info("Coordinator feedback generated successfully");
-            return response;
-            
-        } catch (Exception e) {
-            log.error("Error generating coordinator feedback: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to generate coordinator feedback: " + e.getMessage(), e);
-        }
+    public CompletableFuture<GeneralFeedbackResponse> generateCoordinatorFeedbackAsync(GeneralFeedbackRequest request) {
+        log.info("Generating coordinator feedback (async) for message: {}", request.getMessage());
+        return teamFeedbackClient.generateCoordinatorFeedbackNonBlocking(request)
+                .whenComplete((response, error) -> logGeneralFeedbackOutcome("Coordinator", error));
     }
     
-    public GeneralFeedbackResponse generateTeacherFeedback(GeneralFeedbackRequest request) {
-        log.info("Generating teacher feedback for message: {}", request.getMessage());
-        
-        try {
-            // Llamar al microservicio
-            GeneralFeedbackResponse response = teamFeedbackClient.generateTeacherFeedback(request);
-            
-            log.info("Teacher feedback generated successfully");
-            return response;
-            
-        } catch (Exception e) {
-            log.error("Error generating teacher feedback: {}", e.getMessage(), e);
-            throw new RuntimeException("Failed to generate teacher feedback: " + e.getMessage(), e);
+    public CompletableFuture<GeneralFeedbackResponse> generateTeacherFeedbackAsync(GeneralFeedbackRequest request) {
+        log.info("Generating teacher feedback (async) for message: {}", request.getMessage());
+        return teamFeedbackClient.generateTeacherFeedbackNonBlocking(request)
+                .whenComplete((response, error) -> logGeneralFeedbackOutcome("Teacher", error));
+    }
+    
+    private void logGeneralFeedbackOutcome(String feedbackType, Throwable error) {
+        if (error == null) {
+            log.info("{} feedback generated successfully", feedbackType);
+        } else if (!(DownstreamGuard.unwrap(error) instanceof DownstreamCallAbortedException)) {
+            log.error("Error generating {} feedback: {}", feedbackType.toLowerCase(),
+                    DownstreamGuard.unwrap(error).getMessage());
         }
     }
 }
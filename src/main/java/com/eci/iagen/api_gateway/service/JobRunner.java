@@ -0,0 +1,258 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+import com.eci.iagen.api_gateway.config.JobProperties;
+import com.eci.iagen.api_gateway.resilience.Bulkhead;
+import com.eci.iagen.api_gateway.resilience.Deadline;
+import com.eci.iagen.api_gateway.resilience.DeadlineExceededException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamUnavailableException;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Trabajos en segundo plano guardados en memoria: como mucho maxConcurrent se
+ * ejecutan a la vez y el resto espera en una cola acotada. Cada cambio de estado
+ * se publica por STOMP en {topic}/{jobId} y en {topic}/{recurso del trabajo}, y
+ * los trabajos terminados se descartan retention después de terminar.
+ */
+@Slf4j
+public class JobRunner<J extends JobRunner.Job<R>, R> {
+
+    public enum Status {
+        QUEUED, RUNNING, SUCCEEDED, FAILED
+    }
+
+    private final String name;
+    private final JobProperties properties;
+    private final SimpMessagingTemplate messagingTemplate;
+    private final MeterRegistry meterRegistry;
+    private final Bulkhead workers;
+    private final Map<String, J> jobs = new ConcurrentHashMap<>();
+    // Trabajos sin terminar por clave
+    private final Map<Object, J> active = new ConcurrentHashMap<>();
+
+    /**
+     * name da nombre al bulkhead ({name}-jobs) y a las métricas
+     * (gateway.{name}.jobs y gateway.{name}.jobs.completed)
+     */
+    public JobRunner(String name, String description, JobProperties properties,
+            SimpMessagingTemplate messagingTemplate, MeterRegistry meterRegistry) {
+        this.name = name;
+        this.properties = properties;
+        this.messagingTemplate = messagingTemplate;
+        this.meterRegistry = meterRegistry;
+        DownstreamProperties.Bulkhead settings = new DownstreamProperties.Bulkhead();
+        settings.setMaxConcurrentCalls(properties.getMaxConcurrent());
+        settings.setMaxQueueDepth(properties.getMaxQueued());
+        settings.setMaxWait(properties.getMaxQueueWait());
+        this.workers = new Bulkhead(name + "-jobs", settings);
+
+        Gauge.builder("gateway." + name + ".jobs", workers, Bulkhead::getActiveCalls)
+                .description(description)
+                .tag("status", "running")
+                .register(meterRegistry);
+        Gauge.builder("gateway." + name + ".jobs", workers, Bulkhead::getQueuedCalls)
+                .description(description)
+                .tag("status", "queued")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Encola el trabajo que crea newJob y lo devuelve en estado QUEUED (o RUNNING
+     * si había cupo); con la cola llena lanza BulkheadFullException
+     */
+    public J submit(Supplier<J> newJob, Function<J, CompletableFuture<R>> work) {
+        return submit(null, newJob, work);
+    }
+
+    /**
+     * Como submit, pero si hay un trabajo sin terminar con la misma clave se
+     * devuelve ese en lugar de crear otro
+     */
+    public J submit(Object key, Supplier<J> newJob, Function<J, CompletableFuture<R>> work) {
+        J job;
+        CompletableFuture<Void> permit;
+        synchronized (active) {
+            J running = key != null ? active.get(key) : null;
+            if (running != null) {
+                log.info("{} already in progress", running.describe());
+                return running;
+            }
+            permit = workers.acquirePermissionAsync();
+            if (permit.isCompletedExceptionally()) {
+                Throwable rejected = DownstreamGuard.unwrap(permit.exceptionNow());
+                throw rejected instanceof RuntimeException runtime ? runtime : new IllegalStateException(rejected);
+            }
+            job = newJob.get();
+            jobs.put(job.getId(), job);
+            if (key != null) {
+                active.put(key, job);
+            }
+        }
+
+        publish(job);
+        permit.whenComplete((ignored, queueError) -> {
+            if (queueError != null) {
+                finish(key, job, null, queueError);
+                return;
+            }
+            job.start();
+            publish(job);
+            CompletableFuture<R> running;
+            try {
+                // El trabajo no hereda el deadline de la petición que lo creó
+                running = Deadline.callWith(Deadline.after(properties.getTimeout()), () -> work.apply(job));
+            } catch (RuntimeException e) {
+                running = CompletableFuture.failedFuture(e);
+            }
+            running.whenComplete((result, error) -> {
+                workers.releasePermission();
+                finish(key, job, result, error);
+            });
+        });
+        return job;
+    }
+
+    public Optional<J> getJob(String id) {
+        return Optional.ofNullable(jobs.get(id));
+    }
+
+    public void removeExpiredJobs() {
+        LocalDateTime expiredBefore = LocalDateTime.now().minus(properties.getRetention());
+        jobs.values().removeIf(job -> job.finishedBefore(expiredBefore));
+    }
+
+    /**
+     * Publica el estado actual del trabajo (también tras cambios propios del
+     * trabajo, como su progreso)
+     */
+    public void publish(J job) {
+        Object snapshot = job.toDTO();
+        try {
+            messagingTemplate.convertAndSend(properties.getTopic() + "/" + job.getId(), snapshot);
+            messagingTemplate.convertAndSend(properties.getTopic() + "/" + job.resourcePath(), snapshot);
+        } catch (RuntimeException e) {
+            // El estado sigue disponible en el endpoint GET del trabajo
+            log.warn("Could not publish {} job {} update: {}", name, job.getId(), e.getMessage());
+        }
+    }
+
+    private void finish(Object key, J job, R result, Throwable error) {
+        if (key != null) {
+            active.remove(key, job);
+        }
+        if (error == null) {
+            job.finish(Status.SUCCEEDED, result, null);
+            log.info("{} succeeded", job.describe());
+        } else {
+            Throwable cause = DownstreamGuard.unwrap(error);
+            job.finish(Status.FAILED, null, cause);
+            log.warn("{} failed: {}", job.describe(), cause.getMessage());
+        }
+        meterRegistry.counter("gateway." + name + ".jobs.completed", "status", job.getStatus().name().toLowerCase())
+                .increment();
+        publish(job);
+    }
+
+    /**
+     * Código HTTP que habría devuelto la operación síncrona para este error
+     */
+    static int failureStatus(Throwable cause) {
+        if (cause instanceof IllegalArgumentException) {
+            return HttpStatus.BAD_REQUEST.value();
+        }
+        if (cause instanceof DeadlineExceededException) {
+            return HttpStatus.GATEWAY_TIMEOUT.value();
+        }
+        if (cause instanceof DownstreamUnavailableException) {
+            return HttpStatus.SERVICE_UNAVAILABLE.value();
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR.value();
+    }
+
+    /**
+     * Estado común de un trabajo; cada tipo de trabajo añade sus datos y su DTO
+     */
+    public abstract static class Job<R> {
+        private final String id = UUID.randomUUID().toString();
+        private final LocalDateTime createdAt = LocalDateTime.now();
+        private Status status = Status.QUEUED;
+        private LocalDateTime startedAt;
+        private LocalDateTime finishedAt;
+        private String error;
+        private Integer errorStatus;
+
+        // Recurso al que pertenece el trabajo bajo el topic, p. ej. submissions/7
+        protected abstract String resourcePath();
+
+        // Para los logs, p. ej. "Evaluation job {id} (AUTOMATIC) for submission 7"
+        protected abstract String describe();
+
+        protected abstract Object toDTO();
+
+        // Guarda lo que el trabajo conserva del resultado de una ejecución correcta
+        protected abstract void complete(R result);
+
+        synchronized void start() {
+            status = Status.RUNNING;
+            startedAt = LocalDateTime.now();
+        }
+
+        synchronized void finish(Status status, R result, Throwable error) {
+            this.status = status;
+            this.finishedAt = LocalDateTime.now();
+            if (error == null) {
+                complete(result);
+            }
+            this.error = error != null ? error.getMessage() : null;
+            this.errorStatus = error != null ? failureStatus(error) : null;
+        }
+
+        synchronized boolean finishedBefore(LocalDateTime instant) {
+            return finishedAt != null && finishedAt.isBefore(instant);
+        }
+
+        public String getId() {
+            return id;
+        }
+
+        protected LocalDateTime getCreatedAt() {
+            return createdAt;
+        }
+
+        protected synchronized Status getStatus() {
+            return status;
+        }
+
+        protected synchronized LocalDateTime getStartedAt() {
+            return startedAt;
+        }
+
+        protected synchronized LocalDateTime getFinishedAt() {
+            return finishedAt;
+        }
+
+        protected synchronized String getError() {
+            return error;
+        }
+
+        protected synchronized Integer getErrorStatus() {
+            return errorStatus;
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.eci.iagen.api_gateway.config.PlagiarismJobProperties;
+import com.eci.iagen.api_gateway.dto.PlagiarismJobDTO;
+
+import io.micrometer.core.instrument.MeterRegistry;
+
+/**
+ * Trabajos de detección de plagio: la detección de una tarea puede tardar
+ * minutos, así que se ejecuta en segundo plano (como mucho
+ * plagiarism.jobs.max-concurrent a la vez) y su progreso se publica por STOMP en
+ * {topic}/{jobId} y {topic}/assignments/{assignmentId}, también tras cada
+ * llamada a JPlag de una detección repartida en bloques. Una detección del mismo
+ * conjunto de entregas que ya está en curso se reutiliza en lugar de repetirse.
+ */
+@Service
+public class PlagiarismJobService {
+
+    /**
+     * Fase en curso de un trabajo activo
+     */
+    public enum Stage {
+        WAITING, ANALYZING, SAVING_REPORT
+    }
+
+    private final PlagiarismService plagiarismService;
+    private final AsyncTaskExecutor blockingTaskExecutor;
+    private final JobRunner<Job, Map<String, Object>> runner;
+
+    public PlagiarismJobService(PlagiarismJobProperties properties, PlagiarismService plagiarismService,
+            SimpMessagingTemplate messagingTemplate, AsyncTaskExecutor blockingTaskExecutor,
+            MeterRegistry meterRegistry) {
+        this.plagiarismService = plagiarismService;
+        this.blockingTaskExecutor = blockingTaskExecutor;
+        this.runner = new JobRunner<>("plagiarism", "Trabajos de detección de plagio por estado", properties,
+                messagingTemplate, meterRegistry);
+    }
+
+    /**
+     * Encola la detección y devuelve su trabajo, o el que ya está en curso para
+     * el mismo conjunto de entregas; con la cola llena lanza BulkheadFullException
+     */
+    public PlagiarismJobDTO submit(PlagiarismService.Detection detection) {
+        return runner.submit(List.of(detection.assignmentId(), detection.submissionsKey()),
+                () -> new Job(detection.assignmentId(), detection.submissionCount()),
+                job -> plagiarismService.detect(detection, (completed, total) -> {
+                    job.progress(completed, total);
+                    runner.publish(job);
+                }).thenApplyAsync(result -> {
+                    job.stage(Stage.SAVING_REPORT);
+                    runner.publish(job);
+                    return plagiarismService.saveReport(detection, result);
+                }, blockingTaskExecutor))
+                .toDTO();
+    }
+
+    public Optional<PlagiarismJobDTO> getJob(String id) {
+        return runner.getJob(id).map(Job::toDTO);
+    }
+
+    @Scheduled(fixedDelayString = "${plagiarism.jobs.cleanup-interval:1m}")
+    public void removeExpiredJobs() {
+        runner.removeExpiredJobs();
+    }
+
+    private static final class Job extends JobRunner.Job<Map<String, Object>> {
+        private final Long assignmentId;
+        private final int submissionCount;
+        private Stage stage = Stage.ANALYZING;
+        private Integer completedShards;
+        private Integer totalShards;
+        // Solo el id: el informe ya está guardado y se consulta en /api/plagiarism/comparisons
+        private Long reportId;
+
+        Job(Long assignmentId, int submissionCount) {
+            this.assignmentId = assignmentId;
+            this.submissionCount = submissionCount;
+        }
+
+        synchronized void stage(Stage stage) {
+            this.stage = stage;
+        }
+
+        synchronized void progress(int completed, int total) {
+            this.completedShards = completed;
+            this.totalShards = total;
+        }
+
+        @Override
+        protected String resourcePath() {
+            return "assignments/" + assignmentId;
+        }
+
+        @Override
+        protected String describe() {
+            return "Plagiarism job " + getId() + " for assignment " + assignmentId;
+        }
+
+        @Override
+        protected synchronized void complete(Map<String, Object> report) {
+            this.reportId = report.get("reportId") instanceof Long savedId ? savedId : null;
+        }
+
+        @Override
+        protected synchronized PlagiarismJobDTO toDTO() {
+            Stage current = switch (getStatus()) {
+                case QUEUED -> Stage.WAITING;
+                case RUNNING -> stage;
+                default -> null;
+            };
+            return new PlagiarismJobDTO(getId(), assignmentId, submissionCount, getStatus().name(),
+                    current != null ? current.name() : null, completedShards, totalShards, getCreatedAt(),
+                    getStartedAt(), getFinishedAt(), reportId, getError(), getErrorStatus());
+        }
+    }
+}
@@ -0,0 +1,589 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import static com.eci.iagen.api_gateway.client.JPlagServiceClient.FIRST_SUBMISSION;
+import static com.eci.iagen.api_gateway.client.JPlagServiceClient.SECOND_SUBMISSION;
+import static com.eci.iagen.api_gateway.client.JPlagServiceClient.submissionId;
+
+import com.eci.iagen.api_gateway.client.JPlagServiceClient;
+import com.eci.iagen.api_gateway.config.IncrementalPlagiarismProperties;
+import com.eci.iagen.api_gateway.config.PlagiarismReportProperties;
+import com.eci.iagen.api_gateway.config.ShardedPlagiarismProperties;
+import com.eci.iagen.api_gateway.dto.AssignmentDTO;
+import com.eci.iagen.api_gateway.dto.SubmissionDTO;
+import com.eci.iagen.api_gateway.dto.TeamDTO;
+import com.eci.iagen.api_gateway.dto.UserDTO;
+import com.eci.iagen.api_gateway.entity.PlagiarismReport;
+import com.eci.iagen.api_gateway.repository.AssignmentRepository;
+import com.eci.iagen.api_gateway.repository.CommitRepository;
+import com.eci.iagen.api_gateway.repository.PlagiarismReportRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Detección de plagio de una tarea con el servicio JPlag. El resultado
+ * transformado para el frontend se guarda como PlagiarismReport y se reutiliza
+ * mientras el conjunto de entregas de la tarea no cambie: ids, repositorios y
+ * último commit guardado de cada entrega. El informe vigente de cada tarea se
+ * guarda también en memoria hasta recibir un SubmissionsChangedEvent.
+ * <p>
+ * En modo incremental (plagiarism.incremental.enabled) una detección posterior a
+ * un informe solo envía a JPlag las entregas nuevas o modificadas; las demás van
+ * como previousSubmissions, que JPlag compara con las nuevas pero no entre sí.
+ * Los pares de entregas sin cambios se copian del informe anterior, así que una
+ * entrega tardía cuesta N-1 comparaciones en lugar de N×N. Un análisis completo
+ * con más entregas de las que admite una llamada se reparte en pares de bloques
+ * (plagiarism.sharding.*).
+ */
+@Service
+@RequiredArgsConstructor
+@Slf4j
+public class PlagiarismService {
+
+    private final JPlagServiceClient jplagServiceClient;
+    private final AssignmentService assignmentService;
+    private final SubmissionService submissionService;
+    private final TeamService teamService;
+    private final UserService userService;
+    private final AssignmentRepository assignmentRepository;
+    private final PlagiarismReportRepository plagiarismReportRepository;
+    private final CommitRepository commitRepository;
+    private final IncrementalPlagiarismProperties incrementalProperties;
+    private final ShardedPlagiarismProperties shardingProperties;
+    private final PlagiarismReportProperties reportProperties;
+    private final ObjectMapper objectMapper;
+    // Informe vigente por tarea; invalidations cuenta los eventos para no guardar uno ya obsoleto
+    private final Map<Long, Map<String, Object>> currentReports = new ConcurrentHashMap<>();
+    private long invalidations;
+
+    /**
+     * Detección preparada: la petición para JPlag, la clave del conjunto de
+     * entregas y el estado de cada una; baseline solo existe en modo incremental
+     */
+    public record Detection(Long assignmentId, int submissionCount, String submissionsKey,
+            Map<Long, String> submissionStates, Map<String, Object> request, Baseline baseline) {
+
+        public boolean incremental() {
+            return baseline != null;
+        }
+    }
+
+    /**
+     * Informe anterior para un análisis incremental: las entregas que se vuelven a
+     * analizar y las comparaciones entre entregas sin cambios, que siguen vigentes
+     */
+    public record Baseline(Long reportId, Set<Long> changedSubmissionIds,
+            List<Map<String, Object>> comparisons) {
+    }
+
+    /**
+     * Lee la tarea y sus entregas y arma la petición para JPlag
+     *
+     * @throws IllegalArgumentException si la tarea no existe o tiene menos de 2 entregas
+     */
+    public Detection prepareDetection(Long assignmentId) {
+        AssignmentDTO assignment = assignmentService.getAssignmentById(assignmentId)
+                .orElseThrow(() -> new IllegalArgumentException("Assignment not found with id: " + assignmentId));
+
+        List<SubmissionDTO> submissions = submissionService.getSubmissionsByAssignmentId(assignmentId);
+        if (submissions.size() < 2) {
+            throw new IllegalArgumentException("At least 2 submissions are required for plagiarism detection");
+        }
+        Map<Long, String> states = submissionStates(submissions, headCommits(assignmentId));
+        Baseline baseline = incrementalBaseline(assignmentId, states);
+
+        // Convertir entregas a formato compatible con JPlag Service
+        List<Map<String, Object>> jplagSubmissions = new ArrayList<>();
+        List<Map<String, Object>> previousSubmissions = new ArrayList<>();
+        for (SubmissionDTO submission : submissions) {
+            Map<String, Object> submissionInfo = convertToJPlagSubmissionInfo(submission);
+            if (baseline == null || baseline.changedSubmissionIds().contains(submission.getId())) {
+                jplagSubmissions.add(submissionInfo);
+            } else {
+                previousSubmissions.add(submissionInfo);
+            }
+        }
+
+        log.info("Found {} submissions for assignment {}", submissions.size(), assignmentId);
+        jplagSubmissions.forEach(submission -> log.debug("Submission data: ID={}, Team={}, RepoURL={}",
+                submission.get("submissionId"), submission.get("teamName"), submission.get("repositoryUrl")));
+
+        Map<String, Object> request = new HashMap<>();
+        request.put("assignmentId", assignmentId);
+        request.put("assignmentTitle", assignment.getTitle());
+        request.put("submissions", jplagSubmissions);
+        if (baseline != null) {
+            request.put("previousSubmissions", previousSubmissions);
+            log.info("Incremental plagiarism detection for assignment {}: {} new or changed submissions against {}, "
+                    + "{} comparisons reused from report {}", assignmentId, jplagSubmissions.size(),
+                    previousSubmissions.size(), baseline.comparisons().size(), baseline.reportId());
+        }
+
+        return new Detection(assignmentId, submissions.size(), submissionsKey(states), states, request, baseline);
+    }
+
+    /**
+     * Envía la detección a JPlag y devuelve el resultado transformado para el frontend
+     */
+    public CompletableFuture<Map<String, Object>> detect(Detection detection) {
+        return detect(detection, (completed, total) -> {
+        });
+    }
+
+    /**
+     * Como detect; si la detección se reparte en bloques, onProgress recibe las
+     * llamadas a JPlag terminadas y el total
+     */
+    public CompletableFuture<Map<String, Object>> detect(Detection detection,
+            BiConsumer<Integer, Integer> onProgress) {
+        if (detection.incremental() && ((List<?>) detection.request().get("submissions")).isEmpty()) {
+            // Solo se borraron entregas: basta con quitar sus pares del informe anterior
+            Map<String, Object> unchanged = new HashMap<>();
+            unchanged.put("assignmentId", detection.assignmentId());
+            unchanged.put("assignmentTitle", detection.request().get("assignmentTitle"));
+            return CompletableFuture.completedFuture(transformJPlagResponse(mergeWithBaseline(detection, unchanged)));
+        }
+        int submissions = ((List<?>) detection.request().get("submissions")).size();
+        if (shardingProperties.isEnabled() && !detection.incremental()
+                && submissions > shardingProperties.getMaxSubmissionsPerCall()) {
+            return jplagServiceClient.detectPlagiarismShardedNonBlocking(detection.request(),
+                    Math.max(1, shardingProperties.getMaxSubmissionsPerCall() / 2),
+                    shardingProperties.getParallelism(), onProgress)
+                    .thenApply(jplagResponse -> handleJPlagResponse(detection, jplagResponse));
+        }
+        log.info("Sending plagiarism detection for assignment {} ({} submissions) to JPlag service",
+                detection.assignmentId(), detection.submissionCount());
+        return jplagServiceClient.detectPlagiarismNonBlocking(detection.request())
+                .thenApply(jplagResponse -> handleJPlagResponse(detection, jplagResponse));
+    }
+
+    /**
+     * Guarda el resultado y lo devuelve con reportId y generatedAt. Borra los
+     * informes anteriores con las mismas entregas y los que exceden
+     * plagiarism.reports.keep-per-assignment
+     */
+    @Transactional
+    public Map<String, Object> saveReport(Detection detection, Map<String, Object> result) {
+        PlagiarismReport report = new PlagiarismReport();
+        report.setAssignment(assignmentRepository.getReferenceById(detection.assignmentId()));
+        report.setSubmissionsKey(detection.submissionsKey());
+        report.setSubmissionCount(detection.submissionCount());
+        report.setSuccess(Boolean.TRUE.equals(result.get("success")));
+        report.setMessage((String) result.get("message"));
+        report.setSimilaritiesJson(toJson(result.get("similarities")));
+        report.setStatisticsJson(toJson(result.get("statistics")));
+        report.setSubmissionStatesJson(toJson(detection.submissionStates()));
+        PlagiarismReport saved = plagiarismReportRepository.save(report);
+        pruneReports(detection.assignmentId(), saved);
+        evict(detection.assignmentId());
+        log.info("Stored plagiarism report {} for assignment {}", saved.getId(), detection.assignmentId());
+        return toResponse(saved);
+    }
+
+    private void pruneReports(Long assignmentId, PlagiarismReport saved) {
+        int superseded = plagiarismReportRepository.deleteSuperseded(assignmentId, saved.getSubmissionsKey(),
+                saved.getId());
+        List<Long> ids = plagiarismReportRepository.findIdsByAssignmentIdNewestFirst(assignmentId);
+        int keep = Math.max(1, reportProperties.getKeepPerAssignment());
+        List<Long> expired = ids.size() > keep ? ids.subList(keep, ids.size()) : List.of();
+        if (!expired.isEmpty()) {
+            plagiarismReportRepository.deleteAllByIdInBatch(expired);
+        }
+        if (superseded > 0 || !expired.isEmpty()) {
+            log.debug("Deleted {} superseded and {} expired plagiarism reports of assignment {}", superseded,
+                    expired.size(), assignmentId);
+        }
+    }
+
+    /**
+     * Último informe de la tarea, si se generó con el mismo conjunto de entregas.
+     * Solo consulta la base de datos la primera vez tras un cambio en las entregas
+     */
+    public Optional<Map<String, Object>> findCurrentReport(Long assignmentId) {
+        Map<String, Object> cached = currentReports.get(assignmentId);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        long observedInvalidations = invalidations();
+        String submissionsKey = submissionsKey(submissionService.getSubmissionsByAssignmentId(assignmentId),
+                headCommits(assignmentId));
+        Optional<Map<String, Object>> report = plagiarismReportRepository
+                .findFirstByAssignmentIdOrderByCreatedAtDesc(assignmentId)
+                .filter(stored -> stored.getSubmissionsKey().equals(submissionsKey))
+                .map(this::toResponse);
+        report.ifPresent(response -> cacheReport(assignmentId, response, observedInvalidations));
+        return report;
+    }
+
+    @TransactionalEventListener(fallbackExecution = true)
+    public void onSubmissionsChanged(SubmissionsChangedEvent event) {
+        log.debug("Submissions of assignment {} changed, discarding its cached plagiarism report",
+                event.assignmentId());
+        evict(event.assignmentId());
+    }
+
+    private synchronized long invalidations() {
+        return invalidations;
+    }
+
+    private synchronized void cacheReport(Long assignmentId, Map<String, Object> response,
+            long observedInvalidations) {
+        if (invalidations == observedInvalidations) {
+            currentReports.put(assignmentId, response);
+        }
+    }
+
+    private synchronized void evict(Long assignmentId) {
+        invalidations++;
+        currentReports.remove(assignmentId);
+    }
+
+    /**
+     * Informe anterior sobre el que hacer un análisis incremental, o null si el
+     * modo está desactivado, no hay informe utilizable o cambiaron demasiadas
+     * entregas (o ninguna: entonces se repite el análisis completo)
+     */
+    private Baseline incrementalBaseline(Long assignmentId, Map<Long, String> states) {
+        if (!incrementalProperties.isEnabled()) {
+            return null;
+        }
+        Optional<PlagiarismReport> latest = plagiarismReportRepository
+                .findFirstByAssignmentIdOrderByCreatedAtDesc(assignmentId)
+                .filter(report -> Boolean.TRUE.equals(report.getSuccess())
+                        && report.getSubmissionStatesJson() != null);
+        if (latest.isEmpty()) {
+            return null;
+        }
+        PlagiarismReport report = latest.get();
+        Map<Long, String> previousStates = fromJson(report.getSubmissionStatesJson(),
+                new TypeReference<Map<Long, String>>() {
+                }, Map.of());
+        Set<Long> changed = new HashSet<>();
+        states.forEach((id, state) -> {
+            if (!state.equals(previousStates.get(id))) {
+                changed.add(id);
+            }
+        });
+        boolean removed = !states.keySet().containsAll(previousStates.keySet());
+        if (previousStates.isEmpty() || (changed.isEmpty() && !removed)
+                || changed.size() > states.size() * incrementalProperties.getMaxChangedRatio()) {
+            return null;
+        }
+
+        List<Map<String, Object>> kept = new ArrayList<>();
+        for (Map<String, Object> comparison : fromJson(report.getSimilaritiesJson(),
+                new TypeReference<List<Map<String, Object>>>() {
+                }, List.<Map<String, Object>>of())) {
+            Long first = submissionId(comparison.get(FIRST_SUBMISSION));
+            Long second = submissionId(comparison.get(SECOND_SUBMISSION));
+            if (first == null || second == null) {
+                log.warn("Plagiarism report {} has comparisons without submission ids, running a full analysis",
+                        report.getId());
+                return null;
+            }
+            if (states.containsKey(first) && states.containsKey(second) && !changed.contains(first)
+                    && !changed.contains(second)) {
+                kept.add(comparison);
+            }
+        }
+        return new Baseline(report.getId(), changed, kept);
+    }
+
+    /**
+     * Añade a la respuesta de JPlag los pares vigentes del informe anterior; de la
+     * respuesta solo se toman los pares con alguna entrega nueva o modificada
+     */
+    private Map<String, Object> mergeWithBaseline(Detection detection, Map<?, ?> jplagResponse) {
+        Baseline baseline = detection.baseline();
+        List<Map<String, Object>> comparisons = new ArrayList<>(baseline.comparisons());
+        int added = 0;
+        if (jplagResponse.get("comparisons") instanceof List<?> fresh) {
+            for (Object item : fresh) {
+                if (item instanceof Map<?, ?> comparison
+                        && (baseline.changedSubmissionIds().contains(submissionId(comparison.get(FIRST_SUBMISSION)))
+                                || baseline.changedSubmissionIds()
+                                        .contains(submissionId(comparison.get(SECOND_SUBMISSION))))) {
+                    @SuppressWarnings("unchecked")
+                    Map<String, Object> pair = (Map<String, Object>) comparison;
+                    comparisons.add(pair);
+                    added++;
+                }
+            }
+        }
+        comparisons.sort(Comparator.comparingDouble(PlagiarismService::similarity).reversed());
+        log.info("Merged {} new comparisons with {} from report {} for assignment {}", added,
+                baseline.comparisons().size(), baseline.reportId(), detection.assignmentId());
+
+        Map<String, Object> merged = new HashMap<>();
+        jplagResponse.forEach((key, value) -> merged.put(String.valueOf(key), value));
+        merged.put("comparisons", comparisons);
+        return merged;
+    }
+
+    private static double similarity(Map<String, Object> comparison) {
+        return comparison.get("similarity") instanceof Number number ? number.doubleValue() : 0.0;
+    }
+
+    private Map<Long, String> headCommits(Long assignmentId) {
+        Map<Long, String> heads = new HashMap<>();
+        for (CommitRepository.HeadCommit head : commitRepository.findHeadCommitsByAssignmentId(assignmentId)) {
+            // Con dos commits a la misma hora se queda el de sha mayor para que la clave sea estable
+            heads.merge(head.getSubmissionId(), head.getSha(), (a, b) -> a.compareTo(b) >= 0 ? a : b);
+        }
+        return heads;
+    }
+
+    private Map<String, Object> toResponse(PlagiarismReport report) {
+        Map<String, Object> response = new LinkedHashMap<>();
+        response.put("success", report.getSuccess());
+        response.put("message", report.getMessage());
+        response.put("similarities", fromJson(report.getSimilaritiesJson(), new TypeReference<List<Object>>() {
+        }, new ArrayList<>()));
+        Map<String, Object> statistics = fromJson(report.getStatisticsJson(),
+                new TypeReference<Map<String, Object>>() {
+                }, null);
+        if (statistics != null) {
+            response.put("statistics", statistics);
+        }
+        response.put("reportId", report.getId());
+        response.put("generatedAt", report.getCreatedAt());
+        return response;
+    }
+
+    private String toJson(Object value) {
+        if (value == null) {
+            return null;
+        }
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize plagiarism report: " + e.getMessage(), e);
+        }
+    }
+
+    private <T> T fromJson(String json, TypeReference<T> type, T fallback) {
+        if (json == null) {
+            return fallback;
+        }
+        try {
+            return objectMapper.readValue(json, type);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not read stored plagiarism report: {}", e.getMessage());
+            return fallback;
+        }
+    }
+
+    /**
+     * Clave del conjunto de entregas: SHA-256 de los ids con su repositorio y, si
+     * hay commits guardados, el sha del último
+     */
+    static String submissionsKey(List<SubmissionDTO> submissions, Map<Long, String> headCommits) {
+        return submissionsKey(submissionStates(submissions, headCommits));
+    }
+
+    /**
+     * Estado de cada entrega por id: repositorio y, si lo hay, último commit
+     */
+    static Map<Long, String> submissionStates(List<SubmissionDTO> submissions, Map<Long, String> headCommits) {
+        Map<Long, String> states = new TreeMap<>();
+        for (SubmissionDTO submission : submissions) {
+            String repositoryUrl = submission.getFileUrl() != null ? submission.getFileUrl().trim() : "";
+            String head = headCommits.get(submission.getId());
+            states.put(submission.getId(), head != null ? repositoryUrl + "@" + head : repositoryUrl);
+        }
+        return states;
+    }
+
+    private static String submissionsKey(Map<Long, String> submissionStates) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(new TreeMap<>(submissionStates).toString().getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private Map<String, Object> handleJPlagResponse(Detection detection, ResponseEntity<Object> jplagResponse) {
+        Long assignmentId = detection.assignmentId();
+        log.info("JPlag service responded with status {} for assignment {}", jplagResponse.getStatusCode(),
+                assignmentId);
+        if (log.isDebugEnabled()) {
+            try {
+                log.debug("Response JSON received from JPlag service: {}",
+                        objectMapper.writeValueAsString(jplagResponse.getBody()));
+            } catch (JsonProcessingException jsonException) {
+                log.debug("Error serializing received response to JSON for logging: {}",
+                        jsonException.getMessage());
+            }
+        }
+
+        if (!jplagResponse.getStatusCode().is2xxSuccessful() || jplagResponse.getBody() == null) {
+            log.error("JPlag service returned error for assignment: {}", assignmentId);
+            throw new IllegalStateException("JPlag service returned an error");
+        }
+
+        // Transformar respuesta para el frontend
+        Object body = jplagResponse.getBody();
+        if (detection.incremental() && body instanceof Map<?, ?> jplagMap) {
+            body = mergeWithBaseline(detection, jplagMap);
+        }
+        Map<String, Object> transformedResponse = transformJPlagResponse(body);
+        log.info("Plagiarism detection completed successfully for assignment: {}", assignmentId);
+        return transformedResponse;
+    }
+
+    /**
+     * Convierte una entidad SubmissionDTO a
+     * PlagiarismDetectionRequest.SubmissionInfo
+     */
+    private Map<String, Object> convertToJPlagSubmissionInfo(SubmissionDTO submission) {
+        // Obtener el equipo
+        TeamDTO team = teamService.getTeamById(submission.getTeamId())
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "Team not found with id: " + submission.getTeamId()));
+
+        // Obtener los nombres de los miembros del equipo
+        List<String> memberNames = team.getUserIds().stream()
+                .map(userId -> {
+                    UserDTO user = userService.getUserById(userId)
+                            .orElse(new UserDTO(userId, "", "Unknown User", "", null, ""));
+                    return user.getName();
+                })
+                .collect(Collectors.toList());
+
+        // Validar y limpiar la URL del repositorio
+        String repositoryUrl = submission.getFileUrl();
+        if (repositoryUrl == null || repositoryUrl.trim().isEmpty()) {
+            log.warn("Empty repository URL for submission {}", submission.getId());
+            repositoryUrl = "";
+        } else {
+            repositoryUrl = repositoryUrl.trim();
+            // Validar que sea una URL de Git válida
+            if (!isValidGitUrl(repositoryUrl)) {
+                log.warn("Invalid Git URL for submission {}: {}", submission.getId(), repositoryUrl);
+            }
+        }
+
+        // Crear el objeto compatible con JPlag Service
+        Map<String, Object> submissionInfo = new HashMap<>();
+        submissionInfo.put("submissionId", submission.getId());
+        submissionInfo.put("teamId", team.getId());
+        submissionInfo.put("teamName", team.getName());
+        submissionInfo.put("repositoryUrl", repositoryUrl);
+        submissionInfo.put("memberNames", memberNames);
+
+        return submissionInfo;
+    }
+
+    private Map<String, Object> transformJPlagResponse(Object jplagResponse) {
+        Map<String, Object> transformedResponse = new HashMap<>();
+
+        try {
+            if (jplagResponse instanceof Map) {
+                @SuppressWarnings("unchecked")
+                Map<String, Object> jplagMap = (Map<String, Object>) jplagResponse;
+
+                // Verificar si hay comparisons en la respuesta
+                Object comparisons = jplagMap.get("comparisons");
+                if (comparisons instanceof List && !((List<?>) comparisons).isEmpty()) {
+                    transformedResponse.put("success", true);
+                    transformedResponse.put("message", "Análisis de plagio completado exitosamente");
+                    transformedResponse.put("similarities", comparisons);
+
+                    // Agregar estadísticas si están disponibles
+                    Map<String, Object> statistics = new HashMap<>();
+                    if (jplagMap.containsKey("assignmentId")) {
+                        statistics.put("assignmentId", jplagMap.get("assignmentId"));
+                    }
+                    if (jplagMap.containsKey("assignmentTitle")) {
+                        statistics.put("assignmentTitle", jplagMap.get("assignmentTitle"));
+                    }
+
+                    // Calcular estadísticas de las comparaciones
+                    @SuppressWarnings("unchecked")
+                    List<Map<String, Object>> comparisonsList = (List<Map<String, Object>>) comparisons;
+                    statistics.put("totalComparisons", comparisonsList.size());
+
+                    // Calcular similaridad promedio
+                    double averageSimilarity = comparisonsList.stream()
+                            .mapToDouble(comp -> {
+                                Object sim = comp.get("similarity");
+                                return sim instanceof Number ? ((Number) sim).doubleValue() : 0.0;
+                            })
+                            .average()
+                            .orElse(0.0);
+                    statistics.put("averageSimilarity", Math.round(averageSimilarity * 100.0) / 100.0);
+
+                    transformedResponse.put("statistics", statistics);
+                } else {
+                    // No hay comparaciones válidas
+                    transformedResponse.put("success", false);
+                    transformedResponse.put("message",
+                            "No se encontraron similitudes entre los repositorios analizados");
+                    transformedResponse.put("similarities", new ArrayList<>());
+                }
+            } else {
+                // Respuesta no es un Map válido
+                transformedResponse.put("success", false);
+                transformedResponse.put("message", "Error en el formato de respuesta del análisis");
+                transformedResponse.put("similarities", new ArrayList<>());
+            }
+        } catch (Exception e) {
+            log.error("Error transformando respuesta de JPlag: ", e);
+            transformedResponse.put("success", false);
+            transformedResponse.put("message", "Error procesando los resultados del análisis");
+            transformedResponse.put("similarities", new ArrayList<>());
+        }
+
+        return transformedResponse;
+    }
+
+    /**
+     * Valida si una URL es un repositorio Git válido
+     */
+    private boolean isValidGitUrl(String url) {
+        if (url == null || url.trim().isEmpty()) {
+            return false;
+        }
+
+        // Convertir a minúsculas para la validación
+        String lowerUrl = url.toLowerCase().trim();
+
+        // Verificar patrones comunes de URLs de Git
+        return lowerUrl.startsWith("https://github.com/") ||
+                lowerUrl.startsWith("https://gitlab.com/") ||
+                lowerUrl.startsWith("https://bitbucket.org/") ||
+                lowerUrl.startsWith("git@github.com:") ||
+                lowerUrl.startsWith("git@gitlab.com:") ||
+                lowerUrl.endsWith(".git") ||
+                lowerUrl.contains("git");
+    }
+}
@@ -5,6 +5,7 @@ import java.util.List;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -13,6 +14,7 @@ import com.eci.iagen.api_gateway.entity.Assignment;
 import com.eci.iagen.api_gateway.entity.Submission;
 import com.eci.iagen.api_gateway.entity.Team;
 import com.eci.iagen.api_gateway.repository.AssignmentRepository;
+import com.eci.iagen.api_gateway.repository.CommitRepository;
 import com.eci.iagen.api_gateway.repository.SubmissionRepository;
 import com.eci.iagen.api_gateway.repository.TeamRepository;
 
@@ -25,6 +27,8 @@ public class SubmissionService {
     private final SubmissionRepository submissionRepository;
     private final AssignmentRepository assignmentRepository;
     private final TeamRepository teamRepository;
+    private final CommitRepository commitRepository;
+    private final ApplicationEventPublisher eventPublisher;
 
     @Transactional(readOnly = true)
     public List<SubmissionDTO> getAllSubmissions() {
@@ -76,6 +80,7 @@ public class SubmissionService {
         submission.setFileUrl(submissionDTO.getFileUrl());
 
         Submission savedSubmission = submissionRepository.save(submission);
+        eventPublisher.publishEvent(new SubmissionsChangedEvent(assignment.getId()));
         return convertToDTO(savedSubmission);
     }
 
@@ -83,8 +88,12 @@ public class SubmissionService {
     public Optional<SubmissionDTO> updateSubmission(Long id, SubmissionDTO submissionDTO) {
         return submissionRepository.findById(id)
                 .map(submission -> {
-                    if (submissionDTO.getFileUrl() != null) {
+                    if (submissionDTO.getFileUrl() != null
+                            && !submissionDTO.getFileUrl().equals(submission.getFileUrl())) {
                         submission.setFileUrl(submissionDTO.getFileUrl());
+                        // Los commits guardados son del repositorio anterior
+                        commitRepository.deleteBySubmissionId(id);
+                        eventPublisher.publishEvent(new SubmissionsChangedEvent(submission.getAssignment().getId()));
                     }
                     // Note: Usually we don't allow changing assignment or team for existing submissions
                     return convertToDTO(submissionRepository.save(submission));
@@ -93,11 +102,15 @@ public class SubmissionService {
 
     @Transactional
     public boolean deleteSubmission(Long id) {
-        if (submissionRepository.existsById(id)) {
-            submissionRepository.deleteById(id);
-            return true;
-        }
-        return false;
+        return submissionRepository.findById(id)
+                .map(submission -> {
+                    // commit.submission_id no tiene borrado en cascada
+                    commitRepository.deleteBySubmissionId(id);
+                    submissionRepository.delete(submission);
+                    eventPublisher.publishEvent(new SubmissionsChangedEvent(submission.getAssignment().getId()));
+                    return true;
+                })
+                .orElse(false);
     }
 
     public static SubmissionDTO convertToDTO(Submission submission) {
@@ -0,0 +1,8 @@
+package com.eci.iagen.api_gateway.service;
+
+/**
+ * Las entregas de una tarea cambiaron: se creó, modificó o borró una entrega, o
+ * se guardaron commits nuevos de alguna de ellas
+ */
+public record SubmissionsChangedEvent(Long assignmentId) {
+}
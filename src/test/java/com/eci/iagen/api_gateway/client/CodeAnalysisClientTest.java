@@ -0,0 +1,270 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.stream.LongStream;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+import com.eci.iagen.api_gateway.config.HttpClientConfig;
+import com.eci.iagen.api_gateway.dto.EvaluationDTO;
+import com.eci.iagen.api_gateway.dto.SubmissionDTO;
+import com.eci.iagen.api_gateway.dto.request.CodeAnalysisBatchRequest;
+import com.eci.iagen.api_gateway.dto.response.CodeAnalysisBatchResponse;
+import com.eci.iagen.api_gateway.monitoring.OutboundCallMetrics;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealthRegistry;
+import com.eci.iagen.api_gateway.resilience.LoadBalancerRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import reactor.core.publisher.Mono;
+import reactor.core.publisher.Sinks;
+import reactor.netty.DisposableServer;
+import reactor.netty.resources.ConnectionProvider;
+
+@Slf4j
+class CodeAnalysisClientTest {
+
+    private static final int LOAD_EVALUATIONS = 500;
+    private static final int REQUEST_THREADS = 200;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final List<Integer> batchSizes = new CopyOnWriteArrayList<>();
+    private HttpServer stubServer;
+    private CloseableHttpClient httpClient;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/llm-analysis/batch", this::batch);
+        stubServer.createContext("/checkstyle-analysis/batch", this::batch);
+        stubServer.start();
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        if (httpClient != null) {
+            httpClient.close();
+        }
+        stubServer.stop(0);
+    }
+
+    @Test
+    void performCheckstyleAnalysisBatch_ShouldSplitIntoRequests_AndReturnPerItemErrors() {
+        CodeAnalysisClient client = client(false, 2, Duration.ZERO);
+
+        List<CodeAnalysisBatchResponse.Item> items = client.performCheckstyleAnalysisBatch(submissions(5)).join();
+
+        assertEquals(List.of(1, 2, 2), batchSizes.stream().sorted().toList());
+        assertEquals(List.of(1L, 2L, 3L, 4L, 5L),
+                items.stream().map(CodeAnalysisBatchResponse.Item::getSubmissionId).toList());
+        assertEquals(new BigDecimal("1.0"), items.get(0).getEvaluation().getScore());
+        assertNull(items.get(0).getError());
+        assertTrue(items.get(2).getError().contains("Repository not found"));
+        assertTrue(items.get(3).getError().contains("no result returned"));
+    }
+
+    @Test
+    void performLLMAnalysisNonBlocking_ShouldGroupConcurrentCallsIntoOneRequest() {
+        CodeAnalysisClient client = client(true, 10, Duration.ofMillis(200));
+
+        List<CompletableFuture<EvaluationDTO>> calls = new ArrayList<>();
+        for (SubmissionDTO submission : submissions(6)) {
+            calls.add(client.performLLMAnalysisNonBlocking(submission));
+        }
+
+        assertEquals(new BigDecimal("6.0"), calls.get(5).join().getScore());
+        assertEquals(List.of(6), batchSizes);
+        CompletionException failed = assertThrows(CompletionException.class, () -> calls.get(2).join());
+        assertTrue(failed.getCause().getMessage().contains("Repository not found"));
+        assertEquals(6.0, meterRegistry.summary("gateway.requests.batch.size", "operation", "llm-analysis")
+                .totalAmount());
+    }
+
+    /**
+     * Prueba de carga: 500 evaluaciones LLM concurrentes contra un stub que no
+     * responde hasta que el test lo indica. Por la vía bloqueante cada llamada en
+     * curso ocupa uno de los 200 hilos (como server.tomcat.threads.max) y el resto
+     * espera; la no bloqueante tiene las 500 en curso sin ocupar ningún hilo
+     */
+    @Test
+    void performLLMAnalysisNonBlocking_ShouldKeep500EvaluationsInFlight_WithoutHoldingThreads() throws Exception {
+        // Stub sobre Reactor Netty: el HttpServer del JDK no acepta 500 conexiones nuevas a la vez
+        EvaluationDTO stubEvaluation = new EvaluationDTO();
+        stubEvaluation.setScore(new BigDecimal("4.5"));
+        stubEvaluation.setCriteriaJson("{}");
+        String stubResponse = objectMapper.writeValueAsString(stubEvaluation);
+        AtomicInteger inFlight = new AtomicInteger();
+        AtomicReference<Sinks.Empty<Void>> respond = new AtomicReference<>(Sinks.empty());
+        DisposableServer llmServer = reactor.netty.http.server.HttpServer.create()
+                .host("localhost")
+                .port(0)
+                .route(routes -> routes.post("/llm-analysis", (request, response) -> request.receive().then()
+                        .then(Mono.defer(() -> {
+                            inFlight.incrementAndGet();
+                            return respond.get().asMono();
+                        }))
+                        .then(Mono.fromRunnable(inFlight::decrementAndGet))
+                        .then(response.header("Content-Type", "application/json")
+                                .sendString(Mono.just(stubResponse)).then())))
+                .bindNow();
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.getPool().setMaxTotal(LOAD_EVALUATIONS);
+        DownstreamProperties.Service service = properties.service(Downstream.CODE_ANALYSIS);
+        service.setUrl("http://localhost:" + llmServer.port());
+        service.setMaxConnections(LOAD_EVALUATIONS);
+        service.getBulkhead().setMaxConcurrentCalls(LOAD_EVALUATIONS);
+        service.getBatch().setEnabled(false);
+        HttpClientConfig config = new HttpClientConfig();
+        OutboundCallMetrics metrics = new OutboundCallMetrics(meterRegistry, properties);
+        httpClient = config.downstreamHttpClient(properties);
+        ConnectionProvider connectionProvider = config.downstreamConnectionProvider(properties);
+        LoadBalancerRegistry loadBalancers = new LoadBalancerRegistry(properties, meterRegistry);
+        DownstreamHealthRegistry healthRegistry = new DownstreamHealthRegistry(properties, httpClient,
+                loadBalancers, meterRegistry);
+        DownstreamGuard guard = new DownstreamGuard(properties, healthRegistry, loadBalancers, meterRegistry);
+        CodeAnalysisClient client = new CodeAnalysisClient(config.restTemplate(httpClient, properties, metrics),
+                config.downstreamWebClient(WebClient.builder(), connectionProvider, properties, metrics), guard,
+                healthRegistry, properties, meterRegistry);
+        List<SubmissionDTO> submissions = submissions(LOAD_EVALUATIONS);
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        try {
+            ThreadPoolExecutor requestThreads = new ThreadPoolExecutor(REQUEST_THREADS, REQUEST_THREADS, 0,
+                    TimeUnit.SECONDS, new LinkedBlockingQueue<>());
+            try {
+                List<Future<EvaluationDTO>> evaluations = new ArrayList<>();
+                for (SubmissionDTO submission : submissions) {
+                    evaluations.add(requestThreads.submit(() -> client.performLLMAnalysis(submission)));
+                }
+                awaitInFlight(inFlight, REQUEST_THREADS);
+                // Cada llamada en curso retiene su hilo; las demás esperan un hilo libre
+                assertEquals(REQUEST_THREADS, requestThreads.getActiveCount());
+                assertEquals(LOAD_EVALUATIONS - REQUEST_THREADS, requestThreads.getQueue().size());
+                assertEquals(REQUEST_THREADS, inFlight.get());
+                // Una vez completado, el stub responde de inmediato al resto
+                respond.get().tryEmitEmpty();
+                for (Future<EvaluationDTO> evaluation : evaluations) {
+                    assertEquals(new BigDecimal("4.5"), evaluation.get(30, TimeUnit.SECONDS).getScore());
+                }
+                requestThreads.shutdown();
+                assertTrue(requestThreads.awaitTermination(10, TimeUnit.SECONDS));
+            } finally {
+                requestThreads.shutdownNow();
+            }
+
+            respond.set(Sinks.empty());
+            int threadsBefore = threads.getThreadCount();
+            List<CompletableFuture<EvaluationDTO>> evaluations = new ArrayList<>();
+            for (SubmissionDTO submission : submissions) {
+                evaluations.add(client.performLLMAnalysisNonBlocking(submission));
+            }
+            awaitInFlight(inFlight, LOAD_EVALUATIONS);
+            int threadsAdded = threads.getThreadCount() - threadsBefore;
+            log.info("Code analysis, {} concurrent LLM evaluations: blocking held {} threads with {} queued, "
+                    + "non-blocking {} in flight with {} threads added", LOAD_EVALUATIONS, REQUEST_THREADS,
+                    LOAD_EVALUATIONS - REQUEST_THREADS, inFlight.get(), threadsAdded);
+            // Solo los event loops de Reactor Netty (uno por núcleo), no un hilo por llamada
+            assertTrue(threadsAdded < LOAD_EVALUATIONS / 10, threadsAdded + " threads added");
+            assertTrue(evaluations.stream().noneMatch(CompletableFuture::isDone));
+            respond.get().tryEmitEmpty();
+            for (CompletableFuture<EvaluationDTO> evaluation : evaluations) {
+                assertEquals(new BigDecimal("4.5"), evaluation.get(30, TimeUnit.SECONDS).getScore());
+            }
+        } finally {
+            respond.get().tryEmitEmpty();
+            connectionProvider.dispose();
+            llmServer.disposeNow();
+        }
+    }
+
+    private static void awaitInFlight(AtomicInteger inFlight, int expected) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+        while (inFlight.get() < expected && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(expected, inFlight.get());
+    }
+
+    private CodeAnalysisClient client(boolean batchEnabled, int maxSize, Duration linger) {
+        DownstreamProperties properties = new DownstreamProperties();
+        DownstreamProperties.Service service = properties.service(Downstream.CODE_ANALYSIS);
+        service.setUrl("http://localhost:" + stubServer.getAddress().getPort());
+        service.getBatch().setEnabled(batchEnabled);
+        service.getBatch().setMaxSize(maxSize);
+        service.getBatch().setLinger(linger);
+        httpClient = new HttpClientConfig().downstreamHttpClient(properties);
+        LoadBalancerRegistry loadBalancers = new LoadBalancerRegistry(properties, meterRegistry);
+        DownstreamHealthRegistry healthRegistry = new DownstreamHealthRegistry(properties, httpClient,
+                loadBalancers, meterRegistry);
+        DownstreamGuard guard = new DownstreamGuard(properties, healthRegistry, loadBalancers, meterRegistry);
+        return new CodeAnalysisClient(new RestTemplate(), WebClient.builder().build(), guard, healthRegistry,
+                properties, meterRegistry);
+    }
+
+    // El stub falla la entrega 3, omite la 4 y puntúa las demás con su id
+    private void batch(HttpExchange exchange) throws IOException {
+        CodeAnalysisBatchRequest request = objectMapper.readValue(exchange.getRequestBody(),
+                CodeAnalysisBatchRequest.class);
+        batchSizes.add(request.getSubmissions().size());
+        List<CodeAnalysisBatchResponse.Item> results = new ArrayList<>();
+        for (SubmissionDTO submission : request.getSubmissions()) {
+            if (submission.getId() == 3L) {
+                results.add(new CodeAnalysisBatchResponse.Item(3L, null, "Repository not found"));
+            } else if (submission.getId() != 4L) {
+                EvaluationDTO evaluation = new EvaluationDTO();
+                evaluation.setScore(new BigDecimal(submission.getId() + ".0"));
+                evaluation.setCriteriaJson("{}");
+                results.add(0, new CodeAnalysisBatchResponse.Item(submission.getId(), evaluation, null));
+            }
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(Map.of("results", results));
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+
+    private static List<SubmissionDTO> submissions(int count) {
+        return LongStream.rangeClosed(1, count).mapToObj(id -> {
+            SubmissionDTO submission = new SubmissionDTO();
+            submission.setId(id);
+            submission.setFileUrl("https://github.com/team/project-" + id);
+            return submission;
+        }).toList();
+    }
+}
@@ -0,0 +1,169 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+import com.eci.iagen.api_gateway.config.GitHubProperties;
+import com.eci.iagen.api_gateway.config.HttpClientConfig;
+import com.eci.iagen.api_gateway.dto.CommitDTO;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealthRegistry;
+import com.eci.iagen.api_gateway.resilience.LoadBalancerRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GitHubClientTest {
+
+    private HttpServer stubServer;
+    private final Map<String, String> pageQueries = new ConcurrentHashMap<>();
+    private final AtomicInteger notModified = new AtomicInteger();
+    private CloseableHttpClient httpClient;
+    private SimpleMeterRegistry meterRegistry;
+    private GitHubResponseCache responseCache;
+    private GitHubClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/repos/team/project/commits", this::commits);
+        stubServer.start();
+
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.service(Downstream.GITHUB).setUrl("http://localhost:" + stubServer.getAddress().getPort());
+        httpClient = new HttpClientConfig().downstreamHttpClient(properties);
+        meterRegistry = new SimpleMeterRegistry();
+        LoadBalancerRegistry loadBalancers = new LoadBalancerRegistry(properties, meterRegistry);
+        DownstreamHealthRegistry healthRegistry = new DownstreamHealthRegistry(properties, httpClient,
+                loadBalancers, meterRegistry);
+        DownstreamGuard guard = new DownstreamGuard(properties, healthRegistry, loadBalancers, meterRegistry);
+
+        GitHubProperties gitHubProperties = new GitHubProperties();
+        gitHubProperties.getCommits().setPerPage(2);
+        gitHubProperties.getMirror().setEnabled(false);
+        responseCache = new GitHubResponseCache(gitHubProperties, meterRegistry, Runnable::run);
+        GitHubTokenPool tokenPool = new GitHubTokenPool(gitHubProperties, meterRegistry);
+        client = new GitHubClient(WebClient.builder().build(), guard, gitHubProperties, responseCache, tokenPool,
+                new GitRepositoryMirror(gitHubProperties, tokenPool, meterRegistry, Runnable::run),
+                new ObjectMapper().findAndRegisterModules(), meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        stubServer.stop(0);
+    }
+
+    @Test
+    void fetchSubmissionCommits_ShouldFetchAllPagesWithinWindow_AndLatestLateCommit() {
+        List<CommitDTO> commits = client.fetchSubmissionCommits("https://github.com/team/project.git",
+                LocalDateTime.of(2025, 3, 1, 0, 0), LocalDateTime.of(2025, 3, 10, 23, 59), null);
+
+        assertEquals(List.of("a1", "a2", "b1", "b2", "c1", "late"),
+                commits.stream().map(CommitDTO::getSha).toList());
+        assertEquals(LocalDateTime.of(2025, 3, 9, 12, 0), commits.get(0).getDate());
+        assertEquals("Ana", commits.get(0).getAuthorName());
+        String firstPage = pageQueries.get("1");
+        assertTrue(firstPage.contains("per_page=2"));
+        assertTrue(firstPage.contains("since=2025-02-28T00:00:00Z"));
+        assertTrue(firstPage.contains("until=2025-03-20T23:59:00Z"));
+    }
+
+    @Test
+    void fetchCommits_ShouldServeNotModifiedPagesFromCache() {
+        LocalDateTime start = LocalDateTime.of(2025, 3, 1, 0, 0);
+        LocalDateTime due = LocalDateTime.of(2025, 3, 10, 23, 59);
+        List<CommitDTO> first = client.fetchSubmissionCommits("https://github.com/team/project", start, due, null);
+        List<CommitDTO> second = client.fetchSubmissionCommits("https://github.com/team/project", start, due, null);
+
+        assertEquals(first, second);
+        assertEquals(4, notModified.get());
+        assertEquals(4.0, meterRegistry.counter("gateway.github.cache.requests", "result", "not_modified").count());
+        assertEquals(4, responseCache.size());
+    }
+
+    @Test
+    void responseCache_ShouldSurviveRestart_WhenDirectoryIsConfigured(@TempDir Path directory) {
+        GitHubProperties properties = new GitHubProperties();
+        properties.getCache().setDirectory(directory.toString());
+        GitHubResponseCache.CachedResponse response = new GitHubResponseCache.CachedResponse(
+                "/repos/team/project/commits?page=1", "\"abc\"", null, null, "[]");
+        new GitHubResponseCache(properties, meterRegistry, Runnable::run).put(response);
+
+        GitHubResponseCache restarted = new GitHubResponseCache(properties, new SimpleMeterRegistry(), Runnable::run);
+
+        assertEquals(response, restarted.get("/repos/team/project/commits?page=1"));
+    }
+
+    @Test
+    void repositoryPath_ShouldRejectUrlsWithoutOwnerAndRepo() {
+        assertEquals("/repos/team/project", GitHubClient.repositoryPath("https://github.com/team/project/tree/main"));
+        assertThrows(IllegalArgumentException.class, () -> GitHubClient.repositoryPath("https://github.com/team"));
+    }
+
+    private void commits(HttpExchange exchange) throws IOException {
+        String query = exchange.getRequestURI().getRawQuery();
+        String body;
+        if (query.startsWith("per_page=1&")) {
+            // Último commit posterior a la ventana
+            body = "[" + commit("late", "2025-04-02T10:00:00Z") + "]";
+        } else {
+            String page = query.replaceAll(".*&page=(\\d+).*", "$1");
+            pageQueries.put(page, query);
+            String base = "http://localhost:" + stubServer.getAddress().getPort() + "/repos/team/project/commits";
+            body = switch (page) {
+                case "1" -> {
+                    exchange.getResponseHeaders().add("Link", "<" + base + "?per_page=2&page=2>; rel=\"next\", <"
+                            + base + "?per_page=2&page=3>; rel=\"last\"");
+                    yield "[" + commit("a1", "2025-03-09T12:00:00Z") + ","
+                            + commit("a2", "2025-03-08T12:00:00Z") + "]";
+                }
+                case "2" -> "[" + commit("b1", "2025-03-07T12:00:00Z") + ","
+                        + commit("b2", "2025-03-06T12:00:00Z") + "]";
+                default -> "[" + commit("c1", "2025-03-05T12:00:00Z") + "]";
+            };
+        }
+        String etag = "\"" + Integer.toHexString(body.hashCode()) + "\"";
+        if (etag.equals(exchange.getRequestHeaders().getFirst("If-None-Match"))) {
+            notModified.incrementAndGet();
+            exchange.sendResponseHeaders(304, -1);
+            exchange.close();
+            return;
+        }
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("ETag", etag);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+
+    private static String commit(String sha, String date) {
+        return "{\"sha\":\"" + sha + "\",\"commit\":{\"message\":\"msg " + sha + "\","
+                + "\"author\":{\"name\":\"Ana\",\"email\":\"ana@example.com\",\"date\":\"" + date + "\"},"
+                + "\"committer\":{\"name\":\"Ana\",\"email\":\"ana@example.com\",\"date\":\"" + date + "\"}}}";
+    }
+}
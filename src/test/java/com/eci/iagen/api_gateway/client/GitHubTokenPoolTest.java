@@ -0,0 +1,78 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicReference;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.GitHubProperties;
+import com.eci.iagen.api_gateway.resilience.DownstreamUnavailableException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GitHubTokenPoolTest {
+
+    private final AtomicReference<Instant> now = new AtomicReference<>(Instant.ofEpochSecond(1_000_000));
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void acquire_ShouldUseTokenWithMostRemainingQuota() {
+        GitHubTokenPool pool = pool(Duration.ofMinutes(10), "first", "second");
+        GitHubTokenPool.Token first = pool.acquire().join();
+        pool.onResponse(first, rateLimit(3, 1_003_600));
+
+        assertEquals("second", pool.acquire().join().getValue());
+        assertEquals(3.0, meterRegistry.get("gateway.github.rate.limit.remaining").tag("token", "token-1")
+                .gauge().value());
+    }
+
+    @Test
+    void acquire_ShouldWaitForReset_WhenAllTokensAreExhausted() {
+        GitHubTokenPool pool = pool(Duration.ofMinutes(10), "only");
+        GitHubTokenPool.Token token = pool.acquire().join();
+        pool.onResponse(token, rateLimit(0, 1_000_001));
+
+        CompletableFuture<GitHubTokenPool.Token> waiting = pool.acquire();
+        assertFalse(waiting.isDone());
+        now.set(Instant.ofEpochSecond(1_000_001));
+
+        assertEquals("only", waiting.join().getValue());
+        assertEquals(1.0, meterRegistry.counter("gateway.github.rate.limit.waits").count());
+    }
+
+    @Test
+    void acquire_ShouldFail_WhenResetIsBeyondMaxWait() {
+        GitHubTokenPool pool = pool(Duration.ofMinutes(1), "only");
+        pool.onResponse(pool.acquire().join(), rateLimit(0, 1_003_600));
+
+        ExecutionException error = assertThrows(ExecutionException.class, () -> pool.acquire().get());
+        assertInstanceOf(DownstreamUnavailableException.class, error.getCause());
+        assertTrue(((DownstreamUnavailableException) error.getCause()).getRetryAfterSeconds() >= 3600);
+    }
+
+    private GitHubTokenPool pool(Duration maxWait, String... tokens) {
+        GitHubProperties properties = new GitHubProperties();
+        properties.setTokens(List.of(tokens));
+        properties.getRateLimit().setMaxWait(maxWait);
+        return new GitHubTokenPool(properties, meterRegistry, now::get);
+    }
+
+    private static HttpHeaders rateLimit(int remaining, long reset) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(GitHubTokenPool.LIMIT_HEADER, "5000");
+        headers.add(GitHubTokenPool.REMAINING_HEADER, String.valueOf(remaining));
+        headers.add(GitHubTokenPool.RESET_HEADER, String.valueOf(reset));
+        return headers;
+    }
+}
@@ -0,0 +1,128 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.eclipse.jgit.api.Git;
+import org.eclipse.jgit.lib.PersonIdent;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.util.unit.DataSize;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.GitHubProperties;
+import com.eci.iagen.api_gateway.dto.CommitDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class GitRepositoryMirrorTest {
+
+    @TempDir
+    Path temp;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    @Test
+    void commits_ShouldCloneOnce_ThenFetchIncrementally() throws Exception {
+        Path origin = temp.resolve("origin");
+        try (Git git = Git.init().setDirectory(origin.toFile()).setInitialBranch("main").call()) {
+            commit(git, "before window", "2025-02-20T10:00:00Z");
+            commit(git, "first", "2025-03-02T10:00:00Z");
+            commit(git, "second", "2025-03-05T10:00:00Z");
+            GitRepositoryMirror mirror = mirror(DataSize.ofGigabytes(1));
+            String url = origin.toUri().toString();
+            LocalDateTime since = LocalDateTime.of(2025, 3, 1, 0, 0);
+            LocalDateTime until = LocalDateTime.of(2025, 3, 10, 0, 0);
+
+            assertEquals(List.of("second", "first"), messages(mirror.commits(url, since, until)));
+
+            commit(git, "third", "2025-03-08T10:00:00Z");
+            commit(git, "late", "2025-03-20T10:00:00Z");
+            commit(git, "latest", "2025-03-21T10:00:00Z");
+            List<CommitDTO> commits = mirror.commits(url, since, until);
+
+            assertEquals(List.of("third", "second", "first", "latest"), messages(commits));
+            assertEquals(LocalDateTime.of(2025, 3, 8, 10, 0), commits.get(0).getDate());
+            assertEquals("Ana", commits.get(0).getAuthorName());
+            assertEquals(1.0, meterRegistry.counter("gateway.github.mirror.syncs", "result", "clone").count());
+            assertEquals(1.0, meterRegistry.counter("gateway.github.mirror.syncs", "result", "fetch").count());
+        }
+    }
+
+    @Test
+    void commits_ShouldEvictLeastRecentlyUsedMirrors_WhenOverDiskBudget() throws Exception {
+        GitRepositoryMirror mirror = mirror(DataSize.ofBytes(1));
+        for (String name : List.of("one", "two")) {
+            try (Git git = Git.init().setDirectory(temp.resolve(name).toFile()).call()) {
+                commit(git, name, "2025-03-02T10:00:00Z");
+            }
+            mirror.commits(temp.resolve(name).toUri().toString(), null, null);
+        }
+
+        try (var mirrors = Files.list(temp.resolve("mirrors"))) {
+            assertEquals(1, mirrors.count());
+        }
+        assertEquals(1.0, meterRegistry.counter("gateway.github.mirror.syncs", "result", "evicted").count());
+    }
+
+    @Test
+    void cloneUrl_ShouldNormalizeGitHubUrls_AndRejectLocalUrlsByDefault() {
+        GitRepositoryMirror mirror = mirror(DataSize.ofGigabytes(1));
+
+        assertEquals("https://github.com/team/project.git",
+                mirror.cloneUrl("https://github.com/team/project/tree/main"));
+        assertTrue(mirror.cloneUrl("file:///srv/repos/project").startsWith("file:"));
+
+        GitHubProperties production = new GitHubProperties();
+        production.getMirror().setEnabled(false);
+        GitRepositoryMirror productionMirror = new GitRepositoryMirror(production,
+                new GitHubTokenPool(production, meterRegistry), meterRegistry, Runnable::run);
+        assertThrows(IllegalArgumentException.class, () -> productionMirror.cloneUrl("file:///etc/project"));
+        assertThrows(IllegalArgumentException.class,
+                () -> productionMirror.cloneUrl("https://gitlab.example.com/team/project"));
+    }
+
+    @Test
+    void commitsAsync_ShouldFail_WhenMirrorQueueIsFull() {
+        GitHubProperties properties = new GitHubProperties();
+        properties.getMirror().setDirectory(temp.resolve("mirrors").toString());
+        GitRepositoryMirror mirror = new GitRepositoryMirror(properties, new GitHubTokenPool(properties, meterRegistry),
+                meterRegistry, task -> {
+                    throw new RejectedExecutionException("full");
+                });
+
+        CompletionException failed = assertThrows(CompletionException.class,
+                () -> mirror.commitsAsync("https://github.com/team/project", null, null).join());
+        assertTrue(failed.getCause() instanceof IllegalStateException);
+        assertEquals(1.0, meterRegistry.counter("gateway.github.mirror.syncs", "result", "rejected").count());
+    }
+
+    private GitRepositoryMirror mirror(DataSize maxDiskSize) {
+        GitHubProperties properties = new GitHubProperties();
+        properties.getMirror().setDirectory(temp.resolve("mirrors").toString());
+        properties.getMirror().setFetchInterval(Duration.ZERO);
+        properties.getMirror().setMaxDiskSize(maxDiskSize);
+        properties.getMirror().setAllowLocalUrls(true);
+        return new GitRepositoryMirror(properties, new GitHubTokenPool(properties, meterRegistry), meterRegistry,
+                Runnable::run);
+    }
+
+    private static void commit(Git git, String message, String date) throws Exception {
+        PersonIdent ident = new PersonIdent("Ana", "ana@example.com", Instant.parse(date), ZoneOffset.UTC);
+        git.commit().setMessage(message).setAllowEmpty(true).setAuthor(ident).setCommitter(ident).call();
+    }
+
+    private static List<String> messages(List<CommitDTO> commits) {
+        return commits.stream().map(CommitDTO::getMessage).toList();
+    }
+}
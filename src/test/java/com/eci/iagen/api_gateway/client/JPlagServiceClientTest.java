@@ -0,0 +1,194 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+import com.eci.iagen.api_gateway.config.HttpClientConfig;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealthRegistry;
+import com.eci.iagen.api_gateway.resilience.LoadBalancerRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compara una detección de 200 entregas en una sola llamada con la misma
+ * repartida en bloques entre 3 instancias de un stub de JPlag que tarda 50 µs
+ * por par comparado
+ */
+@Slf4j
+class JPlagServiceClientTest {
+
+    private static final int SUBMISSIONS = 200;
+    private static final int INSTANCES = 3;
+    private static final long STUB_NANOS_PER_PAIR = 50_000;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final List<HttpServer> stubServers = new ArrayList<>();
+    private final ExecutorService stubExecutor = Executors.newFixedThreadPool(12);
+    private final List<Integer> requestSizes = new CopyOnWriteArrayList<>();
+    private final Map<Integer, AtomicInteger> requestsPerInstance = new ConcurrentHashMap<>();
+    private volatile boolean omitSubmissionIds;
+    private CloseableHttpClient httpClient;
+    private JPlagServiceClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        DownstreamProperties properties = new DownstreamProperties();
+        DownstreamProperties.Service service = properties.service(Downstream.JPLAG);
+        for (int instance = 0; instance < INSTANCES; instance++) {
+            HttpServer stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+            int port = instance;
+            stubServer.createContext("/api/plagiarism/analyze", exchange -> analyze(exchange, port));
+            stubServer.setExecutor(stubExecutor);
+            stubServer.start();
+            stubServers.add(stubServer);
+            service.getInstances().add("http://localhost:" + stubServer.getAddress().getPort());
+        }
+        httpClient = new HttpClientConfig().downstreamHttpClient(properties);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoadBalancerRegistry loadBalancers = new LoadBalancerRegistry(properties, meterRegistry);
+        DownstreamHealthRegistry healthRegistry = new DownstreamHealthRegistry(properties, httpClient,
+                loadBalancers, meterRegistry);
+        DownstreamGuard guard = new DownstreamGuard(properties, healthRegistry, loadBalancers, meterRegistry);
+        WebClient webClient = WebClient.builder()
+                .codecs(codecs -> codecs.defaultCodecs().maxInMemorySize(16 * 1024 * 1024))
+                .build();
+        client = new JPlagServiceClient(new RestTemplate(), webClient, guard, healthRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        stubServers.forEach(stubServer -> stubServer.stop(0));
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void detectPlagiarismSharded_ShouldMatchSingleCall_WithoutDuplicatePairs_AndFaster() {
+        Map<String, Object> request = new HashMap<>();
+        request.put("assignmentId", 5L);
+        request.put("assignmentTitle", "Cross-semester");
+        request.put("submissions", LongStream.rangeClosed(1, SUBMISSIONS)
+                .mapToObj(id -> Map.of("submissionId", id, "repositoryUrl", "https://github.com/team/project-" + id))
+                .toList());
+
+        long singleStart = System.nanoTime();
+        List<?> single = comparisons(client.detectPlagiarismNonBlocking(request).join());
+        long singleMillis = (System.nanoTime() - singleStart) / 1_000_000;
+        requestSizes.clear();
+        requestsPerInstance.clear();
+
+        List<List<Integer>> progress = new CopyOnWriteArrayList<>();
+        long shardedStart = System.nanoTime();
+        List<?> sharded = comparisons(client.detectPlagiarismShardedNonBlocking(request, 50, 6,
+                (completed, total) -> progress.add(List.of(completed, total))).join());
+        long shardedMillis = (System.nanoTime() - shardedStart) / 1_000_000;
+
+        log.info("JPlag, {} submissions: single call {} ms, 6 block pairs over {} instances {} ms",
+                SUBMISSIONS, singleMillis, INSTANCES, shardedMillis);
+        // 4 bloques de 50: 6 pares de bloques de 100 entregas
+        assertEquals(List.of(100, 100, 100, 100, 100, 100), requestSizes);
+        assertTrue(requestsPerInstance.size() > 1, "instances used: " + requestsPerInstance.keySet());
+        assertEquals(List.of(0, 6), progress.get(0));
+        assertEquals(7, progress.size());
+        assertTrue(progress.contains(List.of(6, 6)));
+        assertEquals(SUBMISSIONS * (SUBMISSIONS - 1) / 2, sharded.size());
+        assertEquals(pairs(single), pairs(sharded));
+        assertEquals(0.99, ((Map<?, ?>) sharded.get(0)).get("similarity"));
+        assertTrue(shardedMillis < singleMillis, "sharded " + shardedMillis + " ms, single " + singleMillis + " ms");
+    }
+
+    @Test
+    void detectPlagiarismSharded_ShouldFail_WhenComparisonsLackSubmissionIds() {
+        omitSubmissionIds = true;
+        Map<String, Object> request = new HashMap<>();
+        request.put("assignmentId", 5L);
+        request.put("submissions", LongStream.rangeClosed(1, 20)
+                .mapToObj(id -> Map.of("submissionId", id, "repositoryUrl", "https://github.com/team/project-" + id))
+                .toList());
+
+        CompletionException failure = assertThrows(CompletionException.class,
+                () -> client.detectPlagiarismShardedNonBlocking(request, 5, 2, (completed, total) -> {
+                }).join());
+        assertInstanceOf(IllegalStateException.class, failure.getCause());
+    }
+
+    private static List<?> comparisons(ResponseEntity<Object> response) {
+        return (List<?>) ((Map<?, ?>) response.getBody()).get("comparisons");
+    }
+
+    private static Set<List<Long>> pairs(List<?> comparisons) {
+        Set<List<Long>> pairs = new HashSet<>();
+        for (Object item : comparisons) {
+            Map<?, ?> comparison = (Map<?, ?>) item;
+            pairs.add(List.of(JPlagServiceClient.submissionId(comparison.get(JPlagServiceClient.FIRST_SUBMISSION)),
+                    JPlagServiceClient.submissionId(comparison.get(JPlagServiceClient.SECOND_SUBMISSION))));
+        }
+        return pairs;
+    }
+
+    // Compara todos los pares de la petición; la similitud depende solo del par
+    private void analyze(HttpExchange exchange, int instance) throws IOException {
+        Map<?, ?> request = objectMapper.readValue(exchange.getRequestBody(), Map.class);
+        List<?> submissions = (List<?>) request.get("submissions");
+        requestSizes.add(submissions.size());
+        requestsPerInstance.computeIfAbsent(instance, ignored -> new AtomicInteger()).incrementAndGet();
+
+        List<Map<String, Object>> comparisons = new ArrayList<>();
+        for (int i = 0; i < submissions.size(); i++) {
+            for (int j = i + 1; j < submissions.size(); j++) {
+                long first = ((Number) ((Map<?, ?>) submissions.get(i)).get("submissionId")).longValue();
+                long second = ((Number) ((Map<?, ?>) submissions.get(j)).get("submissionId")).longValue();
+                comparisons.add(omitSubmissionIds
+                        ? Map.of("firstSubmission", "team-" + first, "secondSubmission", "team-" + second,
+                                "similarity", (first * second % 100) / 100.0)
+                        : Map.of(JPlagServiceClient.FIRST_SUBMISSION, first,
+                                JPlagServiceClient.SECOND_SUBMISSION, second,
+                                "similarity", (first * second % 100) / 100.0));
+            }
+        }
+        try {
+            Thread.sleep(comparisons.size() * STUB_NANOS_PER_PAIR / 1_000_000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(Map.of("comparisons", comparisons));
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream body = exchange.getResponseBody()) {
+            body.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,173 @@
+package com.eci.iagen.api_gateway.client;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.net.InetSocketAddress;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+import com.eci.iagen.api_gateway.config.HttpClientConfig;
+import com.eci.iagen.api_gateway.dto.request.ScheduleComplianceBatchRequest;
+import com.eci.iagen.api_gateway.dto.request.ScheduleComplianceRequest;
+import com.eci.iagen.api_gateway.dto.response.ScheduleComplianceBatchResponse;
+import com.eci.iagen.api_gateway.dto.response.ScheduleComplianceResponse;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealthRegistry;
+import com.eci.iagen.api_gateway.resilience.LoadBalancerRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+
+/**
+ * Compara 500 evaluaciones individuales con las mismas enviadas por lotes
+ * contra un stub del servicio que tarda 20 ms por petición
+ */
+@Slf4j
+class ScheduleComplianceClientTest {
+
+    private static final int SUBMISSIONS = 500;
+    private static final long STUB_LATENCY_MILLIS = 20;
+    private static final LocalDateTime DUE_DATE = LocalDateTime.of(2025, 3, 10, 23, 59);
+
+    private final ObjectMapper objectMapper = new ObjectMapper().findAndRegisterModules();
+    private final AtomicInteger requests = new AtomicInteger();
+    private final ExecutorService stubExecutor = Executors.newFixedThreadPool(20);
+    private HttpServer stubServer;
+    private CloseableHttpClient httpClient;
+    private ScheduleComplianceClient client;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/api/schedule-compliance/evaluate", this::evaluate);
+        stubServer.createContext("/api/schedule-compliance/evaluate/batch", this::evaluateBatch);
+        stubServer.setExecutor(stubExecutor);
+        stubServer.start();
+
+        DownstreamProperties properties = new DownstreamProperties();
+        DownstreamProperties.Service service = properties.service(Downstream.SCHEDULE_COMPLIANCE);
+        service.setUrl("http://localhost:" + stubServer.getAddress().getPort());
+        service.getBatch().setEnabled(true);
+        service.getBatch().setMaxSize(100);
+        httpClient = new HttpClientConfig().downstreamHttpClient(properties);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoadBalancerRegistry loadBalancers = new LoadBalancerRegistry(properties, meterRegistry);
+        DownstreamHealthRegistry healthRegistry = new DownstreamHealthRegistry(properties, httpClient,
+                loadBalancers, meterRegistry);
+        DownstreamGuard guard = new DownstreamGuard(properties, healthRegistry, loadBalancers, meterRegistry);
+        client = new ScheduleComplianceClient(new RestTemplate(), WebClient.builder().build(), guard,
+                healthRegistry, properties);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        stubServer.stop(0);
+        stubExecutor.shutdownNow();
+    }
+
+    @Test
+    void evaluateComplianceBatch_ShouldEvaluate500SubmissionsInFiveRequests_FasterThanOneByOne() {
+        long singleStart = System.nanoTime();
+        // Una petición por entrega, con tantas en curso como permite el bulkhead (20)
+        for (int from = 0; from < SUBMISSIONS; from += 20) {
+            List<CompletableFuture<ScheduleComplianceResponse>> wave = new ArrayList<>();
+            for (long id = from + 1; id <= from + 20; id++) {
+                wave.add(client.evaluateComplianceNonBlocking(new ScheduleComplianceRequest(
+                        "https://github.com/team/project-" + id, DUE_DATE, DUE_DATE, commits(id))));
+            }
+            wave.forEach(CompletableFuture::join);
+        }
+        long singleMillis = (System.nanoTime() - singleStart) / 1_000_000;
+        assertEquals(SUBMISSIONS, requests.getAndSet(0));
+
+        long batchStart = System.nanoTime();
+        List<ScheduleComplianceBatchResponse.Item> results = client.evaluateComplianceBatch(
+                LongStream.rangeClosed(1, SUBMISSIONS)
+                        .mapToObj(id -> new ScheduleComplianceBatchRequest.Item(id,
+                                "https://github.com/team/project-" + id, DUE_DATE, DUE_DATE, commits(id)))
+                        .toList())
+                .join();
+        long batchMillis = (System.nanoTime() - batchStart) / 1_000_000;
+
+        log.info("Schedule compliance, {} submissions: one by one {} ms ({} req/s), batched {} ms ({} req/s)",
+                SUBMISSIONS, singleMillis, SUBMISSIONS * 1000 / Math.max(1, singleMillis), batchMillis,
+                SUBMISSIONS * 1000 / Math.max(1, batchMillis));
+        assertEquals(5, requests.get());
+        assertEquals(SUBMISSIONS, results.size());
+        for (int i = 0; i < SUBMISSIONS; i++) {
+            assertEquals(i + 1L, results.get(i).getSubmissionId());
+        }
+        assertEquals(new BigDecimal("4.0"), results.get(6).getResult().getPenalizedScore());
+        assertNull(results.get(6).getError());
+        assertEquals("No result returned", results.get(SUBMISSIONS - 1).getError());
+        assertTrue(batchMillis < singleMillis, "batched " + batchMillis + " ms, one by one " + singleMillis + " ms");
+    }
+
+    private static List<ScheduleComplianceRequest.CommitInfo> commits(long id) {
+        return List.of(new ScheduleComplianceRequest.CommitInfo("sha-" + id, null, DUE_DATE.minusDays(id % 3)));
+    }
+
+    private void evaluate(HttpExchange exchange) throws IOException {
+        ScheduleComplianceRequest request = objectMapper.readValue(exchange.getRequestBody(),
+                ScheduleComplianceRequest.class);
+        respond(exchange, compliance(request.getCommits().size()));
+    }
+
+    // El stub no devuelve resultado para la última entrega
+    private void evaluateBatch(HttpExchange exchange) throws IOException {
+        ScheduleComplianceBatchRequest request = objectMapper.readValue(exchange.getRequestBody(),
+                ScheduleComplianceBatchRequest.class);
+        List<ScheduleComplianceBatchResponse.Item> results = new ArrayList<>();
+        for (ScheduleComplianceBatchRequest.Item item : request.getSubmissions()) {
+            if (item.getSubmissionId() != SUBMISSIONS) {
+                results.add(0, new ScheduleComplianceBatchResponse.Item(item.getSubmissionId(),
+                        compliance(item.getCommits().size()), null));
+            }
+        }
+        respond(exchange, Map.of("results", results));
+    }
+
+    private static ScheduleComplianceResponse compliance(int commits) {
+        return new ScheduleComplianceResponse(new BigDecimal("4.0"), new BigDecimal("5.0"), 0, BigDecimal.ZERO,
+                false, "{\"commits\":" + commits + "}", DUE_DATE, List.of());
+    }
+
+    private void respond(HttpExchange exchange, Object body) throws IOException {
+        requests.incrementAndGet();
+        try {
+            Thread.sleep(STUB_LATENCY_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        byte[] bytes = objectMapper.writeValueAsBytes(body);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.autoconfigure.AutoConfigurations;
+import org.springframework.boot.autoconfigure.task.TaskExecutionAutoConfiguration;
+import org.springframework.boot.test.context.ConfigDataApplicationContextInitializer;
+import org.springframework.boot.test.context.runner.ApplicationContextRunner;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Ejecutores tal y como los configura application.properties, en modo de hilos
+ * de plataforma y de hilos virtuales
+ */
+class AsyncConfigTest {
+
+    private final ApplicationContextRunner contextRunner = new ApplicationContextRunner()
+            .withInitializer(new ConfigDataApplicationContextInitializer())
+            .withConfiguration(AutoConfigurations.of(TaskExecutionAutoConfiguration.class))
+            .withUserConfiguration(AsyncConfig.class, ChatConfig.class)
+            .withBean(GitHubProperties.class);
+
+    @Test
+    void platformMode_ShouldSizeBlockingPoolFromApplicationProperties() {
+        contextRunner.run(context -> {
+            ThreadPoolTaskExecutor blocking = context.getBean("blockingTaskExecutor", ThreadPoolTaskExecutor.class);
+            ThreadPoolTaskExecutor chat = context.getBean("chatTaskExecutor", ThreadPoolTaskExecutor.class);
+
+            assertEquals(20, blocking.getCorePoolSize());
+            assertEquals(20, blocking.getMaxPoolSize());
+            assertEquals(8, chat.getMaxPoolSize());
+            assertEquals(100, chat.getQueueCapacity());
+        });
+    }
+
+    @Test
+    void chatTaskExecutor_ShouldNotStarveBlockingTaskExecutor_WhenAllChatThreadsWaitOnTheLlm() {
+        contextRunner.run(context -> {
+            ThreadPoolTaskExecutor chat = context.getBean("chatTaskExecutor", ThreadPoolTaskExecutor.class);
+            AsyncTaskExecutor blocking = context.getBean("blockingTaskExecutor", AsyncTaskExecutor.class);
+            CountDownLatch llmResponds = new CountDownLatch(1);
+            try {
+                // Llena los hilos y la cola del chat con llamadas que no terminan
+                for (int i = 0; i < chat.getMaxPoolSize() + chat.getQueueCapacity(); i++) {
+                    chat.execute(() -> await(llmResponds));
+                }
+
+                assertThrows(TaskRejectedException.class, () -> chat.execute(() -> await(llmResponds)));
+                assertEquals("done", CompletableFuture.supplyAsync(() -> "done", blocking).get(5, TimeUnit.SECONDS));
+            } finally {
+                llmResponds.countDown();
+            }
+        });
+    }
+
+    @Test
+    void platformMode_ShouldRunAtMostPoolSizeBlockingTasksAtOnce() {
+        contextRunner.run(context -> {
+            ThreadPoolTaskExecutor blocking = context.getBean("blockingTaskExecutor", ThreadPoolTaskExecutor.class);
+
+            holdTasks(blocking, 50, 20, () -> {
+                assertEquals(20, blocking.getActiveCount());
+                assertEquals(30, blocking.getQueueSize());
+            });
+        });
+    }
+
+    @Test
+    void virtualMode_ShouldRunEveryBlockingTaskOnItsOwnVirtualThread() {
+        contextRunner.withPropertyValues("spring.threads.virtual.enabled=true").run(context -> {
+            AsyncTaskExecutor blocking = context.getBean("blockingTaskExecutor", AsyncTaskExecutor.class);
+
+            assertTrue(blocking.submit(() -> Thread.currentThread().isVirtual()).get(5, TimeUnit.SECONDS));
+            // Todas empiezan a la vez aunque superen el tamaño del pool de plataforma
+            holdTasks(blocking, 500, 500, () -> { });
+            // El chat sigue acotado también con hilos virtuales
+            assertInstanceOf(ThreadPoolTaskExecutor.class, context.getBean("chatTaskExecutor"));
+        });
+    }
+
+    // Lanza tasks tareas que esperan, y cuando started han empezado comprueba whileHeld antes de soltarlas
+    private static void holdTasks(AsyncTaskExecutor executor, int tasks, int started, Runnable whileHeld)
+            throws Exception {
+        CountDownLatch running = new CountDownLatch(started);
+        CountDownLatch release = new CountDownLatch(1);
+        List<CompletableFuture<Void>> submitted = new ArrayList<>();
+        try {
+            for (int i = 0; i < tasks; i++) {
+                submitted.add(CompletableFuture.runAsync(() -> {
+                    running.countDown();
+                    await(release);
+                }, executor));
+            }
+            assertTrue(running.await(10, TimeUnit.SECONDS), "only " + (started - running.getCount()) + " started");
+            whileHeld.run();
+        } finally {
+            release.countDown();
+            CompletableFuture.allOf(submitted.toArray(CompletableFuture[]::new)).get(10, TimeUnit.SECONDS);
+        }
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.net.URI;
+import java.time.Duration;
+
+import org.apache.hc.core5.http.HttpHost;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+
+class DownstreamRoutesTest {
+
+    @Test
+    void resolve_ShouldUseLongestBaseUrl_WhenServicesShareHostAndPort() {
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.service(Downstream.JPLAG).setUrl("http://ingress:8080");
+        properties.service(Downstream.CODE_ANALYSIS).setUrl("http://ingress:8080/code-analysis/");
+        properties.service(Downstream.TEAM_FEEDBACK).setUrl("http://ingress:8080/code-analysis/feedback");
+
+        DownstreamRoutes routes = new DownstreamRoutes(properties);
+
+        assertEquals(Downstream.JPLAG, routes.resolve(URI.create("http://ingress:8080/api/plagiarism/analyze")));
+        assertEquals(Downstream.CODE_ANALYSIS, routes.resolve(URI.create("http://ingress:8080/code-analysis/llm")));
+        assertEquals(Downstream.TEAM_FEEDBACK,
+                routes.resolve(URI.create("http://ingress:8080/code-analysis/feedback/team")));
+        // Solo coincide por segmentos completos de la ruta
+        assertEquals(Downstream.JPLAG, routes.resolve(URI.create("http://ingress:8080/code-analysis-v2/llm")));
+        assertNull(routes.resolve(URI.create("http://other:8080/code-analysis/llm")));
+    }
+
+    @Test
+    void constructor_ShouldReject_ServicesSharingHostWithDifferentConnectionSettings() {
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.service(Downstream.JPLAG).setUrl("http://ingress:8080/jplag");
+        properties.service(Downstream.JPLAG).setReadTimeout(Duration.ofMinutes(5));
+        properties.service(Downstream.CODE_ANALYSIS).setUrl("http://ingress:8080/code-analysis");
+
+        assertThrows(IllegalStateException.class, () -> new DownstreamRoutes(properties));
+    }
+
+    @Test
+    void resolveHost_ShouldReturnServiceWithSharedConnectionSettings() {
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.service(Downstream.JPLAG).setUrl("http://ingress:8080/jplag");
+        properties.service(Downstream.CODE_ANALYSIS).setUrl("http://ingress:8080/code-analysis");
+
+        DownstreamRoutes routes = new DownstreamRoutes(properties);
+
+        assertEquals(Downstream.JPLAG, routes.resolve(new HttpHost("http", "ingress", 8080)));
+    }
+}
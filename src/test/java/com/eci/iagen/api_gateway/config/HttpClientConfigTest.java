@@ -0,0 +1,233 @@
+package com.eci.iagen.api_gateway.config;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.SocketTimeoutException;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.apache.hc.core5.http.ConnectionRequestTimeoutException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+import org.springframework.web.reactive.function.client.WebClientRequestException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTimeoutPreemptively;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+import com.eci.iagen.api_gateway.monitoring.OutboundCallMetrics;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import io.netty.handler.timeout.ReadTimeoutException;
+import reactor.netty.internal.shaded.reactor.pool.PoolAcquireTimeoutException;
+import reactor.netty.resources.ConnectionProvider;
+
+class HttpClientConfigTest {
+
+    // Muy por debajo de read-timeout (30 s por defecto): solo se cumple si salta el response-timeout
+    private static final Duration TIMEOUT_BOUND = Duration.ofSeconds(5);
+
+    private HttpServer stubServer;
+    private final ExecutorService stubExecutor = Executors.newCachedThreadPool();
+    private final Set<Integer> clientPorts = ConcurrentHashMap.newKeySet();
+    private final AtomicInteger heldRequests = new AtomicInteger();
+    private final CountDownLatch releaseHeld = new CountDownLatch(1);
+    private ServerSocket silentServer;
+    private CloseableHttpClient httpClient;
+    private RestTemplate restTemplate;
+    private ConnectionProvider connectionProvider;
+    private WebClient webClient;
+    private String baseUrl;
+    private String silentUrl;
+    private SimpleMeterRegistry meterRegistry;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/health", exchange -> respond(exchange, "{\"status\":\"UP\"}"));
+        // Retiene la respuesta (y su conexión) hasta que el test la libera
+        stubServer.createContext("/held", exchange -> {
+            heldRequests.incrementAndGet();
+            try {
+                releaseHeld.await();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+            respond(exchange, "{}");
+        });
+        stubServer.setExecutor(stubExecutor);
+        stubServer.start();
+        baseUrl = "http://localhost:" + stubServer.getAddress().getPort();
+        // Acepta conexiones (en la cola del sistema) pero nunca responde
+        silentServer = new ServerSocket(0, 50, InetAddress.getLoopbackAddress());
+        silentUrl = "http://127.0.0.1:" + silentServer.getLocalPort();
+
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.getPool().setConnectionRequestTimeout(Duration.ofMillis(200));
+        DownstreamProperties.Service service = properties.service(Downstream.CODE_ANALYSIS);
+        service.setUrl(baseUrl);
+        service.setMaxConnections(2);
+        DownstreamProperties.Service silentService = properties.service(Downstream.SCHEDULE_COMPLIANCE);
+        silentService.setUrl(silentUrl);
+        silentService.setResponseTimeout(Duration.ofMillis(300));
+
+        meterRegistry = new SimpleMeterRegistry();
+        OutboundCallMetrics metrics = new OutboundCallMetrics(meterRegistry, properties);
+        HttpClientConfig config = new HttpClientConfig();
+        httpClient = config.downstreamHttpClient(properties);
+        restTemplate = config.restTemplate(httpClient, properties, metrics);
+        connectionProvider = config.downstreamConnectionProvider(properties);
+        webClient = config.downstreamWebClient(WebClient.builder(), connectionProvider, properties, metrics);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        connectionProvider.dispose();
+        releaseHeld.countDown();
+        stubServer.stop(0);
+        stubExecutor.shutdownNow();
+        silentServer.close();
+    }
+
+    @Test
+    void restTemplate_ShouldReuseKeepAliveConnections() {
+        for (int i = 0; i < 20; i++) {
+            restTemplate.getForEntity(baseUrl + "/health", String.class);
+        }
+
+        assertEquals(1, clientPorts.size());
+    }
+
+    @Test
+    void restTemplate_ShouldApplyDownstreamResponseTimeout_WhenServiceNeverAnswers() {
+        ResourceAccessException error = assertTimeoutPreemptively(TIMEOUT_BOUND,
+                () -> assertThrows(ResourceAccessException.class,
+                        () -> restTemplate.getForEntity(silentUrl + "/status", String.class)));
+
+        assertInstanceOf(SocketTimeoutException.class, error.getCause());
+    }
+
+    @Test
+    void restTemplate_ShouldLimitConnectionsPerRoute() throws Exception {
+        List<CompletableFuture<?>> held = holdConnections(
+                () -> restTemplate.getForEntity(baseUrl + "/held", String.class));
+
+        ResourceAccessException error = assertThrows(ResourceAccessException.class,
+                () -> restTemplate.getForEntity(baseUrl + "/health", String.class));
+
+        assertInstanceOf(ConnectionRequestTimeoutException.class, error.getCause());
+        assertEquals(2, heldRequests.get());
+        releaseHeld.countDown();
+        CompletableFuture.allOf(held.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertEquals(200, restTemplate.getForEntity(baseUrl + "/health", String.class).getStatusCode().value());
+    }
+
+    @Test
+    void webClient_ShouldReuseKeepAliveConnections() {
+        for (int i = 0; i < 20; i++) {
+            webClient.get().uri(baseUrl + "/health").retrieve().bodyToMono(String.class).block();
+        }
+
+        // La conexión vuelve al pool de forma asíncrona, así que puede abrirse una segunda
+        assertTrue(clientPorts.size() <= 2);
+    }
+
+    @Test
+    void webClient_ShouldApplyDownstreamResponseTimeout_WhenServiceNeverAnswers() {
+        WebClientRequestException error = assertTimeoutPreemptively(TIMEOUT_BOUND,
+                () -> assertThrows(WebClientRequestException.class,
+                        () -> webClient.get().uri(silentUrl + "/status").retrieve().bodyToMono(String.class)
+                                .block()));
+
+        assertInstanceOf(ReadTimeoutException.class, error.getCause());
+    }
+
+    @Test
+    void webClient_ShouldLimitConnectionsPerRoute() throws Exception {
+        List<CompletableFuture<?>> held = holdConnections(
+                () -> webClient.get().uri(baseUrl + "/held").retrieve().bodyToMono(String.class).block());
+
+        WebClientRequestException error = assertThrows(WebClientRequestException.class,
+                () -> webClient.get().uri(baseUrl + "/health").retrieve().bodyToMono(String.class).block());
+
+        assertInstanceOf(PoolAcquireTimeoutException.class, error.getCause());
+        assertEquals(2, heldRequests.get());
+        releaseHeld.countDown();
+        CompletableFuture.allOf(held.toArray(CompletableFuture[]::new)).get(5, TimeUnit.SECONDS);
+        assertEquals("{\"status\":\"UP\"}",
+                webClient.get().uri(baseUrl + "/health").retrieve().bodyToMono(String.class).block());
+    }
+
+    @Test
+    void restTemplate_ShouldRecordLatencyAndSizesPerEndpoint() {
+        restTemplate.getForEntity(baseUrl + "/health/123", String.class);
+
+        Timer timer = meterRegistry.get("gateway.downstream.requests")
+                .tags("downstream", "code-analysis", "method", "GET", "endpoint", "/health/{id}", "status", "200")
+                .timer();
+        assertEquals(1, timer.count());
+        assertEquals(15, meterRegistry.get("gateway.downstream.response.size").summary().totalAmount());
+        assertEquals(0, meterRegistry.get("gateway.downstream.in.flight").gauge().value());
+    }
+
+    @Test
+    void webClient_ShouldRecordLatencyAndSizesPerEndpoint() {
+        webClient.post().uri(baseUrl + "/health").bodyValue("{\"a\":1}")
+                .retrieve().bodyToMono(String.class).block();
+
+        Timer timer = meterRegistry.get("gateway.downstream.requests")
+                .tags("downstream", "code-analysis", "method", "POST", "endpoint", "/health", "status", "200")
+                .timer();
+        assertEquals(1, timer.count());
+        assertEquals(7, meterRegistry.get("gateway.downstream.request.size").summary().totalAmount());
+        assertEquals(15, meterRegistry.get("gateway.downstream.response.size").summary().totalAmount());
+        assertEquals(0, meterRegistry.get("gateway.downstream.in.flight").gauge().value());
+    }
+
+    // Ocupa las max-connections (2) del servicio con llamadas que el stub retiene
+    private List<CompletableFuture<?>> holdConnections(Runnable call) throws InterruptedException {
+        List<CompletableFuture<?>> held = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            held.add(CompletableFuture.runAsync(call, stubExecutor));
+        }
+        while (heldRequests.get() < 2) {
+            Thread.sleep(10);
+        }
+        return held;
+    }
+
+    private void respond(HttpExchange exchange, String body) throws IOException {
+        clientPorts.add(exchange.getRemoteAddress().getPort());
+        byte[] bytes = body.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().add("Content-Type", "application/json");
+        exchange.sendResponseHeaders(200, bytes.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(bytes);
+        }
+    }
+}
@@ -1,82 +1,218 @@
 package com.eci.iagen.api_gateway.controller;
 
+import com.eci.iagen.api_gateway.client.Downstream;
 import com.eci.iagen.api_gateway.client.JPlagServiceClient;
+import com.eci.iagen.api_gateway.dto.PlagiarismJobDTO;
+import com.eci.iagen.api_gateway.resilience.DeadlineExceededException;
+import com.eci.iagen.api_gateway.resilience.DownstreamGuard;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealth;
+import com.eci.iagen.api_gateway.resilience.DownstreamHealthRegistry;
 import com.eci.iagen.api_gateway.service.AssignmentService;
+import com.eci.iagen.api_gateway.service.PlagiarismJobService;
+import com.eci.iagen.api_gateway.service.PlagiarismService;
 import com.eci.iagen.api_gateway.service.SubmissionService;
 import com.eci.iagen.api_gateway.service.TeamService;
 import com.eci.iagen.api_gateway.service.UserService;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
-import org.springframework.http.ResponseEntity;
+import org.springframework.test.context.bean.override.mockito.MockitoBean;
 import org.springframework.test.web.servlet.MockMvc;
-
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.reactive.function.client.WebClient;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
 @WebMvcTest(PlagiarismController.class)
+@Import(JPlagServiceClient.class)
 class PlagiarismControllerTest {
 
     @Autowired
     private MockMvc mockMvc;
 
-    @MockBean
-    private JPlagServiceClient jplagServiceClient;
+    // Cliente real: el health check debe leer del registro, sin llamar a JPlag
+    @MockitoBean
+    private DownstreamHealthRegistry healthRegistry;
+
+    @MockitoBean
+    private DownstreamGuard downstreamGuard;
+
+    @MockitoBean
+    private RestTemplate restTemplate;
 
-    @MockBean
+    @MockitoBean
+    private WebClient downstreamWebClient;
+
+    @MockitoBean
     private AssignmentService assignmentService;
 
-    @MockBean
+    @MockitoBean
     private SubmissionService submissionService;
 
-    @MockBean
+    @MockitoBean
     private TeamService teamService;
 
-    @MockBean
+    @MockitoBean
     private UserService userService;
 
-    @MockBean
-    private ObjectMapper objectMapper;
+    @MockitoBean
+    private PlagiarismService plagiarismService;
+
+    @MockitoBean
+    private PlagiarismJobService plagiarismJobService;
+
+    private final PlagiarismService.Detection detection =
+            new PlagiarismService.Detection(5L, 3, "1:a|2:b|3:c", Map.of(), Map.of(), null);
+
+    @Test
+    void detectPlagiarism_ReturnsAcceptedWithJobLocation() throws Exception {
+        when(plagiarismService.prepareDetection(5L)).thenReturn(detection);
+        when(plagiarismJobService.submit(detection)).thenReturn(job("job-1", "QUEUED", null));
+
+        mockMvc.perform(post("/api/plagiarism/detect/5"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/plagiarism/jobs/job-1"))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.assignmentId").value(5))
+                .andExpect(jsonPath("$.status").value("QUEUED"))
+                .andExpect(jsonPath("$.stage").value("WAITING"));
+    }
+
+    @Test
+    void detectPlagiarism_ReturnsBadRequest_WhenAssignmentCannotBeAnalyzed() throws Exception {
+        when(plagiarismService.prepareDetection(5L))
+                .thenThrow(new IllegalArgumentException("At least 2 submissions are required"));
+
+        mockMvc.perform(post("/api/plagiarism/detect/5"))
+                .andExpect(status().isBadRequest())
+                .andExpect(content().string("At least 2 submissions are required"));
+
+        verify(plagiarismJobService, never()).submit(any());
+    }
 
     @Test
-    void healthCheck_ReturnsSuccess() throws Exception {
-        // Arrange
-        when(jplagServiceClient.checkHealth())
-                .thenReturn(ResponseEntity.ok("{\"status\":\"UP\",\"service\":\"jplag-service\"}"));
+    void detectPlagiarism_ReturnsGatewayTimeout_WhenDeadlineExpires() throws Exception {
+        when(plagiarismService.prepareDetection(5L))
+                .thenThrow(new DeadlineExceededException("jplag", Duration.ofSeconds(30), null));
+
+        mockMvc.perform(post("/api/plagiarism/detect/5"))
+                .andExpect(status().isGatewayTimeout());
+
+        verify(plagiarismJobService, never()).submit(any());
+    }
+
+    @Test
+    void getCompactComparisons_ReturnsCurrentReport_WithoutNewDetection() throws Exception {
+        when(plagiarismService.findCurrentReport(5L))
+                .thenReturn(Optional.of(Map.of("reportId", 9, "comparisons", List.of())));
+
+        mockMvc.perform(get("/api/plagiarism/comparisons/5"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.reportId").value(9));
+
+        verify(plagiarismService, never()).prepareDetection(any());
+    }
+
+    @Test
+    void getCompactComparisons_SubmitsJob_WhenNoCurrentReport() throws Exception {
+        when(plagiarismService.findCurrentReport(5L)).thenReturn(Optional.empty());
+        when(plagiarismService.prepareDetection(5L)).thenReturn(detection);
+        when(plagiarismJobService.submit(detection)).thenReturn(job("job-2", "RUNNING", null));
+
+        mockMvc.perform(get("/api/plagiarism/comparisons/5"))
+                .andExpect(status().isAccepted())
+                .andExpect(header().string(HttpHeaders.LOCATION, "/api/plagiarism/jobs/job-2"))
+                .andExpect(jsonPath("$.status").value("RUNNING"));
+    }
+
+    @Test
+    void getPlagiarismJob_ReturnsJob() throws Exception {
+        when(plagiarismJobService.getJob("job-1")).thenReturn(Optional.of(job("job-1", "SUCCEEDED", 9L)));
+
+        mockMvc.perform(get("/api/plagiarism/jobs/job-1"))
+                .andExpect(status().isOk())
+                .andExpect(content().contentType(MediaType.APPLICATION_JSON))
+                .andExpect(jsonPath("$.id").value("job-1"))
+                .andExpect(jsonPath("$.status").value("SUCCEEDED"))
+                .andExpect(jsonPath("$.reportId").value(9));
+    }
+
+    @Test
+    void getPlagiarismJob_ReturnsNotFound_WhenJobIsUnknownOrExpired() throws Exception {
+        when(plagiarismJobService.getJob("missing")).thenReturn(Optional.empty());
+
+        mockMvc.perform(get("/api/plagiarism/jobs/missing"))
+                .andExpect(status().isNotFound());
+    }
+
+    @Test
+    void healthCheck_ReturnsLastRegisteredHealth_WhenJPlagIsUp() throws Exception {
+        when(healthRegistry.currentHealth(Downstream.JPLAG)).thenReturn(new DownstreamHealth(
+                DownstreamHealth.Status.UP, 12, Instant.now(), Map.of("status", "UP", "service", "jplag-service"),
+                null));
 
-        // Act & Assert
         mockMvc.perform(get("/api/plagiarism/health"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(content().json("{\"status\":\"UP\",\"service\":\"jplag-service\"}"));
+
+        verify(healthRegistry).currentHealth(Downstream.JPLAG);
+        verifyNoInteractions(restTemplate, downstreamWebClient);
     }
 
     @Test
-    void healthCheckCompat_ReturnsSuccess() throws Exception {
-        // Arrange
-        when(jplagServiceClient.checkHealth())
-                .thenReturn(ResponseEntity.ok("{\"status\":\"UP\",\"service\":\"jplag-service\"}"));
+    void healthCheckCompat_ReturnsLastRegisteredHealth_WhenJPlagIsUp() throws Exception {
+        when(healthRegistry.currentHealth(Downstream.JPLAG)).thenReturn(new DownstreamHealth(
+                DownstreamHealth.Status.UP, 12, Instant.now(), Map.of("status", "UP", "service", "jplag-service"),
+                null));
 
-        // Act & Assert
         mockMvc.perform(get("/api/plagiarism/jplag/health"))
                 .andExpect(status().isOk())
                 .andExpect(content().contentType(MediaType.APPLICATION_JSON))
                 .andExpect(content().json("{\"status\":\"UP\",\"service\":\"jplag-service\"}"));
+
+        verifyNoInteractions(restTemplate, downstreamWebClient);
     }
 
     @Test
-    void healthCheckCompat_HandlesServiceError() throws Exception {
-        // Arrange
-        when(jplagServiceClient.checkHealth())
-                .thenThrow(new RuntimeException("JPlag service connection failed"));
+    void healthCheckCompat_ReturnsDown_WhenLastHealthCheckFailed() throws Exception {
+        when(healthRegistry.currentHealth(Downstream.JPLAG)).thenReturn(new DownstreamHealth(
+                DownstreamHealth.Status.DOWN, 0, Instant.now(), Map.of(), "Connection refused"));
 
-        // Act & Assert
         mockMvc.perform(get("/api/plagiarism/jplag/health"))
                 .andExpect(status().isInternalServerError())
-                .andExpect(content().string("JPlag service is not available: JPlag service connection failed"));
+                .andExpect(jsonPath("$.status").value("DOWN"))
+                .andExpect(jsonPath("$.service").value("jplag-service"))
+                .andExpect(jsonPath("$.error")
+                        .value("JPlag service is not available: JPlag service is not available: Connection refused"));
+
+        verifyNoInteractions(restTemplate, downstreamWebClient);
+    }
+
+    private static PlagiarismJobDTO job(String id, String status, Long reportId) {
+        String stage = switch (status) {
+            case "QUEUED" -> "WAITING";
+            case "RUNNING" -> "ANALYZING";
+            default -> null;
+        };
+        return new PlagiarismJobDTO(id, 5L, 3, status, stage, null, null, LocalDateTime.now(), null, null,
+                reportId, null, null);
     }
 }
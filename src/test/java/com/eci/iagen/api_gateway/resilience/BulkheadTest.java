@@ -0,0 +1,79 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+class BulkheadTest {
+
+    private Bulkhead bulkhead;
+
+    @BeforeEach
+    void setUp() {
+        DownstreamProperties.Bulkhead settings = new DownstreamProperties.Bulkhead();
+        settings.setMaxConcurrentCalls(2);
+        settings.setMaxQueueDepth(0);
+        settings.setMaxWait(Duration.ofMillis(100));
+        bulkhead = new Bulkhead("test", settings);
+    }
+
+    @Test
+    void acquirePermission_ShouldRejectImmediately_WhenSaturatedAndQueueIsFull() {
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+
+        long start = System.nanoTime();
+        BulkheadFullException exception = assertThrows(BulkheadFullException.class, bulkhead::acquirePermission);
+
+        assertTrue(Duration.ofNanos(System.nanoTime() - start).toMillis() < 50);
+        assertEquals(1, exception.getRetryAfterSeconds());
+        assertEquals(2, bulkhead.getActiveCalls());
+    }
+
+    @Test
+    void releasePermission_ShouldFreeCapacity() {
+        bulkhead.acquirePermission();
+        bulkhead.acquirePermission();
+        bulkhead.releasePermission();
+
+        bulkhead.acquirePermission();
+
+        assertEquals(2, bulkhead.getActiveCalls());
+    }
+
+    @Test
+    void acquirePermissionAsync_ShouldHandOffReleasedPermitToQueuedCall() throws Exception {
+        DownstreamProperties.Bulkhead settings = new DownstreamProperties.Bulkhead();
+        settings.setMaxConcurrentCalls(1);
+        settings.setMaxQueueDepth(1);
+        settings.setMaxWait(Duration.ofSeconds(5));
+        Bulkhead queued = new Bulkhead("test", settings);
+
+        queued.acquirePermissionAsync().get(1, TimeUnit.SECONDS);
+        CompletableFuture<Void> waiting = queued.acquirePermissionAsync();
+        CompletableFuture<Void> rejected = queued.acquirePermissionAsync();
+
+        assertFalse(waiting.isDone());
+        ExecutionException exception = assertThrows(ExecutionException.class, () -> rejected.get(1, TimeUnit.SECONDS));
+        assertInstanceOf(BulkheadFullException.class, exception.getCause());
+        assertEquals(1, queued.getQueuedCalls());
+
+        queued.releasePermission();
+
+        waiting.get(1, TimeUnit.SECONDS);
+        assertEquals(1, queued.getActiveCalls());
+        assertEquals(0, queued.getQueuedCalls());
+    }
+}
@@ -0,0 +1,97 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+class CircuitBreakerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private CircuitBreaker circuitBreaker;
+
+    @BeforeEach
+    void setUp() {
+        DownstreamProperties.CircuitBreaker settings = new DownstreamProperties.CircuitBreaker();
+        settings.setSlidingWindowSize(10);
+        settings.setMinimumNumberOfCalls(4);
+        settings.setFailureRateThreshold(50f);
+        settings.setWaitDurationInOpenState(Duration.ofSeconds(30));
+        settings.setPermittedCallsInHalfOpenState(2);
+        circuitBreaker = new CircuitBreaker("test", settings, now::get);
+    }
+
+    @Test
+    void shouldStayClosed_WhenFailureRateBelowThreshold() {
+        recordCalls(3, 1);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertTrue(circuitBreaker.isCallPermitted());
+    }
+
+    @Test
+    void shouldOpenAndRejectCalls_WhenFailureRateReachesThreshold() {
+        recordCalls(2, 2);
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertFalse(circuitBreaker.isCallPermitted());
+        CircuitBreakerOpenException exception =
+                assertThrows(CircuitBreakerOpenException.class, circuitBreaker::acquirePermission);
+        assertEquals(30, exception.getRetryAfterSeconds());
+    }
+
+    @Test
+    void shouldCloseAfterSuccessfulTrialCalls_WhenWaitElapsed() {
+        recordCalls(0, 4);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        circuitBreaker.acquirePermission();
+        assertEquals(CircuitBreaker.State.HALF_OPEN, circuitBreaker.getState());
+        circuitBreaker.onSuccess();
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onSuccess();
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0f, circuitBreaker.failureRate());
+    }
+
+    @Test
+    void shouldReopen_WhenTrialCallFails() {
+        recordCalls(0, 4);
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+
+        circuitBreaker.acquirePermission();
+        circuitBreaker.onFailure();
+
+        assertEquals(CircuitBreaker.State.OPEN, circuitBreaker.getState());
+        assertThrows(CircuitBreakerOpenException.class, circuitBreaker::acquirePermission);
+    }
+
+    @Test
+    void slidingWindow_ShouldForgetOldestCalls() {
+        recordCalls(0, 3);
+        recordCalls(10, 0);
+
+        assertEquals(CircuitBreaker.State.CLOSED, circuitBreaker.getState());
+        assertEquals(0f, circuitBreaker.failureRate());
+    }
+
+    private void recordCalls(int successes, int failures) {
+        for (int i = 0; i < successes; i++) {
+            circuitBreaker.acquirePermission();
+            circuitBreaker.onSuccess();
+        }
+        for (int i = 0; i < failures; i++) {
+            circuitBreaker.acquirePermission();
+            circuitBreaker.onFailure();
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockHttpServletRequest;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.DeadlineProperties;
+
+class DeadlineTest {
+
+    private final AtomicLong nanos = new AtomicLong();
+
+    @Test
+    void cap_ShouldLimitTimeoutToRemainingTime_UntilDeadlineExpires() {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(2), nanos::get);
+
+        Deadline.runWith(deadline, () -> {
+            assertEquals(Duration.ofSeconds(1), Deadline.cap(Duration.ofSeconds(1)));
+            assertEquals(Duration.ofSeconds(2), Deadline.cap(Duration.ofSeconds(30)));
+            nanos.addAndGet(Duration.ofMillis(2500).toNanos());
+            assertTrue(deadline.isExpired());
+            assertEquals(Duration.ZERO, Deadline.cap(Duration.ofSeconds(30)));
+        });
+        assertNull(Deadline.current());
+        assertEquals(Duration.ofSeconds(30), Deadline.cap(Duration.ofSeconds(30)));
+    }
+
+    @Test
+    void propagate_ShouldRunStageWithCallerDeadline_OnAnotherThread() throws Exception {
+        Deadline deadline = Deadline.after(Duration.ofSeconds(5), nanos::get);
+        Function<String, Deadline> stage = Deadline.callWith(deadline,
+                () -> Deadline.propagate(value -> Deadline.current()));
+
+        Deadline[] seen = new Deadline[1];
+        Thread thread = new Thread(() -> seen[0] = stage.apply("x"));
+        thread.start();
+        thread.join();
+
+        assertSame(deadline, seen[0]);
+        assertFalse(deadline.isExpired());
+    }
+
+    @Test
+    void timeoutFor_ShouldUseShortestOfHeaderAndRoute_CappedAtMax() {
+        DeadlineProperties properties = new DeadlineProperties();
+        properties.setMaxTimeout(Duration.ofMinutes(1));
+        properties.getRoutes().put("/api/plagiarism/**", Duration.ofSeconds(90));
+        DeadlineFilter filter = new DeadlineFilter(properties);
+
+        assertEquals(Duration.ofSeconds(90), filter.timeoutFor(request("/api/plagiarism/detect/1", null)));
+        assertEquals(Duration.ofMillis(1500), filter.timeoutFor(request("/api/plagiarism/detect/1", "1500")));
+        assertEquals(Duration.ofMinutes(1), filter.timeoutFor(request("/api/users", "10m")));
+        assertNull(filter.timeoutFor(request("/api/users", "soon")));
+    }
+
+    private static MockHttpServletRequest request(String path, String timeout) {
+        MockHttpServletRequest request = new MockHttpServletRequest("POST", path);
+        if (timeout != null) {
+            request.addHeader("X-Request-Timeout", timeout);
+        }
+        return request;
+    }
+}
@@ -0,0 +1,86 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+
+import org.apache.hc.client5.http.impl.classic.CloseableHttpClient;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.client.Downstream;
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+import com.eci.iagen.api_gateway.config.HttpClientConfig;
+import com.sun.net.httpserver.HttpServer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class DownstreamHealthRegistryTest {
+
+    private HttpServer stubServer;
+    private volatile int healthStatus = 200;
+    private CloseableHttpClient httpClient;
+    private DownstreamHealthRegistry registry;
+    private DownstreamGuard guard;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        stubServer = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        stubServer.createContext("/health", exchange -> {
+            byte[] bytes = "{\"status\":\"UP\",\"service\":\"stub\"}".getBytes(StandardCharsets.UTF_8);
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(healthStatus, bytes.length);
+            try (OutputStream out = exchange.getResponseBody()) {
+                out.write(bytes);
+            }
+        });
+        stubServer.start();
+
+        DownstreamProperties properties = new DownstreamProperties();
+        properties.getHealth().setTimeout(Duration.ofMillis(500));
+        DownstreamProperties.Service service = properties.service(Downstream.JPLAG);
+        service.setUrl("http://localhost:" + stubServer.getAddress().getPort());
+        service.setHealthPath("/health");
+
+        httpClient = new HttpClientConfig().downstreamHttpClient(properties);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        LoadBalancerRegistry loadBalancers = new LoadBalancerRegistry(properties, meterRegistry);
+        registry = new DownstreamHealthRegistry(properties, httpClient, loadBalancers, meterRegistry);
+        guard = new DownstreamGuard(properties, registry, loadBalancers, meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        httpClient.close();
+        stubServer.stop(0);
+    }
+
+    @Test
+    void probeAll_ShouldStoreUpStatusWithDetails() {
+        registry.probeAll();
+
+        DownstreamHealth health = registry.getHealth(Downstream.JPLAG);
+        assertTrue(health.isUp());
+        assertEquals("stub", health.getDetails().get("service"));
+        assertEquals(DownstreamHealth.Status.UNKNOWN, registry.getHealth(Downstream.TEAM_FEEDBACK).getStatus());
+    }
+
+    @Test
+    void call_ShouldFailFast_WhenLastHealthCheckFailed() {
+        healthStatus = 503;
+        registry.probeAll();
+
+        assertTrue(registry.isKnownDown(Downstream.JPLAG));
+        assertThrows(DownstreamUnavailableException.class, () -> guard.call(Downstream.JPLAG, () -> "ok"));
+        assertFalse(registry.isKnownDown(Downstream.TEAM_FEEDBACK));
+        assertEquals("ok", guard.call(Downstream.TEAM_FEEDBACK, () -> "ok"));
+    }
+}
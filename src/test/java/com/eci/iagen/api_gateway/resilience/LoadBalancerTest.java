@@ -0,0 +1,84 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+class LoadBalancerTest {
+
+    private final AtomicLong now = new AtomicLong();
+    private DownstreamProperties.LoadBalancer settings;
+    private LoadBalancer loadBalancer;
+    private DownstreamInstance first;
+    private DownstreamInstance second;
+
+    @BeforeEach
+    void setUp() {
+        settings = new DownstreamProperties.LoadBalancer();
+        settings.setConsecutiveFailures(3);
+        settings.setEjectionDuration(Duration.ofSeconds(30));
+        loadBalancer = new LoadBalancer("test", List.of("http://a:8000", "http://b:8000"), settings, now::get);
+        first = loadBalancer.getInstances().get(0);
+        second = loadBalancer.getInstances().get(1);
+    }
+
+    @Test
+    void choose_ShouldPreferInstanceWithFewerOutstandingCalls() {
+        loadBalancer.onCallStarted(first);
+        loadBalancer.onCallStarted(first);
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(second, loadBalancer.choose());
+        }
+
+        settings.setStrategy(DownstreamProperties.Strategy.LEAST_OUTSTANDING);
+        assertSame(second, loadBalancer.choose());
+    }
+
+    @Test
+    void shouldEjectFailingInstanceAndReadmitAfterEjectionDuration() {
+        for (int i = 0; i < 3; i++) {
+            loadBalancer.onCallStarted(first);
+            loadBalancer.onCallFinished(first, true);
+        }
+
+        assertTrue(first.isEjected());
+        for (int i = 0; i < 20; i++) {
+            assertSame(second, loadBalancer.choose());
+        }
+
+        // Con 2 réplicas y 50% como máximo, la segunda no puede expulsarse
+        for (int i = 0; i < 3; i++) {
+            loadBalancer.onCallStarted(second);
+            loadBalancer.onCallFinished(second, true);
+        }
+        assertFalse(second.isEjected());
+
+        now.addAndGet(Duration.ofSeconds(31).toNanos());
+        loadBalancer.choose();
+        assertFalse(first.isEjected());
+        assertEquals(0, first.getOutstandingCalls());
+    }
+
+    @Test
+    void choose_ShouldSkipUnhealthyInstances_UnlessAllAreUnhealthy() {
+        loadBalancer.onHealthCheck(first, false);
+
+        for (int i = 0; i < 20; i++) {
+            assertSame(second, loadBalancer.choose());
+        }
+
+        loadBalancer.onHealthCheck(second, false);
+        assertTrue(loadBalancer.getInstances().contains(loadBalancer.choose()));
+    }
+}
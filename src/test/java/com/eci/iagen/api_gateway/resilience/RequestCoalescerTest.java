@@ -0,0 +1,65 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class RequestCoalescerTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private RequestCoalescer coalescer;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        coalescer = new RequestCoalescer(meterRegistry);
+    }
+
+    @Test
+    void coalesce_ShouldShareInFlightCall_ForIdenticalRequests() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        CompletableFuture<String> downstream = new CompletableFuture<>();
+
+        CompletableFuture<String> first = coalescer.coalesce("detect", 7L, () -> {
+            calls.incrementAndGet();
+            return downstream;
+        });
+        CompletableFuture<String> second = coalescer.coalesce("detect", 7L, () -> {
+            calls.incrementAndGet();
+            return CompletableFuture.completedFuture("other");
+        });
+        CompletableFuture<String> otherKey = coalescer.coalesce("detect", 8L,
+                () -> CompletableFuture.completedFuture("8"));
+        second.cancel(true);
+        downstream.complete("report");
+
+        assertEquals(1, calls.get());
+        assertEquals("report", first.get());
+        assertEquals("8", otherKey.get());
+        assertEquals(1.0, meterRegistry.counter("gateway.requests.coalesced", "operation", "detect").count());
+        assertEquals(0.0, meterRegistry.get("gateway.requests.coalescing.in.flight").gauge().value());
+    }
+
+    @Test
+    void coalesce_ShouldRunAgain_AfterPreviousCallFailed() throws Exception {
+        CompletableFuture<String> failed = coalescer.coalesce("evaluate", 1L,
+                () -> CompletableFuture.failedFuture(new IllegalStateException("boom")));
+
+        ExecutionException error = assertThrows(ExecutionException.class, failed::get);
+        assertInstanceOf(IllegalStateException.class, error.getCause());
+
+        CompletableFuture<String> retried = coalescer.coalesce("evaluate", 1L,
+                () -> CompletableFuture.completedFuture("ok"));
+        assertEquals("ok", retried.get());
+        assertEquals(2.0, meterRegistry.counter("gateway.requests.executed", "operation", "evaluate").count());
+    }
+}
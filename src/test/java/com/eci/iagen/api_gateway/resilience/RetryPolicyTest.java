@@ -0,0 +1,91 @@
+package com.eci.iagen.api_gateway.resilience;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.eci.iagen.api_gateway.config.DownstreamProperties;
+
+class RetryPolicyTest {
+
+    private final Instant now = Instant.parse("2025-01-01T00:00:00Z");
+    private DownstreamProperties.Retry settings;
+    private RetryPolicy retryPolicy;
+
+    @BeforeEach
+    void setUp() {
+        settings = new DownstreamProperties.Retry();
+        settings.setMaxAttempts(3);
+        settings.setInitialBackoff(Duration.ofMillis(100));
+        settings.setMaxBackoff(Duration.ofMillis(150));
+        settings.setMaxRetryAfter(Duration.ofSeconds(5));
+        settings.setBudgetPercent(20);
+        settings.setBudgetMinRetries(2);
+        retryPolicy = new RetryPolicy(settings, () -> now);
+    }
+
+    @Test
+    void nextDelay_ShouldUseCappedJitteredBackoff_ForTransientErrors() {
+        Duration first = retryPolicy.nextDelay(1, new ResourceAccessException("Connection reset"));
+        Duration second = retryPolicy.nextDelay(2, serverError(HttpStatus.BAD_GATEWAY, null));
+
+        assertNotNull(first);
+        assertTrue(first.toMillis() <= 100);
+        assertNotNull(second);
+        assertTrue(second.toMillis() <= 150);
+        assertNull(retryPolicy.nextDelay(3, new ResourceAccessException("Connection reset")));
+    }
+
+    @Test
+    void nextDelay_ShouldNotRetry_NonTransientErrorsOrLocalRejections() {
+        assertNull(retryPolicy.nextDelay(1, HttpClientErrorException.create(HttpStatus.NOT_FOUND, "Not Found",
+                HttpHeaders.EMPTY, new byte[0], StandardCharsets.UTF_8)));
+        assertNull(retryPolicy.nextDelay(1, serverError(HttpStatus.INTERNAL_SERVER_ERROR, null)));
+        assertNull(retryPolicy.nextDelay(1, new BulkheadFullException("jplag", Duration.ofSeconds(1))));
+    }
+
+    @Test
+    void nextDelay_ShouldHonourRetryAfter() {
+        assertEquals(Duration.ofSeconds(3), retryPolicy.nextDelay(1, serverError(HttpStatus.SERVICE_UNAVAILABLE, "3")));
+        assertEquals(Duration.ofSeconds(2), retryPolicy.nextDelay(1,
+                serverError(HttpStatus.SERVICE_UNAVAILABLE, "Wed, 01 Jan 2025 00:00:02 GMT")));
+        assertNull(retryPolicy.nextDelay(1, serverError(HttpStatus.SERVICE_UNAVAILABLE, "60")));
+    }
+
+    @Test
+    void nextDelay_ShouldStopRetrying_WhenBudgetIsExhausted() {
+        ResourceAccessException error = new ResourceAccessException("Connection reset");
+        assertNotNull(retryPolicy.nextDelay(1, error));
+        assertNotNull(retryPolicy.nextDelay(1, error));
+        assertNull(retryPolicy.nextDelay(1, error));
+
+        // Cada 5 llamadas nuevas (20%) se gana un reintento
+        for (int i = 0; i < 5; i++) {
+            retryPolicy.onCall();
+        }
+        assertNotNull(retryPolicy.nextDelay(1, error));
+        assertNull(retryPolicy.nextDelay(1, error));
+    }
+
+    private static HttpServerErrorException serverError(HttpStatus status, String retryAfter) {
+        HttpHeaders headers = new HttpHeaders();
+        if (retryAfter != null) {
+            headers.set(HttpHeaders.RETRY_AFTER, retryAfter);
+        }
+        return HttpServerErrorException.create(status, status.getReasonPhrase(), headers, new byte[0],
+                StandardCharsets.UTF_8);
+    }
+}
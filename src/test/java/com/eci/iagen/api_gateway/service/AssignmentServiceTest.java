@@ -0,0 +1,53 @@
+package com.eci.iagen.api_gateway.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.eci.iagen.api_gateway.repository.AssignmentRepository;
+import com.eci.iagen.api_gateway.repository.ClassRepository;
+import com.eci.iagen.api_gateway.repository.PlagiarismReportRepository;
+
+class AssignmentServiceTest {
+
+    private AssignmentRepository assignmentRepository;
+    private PlagiarismReportRepository plagiarismReportRepository;
+    private AssignmentService assignmentService;
+
+    @BeforeEach
+    void setUp() {
+        assignmentRepository = mock(AssignmentRepository.class);
+        plagiarismReportRepository = mock(PlagiarismReportRepository.class);
+        assignmentService = new AssignmentService(assignmentRepository, mock(ClassRepository.class),
+                plagiarismReportRepository);
+    }
+
+    @Test
+    void deleteAssignment_ShouldDeleteItsPlagiarismReportsFirst() {
+        when(assignmentRepository.existsById(5L)).thenReturn(true);
+        when(plagiarismReportRepository.deleteByAssignmentId(5L)).thenReturn(2);
+
+        assertTrue(assignmentService.deleteAssignment(5L));
+
+        InOrder order = inOrder(plagiarismReportRepository, assignmentRepository);
+        order.verify(plagiarismReportRepository).deleteByAssignmentId(5L);
+        order.verify(assignmentRepository).deleteById(5L);
+    }
+
+    @Test
+    void deleteAssignment_ShouldNotTouchReports_WhenAssignmentDoesNotExist() {
+        assertFalse(assignmentService.deleteAssignment(5L));
+
+        verify(plagiarismReportRepository, never()).deleteByAssignmentId(any());
+        verify(assignmentRepository, never()).deleteById(any());
+    }
+}
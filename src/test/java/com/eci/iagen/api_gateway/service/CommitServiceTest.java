@@ -0,0 +1,109 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.eci.iagen.api_gateway.client.GitHubClient;
+import com.eci.iagen.api_gateway.dto.CommitDTO;
+import com.eci.iagen.api_gateway.entity.Submission;
+import com.eci.iagen.api_gateway.repository.CommitRepository;
+import com.eci.iagen.api_gateway.repository.SubmissionRepository;
+import com.eci.iagen.api_gateway.resilience.RequestCoalescer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class CommitServiceTest {
+
+    private static final String REPOSITORY = "https://github.com/team/project";
+    private static final LocalDateTime START = LocalDateTime.of(2025, 3, 1, 0, 0);
+    private static final LocalDateTime DUE = LocalDateTime.of(2025, 3, 15, 23, 59);
+
+    private GitHubClient gitHubClient;
+    private SubmissionRepository submissionRepository;
+    private CommitService commitService;
+
+    @BeforeEach
+    void setUp() {
+        gitHubClient = mock(GitHubClient.class);
+        when(gitHubClient.submissionWindow(any(), any(), any())).thenAnswer(invocation -> new GitHubClient.CommitWindow(
+                invocation.getArgument(0), invocation.getArgument(1)));
+        // Descargas que no terminan: las sincronizaciones siguen en curso mientras se comparan
+        when(gitHubClient.fetchCommitsNonBlocking(any(), any(), any()))
+                .thenAnswer(invocation -> new CompletableFuture<List<CommitDTO>>());
+        submissionRepository = mock(SubmissionRepository.class);
+        commitService = new CommitService(mock(CommitRepository.class), submissionRepository,
+                gitHubClient, new RequestCoalescer(new SimpleMeterRegistry()),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new TaskExecutorAdapter(Runnable::run),
+                mock(ApplicationEventPublisher.class));
+    }
+
+    @Test
+    void syncSubmissionCommits_ShouldCoalesce_WhenWindowIsTheSame() {
+        commitService.syncSubmissionCommits(7L, REPOSITORY, START, DUE, null);
+        commitService.syncSubmissionCommits(7L, REPOSITORY, START, DUE, null);
+
+        verify(gitHubClient, times(1)).fetchCommitsNonBlocking(eq(REPOSITORY), any(), any());
+    }
+
+    @Test
+    void syncSubmissionCommits_ShouldNotCoalesce_WhenWindowDiffers() {
+        commitService.syncSubmissionCommits(7L, REPOSITORY, START, DUE, null);
+        commitService.syncSubmissionCommits(7L, REPOSITORY, START, DUE.plusDays(3), null);
+
+        verify(gitHubClient).fetchCommitsNonBlocking(REPOSITORY, START, DUE);
+        verify(gitHubClient).fetchCommitsNonBlocking(REPOSITORY, START, DUE.plusDays(3));
+    }
+
+    @Test
+    void syncSubmissionCommits_ShouldNotCoalesce_WhenRepositoryDiffers() {
+        commitService.syncSubmissionCommits(7L, REPOSITORY, START, DUE, null);
+        commitService.syncSubmissionCommits(7L, "https://github.com/team/other", START, DUE, null);
+
+        verify(gitHubClient).fetchCommitsNonBlocking(eq(REPOSITORY), any(), any());
+        verify(gitHubClient).fetchCommitsNonBlocking(eq("https://github.com/team/other"), any(), any());
+    }
+
+    @Test
+    void syncSubmissionCommits_ShouldGiveEachCoalescedCallerItsOwnModifiableList() throws Exception {
+        // El repositorio de la entrega cambió: se devuelven los commits descargados sin guardarlos
+        Submission submission = new Submission();
+        submission.setFileUrl("https://github.com/team/other");
+        when(submissionRepository.getReferenceById(7L)).thenReturn(submission);
+        CompletableFuture<List<CommitDTO>> fetch = new CompletableFuture<>();
+        when(gitHubClient.fetchCommitsNonBlocking(any(), any(), any())).thenReturn(fetch);
+
+        CompletableFuture<List<CommitDTO>> first = commitService.syncSubmissionCommits(7L, REPOSITORY, START, DUE,
+                null);
+        CompletableFuture<List<CommitDTO>> second = commitService.syncSubmissionCommits(7L, REPOSITORY, START, DUE,
+                null);
+        fetch.complete(List.of(
+                new CommitDTO("a1", "first", START.plusDays(1), "Ana", "ana@example.com"),
+                new CommitDTO("b2", "second", START.plusDays(2), "Ana", "ana@example.com")));
+
+        List<CommitDTO> firstCommits = first.get(5, TimeUnit.SECONDS);
+        List<CommitDTO> secondCommits = second.get(5, TimeUnit.SECONDS);
+        assertNotSame(firstCommits, secondCommits);
+        firstCommits.remove(0);
+        assertEquals(1, firstCommits.size());
+        assertEquals(2, secondCommits.size());
+        verify(gitHubClient, times(1)).fetchCommitsNonBlocking(eq(REPOSITORY), any(), any());
+    }
+}
@@ -0,0 +1,76 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+import com.eci.iagen.api_gateway.config.EvaluationJobProperties;
+import com.eci.iagen.api_gateway.dto.EvaluationDTO;
+import com.eci.iagen.api_gateway.dto.EvaluationJobDTO;
+import com.eci.iagen.api_gateway.resilience.BulkheadFullException;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EvaluationJobServiceTest {
+
+    private SimpMessagingTemplate messagingTemplate;
+    private EvaluationJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        EvaluationJobProperties properties = new EvaluationJobProperties();
+        properties.setMaxConcurrent(1);
+        properties.setMaxQueued(1);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        jobService = new EvaluationJobService(properties, messagingTemplate, new SimpleMeterRegistry());
+    }
+
+    @Test
+    void submit_ShouldRunJob_AndPublishEveryStateChange() {
+        CompletableFuture<EvaluationDTO> evaluation = new CompletableFuture<>();
+        EvaluationJobDTO job = jobService.submit("AUTOMATIC", 7L, 1L, () -> evaluation);
+
+        assertEquals("RUNNING", job.getStatus());
+        EvaluationDTO result = new EvaluationDTO();
+        result.setId(42L);
+        evaluation.complete(result);
+
+        EvaluationJobDTO finished = jobService.getJob(job.getId()).orElseThrow();
+        assertEquals("SUCCEEDED", finished.getStatus());
+        assertEquals(42L, finished.getEvaluation().getId());
+        ArgumentCaptor<EvaluationJobDTO> events = ArgumentCaptor.forClass(EvaluationJobDTO.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq("/topic/evaluation-jobs/" + job.getId()),
+                events.capture());
+        assertEquals(List.of("QUEUED", "RUNNING", "SUCCEEDED"),
+                events.getAllValues().stream().map(EvaluationJobDTO::getStatus).toList());
+    }
+
+    @Test
+    void submit_ShouldQueueBeyondMaxConcurrent_AndRejectWhenQueueIsFull() {
+        CompletableFuture<EvaluationDTO> first = new CompletableFuture<>();
+        EvaluationJobDTO running = jobService.submit("AUTOMATIC", 1L, 1L, () -> first);
+        EvaluationJobDTO queued = jobService.submit("AUTOMATIC", 2L, 1L,
+                () -> CompletableFuture.failedFuture(new IllegalArgumentException("Submission not found")));
+
+        assertEquals("QUEUED", queued.getStatus());
+        assertThrows(BulkheadFullException.class, () -> jobService.submit("AUTOMATIC", 3L, 1L,
+                () -> CompletableFuture.completedFuture(new EvaluationDTO())));
+
+        first.complete(new EvaluationDTO());
+        assertEquals("SUCCEEDED", jobService.getJob(running.getId()).orElseThrow().getStatus());
+        EvaluationJobDTO failed = jobService.getJob(queued.getId()).orElseThrow();
+        assertEquals("FAILED", failed.getStatus());
+        assertEquals(400, failed.getErrorStatus());
+    }
+}
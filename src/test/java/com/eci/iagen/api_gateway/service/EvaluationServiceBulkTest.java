@@ -0,0 +1,193 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.LongStream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.SimpleAsyncTaskExecutor;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.eci.iagen.api_gateway.client.CodeAnalysisClient;
+import com.eci.iagen.api_gateway.client.ScheduleComplianceClient;
+import com.eci.iagen.api_gateway.config.BulkEvaluationProperties;
+import com.eci.iagen.api_gateway.dto.CommitDTO;
+import com.eci.iagen.api_gateway.dto.EvaluationDTO;
+import com.eci.iagen.api_gateway.dto.SubmissionDTO;
+import com.eci.iagen.api_gateway.dto.request.ScheduleComplianceBatchRequest;
+import com.eci.iagen.api_gateway.dto.response.BulkEvaluationResponse;
+import com.eci.iagen.api_gateway.dto.response.ScheduleComplianceBatchResponse;
+import com.eci.iagen.api_gateway.dto.response.ScheduleComplianceResponse;
+import com.eci.iagen.api_gateway.entity.Assignment;
+import com.eci.iagen.api_gateway.entity.Evaluation;
+import com.eci.iagen.api_gateway.entity.Submission;
+import com.eci.iagen.api_gateway.entity.Team;
+import com.eci.iagen.api_gateway.entity.User;
+import com.eci.iagen.api_gateway.repository.EvaluationRepository;
+import com.eci.iagen.api_gateway.repository.SubmissionRepository;
+import com.eci.iagen.api_gateway.repository.UserRepository;
+import com.eci.iagen.api_gateway.resilience.DownstreamUnavailableException;
+import com.eci.iagen.api_gateway.resilience.RequestCoalescer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class EvaluationServiceBulkTest {
+
+    private static final LocalDateTime DUE_DATE = LocalDateTime.of(2025, 3, 10, 23, 59);
+
+    @Test
+    void evaluateAssignment_ShouldBoundConcurrency_AndSaveInBatches() {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        CodeAnalysisClient codeAnalysisClient = mock(CodeAnalysisClient.class);
+        when(codeAnalysisClient.performCheckstyleAnalysisNonBlocking(any())).thenAnswer(invocation -> {
+            long submissionId = invocation.<SubmissionDTO>getArgument(0).getId();
+            maxRunning.accumulateAndGet(running.incrementAndGet(), Math::max);
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    Thread.sleep(20);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    running.decrementAndGet();
+                }
+                if (submissionId == 3) {
+                    throw new IllegalStateException("Checkstyle failed");
+                }
+                if (submissionId == 4) {
+                    throw new DownstreamUnavailableException("code-analysis", "Circuit open", Duration.ofSeconds(30));
+                }
+                EvaluationDTO result = new EvaluationDTO();
+                result.setScore(new BigDecimal("4.0"));
+                result.setCriteriaJson("{}");
+                return result;
+            });
+        });
+        EvaluationRepository evaluationRepository = mock(EvaluationRepository.class);
+        AtomicInteger ids = new AtomicInteger();
+        when(evaluationRepository.saveAll(any())).thenAnswer(invocation -> {
+            List<Evaluation> saved = new ArrayList<>();
+            for (Evaluation evaluation : invocation.<Iterable<Evaluation>>getArgument(0)) {
+                evaluation.setId((long) ids.incrementAndGet());
+                saved.add(evaluation);
+            }
+            return saved;
+        });
+        BulkEvaluationProperties properties = new BulkEvaluationProperties();
+        properties.setGoodPracticesConcurrency(2);
+        properties.setBatchSize(4);
+
+        BulkEvaluationResponse response = service(codeAnalysisClient, mock(ScheduleComplianceClient.class),
+                mock(CommitService.class), evaluationRepository, properties, 10)
+                .evaluateAssignmentAsync(1L, 1L, false, true, false).join();
+
+        assertEquals(10, response.getSubmissions());
+        assertEquals(8, response.getSucceeded());
+        assertEquals(2, response.getFailed());
+        assertTrue(maxRunning.get() <= 2, "max concurrent analyses was " + maxRunning.get());
+        // 10 resultados en lotes de 4: 4 + 4 + 2
+        verify(evaluationRepository, times(3)).saveAll(any());
+        BulkEvaluationResponse.SubmissionResult failed = result(response, 3L);
+        assertEquals("GOOD_PRACTICES_CHECKSTYLE_ERROR", failed.getEvaluationType());
+        assertTrue(failed.getEvaluationId() != null);
+        BulkEvaluationResponse.SubmissionResult unavailable = result(response, 4L);
+        assertNull(unavailable.getEvaluationId());
+        assertEquals(9, ids.get());
+    }
+
+    @Test
+    void evaluateAssignment_ShouldSendScheduleComplianceInBatches_WhenBatchingIsEnabled() {
+        CommitService commitService = mock(CommitService.class);
+        when(commitService.syncSubmissionCommits(anyLong(), any(), any(), any(), any()))
+                .thenAnswer(invocation -> CompletableFuture.completedFuture(new ArrayList<>(List.of(
+                        new CommitDTO("sha", "message", DUE_DATE.minusDays(1), "Ana", "ana@example.com")))));
+        ScheduleComplianceClient scheduleComplianceClient = mock(ScheduleComplianceClient.class);
+        when(scheduleComplianceClient.isBatchEnabled()).thenReturn(true);
+        when(scheduleComplianceClient.isCallPermitted()).thenReturn(true);
+        when(scheduleComplianceClient.getBatchMaxSize()).thenReturn(4);
+        when(scheduleComplianceClient.getBatchLinger()).thenReturn(Duration.ofSeconds(1));
+        when(scheduleComplianceClient.evaluateComplianceBatch(any())).thenAnswer(invocation -> {
+            List<ScheduleComplianceBatchResponse.Item> results = new ArrayList<>();
+            for (ScheduleComplianceBatchRequest.Item item
+                    : invocation.<List<ScheduleComplianceBatchRequest.Item>>getArgument(0)) {
+                // La entrega 2 falla en el servicio y se evalúa con el cálculo legacy
+                results.add(item.getSubmissionId() == 2
+                        ? new ScheduleComplianceBatchResponse.Item(2L, null, "Invalid commits")
+                        : new ScheduleComplianceBatchResponse.Item(item.getSubmissionId(),
+                                new ScheduleComplianceResponse(new BigDecimal("4.5"), new BigDecimal("5.0"), 0,
+                                        BigDecimal.ZERO, false, "{}", DUE_DATE, List.of()), null));
+            }
+            return CompletableFuture.completedFuture(results);
+        });
+        EvaluationRepository evaluationRepository = mock(EvaluationRepository.class);
+        when(evaluationRepository.saveAll(any())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        BulkEvaluationResponse response = service(mock(CodeAnalysisClient.class), scheduleComplianceClient,
+                commitService, evaluationRepository, new BulkEvaluationProperties(), 10)
+                .evaluateAssignmentAsync(1L, 1L, true, false, false).join();
+
+        assertEquals(10, response.getSucceeded());
+        // 10 entregas en lotes de 4: 4 + 4 + 2
+        verify(scheduleComplianceClient, times(3)).evaluateComplianceBatch(any());
+        verify(scheduleComplianceClient, never()).evaluateComplianceNonBlocking(any());
+        assertEquals(new BigDecimal("4.5"), result(response, 1L).getScore());
+        assertEquals("AUTOMATIC", result(response, 2L).getEvaluationType());
+        assertEquals(new BigDecimal("5.0"), result(response, 2L).getScore());
+    }
+
+    private static BulkEvaluationResponse.SubmissionResult result(BulkEvaluationResponse response, Long id) {
+        return response.getResults().stream().filter(result -> result.getSubmissionId().equals(id)).findFirst()
+                .orElseThrow();
+    }
+
+    private static EvaluationService service(CodeAnalysisClient codeAnalysisClient,
+            ScheduleComplianceClient scheduleComplianceClient, CommitService commitService,
+            EvaluationRepository evaluationRepository, BulkEvaluationProperties properties, int submissions) {
+        Assignment assignment = new Assignment();
+        assignment.setId(1L);
+        assignment.setTitle("Tarea");
+        assignment.setStartDate(DUE_DATE.minusWeeks(2));
+        assignment.setDueDate(DUE_DATE);
+        SubmissionRepository submissionRepository = mock(SubmissionRepository.class);
+        when(submissionRepository.findByAssignmentId(1L)).thenReturn(LongStream.rangeClosed(1, submissions)
+                .mapToObj(id -> {
+                    Team team = new Team();
+                    team.setId(id);
+                    team.setName("Equipo " + id);
+                    Submission submission = new Submission();
+                    submission.setId(id);
+                    submission.setAssignment(assignment);
+                    submission.setTeam(team);
+                    submission.setFileUrl("https://github.com/team/project-" + id);
+                    submission.setSubmittedAt(DUE_DATE);
+                    return submission;
+                })
+                .toList());
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(new User()));
+
+        return new EvaluationService(evaluationRepository, submissionRepository, userRepository,
+                commitService, scheduleComplianceClient, codeAnalysisClient,
+                new RequestCoalescer(new SimpleMeterRegistry()),
+                new TransactionTemplate(mock(PlatformTransactionManager.class)), new SimpleAsyncTaskExecutor(),
+                properties);
+    }
+}
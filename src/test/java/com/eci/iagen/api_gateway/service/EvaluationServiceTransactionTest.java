@@ -0,0 +1,158 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.math.BigDecimal;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAccumulator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.AsyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.eci.iagen.api_gateway.client.CodeAnalysisClient;
+import com.eci.iagen.api_gateway.client.ScheduleComplianceClient;
+import com.eci.iagen.api_gateway.config.BulkEvaluationProperties;
+import com.eci.iagen.api_gateway.dto.EvaluationDTO;
+import com.eci.iagen.api_gateway.entity.Assignment;
+import com.eci.iagen.api_gateway.entity.Evaluation;
+import com.eci.iagen.api_gateway.entity.Submission;
+import com.eci.iagen.api_gateway.entity.Team;
+import com.eci.iagen.api_gateway.entity.User;
+import com.eci.iagen.api_gateway.repository.EvaluationRepository;
+import com.eci.iagen.api_gateway.repository.SubmissionRepository;
+import com.eci.iagen.api_gateway.repository.UserRepository;
+import com.eci.iagen.api_gateway.resilience.RequestCoalescer;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+/**
+ * Prueba de carga: 100 evaluaciones LLM concurrentes contra un pool de 20
+ * conexiones (como spring.datasource.hikari.maximum-pool-size). Como la llamada
+ * al LLM no ocupa conexión, la espera por una conexión se mantiene cerca de cero.
+ */
+class EvaluationServiceTransactionTest {
+
+    private static final int POOL_SIZE = 20;
+    private static final int CONCURRENT_EVALUATIONS = 100;
+    private static final Duration LLM_LATENCY = Duration.ofMillis(200);
+
+    private final PooledTransactionManager transactionManager = new PooledTransactionManager();
+
+    @Test
+    void evaluateGoodPracticesAsync_ShouldNotHoldConnectionDuringLlmCall() {
+        AtomicInteger callsInTransaction = new AtomicInteger();
+        CodeAnalysisClient codeAnalysisClient = mock(CodeAnalysisClient.class);
+        when(codeAnalysisClient.performLLMAnalysisNonBlocking(any())).thenAnswer(invocation -> {
+            if (transactionManager.holding.get()) {
+                callsInTransaction.incrementAndGet();
+            }
+            EvaluationDTO result = new EvaluationDTO();
+            result.setScore(new BigDecimal("4.5"));
+            result.setCriteriaJson("{}");
+            return CompletableFuture.supplyAsync(() -> result,
+                    CompletableFuture.delayedExecutor(LLM_LATENCY.toMillis(), TimeUnit.MILLISECONDS));
+        });
+
+        List<CompletableFuture<EvaluationDTO>> evaluations = new ArrayList<>();
+        // Un hilo bloqueante por evaluación: las 100 compiten a la vez por las conexiones
+        try (ExecutorService blocking = Executors.newFixedThreadPool(CONCURRENT_EVALUATIONS)) {
+            EvaluationService service = service(codeAnalysisClient, new TaskExecutorAdapter(blocking));
+            for (long id = 1; id <= CONCURRENT_EVALUATIONS; id++) {
+                evaluations.add(service.evaluateGoodPracticesAsync(id, 1L, true));
+            }
+            for (CompletableFuture<EvaluationDTO> evaluation : evaluations) {
+                assertEquals("GOOD_PRACTICES_LLM", evaluation.join().getEvaluationType());
+            }
+        }
+
+        assertEquals(0, callsInTransaction.get());
+        // Si la transacción abarcara la llamada, 80 de las 100 esperarían al menos 200 ms
+        long maxWaitMillis = Duration.ofNanos(transactionManager.maxWaitNanos.get()).toMillis();
+        assertTrue(maxWaitMillis < LLM_LATENCY.toMillis() / 2, "max pool wait was " + maxWaitMillis + " ms");
+    }
+
+    private EvaluationService service(CodeAnalysisClient codeAnalysisClient, AsyncTaskExecutor blockingTaskExecutor) {
+        Assignment assignment = new Assignment();
+        assignment.setId(1L);
+        assignment.setTitle("Tarea");
+        Team team = new Team();
+        team.setId(1L);
+        team.setName("Equipo");
+        User evaluator = new User();
+        evaluator.setId(1L);
+        evaluator.setName("Docente");
+
+        SubmissionRepository submissionRepository = mock(SubmissionRepository.class);
+        when(submissionRepository.findById(anyLong())).thenAnswer(invocation -> {
+            Submission submission = new Submission();
+            submission.setId(invocation.getArgument(0));
+            submission.setAssignment(assignment);
+            submission.setTeam(team);
+            submission.setFileUrl("https://github.com/team/project");
+            return Optional.of(submission);
+        });
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(evaluator));
+        EvaluationRepository evaluationRepository = mock(EvaluationRepository.class);
+        when(evaluationRepository.save(any(Evaluation.class))).thenAnswer(invocation -> invocation.getArgument(0));
+
+        return new EvaluationService(evaluationRepository, submissionRepository, userRepository,
+                mock(CommitService.class), mock(ScheduleComplianceClient.class), codeAnalysisClient,
+                new RequestCoalescer(new SimpleMeterRegistry()), new TransactionTemplate(transactionManager),
+                blockingTaskExecutor, new BulkEvaluationProperties());
+    }
+
+    /**
+     * Cada transacción ocupa una de las POOL_SIZE conexiones mientras está abierta
+     */
+    private static final class PooledTransactionManager implements PlatformTransactionManager {
+
+        private final Semaphore connections = new Semaphore(POOL_SIZE, true);
+        private final ThreadLocal<Boolean> holding = ThreadLocal.withInitial(() -> false);
+        private final LongAccumulator maxWaitNanos = new LongAccumulator(Math::max, 0);
+
+        @Override
+        public TransactionStatus getTransaction(TransactionDefinition definition) {
+            long start = System.nanoTime();
+            connections.acquireUninterruptibly();
+            maxWaitNanos.accumulate(System.nanoTime() - start);
+            holding.set(true);
+            return new SimpleTransactionStatus();
+        }
+
+        @Override
+        public void commit(TransactionStatus status) {
+            release();
+        }
+
+        @Override
+        public void rollback(TransactionStatus status) {
+            release();
+        }
+
+        private void release() {
+            holding.set(false);
+            connections.release();
+        }
+    }
+}
@@ -0,0 +1,88 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.springframework.core.task.SyncTaskExecutor;
+import org.springframework.core.task.support.TaskExecutorAdapter;
+import org.springframework.messaging.simp.SimpMessagingTemplate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.atLeastOnce;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.eci.iagen.api_gateway.config.PlagiarismJobProperties;
+import com.eci.iagen.api_gateway.dto.PlagiarismJobDTO;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+
+class PlagiarismJobServiceTest {
+
+    private static final PlagiarismService.Detection DETECTION = new PlagiarismService.Detection(5L, 3, "key",
+            Map.of(), Map.of("assignmentId", 5L), null);
+
+    private PlagiarismService plagiarismService;
+    private SimpMessagingTemplate messagingTemplate;
+    private PlagiarismJobService jobService;
+
+    @BeforeEach
+    void setUp() {
+        plagiarismService = mock(PlagiarismService.class);
+        messagingTemplate = mock(SimpMessagingTemplate.class);
+        jobService = new PlagiarismJobService(new PlagiarismJobProperties(), plagiarismService, messagingTemplate,
+                new TaskExecutorAdapter(new SyncTaskExecutor()), new SimpleMeterRegistry());
+    }
+
+    @Test
+    void submit_ShouldRunDetection_StoreReport_AndPublishProgress() {
+        CompletableFuture<Map<String, Object>> detection = new CompletableFuture<>();
+        when(plagiarismService.detect(eq(DETECTION), any())).thenReturn(detection);
+        when(plagiarismService.saveReport(eq(DETECTION), any()))
+                .thenReturn(Map.of("success", true, "reportId", 9L));
+
+        PlagiarismJobDTO job = jobService.submit(DETECTION);
+        assertEquals("RUNNING", job.getStatus());
+        assertEquals("ANALYZING", job.getStage());
+        detection.complete(Map.of("success", true, "similarities", List.of()));
+
+        PlagiarismJobDTO finished = jobService.getJob(job.getId()).orElseThrow();
+        assertEquals("SUCCEEDED", finished.getStatus());
+        assertEquals(9L, finished.getReportId());
+        assertNull(finished.getStage());
+        ArgumentCaptor<PlagiarismJobDTO> events = ArgumentCaptor.forClass(PlagiarismJobDTO.class);
+        verify(messagingTemplate, atLeastOnce()).convertAndSend(eq("/topic/plagiarism-jobs/assignments/5"),
+                events.capture());
+        assertEquals(List.of("WAITING", "ANALYZING", "SAVING_REPORT", "DONE"), events.getAllValues().stream()
+                .map(event -> event.getStage() != null ? event.getStage() : "DONE").toList());
+    }
+
+    @Test
+    void submit_ShouldReuseRunningJob_ForTheSameSubmissions() {
+        CompletableFuture<Map<String, Object>> detection = new CompletableFuture<>();
+        when(plagiarismService.detect(eq(DETECTION), any())).thenReturn(detection);
+
+        PlagiarismJobDTO first = jobService.submit(DETECTION);
+        PlagiarismJobDTO second = jobService.submit(DETECTION);
+
+        assertEquals(first.getId(), second.getId());
+        verify(plagiarismService, times(1)).detect(eq(DETECTION), any());
+
+        detection.completeExceptionally(new IllegalStateException("JPlag service returned an error"));
+        PlagiarismJobDTO failed = jobService.getJob(first.getId()).orElseThrow();
+        assertEquals("FAILED", failed.getStatus());
+        assertEquals(500, failed.getErrorStatus());
+        // Terminado el trabajo, una nueva petición lanza otra detección
+        jobService.submit(DETECTION);
+        verify(plagiarismService, times(2)).detect(eq(DETECTION), any());
+    }
+}
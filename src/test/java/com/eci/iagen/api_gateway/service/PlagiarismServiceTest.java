@@ -0,0 +1,186 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.ResponseEntity;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.eci.iagen.api_gateway.client.JPlagServiceClient;
+import com.eci.iagen.api_gateway.config.IncrementalPlagiarismProperties;
+import com.eci.iagen.api_gateway.config.PlagiarismReportProperties;
+import com.eci.iagen.api_gateway.config.ShardedPlagiarismProperties;
+import com.eci.iagen.api_gateway.dto.AssignmentDTO;
+import com.eci.iagen.api_gateway.dto.SubmissionDTO;
+import com.eci.iagen.api_gateway.dto.TeamDTO;
+import com.eci.iagen.api_gateway.entity.PlagiarismReport;
+import com.eci.iagen.api_gateway.repository.AssignmentRepository;
+import com.eci.iagen.api_gateway.repository.CommitRepository;
+import com.eci.iagen.api_gateway.repository.PlagiarismReportRepository;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+class PlagiarismServiceTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final IncrementalPlagiarismProperties incrementalProperties = new IncrementalPlagiarismProperties();
+    private final PlagiarismReportProperties reportProperties = new PlagiarismReportProperties();
+    private JPlagServiceClient jplagServiceClient;
+    private AssignmentService assignmentService;
+    private TeamService teamService;
+    private SubmissionService submissionService;
+    private PlagiarismReportRepository reportRepository;
+    private CommitRepository commitRepository;
+    private PlagiarismService plagiarismService;
+
+    @BeforeEach
+    void setUp() {
+        jplagServiceClient = mock(JPlagServiceClient.class);
+        assignmentService = mock(AssignmentService.class);
+        teamService = mock(TeamService.class);
+        submissionService = mock(SubmissionService.class);
+        reportRepository = mock(PlagiarismReportRepository.class);
+        commitRepository = mock(CommitRepository.class);
+        plagiarismService = new PlagiarismService(jplagServiceClient, assignmentService, submissionService,
+                teamService, mock(UserService.class), mock(AssignmentRepository.class), reportRepository,
+                commitRepository, incrementalProperties, new ShardedPlagiarismProperties(), reportProperties,
+                objectMapper);
+        when(submissionService.getSubmissionsByAssignmentId(5L)).thenReturn(submissions());
+    }
+
+    @Test
+    void findCurrentReport_ShouldServeFromMemory_UntilSubmissionsChange() {
+        when(commitRepository.findHeadCommitsByAssignmentId(5L)).thenReturn(List.of(head(1L, "abc")));
+        PlagiarismReport stored = report(PlagiarismService.submissionsKey(submissions(), Map.of(1L, "abc")));
+        when(reportRepository.findFirstByAssignmentIdOrderByCreatedAtDesc(5L)).thenReturn(Optional.of(stored));
+
+        assertEquals(3L, plagiarismService.findCurrentReport(5L).orElseThrow().get("reportId"));
+        assertEquals(3L, plagiarismService.findCurrentReport(5L).orElseThrow().get("reportId"));
+        verify(reportRepository, times(1)).findFirstByAssignmentIdOrderByCreatedAtDesc(5L);
+
+        // Llega un commit nuevo: el informe guardado ya no corresponde a las entregas
+        when(commitRepository.findHeadCommitsByAssignmentId(5L)).thenReturn(List.of(head(1L, "def")));
+        plagiarismService.onSubmissionsChanged(new SubmissionsChangedEvent(5L));
+
+        assertTrue(plagiarismService.findCurrentReport(5L).isEmpty());
+        verify(reportRepository, times(2)).findFirstByAssignmentIdOrderByCreatedAtDesc(5L);
+    }
+
+    @Test
+    void detect_ShouldSendOnlyTheLateSubmission_AndMergeItsPairsIntoTheLastReport() throws Exception {
+        incrementalProperties.setEnabled(true);
+        List<SubmissionDTO> submissions = List.of(submission(1L), submission(2L), submission(3L), submission(4L));
+        when(submissionService.getSubmissionsByAssignmentId(5L)).thenReturn(submissions);
+        when(assignmentService.getAssignmentById(5L)).thenReturn(Optional.of(new AssignmentDTO()));
+        when(teamService.getTeamById(any())).thenAnswer(invocation -> Optional.of(
+                new TeamDTO(invocation.getArgument(0), "Team", List.of(), List.of())));
+        PlagiarismReport previous = report("previous");
+        previous.setSubmissionStatesJson(objectMapper.writeValueAsString(
+                PlagiarismService.submissionStates(submissions.subList(0, 3), Map.of())));
+        previous.setSimilaritiesJson(objectMapper.writeValueAsString(
+                List.of(pair(1L, 2L, 0.2), pair(1L, 3L, 0.6), pair(2L, 3L, 0.1))));
+        when(reportRepository.findFirstByAssignmentIdOrderByCreatedAtDesc(5L)).thenReturn(Optional.of(previous));
+        // El servicio devuelve también un par entre entregas antiguas, que se descarta
+        when(jplagServiceClient.detectPlagiarismNonBlocking(any())).thenReturn(CompletableFuture.completedFuture(
+                ResponseEntity.ok(Map.of("comparisons", List.of(pair(4L, 1L, 0.9), pair(2L, 4L, 0.3),
+                        pair(3L, 4L, 0.0), pair(1L, 2L, 0.5))))));
+
+        PlagiarismService.Detection detection = plagiarismService.prepareDetection(5L);
+        Map<String, Object> result = plagiarismService.detect(detection).join();
+
+        assertEquals(List.of(4L), submissionIds(detection.request().get("submissions")));
+        assertEquals(List.of(1L, 2L, 3L), submissionIds(detection.request().get("previousSubmissions")));
+        assertEquals(List.of(0.9, 0.6, 0.3, 0.2, 0.1, 0.0), ((List<?>) result.get("similarities")).stream()
+                .map(comparison -> ((Map<?, ?>) comparison).get("similarity")).toList());
+        assertEquals(6, ((Map<?, ?>) result.get("statistics")).get("totalComparisons"));
+    }
+
+    @Test
+    void saveReport_ShouldDeleteSupersededReports_AndKeepOnlyTheNewestPerAssignment() {
+        reportProperties.setKeepPerAssignment(2);
+        when(reportRepository.save(any(PlagiarismReport.class))).thenAnswer(invocation -> {
+            PlagiarismReport saved = invocation.getArgument(0);
+            saved.setId(9L);
+            return saved;
+        });
+        when(reportRepository.deleteSuperseded(5L, "key", 9L)).thenReturn(1);
+        when(reportRepository.findIdsByAssignmentIdNewestFirst(5L)).thenReturn(List.of(9L, 7L, 4L, 2L));
+
+        Map<String, Object> saved = plagiarismService.saveReport(
+                new PlagiarismService.Detection(5L, 2, "key", Map.of(), Map.of(), null),
+                Map.of("success", true, "similarities", List.of()));
+
+        assertEquals(9L, saved.get("reportId"));
+        verify(reportRepository).deleteSuperseded(5L, "key", 9L);
+        verify(reportRepository).deleteAllByIdInBatch(List.of(4L, 2L));
+    }
+
+    @Test
+    void submissionsKey_ShouldDependOnRepositoriesAndHeadCommits_NotOnOrder() {
+        String key = PlagiarismService.submissionsKey(submissions(), Map.of());
+
+        assertEquals(key, PlagiarismService.submissionsKey(submissions().reversed(), Map.of()));
+        assertNotEquals(key, PlagiarismService.submissionsKey(submissions(), Map.of(2L, "abc")));
+        SubmissionDTO moved = submissions().get(0);
+        moved.setFileUrl("https://github.com/team/other");
+        assertNotEquals(key, PlagiarismService.submissionsKey(List.of(moved, submissions().get(1)), Map.of()));
+    }
+
+    private static List<SubmissionDTO> submissions() {
+        return List.of(submission(1L), submission(2L));
+    }
+
+    private static SubmissionDTO submission(Long id) {
+        SubmissionDTO submission = new SubmissionDTO();
+        submission.setId(id);
+        submission.setTeamId(id);
+        submission.setFileUrl("https://github.com/team/project-" + id);
+        return submission;
+    }
+
+    private static PlagiarismReport report(String submissionsKey) {
+        PlagiarismReport report = new PlagiarismReport();
+        report.setId(3L);
+        report.setSubmissionsKey(submissionsKey);
+        report.setSubmissionCount(2);
+        report.setSuccess(true);
+        report.setSimilaritiesJson("[]");
+        return report;
+    }
+
+    private static Map<String, Object> pair(Long first, Long second, double similarity) {
+        return Map.of(JPlagServiceClient.FIRST_SUBMISSION, first, JPlagServiceClient.SECOND_SUBMISSION, second,
+                "similarity", similarity);
+    }
+
+    private static List<Long> submissionIds(Object jplagSubmissions) {
+        return ((List<?>) jplagSubmissions).stream()
+                .map(submission -> (Long) ((Map<?, ?>) submission).get("submissionId"))
+                .toList();
+    }
+
+    private static CommitRepository.HeadCommit head(Long submissionId, String sha) {
+        return new CommitRepository.HeadCommit() {
+            @Override
+            public Long getSubmissionId() {
+                return submissionId;
+            }
+
+            @Override
+            public String getSha() {
+                return sha;
+            }
+        };
+    }
+}
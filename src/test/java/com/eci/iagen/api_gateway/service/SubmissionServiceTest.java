@@ -0,0 +1,90 @@
+package com.eci.iagen.api_gateway.service;
+
+import java.util.Optional;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.InOrder;
+import org.springframework.context.ApplicationEventPublisher;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.inOrder;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.eci.iagen.api_gateway.dto.SubmissionDTO;
+import com.eci.iagen.api_gateway.entity.Assignment;
+import com.eci.iagen.api_gateway.entity.Submission;
+import com.eci.iagen.api_gateway.entity.Team;
+import com.eci.iagen.api_gateway.repository.AssignmentRepository;
+import com.eci.iagen.api_gateway.repository.CommitRepository;
+import com.eci.iagen.api_gateway.repository.SubmissionRepository;
+import com.eci.iagen.api_gateway.repository.TeamRepository;
+
+class SubmissionServiceTest {
+
+    private SubmissionRepository submissionRepository;
+    private CommitRepository commitRepository;
+    private ApplicationEventPublisher eventPublisher;
+    private SubmissionService submissionService;
+    private Submission submission;
+
+    @BeforeEach
+    void setUp() {
+        submissionRepository = mock(SubmissionRepository.class);
+        commitRepository = mock(CommitRepository.class);
+        eventPublisher = mock(ApplicationEventPublisher.class);
+        submissionService = new SubmissionService(submissionRepository, mock(AssignmentRepository.class),
+                mock(TeamRepository.class), commitRepository, eventPublisher);
+
+        Assignment assignment = new Assignment();
+        assignment.setId(5L);
+        Team team = new Team();
+        team.setId(2L);
+        submission = new Submission();
+        submission.setId(7L);
+        submission.setAssignment(assignment);
+        submission.setTeam(team);
+        submission.setFileUrl("https://github.com/team/project");
+        when(submissionRepository.findById(7L)).thenReturn(Optional.of(submission));
+        when(submissionRepository.save(any(Submission.class))).thenAnswer(invocation -> invocation.getArgument(0));
+    }
+
+    @Test
+    void updateSubmission_ShouldDropStoredCommits_WhenRepositoryChanges() {
+        SubmissionDTO update = new SubmissionDTO();
+        update.setFileUrl("https://github.com/team/other");
+
+        assertEquals("https://github.com/team/other",
+                submissionService.updateSubmission(7L, update).orElseThrow().getFileUrl());
+        verify(commitRepository).deleteBySubmissionId(7L);
+        verify(eventPublisher).publishEvent(new SubmissionsChangedEvent(5L));
+    }
+
+    @Test
+    void updateSubmission_ShouldKeepStoredCommits_WhenRepositoryIsUnchanged() {
+        SubmissionDTO update = new SubmissionDTO();
+        update.setFileUrl("https://github.com/team/project");
+
+        submissionService.updateSubmission(7L, update);
+
+        verify(commitRepository, never()).deleteBySubmissionId(any());
+        verify(eventPublisher, never()).publishEvent(any());
+    }
+
+    @Test
+    void deleteSubmission_ShouldDeleteItsCommitsFirst() {
+        when(commitRepository.deleteBySubmissionId(7L)).thenReturn(3);
+
+        assertTrue(submissionService.deleteSubmission(7L));
+
+        InOrder order = inOrder(commitRepository, submissionRepository);
+        order.verify(commitRepository).deleteBySubmissionId(7L);
+        order.verify(submissionRepository).delete(submission);
+        verify(eventPublisher).publishEvent(new SubmissionsChangedEvent(5L));
+    }
+}